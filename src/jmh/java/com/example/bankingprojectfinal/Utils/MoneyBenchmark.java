@@ -0,0 +1,90 @@
+package com.example.bankingprojectfinal.Utils;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The balance, minimum-balance and daily-limit checks of a transfer, written once with BigDecimal and once
+ * with {@link Money}. Run with {@code ./gradlew jmh}; the gc profiler prints {@code gc.alloc.rate.norm}
+ * (bytes allocated per check) for each variant.
+ * <p>
+ * The "FromEntity" variants include the BigDecimal-to-Money conversion of the balance that the services do at
+ * the JPA boundary; the others measure the checks alone with values already in minor units.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+    // The default limits (banking.limits.*); LimitProperties is only populated inside the application context
+    private static final BigDecimal MIN_ACCEPTABLE_BALANCE = new BigDecimal("50.00");
+    private static final BigDecimal DAILY_LIMIT = new BigDecimal("1000.00");
+    private static final Money MIN_ACCEPTABLE_BALANCE_MONEY = Money.of(MIN_ACCEPTABLE_BALANCE);
+    private static final Money DAILY_LIMIT_MONEY = Money.of(DAILY_LIMIT);
+
+    private BigDecimal balance;
+    private BigDecimal amount;
+    private BigDecimal dailyTotal;
+
+    private Money balanceMoney;
+    private Money amountMoney;
+    private Money dailyTotalMoney;
+
+    @Setup
+    public void setUp() {
+        balance = new BigDecimal("1520.75");
+        amount = new BigDecimal("120.50");
+        dailyTotal = new BigDecimal("310.00");
+
+        balanceMoney = Money.of(balance);
+        amountMoney = Money.of(amount);
+        dailyTotalMoney = Money.of(dailyTotal);
+    }
+
+    @Benchmark
+    public void bigDecimalChecks(Blackhole blackhole) {
+        boolean enoughFunds = balance.compareTo(amount) >= 0;
+        boolean aboveMinimum = balance.subtract(amount).compareTo(MIN_ACCEPTABLE_BALANCE) >= 0;
+        boolean withinDailyLimit = dailyTotal.add(amount).compareTo(DAILY_LIMIT) <= 0;
+        blackhole.consume(enoughFunds && aboveMinimum && withinDailyLimit);
+    }
+
+    @Benchmark
+    public void moneyChecks(Blackhole blackhole) {
+        boolean enoughFunds = !balanceMoney.isLessThan(amountMoney);
+        boolean aboveMinimum = !balanceMoney.minus(amountMoney).isLessThan(MIN_ACCEPTABLE_BALANCE_MONEY);
+        boolean withinDailyLimit = !dailyTotalMoney.plus(amountMoney).isGreaterThan(DAILY_LIMIT_MONEY);
+        blackhole.consume(enoughFunds && aboveMinimum && withinDailyLimit);
+    }
+
+    @Benchmark
+    public void moneyChecksFromEntity(Blackhole blackhole) {
+        Money current = Money.of(balance);
+        Money requested = Money.of(amount);
+        boolean enoughFunds = !current.isLessThan(requested);
+        boolean aboveMinimum = !current.minus(requested).isLessThan(MIN_ACCEPTABLE_BALANCE_MONEY);
+        boolean withinDailyLimit = !dailyTotalMoney.plus(requested).isGreaterThan(DAILY_LIMIT_MONEY);
+        blackhole.consume(enoughFunds && aboveMinimum && withinDailyLimit);
+    }
+
+    // The running daily total of a 100-item batch transfer
+    @Benchmark
+    public BigDecimal bigDecimalBatchTotal() {
+        BigDecimal total = dailyTotal;
+        for (int i = 0; i < 100; i++) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long moneyBatchTotal() {
+        Money total = dailyTotalMoney;
+        for (int i = 0; i < 100; i++) {
+            total = total.plus(amountMoney);
+        }
+        return total.minorUnits();
+    }
+}
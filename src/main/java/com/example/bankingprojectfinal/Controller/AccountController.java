@@ -2,6 +2,7 @@ package com.example.bankingprojectfinal.Controller;
 
 import com.example.bankingprojectfinal.DTOS.Account.AccountCreateResponse;
 import com.example.bankingprojectfinal.DTOS.Account.AccountResponse;
+import com.example.bankingprojectfinal.DTOS.Account.CounterpartyGraphResponse;
 import com.example.bankingprojectfinal.Service.Abstraction.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -169,4 +170,40 @@ public class AccountController {
     ) {
         return accountService.createAccount(customerId);
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "Switch hot account mode (Admin)",
+            description = "Hot accounts receive credits on sharded sub-balances, so many concurrent payers do not queue on one row")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hot account mode updated"),
+            @ApiResponse(responseCode = "403", description = "Access denied - ADMIN role required"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PutMapping("/admin/{accountNumber}/hot")
+    @PreAuthorize("hasRole('ADMIN')")
+    public AccountResponse setHotAccount(
+            @Parameter(description = "Account number", required = true)
+            @PathVariable String accountNumber,
+            @Parameter(description = "true to enable sharded credits, false to disable", required = true, example = "true")
+            @RequestParam boolean enabled
+    ) {
+        return accountService.setHotAccount(accountNumber, enabled);
+    }
+
+    @Operation(summary = "Get the counterparty graph of an account (Admin)",
+            description = "Senders and receivers of the last days, fan-in/fan-out scores and short payment cycles, for mule account checks")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the counterparty graph"),
+            @ApiResponse(responseCode = "403", description = "Access denied - ADMIN role required"),
+            @ApiResponse(responseCode = "404", description = "Account not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/admin/{accountNumber}/counterparties")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CounterpartyGraphResponse getCounterpartyGraph(
+            @Parameter(description = "Account number", required = true)
+            @PathVariable String accountNumber
+    ) {
+        return accountService.getCounterpartyGraph(accountNumber);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.bankingprojectfinal.Controller;
+
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementJobDto;
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementLineDto;
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementRequest;
+import com.example.bankingprojectfinal.Model.Enums.DisbursementLineStatus;
+import com.example.bankingprojectfinal.Service.Abstraction.DisbursementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/v1/disbursements")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Disbursement Management", description = "APIs for bulk payouts (e.g., payroll) from one debit card to many cards")
+public class DisbursementController {
+
+    private final DisbursementService disbursementService;
+
+    // ==================== ADMIN ENDPOINTS ====================
+
+    @Operation(summary = "Create a disbursement job from a JSON list",
+            description = "Validates every line, debits the total once and credits the lines in the background. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job accepted; poll it for progress"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data or debit card/account not usable"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "403", description = "User not authorized"),
+            @ApiResponse(responseCode = "404", description = "Debit card not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public DisbursementJobDto createDisbursement(@Valid @RequestBody DisbursementRequest request) {
+        log.info("Received disbursement request from card {} with {} lines",
+                request.getDebitCardNumber(), request.getLines().size());
+        return disbursementService.createDisbursement(request);
+    }
+
+    @Operation(summary = "Create a disbursement job from a CSV file",
+            description = "CSV rows are 'cardNumber,amount'; an optional header row is skipped. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job accepted; poll it for progress"),
+            @ApiResponse(responseCode = "400", description = "Unreadable file or debit card/account not usable"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "403", description = "User not authorized"),
+            @ApiResponse(responseCode = "404", description = "Debit card not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public DisbursementJobDto uploadDisbursement(
+            @Parameter(description = "Card to debit", required = true)
+            @RequestParam String debitCardNumber,
+            @Parameter(description = "Free text shown on the job")
+            @RequestParam(required = false) String description,
+            @Parameter(description = "CSV file with one 'cardNumber,amount' row per credit", required = true)
+            @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        log.info("Received disbursement file {} ({} bytes) from card {}", file.getOriginalFilename(), file.getSize(), debitCardNumber);
+        return disbursementService.createDisbursementFromCsv(debitCardNumber, description, file.getInputStream());
+    }
+
+    @Operation(summary = "Get disbursement job progress", description = "Status, line counts and amounts of a job. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved job"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "403", description = "User not authorized"),
+            @ApiResponse(responseCode = "404", description = "Job not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public DisbursementJobDto getDisbursement(
+            @Parameter(description = "Disbursement job ID", required = true)
+            @PathVariable Long jobId
+    ) {
+        return disbursementService.getDisbursement(jobId);
+    }
+
+    @Operation(summary = "Get per-line results of a disbursement job", description = "Paged, optionally filtered by line status. Admin only.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved lines"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "403", description = "User not authorized"),
+            @ApiResponse(responseCode = "404", description = "Job not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{jobId}/lines")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Page<DisbursementLineDto> getDisbursementLines(
+            @Parameter(description = "Disbursement job ID", required = true)
+            @PathVariable Long jobId,
+            @Parameter(description = "Only lines with this status")
+            @RequestParam(required = false) DisbursementLineStatus status,
+            @Parameter(description = "Page number (0-indexed)", example = "0")
+            @RequestParam(defaultValue = "0", required = false) Integer page,
+            @Parameter(description = "Number of items per page", example = "50")
+            @RequestParam(defaultValue = "50", required = false) Integer size
+    ) {
+        return disbursementService.getDisbursementLines(jobId, status, page, size);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.bankingprojectfinal.Controller;
+
+import com.example.bankingprojectfinal.DTOS.Hold.AuthorizeHoldRequest;
+import com.example.bankingprojectfinal.DTOS.Hold.CaptureHoldRequest;
+import com.example.bankingprojectfinal.DTOS.Hold.HoldDto;
+import com.example.bankingprojectfinal.Service.Abstraction.HoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/holds")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Authorization Holds", description = "APIs for reserving funds and later capturing or releasing them")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    // ==================== CUSTOMER ENDPOINTS ====================
+
+    @Operation(summary = "Authorize a payment",
+            description = "Reserves the amount on the debit card's account without posting a transaction; the hold expires after its TTL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Hold created"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data, insufficient funds or limit exceeded"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Debit or credit card not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    @ResponseStatus(HttpStatus.CREATED)
+    public HoldDto authorize(@Valid @RequestBody AuthorizeHoldRequest request) {
+        log.info("Received hold request: DebitCard={}, CreditCard={}, Amount={}, TTL={}",
+                request.getDebitCardNumber(), request.getCreditCardNumber(), request.getAmount(), request.getTtlSeconds());
+        return holdService.authorize(request);
+    }
+
+    @Operation(summary = "Capture a hold", description = "Posts up to the held amount to the credit card and releases the rest")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold captured"),
+            @ApiResponse(responseCode = "400", description = "Invalid amount or hold no longer active"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Hold not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/{holdId}/capture")
+    @PreAuthorize("hasRole('USER')")
+    public HoldDto capture(
+            @Parameter(description = "ID of the hold", required = true, example = "1")
+            @PathVariable Long holdId,
+            @Valid @RequestBody(required = false) CaptureHoldRequest request
+    ) {
+        log.info("Received capture request for hold {}", holdId);
+        return holdService.capture(holdId, request != null ? request.getAmount() : null);
+    }
+
+    @Operation(summary = "Void a hold", description = "Releases the reserved funds without posting a transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold voided"),
+            @ApiResponse(responseCode = "400", description = "Hold no longer active"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Hold not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/{holdId}/void")
+    @PreAuthorize("hasRole('USER')")
+    public HoldDto voidHold(
+            @Parameter(description = "ID of the hold", required = true, example = "1")
+            @PathVariable Long holdId
+    ) {
+        log.info("Received void request for hold {}", holdId);
+        return holdService.voidHold(holdId);
+    }
+
+    @Operation(summary = "Get a hold")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the hold"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Hold not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{holdId}")
+    @PreAuthorize("hasRole('USER')")
+    public HoldDto getHold(
+            @Parameter(description = "ID of the hold", required = true, example = "1")
+            @PathVariable Long holdId
+    ) {
+        return holdService.getHold(holdId);
+    }
+
+    @Operation(summary = "Get my holds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of holds"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/my-holds")
+    @PreAuthorize("hasRole('USER')")
+    public Page<HoldDto> getMyHolds(
+            @Parameter(description = "Page number (0-indexed)", example = "0")
+            @RequestParam(defaultValue = "0", required = false) Integer page,
+            @Parameter(description = "Number of items per page", example = "10")
+            @RequestParam(defaultValue = "10", required = false) Integer size
+    ) {
+        log.info("Fetching holds for current user (Page: {}, Size: {})", page, size);
+        return holdService.getHoldsByCurrentUser(page, size);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.bankingprojectfinal.Controller;
+
+import com.example.bankingprojectfinal.DTOS.Limit.CustomerLimitsDto;
+import com.example.bankingprojectfinal.DTOS.Limit.LimitRuleDto;
+import com.example.bankingprojectfinal.DTOS.Limit.LimitRuleRequest;
+import com.example.bankingprojectfinal.Service.Abstraction.LimitRuleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/limits")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Limit Management", description = "APIs for overriding account, card and transaction limits per segment or customer")
+public class LimitRuleController {
+
+    private final LimitRuleService limitRuleService;
+
+    // ==================== ADMIN ENDPOINTS ====================
+
+    @Operation(summary = "Set a limit rule (Admin)",
+            description = "Overrides one limit for a customer segment (customer status) or a single customer; customer rules win over segment rules")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rule created or updated"),
+            @ApiResponse(responseCode = "400", description = "Invalid rule"),
+            @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PutMapping("/admin/rules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public LimitRuleDto setRule(@Valid @RequestBody LimitRuleRequest request) {
+        log.info("Received limit rule: Segment={}, Customer={}, Type={}, Value={}",
+                request.getSegment(), request.getCustomerId(), request.getLimitType(), request.getValue());
+        return limitRuleService.setRule(request);
+    }
+
+    @Operation(summary = "Delete a limit rule (Admin)", description = "The limit falls back to the segment rule or the default")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Rule deleted"),
+            @ApiResponse(responseCode = "404", description = "Rule not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @DeleteMapping("/admin/rules/{ruleId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteRule(
+            @Parameter(description = "ID of the limit rule", required = true, example = "1")
+            @PathVariable Long ruleId
+    ) {
+        limitRuleService.deleteRule(ruleId);
+    }
+
+    @Operation(summary = "Get all limit rules (Admin)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved limit rules"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/admin/rules")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<LimitRuleDto> getRules() {
+        return limitRuleService.getRules();
+    }
+
+    @Operation(summary = "Get the limits in effect for a customer (Admin)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved customer limits"),
+            @ApiResponse(responseCode = "404", description = "Customer not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/admin/customers/{customerId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CustomerLimitsDto getCustomerLimits(
+            @Parameter(description = "ID of the customer", required = true, example = "1")
+            @PathVariable Integer customerId
+    ) {
+        return limitRuleService.getCustomerLimits(customerId);
+    }
+}
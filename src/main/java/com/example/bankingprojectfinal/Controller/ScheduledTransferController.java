@@ -0,0 +1,101 @@
+package com.example.bankingprojectfinal.Controller;
+
+import com.example.bankingprojectfinal.DTOS.ScheduledTransfer.CreateScheduledTransferRequest;
+import com.example.bankingprojectfinal.DTOS.ScheduledTransfer.ScheduledTransferDto;
+import com.example.bankingprojectfinal.Service.Abstraction.ScheduledTransferService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/scheduled-transfers")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Scheduled Transfers", description = "APIs for standing orders and future-dated transfers")
+public class ScheduledTransferController {
+
+    private final ScheduledTransferService scheduledTransferService;
+
+    // ==================== CUSTOMER ENDPOINTS ====================
+
+    @Operation(summary = "Create a standing order or a future-dated transfer",
+            description = "Each execution is validated like a card-to-card transfer made at that moment")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Scheduled transfer created"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "403", description = "Cannot transfer from another's card"),
+            @ApiResponse(responseCode = "404", description = "Debit or credit card not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ScheduledTransferDto createScheduledTransfer(@Valid @RequestBody CreateScheduledTransferRequest request) {
+        log.info("Received scheduled transfer request: DebitCard={}, CreditCard={}, Amount={}, Frequency={}, StartAt={}",
+                request.getDebitCardNumber(), request.getCreditCardNumber(), request.getAmount(),
+                request.getFrequency(), request.getStartAt());
+        return scheduledTransferService.createScheduledTransfer(request);
+    }
+
+    @Operation(summary = "Get my scheduled transfers")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of scheduled transfers"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/my-scheduled-transfers")
+    @PreAuthorize("hasRole('USER')")
+    public Page<ScheduledTransferDto> getMyScheduledTransfers(
+            @Parameter(description = "Page number (0-indexed)", example = "0")
+            @RequestParam(defaultValue = "0", required = false) Integer page,
+            @Parameter(description = "Number of items per page", example = "10")
+            @RequestParam(defaultValue = "10", required = false) Integer size
+    ) {
+        log.info("Fetching scheduled transfers for current user (Page: {}, Size: {})", page, size);
+        return scheduledTransferService.getScheduledTransfersByCurrentUser(page, size);
+    }
+
+    @Operation(summary = "Get a scheduled transfer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the scheduled transfer"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Scheduled transfer not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{scheduledTransferId}")
+    @PreAuthorize("hasRole('USER')")
+    public ScheduledTransferDto getScheduledTransfer(
+            @Parameter(description = "ID of the scheduled transfer", required = true, example = "1")
+            @PathVariable Long scheduledTransferId
+    ) {
+        return scheduledTransferService.getScheduledTransfer(scheduledTransferId);
+    }
+
+    @Operation(summary = "Cancel a scheduled transfer")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Scheduled transfer cancelled"),
+            @ApiResponse(responseCode = "400", description = "Scheduled transfer is not active"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Scheduled transfer not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @DeleteMapping("/{scheduledTransferId}")
+    @PreAuthorize("hasRole('USER')")
+    public ScheduledTransferDto cancelScheduledTransfer(
+            @Parameter(description = "ID of the scheduled transfer", required = true, example = "1")
+            @PathVariable Long scheduledTransferId
+    ) {
+        log.info("Cancelling scheduled transfer {}", scheduledTransferId);
+        return scheduledTransferService.cancelScheduledTransfer(scheduledTransferId);
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.bankingprojectfinal.Controller;
 
+import com.example.bankingprojectfinal.DTOS.Transaction.BatchTransferRequest;
+import com.example.bankingprojectfinal.DTOS.Transaction.BatchTransferResponse;
 import com.example.bankingprojectfinal.DTOS.Transaction.TransactionDto;
 import com.example.bankingprojectfinal.DTOS.Transaction.TransferRequest;
 import com.example.bankingprojectfinal.Service.Abstraction.TransactionService;
+import com.example.bankingprojectfinal.config.AsyncTransferProperties;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,8 +16,17 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/transactions")
@@ -24,12 +36,16 @@ import org.springframework.web.bind.annotation.*;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final AsyncTransferProperties asyncTransferProperties;
 
     // ==================== CUSTOMER ENDPOINTS ====================
 
-    @Operation(summary = "Initiate card-to-card transfer")
+    @Operation(summary = "Initiate card-to-card transfer",
+            description = "With async=true the transfer is validated, stored as PENDING and completed in the background; " +
+                    "follow it with GET /{transactionId} or GET /{transactionId}/events")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Transaction initiated successfully"),
+            @ApiResponse(responseCode = "202", description = "Transaction accepted for asynchronous processing"),
             @ApiResponse(responseCode = "400", description = "Invalid request data or business rule violation"),
             @ApiResponse(responseCode = "401", description = "User not authenticated"),
             @ApiResponse(responseCode = "403", description = "Cannot transfer from another's card"),
@@ -38,18 +54,58 @@ public class TransactionController {
     })
     @PostMapping("/transfer")
     @PreAuthorize("hasRole('USER')")
-    @ResponseStatus(HttpStatus.CREATED)
-    public TransactionDto initiateTransfer(@Valid @RequestBody TransferRequest request) {
-        log.info("Received transfer request: DebitCard={}, CreditCard={}, Amount={}",
-                request.getDebitCardNumber(), request.getCreditCardNumber(), request.getAmount());
+    public ResponseEntity<TransactionDto> initiateTransfer(
+            @Parameter(description = "Client-generated key; retries with the same key return the original result instead of transferring again")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Parameter(description = "Complete the transfer in the background and answer 202 with the PENDING transaction")
+            @RequestParam(defaultValue = "false", required = false) boolean async,
+            @Valid @RequestBody TransferRequest request
+    ) {
+        log.info("Received transfer request: DebitCard={}, CreditCard={}, Amount={}, IdempotencyKey={}, Async={}",
+                request.getDebitCardNumber(), request.getCreditCardNumber(), request.getAmount(), idempotencyKey, async);
+
+        if (async) {
+            TransactionDto pending = transactionService.submitTransfer(
+                    request.getDebitCardNumber(),
+                    request.getCreditCardNumber(),
+                    request.getAmount(),
+                    idempotencyKey
+            );
+            log.info("Transfer accepted with transaction ID: {}", pending.getTransactionId());
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/v1/transactions/{transactionId}")
+                    .buildAndExpand(pending.getTransactionId())
+                    .toUri();
+            return ResponseEntity.accepted().location(location).body(pending);
+        }
 
         TransactionDto result = transactionService.transfer(
                 request.getDebitCardNumber(),
                 request.getCreditCardNumber(),
-                request.getAmount()
+                request.getAmount(),
+                idempotencyKey
         );
 
         log.info("Transfer completed with transaction ID: {}", result.getTransactionId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    @Operation(summary = "Initiate a batch of card-to-card transfers",
+            description = "Transfers are applied in order in one database transaction; each item succeeds or fails on its own")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see per-item results"),
+            @ApiResponse(responseCode = "400", description = "Invalid request data"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/transfer/batch")
+    @PreAuthorize("hasRole('USER')")
+    public BatchTransferResponse initiateBatchTransfer(@Valid @RequestBody BatchTransferRequest request) {
+        log.info("Received batch transfer request with {} transfers", request.getTransfers().size());
+
+        BatchTransferResponse result = transactionService.transferBatch(request.getTransfers());
+
+        log.info("Batch transfer finished: {} succeeded, {} failed", result.getSucceeded(), result.getFailed());
         return result;
     }
 
@@ -71,6 +127,64 @@ public class TransactionController {
         return transactionService.getTransactionsByCurrentUser(page, size);
     }
 
+    @Operation(summary = "Get a transaction by ID",
+            description = "Customers can read transactions on their own accounts; admins can read any transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the transaction"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Transaction not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/{transactionId}")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public TransactionDto getTransaction(
+            @Parameter(description = "ID of the transaction", required = true)
+            @PathVariable UUID transactionId
+    ) {
+        log.info("Fetching transaction {}", transactionId);
+        return transactionService.getTransactionById(transactionId);
+    }
+
+    @Operation(summary = "Wait for a transaction to complete",
+            description = "Server-sent events stream that emits one 'transaction' event with the final state and closes. " +
+                    "If the stream times out first, poll GET /{transactionId} instead")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "401", description = "User not authenticated"),
+            @ApiResponse(responseCode = "404", description = "Transaction not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/{transactionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    public SseEmitter subscribeToTransaction(
+            @Parameter(description = "ID of the transaction", required = true)
+            @PathVariable UUID transactionId
+    ) {
+        log.info("Subscribing to completion of transaction {}", transactionId);
+        CompletableFuture<TransactionDto> completion = transactionService.awaitCompletion(transactionId);
+        SseEmitter emitter = new SseEmitter(asyncTransferProperties.getSseTimeoutMs());
+        // A client that times out or disconnects stops waiting, so its future is not kept until the transfer ends
+        emitter.onTimeout(() -> completion.cancel(false));
+        emitter.onError(error -> completion.cancel(false));
+        emitter.onCompletion(() -> completion.cancel(false));
+        completion.whenComplete((transaction, error) -> {
+            if (completion.isCancelled()) {
+                return; // The stream has already ended
+            }
+            if (error != null) {
+                emitter.completeWithError(error);
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("transaction").data(transaction));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
     // ==================== ADMIN ENDPOINTS ====================
 
     @Operation(summary = "Get all transactions (Admin)")
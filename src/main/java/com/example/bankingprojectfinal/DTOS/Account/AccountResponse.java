@@ -16,6 +16,7 @@ public class AccountResponse {
     LocalDate openingDate;
     LocalDate expireDate;
     AccountStatus status;
+    Boolean hotAccount;
     // Note: 'success' and 'message' are typically for creation/update responses,
     // not general read responses. So, I've kept this as a standard 'read' DTO.
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.example.bankingprojectfinal.DTOS.Account;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder
+@Data
+public class CounterpartyGraphResponse {
+    String accountNumber;
+    // Distinct senders and receivers within the window
+    Integer fanIn;
+    Integer fanOut;
+    BigDecimal weightedInflow;
+    BigDecimal weightedOutflow;
+    // 1 when as much leaves the account as arrives
+    Double passThroughRatio;
+    List<CounterpartyResponse> senders;
+    List<CounterpartyResponse> receivers;
+    // Account numbers in the direction money moved, starting with this account
+    List<List<String>> shortCycles;
+}
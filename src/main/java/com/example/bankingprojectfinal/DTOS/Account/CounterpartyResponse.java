@@ -0,0 +1,16 @@
+package com.example.bankingprojectfinal.DTOS.Account;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+public class CounterpartyResponse {
+    String accountNumber;
+    // Amount sent along the edge, decayed with the graph's half-life
+    BigDecimal weightedAmount;
+    LocalDateTime lastTransferAt;
+}
@@ -0,0 +1,39 @@
+package com.example.bankingprojectfinal.DTOS.Disbursement;
+
+import com.example.bankingprojectfinal.Model.Enums.DisbursementStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DisbursementJobDto {
+    Long jobId;
+    String debitAccountNumber;
+    String debitCardNumber;
+    String description;
+    DisbursementStatus status;
+
+    // Line counts by outcome; pendingLines reaches 0 when the job is done
+    int totalLines;
+    int acceptedLines;
+    int rejectedLines;
+    int pendingLines;
+    int completedLines;
+    int failedLines;
+
+    BigDecimal totalAmount;     // Debited for the accepted lines
+    BigDecimal disbursedAmount; // Credited so far
+    BigDecimal refundedAmount;  // Returned for failed lines
+
+    String failureReason;
+    String createdBy;
+    LocalDateTime createdAt;
+    LocalDateTime startedAt;
+    LocalDateTime completedAt;
+}
@@ -0,0 +1,23 @@
+package com.example.bankingprojectfinal.DTOS.Disbursement;
+
+import com.example.bankingprojectfinal.Model.Enums.DisbursementLineStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DisbursementLineDto {
+    Integer lineNumber;
+    String creditCardNumber;
+    BigDecimal amount;
+    DisbursementLineStatus status;
+    String message;         // Reason for REJECTED / FAILED
+    String transactionId;   // Set once the line is credited
+    LocalDateTime processedAt;
+}
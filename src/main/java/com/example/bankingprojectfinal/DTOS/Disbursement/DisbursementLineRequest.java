@@ -0,0 +1,23 @@
+package com.example.bankingprojectfinal.DTOS.Disbursement;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Not bean-validated on purpose: a bad line is reported as REJECTED instead of failing the whole job
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One credit of a disbursement")
+public class DisbursementLineRequest {
+    @Schema(description = "16-digit card to credit", example = "4000123412341234")
+    private String creditCardNumber;
+
+    @Schema(description = "Amount to credit", example = "2500.00")
+    private BigDecimal amount;
+}
@@ -0,0 +1,28 @@
+package com.example.bankingprojectfinal.DTOS.Disbursement;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request DTO for a bulk disbursement (e.g., payroll) from one debit card")
+public class DisbursementRequest {
+
+    @NotBlank(message = "Debit card number cannot be empty")
+    private String debitCardNumber;
+
+    @Schema(description = "Free text shown on the job, e.g. 'Payroll October'")
+    private String description;
+
+    @NotEmpty(message = "Disbursement must contain at least one line")
+    private List<DisbursementLineRequest> lines;
+}
@@ -0,0 +1,37 @@
+package com.example.bankingprojectfinal.DTOS.Hold;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request DTO for reserving funds on a card until the payment is captured")
+public class AuthorizeHoldRequest {
+
+    @NotBlank(message = "Debit card number cannot be empty")
+    private String debitCardNumber;
+
+    @NotBlank(message = "Credit card number cannot be empty")
+    @Schema(description = "Card that receives the funds on capture")
+    private String creditCardNumber;
+
+    @NotNull(message = "Amount cannot be null")
+    @DecimalMin(value = "0.01", inclusive = true, message = "Amount must be greater than zero")
+    @Schema(description = "The amount to reserve", example = "100.50")
+    private BigDecimal amount;
+
+    @Positive(message = "TTL must be positive")
+    @Schema(description = "Seconds until the hold expires; the configured default is used when omitted", example = "900")
+    private Long ttlSeconds;
+}
@@ -0,0 +1,22 @@
+package com.example.bankingprojectfinal.DTOS.Hold;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request DTO for capturing an authorization hold")
+public class CaptureHoldRequest {
+
+    @DecimalMin(value = "0.01", inclusive = true, message = "Amount must be greater than zero")
+    @Schema(description = "Amount to post, at most the held amount; the full hold is captured when omitted", example = "80.00")
+    private BigDecimal amount;
+}
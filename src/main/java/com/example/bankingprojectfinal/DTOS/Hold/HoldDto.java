@@ -0,0 +1,26 @@
+package com.example.bankingprojectfinal.DTOS.Hold;
+
+import com.example.bankingprojectfinal.Model.Enums.HoldStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HoldDto {
+    Long holdId;
+    String debitAccountNumber;
+    String creditAccountNumber;
+    BigDecimal amount;
+    BigDecimal capturedAmount;
+    HoldStatus status;
+    String transactionId;   // Set once the hold is captured
+    LocalDateTime createdAt;
+    LocalDateTime expiresAt;
+    LocalDateTime completedAt;
+}
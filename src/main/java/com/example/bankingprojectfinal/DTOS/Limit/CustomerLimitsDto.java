@@ -0,0 +1,24 @@
+package com.example.bankingprojectfinal.DTOS.Limit;
+
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+
+// The limits in effect for one customer after segment and customer overrides
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CustomerLimitsDto {
+    Integer customerId;
+    CustomerStatus segment;
+    Integer maxAccountCountPerCustomer;
+    Integer maxCardCountPerAccount;
+    BigDecimal dailyTransactionLimit;
+    BigDecimal minAcceptableAccountBalance;
+    BigDecimal monthlyTransactionSuspectLimit;
+    BigDecimal monthlyTransactionBlockedLimit;
+}
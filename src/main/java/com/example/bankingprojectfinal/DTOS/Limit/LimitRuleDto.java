@@ -0,0 +1,23 @@
+package com.example.bankingprojectfinal.DTOS.Limit;
+
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Model.Enums.LimitType;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LimitRuleDto {
+    Long id;
+    CustomerStatus segment;     // Set for segment rules
+    Integer customerId;         // Set for customer rules
+    LimitType limitType;
+    BigDecimal value;
+    LocalDateTime updatedAt;
+}
@@ -0,0 +1,35 @@
+package com.example.bankingprojectfinal.DTOS.Limit;
+
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Model.Enums.LimitType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request DTO for overriding one limit for a customer segment or a single customer")
+public class LimitRuleRequest {
+
+    @Schema(description = "Segment the rule applies to; leave empty for a customer rule", example = "SUSPECTED")
+    private CustomerStatus segment;
+
+    @Schema(description = "Customer the rule applies to; leave empty for a segment rule", example = "1")
+    private Integer customerId;
+
+    @NotNull(message = "Limit type cannot be null")
+    private LimitType limitType;
+
+    @NotNull(message = "Value cannot be null")
+    @DecimalMin(value = "0", inclusive = true, message = "Value cannot be negative")
+    @Schema(description = "New value of the limit; a whole number for count limits", example = "500.00")
+    private BigDecimal value;
+}
@@ -0,0 +1,45 @@
+package com.example.bankingprojectfinal.DTOS.ScheduledTransfer;
+
+import com.example.bankingprojectfinal.Model.Enums.ScheduledTransferFrequency;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request DTO for a standing order or a future-dated transfer")
+public class CreateScheduledTransferRequest {
+
+    @NotBlank(message = "Debit card number cannot be empty")
+    private String debitCardNumber;
+
+    @NotBlank(message = "Credit card number cannot be empty")
+    private String creditCardNumber;
+
+    @NotNull(message = "Amount cannot be null")
+    @DecimalMin(value = "0.01", inclusive = true, message = "Amount must be greater than zero")
+    @Schema(description = "The amount of every execution", example = "250.00")
+    private BigDecimal amount;
+
+    @NotNull(message = "Frequency cannot be null")
+    @Schema(description = "ONCE for a future-dated transfer, otherwise how often it repeats", example = "MONTHLY")
+    private ScheduledTransferFrequency frequency;
+
+    @NotNull(message = "Start time cannot be null")
+    @Schema(description = "First execution", example = "2026-11-01T00:00:00")
+    private LocalDateTime startAt;
+
+    @Schema(description = "Last day the order may run; runs until cancelled when omitted", example = "2027-10-31")
+    private LocalDate endDate;
+}
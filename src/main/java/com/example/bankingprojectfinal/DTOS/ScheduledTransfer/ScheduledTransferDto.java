@@ -0,0 +1,33 @@
+package com.example.bankingprojectfinal.DTOS.ScheduledTransfer;
+
+import com.example.bankingprojectfinal.Model.Enums.ScheduledTransferFrequency;
+import com.example.bankingprojectfinal.Model.Enums.ScheduledTransferStatus;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ScheduledTransferDto {
+    Long scheduledTransferId;
+    String debitCardNumber;
+    String creditCardNumber;
+    BigDecimal amount;
+    ScheduledTransferFrequency frequency;
+    ScheduledTransferStatus status;
+    LocalDateTime startAt;
+    LocalDateTime nextExecutionAt;
+    LocalDate endDate;
+    Integer executionCount;
+    Integer failureCount;
+    LocalDateTime lastExecutedAt;
+    String lastTransactionId;
+    String lastFailureReason;   // Why the last execution was skipped
+    LocalDateTime createdAt;
+}
@@ -0,0 +1,16 @@
+package com.example.bankingprojectfinal.DTOS.Transaction;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BatchTransferItemResult {
+    int index;                  // Position of the transfer in the request
+    boolean success;
+    String message;
+    TransactionDto transaction; // Null when the transfer was rejected
+}
@@ -0,0 +1,25 @@
+package com.example.bankingprojectfinal.DTOS.Transaction;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request DTO for executing many card-to-card transfers in one call")
+public class BatchTransferRequest {
+
+    // The items are not validated here: one bad item would reject the whole batch. The service checks each one and
+    // reports its failure in the item's result.
+    @NotEmpty(message = "Batch must contain at least one transfer")
+    @Size(max = 1000, message = "Batch cannot contain more than 1000 transfers")
+    private List<TransferRequest> transfers;
+}
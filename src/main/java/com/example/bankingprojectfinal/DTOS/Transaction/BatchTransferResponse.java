@@ -0,0 +1,18 @@
+package com.example.bankingprojectfinal.DTOS.Transaction;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BatchTransferResponse {
+    int total;
+    int succeeded;
+    int failed;
+    List<BatchTransferItemResult> results; // Same order as the request
+}
@@ -22,4 +22,5 @@ public class TransactionDto {
     BigDecimal amount;
     TransactionStatus status;
     TransactionType transactionType; // Added
+    String failureReason;
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.example.bankingprojectfinal.Exception;
+
+public class AsyncTransferUnavailableException extends RuntimeException {
+    public AsyncTransferUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.bankingprojectfinal.Exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
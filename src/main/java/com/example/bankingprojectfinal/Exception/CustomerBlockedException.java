@@ -0,0 +1,7 @@
+package com.example.bankingprojectfinal.Exception;
+
+public class CustomerBlockedException extends RuntimeException {
+    public CustomerBlockedException(String message) {
+        super(message);
+    }
+}
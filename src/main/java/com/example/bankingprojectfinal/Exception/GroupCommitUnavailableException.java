@@ -0,0 +1,7 @@
+package com.example.bankingprojectfinal.Exception;
+
+public class GroupCommitUnavailableException extends RuntimeException {
+    public GroupCommitUnavailableException(String message) {
+        super(message);
+    }
+}
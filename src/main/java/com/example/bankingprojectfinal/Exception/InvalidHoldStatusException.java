@@ -0,0 +1,7 @@
+package com.example.bankingprojectfinal.Exception;
+
+public class InvalidHoldStatusException extends RuntimeException {
+    public InvalidHoldStatusException(String message) {
+        super(message);
+    }
+}
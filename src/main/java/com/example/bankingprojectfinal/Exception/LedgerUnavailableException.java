@@ -0,0 +1,7 @@
+package com.example.bankingprojectfinal.Exception;
+
+public class LedgerUnavailableException extends RuntimeException {
+    public LedgerUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Credits to a hot account that have not been folded into AccountEntity.balance yet
+@Entity
+@Table(name = "account_balance_shard",
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_shard", columnNames = {"account_id", "shard_index"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceShardEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+}
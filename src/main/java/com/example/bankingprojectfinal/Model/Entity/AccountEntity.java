@@ -36,6 +36,13 @@ public class AccountEntity {
     @Enumerated(EnumType.STRING)
     private AccountStatus status;
 
+    // Bumped on every balance change so concurrent read-modify-write updates cannot overwrite each other
+    @Version
+    private Long version;
+
+    // Hot accounts take credits on sharded sub-balances (account_balance_shard) instead of this row
+    private Boolean hotAccount;
+
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CardEntity> cards;
 
@@ -0,0 +1,52 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import com.example.bankingprojectfinal.Model.Enums.HoldStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Authorization hold: reserves funds on the debit account until it is captured, voided or expires
+@Entity
+@Table(name = "account_hold",
+        indexes = @Index(name = "idx_account_hold_status", columnList = "status"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountHoldEntity {
+    // Pooled sequence ids: the id is known on persist without an immediate insert
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_hold_seq")
+    @SequenceGenerator(name = "account_hold_seq", sequenceName = "account_hold_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "debit_account_id", nullable = false)
+    private AccountEntity debitAccount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "credit_account_id", nullable = false)
+    private AccountEntity creditAccount;
+
+    private String debitCardNumber;
+    private String creditCardNumber;
+
+    private BigDecimal amount;
+    private BigDecimal capturedAmount;
+
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status;
+
+    // Transaction posted by the capture
+    private UUID transactionId;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime completedAt;
+}
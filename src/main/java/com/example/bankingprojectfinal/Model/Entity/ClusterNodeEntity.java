@@ -0,0 +1,29 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One running application node; live while its heartbeat is recent
+@Entity
+@Table(name = "cluster_node")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterNodeEntity {
+    @Id
+    private String nodeId;
+
+    private String hostName;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime heartbeatAt;
+}
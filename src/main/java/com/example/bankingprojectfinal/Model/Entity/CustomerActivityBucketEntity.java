@@ -0,0 +1,34 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// One customer's COMPLETED transaction volume (sent or received) on one day; summed over 30 days for suspicion checks
+@Entity
+@Table(name = "customer_activity_bucket",
+        uniqueConstraints = @UniqueConstraint(name = "uk_customer_activity_bucket", columnNames = {"customer_id", "bucket_date"}),
+        indexes = @Index(name = "idx_customer_activity_bucket_date", columnList = "bucket_date"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerActivityBucketEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Integer customerId;
+
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+}
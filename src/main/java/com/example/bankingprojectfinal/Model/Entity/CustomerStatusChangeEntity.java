@@ -0,0 +1,45 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One customer status change made by the nightly risk tier review, with the 30-day volume it was based on
+@Entity
+@Table(name = "customer_status_change",
+        indexes = @Index(name = "idx_customer_status_change_customer", columnList = "customer_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerStatusChangeEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "customer_id", nullable = false)
+    private Integer customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CustomerStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CustomerStatus toStatus;
+
+    @Column(nullable = false)
+    private BigDecimal monthlyTotal;
+
+    @Column(nullable = false)
+    private BigDecimal appliedLimit;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,49 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import com.example.bankingprojectfinal.Model.Enums.DisbursementStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// A bulk payout (e.g., payroll): one debit account, many credit lines
+@Entity
+@Table(name = "disbursement_job")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisbursementJobEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "debit_account_id", nullable = false)
+    private AccountEntity debitAccount;
+
+    private String debitCardNumber;
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    private DisbursementStatus status;
+
+    private Integer totalLines;
+    private Integer acceptedLines;
+
+    // Sum of the accepted lines; debited from the account in one step
+    private BigDecimal totalAmount;
+
+    // Amount of failed lines returned to the debit account when the job finished
+    private BigDecimal refundedAmount;
+
+    private String failureReason;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
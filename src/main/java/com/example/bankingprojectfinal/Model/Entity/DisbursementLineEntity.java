@@ -0,0 +1,50 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import com.example.bankingprojectfinal.Model.Enums.DisbursementLineStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "disbursement_line",
+        indexes = @Index(name = "idx_disbursement_line_job_status", columnList = "job_id, status"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisbursementLineEntity {
+    // Sequence (not identity) ids so thousands of lines can be inserted with JDBC batching
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "disbursement_line_seq")
+    @SequenceGenerator(name = "disbursement_line_seq", sequenceName = "disbursement_line_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "job_id", nullable = false)
+    private DisbursementJobEntity job;
+
+    // 1-based position in the uploaded file or JSON list
+    private Integer lineNumber;
+
+    private String creditCardNumber;
+
+    // Null for lines rejected before their card could be resolved
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "credit_account_id")
+    private AccountEntity creditAccount;
+
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    private DisbursementLineStatus status;
+
+    private String message;
+    private UUID transactionId;
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,47 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Stored response of a transfer made with an Idempotency-Key, replayed when the client retries the same request
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecordEntity {
+    // "<customerId>:<client key>", so two customers can never collide on the same key
+    @Id
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private Integer customerId;
+
+    // SHA-256 of the request body; a key reused with a different body is rejected
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    private String transactionId;
+    private String debitAccountNumber;
+    private String creditAccountNumber;
+    private LocalDateTime transactionDate;
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,37 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One partition of a nightly job: who is running it (until expiresAt) and the last run it was completed for
+@Entity
+@Table(name = "job_lease",
+        uniqueConstraints = @UniqueConstraint(name = "uk_job_lease", columnNames = {"job_name", "partition_no"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLeaseEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Column(name = "partition_no", nullable = false)
+    private Integer partitionNo;
+
+    private String ownerNodeId;
+
+    private LocalDateTime expiresAt;
+
+    private String completedRun;
+
+    private LocalDateTime completedAt;
+}
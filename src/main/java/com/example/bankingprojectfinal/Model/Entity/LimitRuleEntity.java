@@ -0,0 +1,40 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Model.Enums.LimitType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Overrides one limit for a customer segment (segment set) or a single customer (customerId set); exactly one is set
+@Entity
+@Table(name = "limit_rule")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LimitRuleEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private CustomerStatus segment;
+
+    @Column(name = "customer_id")
+    private Integer customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LimitType limitType;
+
+    @Column(name = "limit_value", nullable = false)
+    private BigDecimal value;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,63 @@
+package com.example.bankingprojectfinal.Model.Entity;
+
+import com.example.bankingprojectfinal.Model.Enums.ScheduledTransferFrequency;
+import com.example.bankingprojectfinal.Model.Enums.ScheduledTransferStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Standing order or future-dated transfer, executed by ScheduledTransferEngine
+@Entity
+@Table(name = "scheduled_transfer",
+        indexes = @Index(name = "idx_scheduled_transfer_status_next", columnList = "status, next_execution_at"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledTransferEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id", nullable = false)
+    private CustomerEntity customer;
+
+    private String debitCardNumber;
+    private String creditCardNumber;
+
+    // Account behind the debit card when the order was created; executions of one account run one at a time
+    private Integer debitAccountId;
+
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    private ScheduledTransferFrequency frequency;
+
+    @Enumerated(EnumType.STRING)
+    private ScheduledTransferStatus status;
+
+    // First execution; later ones are derived from it, so a monthly order on the 31st stays on the month's last day
+    private LocalDateTime startAt;
+
+    @Column(name = "next_execution_at")
+    private LocalDateTime nextExecutionAt;
+
+    // Last day on which the order may run; null means until cancelled
+    private LocalDate endDate;
+
+    private Integer executionCount;
+    private Integer failureCount;
+    private LocalDateTime lastExecutedAt;
+    private UUID lastTransactionId;
+    private String lastFailureReason;
+
+    private LocalDateTime createdAt;
+}
@@ -12,7 +12,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = @Index(name = "idx_transaction_date", columnList = "transaction_date"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -33,6 +33,7 @@ public class TransactionEntity {
 
     private String creditCardNumber;
     private String debitCardNumber;
+    @Column(name = "transaction_date")
     private LocalDate transactionDate;
 
     private BigDecimal amount;
@@ -42,4 +43,7 @@ public class TransactionEntity {
 
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
+
+    // Why a PENDING transfer could not be settled; null unless the status is FAILED
+    private String failureReason;
 }
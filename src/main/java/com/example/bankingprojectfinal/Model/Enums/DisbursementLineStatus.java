@@ -0,0 +1,8 @@
+package com.example.bankingprojectfinal.Model.Enums;
+
+public enum DisbursementLineStatus {
+    PENDING,    // Accepted, waiting to be credited
+    COMPLETED,  // Credited
+    REJECTED,   // Failed validation on upload, never debited
+    FAILED      // Could not be credited; any amount already debited for it is refunded
+}
@@ -0,0 +1,9 @@
+package com.example.bankingprojectfinal.Model.Enums;
+
+public enum DisbursementStatus {
+    PENDING,                // Validated and stored, debit not taken yet
+    PROCESSING,             // Total debited, credits being applied
+    COMPLETED,              // Every accepted line was credited
+    COMPLETED_WITH_ERRORS,  // Some lines failed; their amount was refunded to the debit account
+    FAILED                  // Nothing was debited (e.g., insufficient funds or no valid lines)
+}
@@ -0,0 +1,8 @@
+package com.example.bankingprojectfinal.Model.Enums;
+
+public enum HoldStatus {
+    ACTIVE,     // Funds reserved on the debit account
+    CAPTURED,   // Posted as a transaction; any uncaptured remainder is released
+    VOIDED,     // Released by the customer before capture
+    EXPIRED     // Released automatically when the TTL ran out
+}
@@ -0,0 +1,14 @@
+package com.example.bankingprojectfinal.Model.Enums;
+
+public enum LimitType {
+    MAX_ACCOUNT_COUNT_PER_CUSTOMER,
+    MAX_CARD_COUNT_PER_ACCOUNT,
+    DAILY_TRANSACTION_LIMIT,            // Outgoing amount per day
+    MIN_ACCEPTABLE_ACCOUNT_BALANCE,     // Balance a debit may not go below
+    MONTHLY_TRANSACTION_SUSPECT_LIMIT,  // 30-day volume over which a customer is marked SUSPECTED
+    MONTHLY_TRANSACTION_BLOCKED_LIMIT;  // 30-day volume over which a customer is marked BLOCKED
+
+    public boolean isCount() {
+        return this == MAX_ACCOUNT_COUNT_PER_CUSTOMER || this == MAX_CARD_COUNT_PER_ACCOUNT;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.bankingprojectfinal.Model.Enums;
+
+public enum ScheduledTransferFrequency {
+    ONCE,       // Future-dated single transfer
+    DAILY,
+    WEEKLY,
+    MONTHLY
+}
@@ -0,0 +1,7 @@
+package com.example.bankingprojectfinal.Model.Enums;
+
+public enum ScheduledTransferStatus {
+    ACTIVE,     // Waiting for its next execution
+    COMPLETED,  // Past its end date or a ONCE transfer that has run
+    CANCELLED   // Cancelled by the customer
+}
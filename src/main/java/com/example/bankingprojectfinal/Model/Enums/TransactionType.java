@@ -5,4 +5,6 @@ public enum TransactionType {
     CREDIT,         // Money entering the account (e.g., deposit, interest)
     TRANSFER,       // Money moved between accounts (can be both a debit and a credit entry, or a specific type)
     DEPOSIT,        // Specific type of credit
+    DISBURSEMENT,   // One line of a bulk payout (e.g., payroll) from a single debit account
+    CAPTURE,        // Posting of a captured authorization hold
 }
\ No newline at end of file
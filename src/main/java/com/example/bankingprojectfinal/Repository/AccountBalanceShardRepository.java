@@ -0,0 +1,39 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.AccountBalanceShardEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface AccountBalanceShardRepository extends JpaRepository<AccountBalanceShardEntity, Long> {
+
+    List<AccountBalanceShardEntity> findByAccountId(Integer accountId);
+
+    @Query("SELECT s.shardIndex FROM AccountBalanceShardEntity s WHERE s.accountId = :accountId")
+    List<Integer> findShardIndexesByAccountId(@Param("accountId") Integer accountId);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceShardEntity s WHERE s.accountId = :accountId")
+    BigDecimal sumByAccountId(@Param("accountId") Integer accountId);
+
+    // Accounts with credits waiting to be folded (including accounts whose hot mode was just switched off)
+    @Query("SELECT DISTINCT s.accountId FROM AccountBalanceShardEntity s WHERE s.balance <> 0")
+    List<Integer> findAccountIdsWithUnfoldedCredits();
+
+    // Atomic increment in the database: concurrent credits to the same shard queue on its row lock, never on a read
+    @Modifying
+    @Query("UPDATE AccountBalanceShardEntity s SET s.balance = s.balance + :amount " +
+            "WHERE s.accountId = :accountId AND s.shardIndex = :shardIndex")
+    int addToShard(@Param("accountId") Integer accountId, @Param("shardIndex") Integer shardIndex,
+                   @Param("amount") BigDecimal amount);
+
+    // Subtracts exactly what was folded, so credits that landed after the shard was read are kept
+    @Modifying
+    @Query("UPDATE AccountBalanceShardEntity s SET s.balance = s.balance - :amount WHERE s.id = :id")
+    int subtractFromShard(@Param("id") Long id, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,37 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.AccountHoldEntity;
+import com.example.bankingprojectfinal.Model.Enums.HoldStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountHoldRepository extends JpaRepository<AccountHoldEntity, Long> {
+
+    // Active holds as [id, debit account id, amount, expiresAt], used to rebuild the in-memory holds on startup
+    @Query("SELECT h.id, h.debitAccount.id, h.amount, h.expiresAt FROM AccountHoldEntity h WHERE h.status = 'ACTIVE'")
+    List<Object[]> findActiveHoldSummaries();
+
+    Page<AccountHoldEntity> findByDebitAccount_Customer_Id(Integer customerId, Pageable pageable);
+
+    // Ends an ACTIVE hold; 0 means it was captured, voided or expired concurrently
+    @Modifying
+    @Query("UPDATE AccountHoldEntity h SET h.status = :status, h.completedAt = :completedAt " +
+            "WHERE h.id = :id AND h.status = 'ACTIVE'")
+    int completeActive(@Param("id") Long id, @Param("status") HoldStatus status,
+                       @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Query("UPDATE AccountHoldEntity h SET h.status = 'EXPIRED', h.completedAt = :completedAt " +
+            "WHERE h.id IN :ids AND h.status = 'ACTIVE'")
+    int expireActive(@Param("ids") Collection<Long> ids, @Param("completedAt") LocalDateTime completedAt);
+}
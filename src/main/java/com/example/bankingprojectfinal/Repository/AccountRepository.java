@@ -5,11 +5,14 @@ import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,5 +23,42 @@ public interface AccountRepository extends JpaRepository<AccountEntity, String>
     Boolean existsByAccountNumber(String accountNumber);
     Optional<AccountEntity> findByAccountNumber(String accountNumber);
     int countByCustomer_Id(Integer customerId);
-    List<AccountEntity> findByExpireDateBeforeAndStatusNot(LocalDate date, AccountStatus status);
+
+    // Keyset pages of [id, account number] of the accounts past their expiry date in one cluster partition (by id)
+    @Query("SELECT a.id, a.accountNumber FROM AccountEntity a WHERE a.expireDate < :date AND a.status <> :status " +
+            "AND MOD(a.id, :partitionCount) = :partition AND a.id > :afterId ORDER BY a.id")
+    List<Object[]> findExpiringAfterId(@Param("date") LocalDate date,
+                                       @Param("status") AccountStatus status,
+                                       @Param("partitionCount") Integer partitionCount,
+                                       @Param("partition") Integer partition,
+                                       @Param("afterId") Integer afterId,
+                                       Pageable pageable);
+
+    // The conditions are checked again, so an account renewed or expired since the read is left alone
+    @Modifying
+    @Query("UPDATE AccountEntity a SET a.status = :status, a.version = COALESCE(a.version, 0) + 1 " +
+            "WHERE a.id IN :ids AND a.expireDate < :date AND a.status <> :status")
+    int expireByIdIn(@Param("ids") Collection<Integer> ids,
+                     @Param("status") AccountStatus status,
+                     @Param("date") LocalDate date);
+
+    @Query("SELECT a.accountNumber FROM AccountEntity a WHERE a.id IN :ids AND a.status = :status")
+    List<String> findAccountNumbersByIdInAndStatus(@Param("ids") Collection<Integer> ids,
+                                                   @Param("status") AccountStatus status);
+
+    // Used by the ledger engine to rebuild its in-memory balances without hydrating the entity graph
+    @Query("SELECT a.id, a.balance FROM AccountEntity a")
+    List<Object[]> findAllBalances();
+
+    @Query("SELECT a.balance FROM AccountEntity a WHERE a.id = :id")
+    Optional<BigDecimal> findBalanceById(@Param("id") Integer id);
+
+    // Scalar read, so the account can be locked before the entity (and its balance) is loaded
+    @Query("SELECT COALESCE(a.hotAccount, false) FROM AccountEntity a WHERE a.id = :id")
+    boolean isHotAccount(@Param("id") Integer id);
+
+    // Write-behind balance update; bumps the version so stale JPA copies of the account fail their next save
+    @Modifying
+    @Query("UPDATE AccountEntity a SET a.balance = :balance, a.version = COALESCE(a.version, 0) + 1 WHERE a.id = :id")
+    int updateBalance(@Param("id") Integer id, @Param("balance") BigDecimal balance);
 }
\ No newline at end of file
@@ -5,9 +5,12 @@ import com.example.bankingprojectfinal.Model.Enums.CardStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.smartcardio.Card;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,4 +36,15 @@ public interface CardRepository extends JpaRepository<CardEntity, String> {
     List<CardEntity> findByAccount_AccountNumber(String accountNumber);
 
     Integer countByAccount_Id(Integer id);
+
+    // Cards with their accounts and account owners in a single query (no lazy loads afterwards)
+    @Query("SELECT c FROM CardEntity c JOIN FETCH c.account a JOIN FETCH a.customer WHERE c.cardNumber IN :cardNumbers")
+    List<CardEntity> findAllWithAccountByCardNumberIn(@Param("cardNumbers") Collection<String> cardNumbers);
+
+    @Query("SELECT c FROM CardEntity c JOIN FETCH c.account a JOIN FETCH a.customer WHERE c.cardNumber = :cardNumber")
+    Optional<CardEntity> findWithAccountByCardNumber(@Param("cardNumber") String cardNumber);
+
+    // Account id and hot flag behind each card, so account locks can be taken before any account is loaded
+    @Query("SELECT c.cardNumber, a.id, COALESCE(a.hotAccount, false) FROM CardEntity c JOIN c.account a WHERE c.cardNumber IN :cardNumbers")
+    List<Object[]> findAccountLockInfoByCardNumberIn(@Param("cardNumbers") Collection<String> cardNumbers);
 }
\ No newline at end of file
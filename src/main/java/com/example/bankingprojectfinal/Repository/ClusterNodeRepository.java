@@ -0,0 +1,28 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.ClusterNodeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ClusterNodeRepository extends JpaRepository<ClusterNodeEntity, String> {
+
+    // 0 means the node is not registered (yet, or any more after being taken for dead)
+    @Modifying
+    @Query("UPDATE ClusterNodeEntity n SET n.heartbeatAt = :now WHERE n.nodeId = :nodeId")
+    int heartbeat(@Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    // Sorted, so every node derives the same partition assignment from the same membership
+    @Query("SELECT n.nodeId FROM ClusterNodeEntity n WHERE n.heartbeatAt >= :since ORDER BY n.nodeId")
+    List<String> findLiveNodeIds(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM ClusterNodeEntity n WHERE n.heartbeatAt < :before")
+    int deleteStale(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,31 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.CustomerActivityBucketEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface CustomerActivityBucketRepository extends JpaRepository<CustomerActivityBucketEntity, Long> {
+
+    // 0 means the bucket does not exist yet
+    @Modifying
+    @Query("UPDATE CustomerActivityBucketEntity b SET b.amount = b.amount + :amount " +
+            "WHERE b.customerId = :customerId AND b.bucketDate = :bucketDate")
+    int addAmount(@Param("customerId") Integer customerId,
+                  @Param("bucketDate") LocalDate bucketDate,
+                  @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("DELETE FROM CustomerActivityBucketEntity b WHERE b.bucketDate >= :from")
+    int deleteFrom(@Param("from") LocalDate from);
+
+    @Modifying
+    @Query("DELETE FROM CustomerActivityBucketEntity b WHERE b.bucketDate < :before")
+    int deleteBefore(@Param("before") LocalDate before);
+}
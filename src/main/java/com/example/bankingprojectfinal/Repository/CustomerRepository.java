@@ -5,11 +5,44 @@ import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<CustomerEntity, Integer> {
     Page<CustomerEntity> findByStatus(CustomerStatus status, Pageable pageable);
     boolean existsByFinCode(String finCode);
     boolean existsByPhoneNumber(String phoneNumber);
+
+    // Changes the status only from one of the given ones, so an automated check never downgrades or revives a customer
+    @Modifying
+    @Query("UPDATE CustomerEntity c SET c.status = :status WHERE c.id = :id AND c.status IN :fromStatuses")
+    int escalateStatus(@Param("id") Integer id, @Param("status") CustomerStatus status,
+                       @Param("fromStatuses") Collection<CustomerStatus> fromStatuses);
+
+    // Keyset page of [id, status, volume since :from] for customers in the given statuses, summed from the daily
+    // activity buckets through their (customer_id, bucket_date) index; null volume for customers without activity
+    @Query("SELECT c.id, c.status, SUM(b.amount) FROM CustomerEntity c " +
+            "LEFT JOIN CustomerActivityBucketEntity b ON b.customerId = c.id AND b.bucketDate >= :from " +
+            "WHERE c.status IN :statuses AND c.id > :afterId " +
+            "GROUP BY c.id, c.status ORDER BY c.id")
+    List<Object[]> findActivityTotalsAfterId(@Param("statuses") Collection<CustomerStatus> statuses,
+                                             @Param("from") LocalDate from,
+                                             @Param("afterId") Integer afterId,
+                                             Pageable pageable);
+
+    // Moves the given customers in one statement; customers whose status changed in the meantime are left alone
+    @Modifying
+    @Query("UPDATE CustomerEntity c SET c.status = :status WHERE c.id IN :ids AND c.status = :fromStatus")
+    int updateStatus(@Param("ids") Collection<Integer> ids, @Param("fromStatus") CustomerStatus fromStatus,
+                     @Param("status") CustomerStatus status);
+
+    @Query("SELECT c.id FROM CustomerEntity c WHERE c.id IN :ids AND c.status = :status")
+    List<Integer> findIdsByIdInAndStatus(@Param("ids") Collection<Integer> ids, @Param("status") CustomerStatus status);
 }
\ No newline at end of file
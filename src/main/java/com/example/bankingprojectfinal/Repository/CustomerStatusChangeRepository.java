@@ -0,0 +1,22 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.CustomerStatusChangeEntity;
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CustomerStatusChangeRepository extends JpaRepository<CustomerStatusChangeEntity, Long> {
+
+    // Customers whose latest change by the review moved them to the status, i.e. who the review itself put there
+    @Query("SELECT c.customerId FROM CustomerStatusChangeEntity c WHERE c.customerId IN :customerIds " +
+            "AND c.toStatus = :status AND c.id = (SELECT MAX(l.id) FROM CustomerStatusChangeEntity l " +
+            "WHERE l.customerId = c.customerId)")
+    List<Integer> findCustomerIdsLastChangedTo(@Param("customerIds") Collection<Integer> customerIds,
+                                               @Param("status") CustomerStatus status);
+}
@@ -0,0 +1,19 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.DisbursementJobEntity;
+import com.example.bankingprojectfinal.Model.Enums.DisbursementStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DisbursementJobRepository extends JpaRepository<DisbursementJobEntity, Long> {
+
+    // Jobs that were interrupted (e.g., by a restart) before they finished
+    @Query("SELECT j.id FROM DisbursementJobEntity j WHERE j.status IN :statuses ORDER BY j.id")
+    List<Long> findIdsByStatusIn(@Param("statuses") Collection<DisbursementStatus> statuses);
+}
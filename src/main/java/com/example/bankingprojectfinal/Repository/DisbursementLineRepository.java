@@ -0,0 +1,58 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.DisbursementLineEntity;
+import com.example.bankingprojectfinal.Model.Enums.DisbursementLineStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DisbursementLineRepository extends JpaRepository<DisbursementLineEntity, Long> {
+
+    Page<DisbursementLineEntity> findByJob_Id(Long jobId, Pageable pageable);
+
+    Page<DisbursementLineEntity> findByJob_IdAndStatus(Long jobId, DisbursementLineStatus status, Pageable pageable);
+
+    long countByJob_IdAndStatus(Long jobId, DisbursementLineStatus status);
+
+    @Query("SELECT l.id FROM DisbursementLineEntity l WHERE l.job.id = :jobId AND l.status = :status ORDER BY l.id")
+    List<Long> findIdsByJobIdAndStatus(@Param("jobId") Long jobId, @Param("status") DisbursementLineStatus status);
+
+    // Credit accounts of a chunk that have to be locked (hot accounts are credited on shards), before any is loaded
+    @Query("SELECT DISTINCT a.id FROM DisbursementLineEntity l JOIN l.creditAccount a " +
+            "WHERE l.id IN :ids AND COALESCE(a.hotAccount, false) = false")
+    List<Integer> findLockedCreditAccountIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // One chunk of lines with their credit accounts, loaded in a single query
+    @Query("SELECT l FROM DisbursementLineEntity l JOIN FETCH l.creditAccount WHERE l.id IN :ids")
+    List<DisbursementLineEntity> findAllWithAccountByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Progress report: [status, line count, amount] per status
+    @Query("SELECT l.status, COUNT(l), COALESCE(SUM(l.amount), 0) FROM DisbursementLineEntity l " +
+            "WHERE l.job.id = :jobId GROUP BY l.status")
+    List<Object[]> summarizeByJobId(@Param("jobId") Long jobId);
+
+    @Query("SELECT COALESCE(SUM(l.amount), 0) FROM DisbursementLineEntity l WHERE l.job.id = :jobId AND l.status = :status")
+    BigDecimal sumAmountByJobIdAndStatus(@Param("jobId") Long jobId, @Param("status") DisbursementLineStatus status);
+
+    @Modifying
+    @Query("UPDATE DisbursementLineEntity l SET l.status = 'FAILED', l.message = :message, l.processedAt = :processedAt " +
+            "WHERE l.id IN :ids AND l.status = 'PENDING'")
+    int markPendingFailed(@Param("ids") Collection<Long> ids, @Param("message") String message,
+                          @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE DisbursementLineEntity l SET l.status = 'FAILED', l.message = :message, l.processedAt = :processedAt " +
+            "WHERE l.job.id = :jobId AND l.status = 'PENDING'")
+    int markPendingFailedByJobId(@Param("jobId") Long jobId, @Param("message") String message,
+                                 @Param("processedAt") LocalDateTime processedAt);
+}
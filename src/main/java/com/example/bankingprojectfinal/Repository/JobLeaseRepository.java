@@ -0,0 +1,51 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.JobLeaseEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLeaseEntity, Long> {
+
+    @Query("SELECT l.partitionNo FROM JobLeaseEntity l WHERE l.jobName = :jobName")
+    List<Integer> findPartitionNos(@Param("jobName") String jobName);
+
+    // [partition, owner node, lease expiry] of the partitions not yet completed for the run
+    @Query("SELECT l.partitionNo, l.ownerNodeId, l.expiresAt FROM JobLeaseEntity l " +
+            "WHERE l.jobName = :jobName AND (l.completedRun IS NULL OR l.completedRun <> :run) ORDER BY l.partitionNo")
+    List<Object[]> findUnfinished(@Param("jobName") String jobName, @Param("run") String run);
+
+    // 1 if the node now holds the lease: the partition is not done for the run and is free, expired or already its own
+    @Modifying
+    @Query("UPDATE JobLeaseEntity l SET l.ownerNodeId = :nodeId, l.expiresAt = :expiresAt " +
+            "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo " +
+            "AND (l.completedRun IS NULL OR l.completedRun <> :run) " +
+            "AND (l.ownerNodeId IS NULL OR l.ownerNodeId = :nodeId OR l.expiresAt < :now)")
+    int acquire(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo, @Param("run") String run,
+                @Param("nodeId") String nodeId, @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE JobLeaseEntity l SET l.expiresAt = :expiresAt WHERE l.ownerNodeId = :nodeId")
+    int renewAll(@Param("nodeId") String nodeId, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE JobLeaseEntity l SET l.completedRun = :run, l.completedAt = :now, l.ownerNodeId = NULL, l.expiresAt = NULL " +
+            "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo AND l.ownerNodeId = :nodeId")
+    int complete(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo, @Param("run") String run,
+                 @Param("nodeId") String nodeId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE JobLeaseEntity l SET l.ownerNodeId = NULL, l.expiresAt = NULL " +
+            "WHERE l.jobName = :jobName AND l.partitionNo = :partitionNo AND l.ownerNodeId = :nodeId")
+    int release(@Param("jobName") String jobName, @Param("partitionNo") Integer partitionNo, @Param("nodeId") String nodeId);
+
+    @Modifying
+    @Query("UPDATE JobLeaseEntity l SET l.ownerNodeId = NULL, l.expiresAt = NULL WHERE l.ownerNodeId = :nodeId")
+    int releaseAll(@Param("nodeId") String nodeId);
+}
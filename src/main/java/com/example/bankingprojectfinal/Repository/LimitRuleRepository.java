@@ -0,0 +1,25 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.LimitRuleEntity;
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Model.Enums.LimitType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LimitRuleRepository extends JpaRepository<LimitRuleEntity, Long> {
+
+    Optional<LimitRuleEntity> findBySegmentAndLimitType(CustomerStatus segment, LimitType limitType);
+
+    Optional<LimitRuleEntity> findByCustomerIdAndLimitType(Integer customerId, LimitType limitType);
+
+    List<LimitRuleEntity> findByCustomerId(Integer customerId);
+
+    // Row count and latest change, compared by LimitsEngine to tell whether its compiled rules are stale
+    @Query("SELECT COUNT(r), MAX(r.updatedAt) FROM LimitRuleEntity r")
+    List<Object[]> findVersion();
+}
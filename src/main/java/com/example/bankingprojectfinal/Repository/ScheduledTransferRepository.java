@@ -0,0 +1,28 @@
+package com.example.bankingprojectfinal.Repository;
+
+import com.example.bankingprojectfinal.Model.Entity.ScheduledTransferEntity;
+import com.example.bankingprojectfinal.Model.Enums.ScheduledTransferStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransferEntity, Long> {
+
+    Page<ScheduledTransferEntity> findByCustomer_Id(Integer customerId, Pageable pageable);
+
+    // Keyset page of active orders due before :until, as [id, debit account id, next execution]; overdue orders
+    // (missed while the application was down) are included
+    @Query("SELECT s.id, s.debitAccountId, s.nextExecutionAt FROM ScheduledTransferEntity s " +
+            "WHERE s.status = :status AND s.nextExecutionAt <= :until AND s.id > :afterId ORDER BY s.id")
+    List<Object[]> findDueAfterId(@Param("status") ScheduledTransferStatus status,
+                                  @Param("until") LocalDateTime until,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
+}
@@ -2,43 +2,103 @@ package com.example.bankingprojectfinal.Repository;
 
 import com.example.bankingprojectfinal.Model.Entity.TransactionEntity;
 import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<TransactionEntity, String> {
+public interface TransactionRepository extends JpaRepository<TransactionEntity, UUID> {
 
-    // Query for today's total outgoing transfers for a specific customer
-    // Sums amounts where the customer's account is the debit account and the transaction is completed on today's date.
+    // Completed outgoing amounts of one day per customer (deposits are not outgoing); rebuilds DailyOutgoingTotals.
+    // A plain comparison on transaction_date, so the date index narrows the scan to that day's rows.
+    @Query("SELECT a.customer.id, SUM(t.amount) FROM TransactionEntity t JOIN t.debitAccount a " +
+            "WHERE t.transactionDate = :transactionDate " +
+            "AND t.status = 'COMPLETED' " +
+            "AND t.transactionType <> 'DEPOSIT' " +
+            "GROUP BY a.customer.id")
+    List<Object[]> sumOutgoingAmountByCustomer(@Param("transactionDate") LocalDate transactionDate);
+
+    // The same total for one customer; the daily limit check of a cluster, where no node sees every transfer
     @Query("SELECT COALESCE(SUM(t.amount), 0) FROM TransactionEntity t " +
             "WHERE t.debitAccount.customer.id = :customerId " +
-            "AND DATE(t.transactionDate) = :transactionDate " +
-            "AND t.status = 'COMPLETED'")
-    BigDecimal getTodayTotalTransferAmountByDebitAccountCustomer(
-            @Param("customerId") Integer customerId,
-            @Param("transactionDate") LocalDate transactionDate);
+            "AND t.transactionDate = :transactionDate " +
+            "AND t.status = 'COMPLETED' " +
+            "AND t.transactionType <> 'DEPOSIT'")
+    BigDecimal sumOutgoingAmountOfCustomer(@Param("customerId") Integer customerId,
+                                           @Param("transactionDate") LocalDate transactionDate);
 
     // Find all transactions where a customer is either the debit account holder or the credit account holder
     Page<TransactionEntity> findByDebitAccount_Customer_IdOrCreditAccount_Customer_Id(Integer debitCustomerId, Integer creditCustomerId, Pageable pageable);
 
-    // Get monthly total for a customer (as either sender or receiver) for suspicion checks
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM TransactionEntity t " +
-            "WHERE (t.debitAccount.customer.id = :customerId OR t.creditAccount.customer.id = :customerId) " +
-            "AND t.transactionDate BETWEEN :startDate AND :endDate " +
-            "AND t.status = 'COMPLETED'")
-    BigDecimal getMonthlyTotalByCustomer(
-            @Param("customerId") Integer customerId,
-            @Param("startDate") LocalDate startDate,
-            @Param("endDate") LocalDate endDate);
+    // Completed volume per customer and day on the sending side; rebuilds CustomerActivityBuckets
+    @Query("SELECT d.customer.id, t.transactionDate, SUM(t.amount) FROM TransactionEntity t JOIN t.debitAccount d " +
+            "WHERE t.transactionDate >= :from AND t.status = 'COMPLETED' " +
+            "GROUP BY d.customer.id, t.transactionDate")
+    List<Object[]> sumSentAmountByCustomerAndDate(@Param("from") LocalDate from);
+
+    // The receiving side; a transaction between a customer's own accounts (or a deposit) is counted once, above
+    @Query("SELECT c.customer.id, t.transactionDate, SUM(t.amount) FROM TransactionEntity t " +
+            "JOIN t.debitAccount d JOIN t.creditAccount c " +
+            "WHERE t.transactionDate >= :from AND t.status = 'COMPLETED' AND c.customer.id <> d.customer.id " +
+            "GROUP BY c.customer.id, t.transactionDate")
+    List<Object[]> sumReceivedAmountByCustomerAndDate(@Param("from") LocalDate from);
+
+    // Completed transfers per account pair and day; rebuilds CounterpartyGraph (deposits, debit = credit, excluded)
+    @Query("SELECT t.debitAccount.id, t.creditAccount.id, t.transactionDate, SUM(t.amount) FROM TransactionEntity t " +
+            "WHERE t.transactionDate >= :from AND t.status = 'COMPLETED' AND t.debitAccount.id <> t.creditAccount.id " +
+            "GROUP BY t.debitAccount.id, t.creditAccount.id, t.transactionDate")
+    List<Object[]> sumAmountByAccountPairAndDate(@Param("from") LocalDate from);
 
     // Find pending transactions (used by the scheduler)
     List<TransactionEntity> findByStatus(TransactionStatus status);
+
+    // Keyset pages of [id, debit account id, credit account id, credit account hot] for the chunked settlement job,
+    // of one cluster partition of debit accounts; the account ids let a chunk take all its locks before any balance is loaded
+    @Query("SELECT t.transactionId, t.debitAccount.id, c.id, c.hotAccount FROM TransactionEntity t JOIN t.creditAccount c " +
+            "WHERE t.status = :status AND MOD(t.debitAccount.id, :partitionCount) = :partition ORDER BY t.transactionId")
+    List<Object[]> findSettlementKeysByStatus(@Param("status") TransactionStatus status,
+                                              @Param("partitionCount") Integer partitionCount,
+                                              @Param("partition") Integer partition,
+                                              Pageable pageable);
+
+    @Query("SELECT t.transactionId, t.debitAccount.id, c.id, c.hotAccount FROM TransactionEntity t JOIN t.creditAccount c " +
+            "WHERE t.status = :status AND MOD(t.debitAccount.id, :partitionCount) = :partition " +
+            "AND t.transactionId > :afterId ORDER BY t.transactionId")
+    List<Object[]> findSettlementKeysByStatusAfterId(@Param("status") TransactionStatus status,
+                                                     @Param("partitionCount") Integer partitionCount,
+                                                     @Param("partition") Integer partition,
+                                                     @Param("afterId") UUID afterId,
+                                                     Pageable pageable);
+
+    @Query("SELECT t FROM TransactionEntity t JOIN FETCH t.debitAccount d JOIN FETCH d.customer " +
+            "JOIN FETCH t.creditAccount c JOIN FETCH c.customer WHERE t.transactionId IN :ids ORDER BY t.transactionId")
+    List<TransactionEntity> findAllWithAccountsByTransactionIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT t.transactionId FROM TransactionEntity t WHERE t.status = :status AND t.transactionType = :transactionType")
+    List<UUID> findIdsByStatusAndTransactionType(@Param("status") TransactionStatus status,
+                                                 @Param("transactionType") TransactionType transactionType);
+
+    // Moves a PENDING transaction to its final status; 0 means another settler got there first. The row lock taken
+    // by the update keeps a second settler (on this node or another) waiting until the first one commits.
+    @Modifying
+    @Query("UPDATE TransactionEntity t SET t.status = :status, t.transactionDate = :transactionDate " +
+            "WHERE t.transactionId = :id AND t.status = 'PENDING'")
+    int claimPending(@Param("id") UUID id, @Param("status") TransactionStatus status,
+                     @Param("transactionDate") LocalDate transactionDate);
+
+    // Fails a transaction that is still PENDING; 0 means it was settled or failed elsewhere in the meantime
+    @Modifying
+    @Query("UPDATE TransactionEntity t SET t.status = 'FAILED', t.failureReason = :reason " +
+            "WHERE t.transactionId = :id AND t.status = 'PENDING'")
+    int failPending(@Param("id") UUID id, @Param("reason") String reason);
 }
\ No newline at end of file
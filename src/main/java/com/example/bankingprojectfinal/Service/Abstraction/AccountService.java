@@ -2,6 +2,7 @@ package com.example.bankingprojectfinal.Service.Abstraction;
 
 import com.example.bankingprojectfinal.DTOS.Account.AccountCreateResponse;
 import com.example.bankingprojectfinal.DTOS.Account.AccountResponse;
+import com.example.bankingprojectfinal.DTOS.Account.CounterpartyGraphResponse;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -15,6 +16,8 @@ public interface AccountService {
     Page<AccountResponse> getAllExpiredAccounts(Integer page, Integer size);
     Page<AccountResponse> getAllDeletedAccounts(Integer page, Integer size);
     List<AccountResponse> getAccountsByCustomerId(Integer customerId);
+    AccountResponse setHotAccount(String accountNumber, boolean enabled);
+    CounterpartyGraphResponse getCounterpartyGraph(String accountNumber);
 
     // Customer self-service methods
     AccountCreateResponse createAccountForCurrentUser();
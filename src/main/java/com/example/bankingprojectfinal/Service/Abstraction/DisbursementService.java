@@ -0,0 +1,16 @@
+package com.example.bankingprojectfinal.Service.Abstraction;
+
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementJobDto;
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementLineDto;
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementRequest;
+import com.example.bankingprojectfinal.Model.Enums.DisbursementLineStatus;
+import org.springframework.data.domain.Page;
+
+import java.io.InputStream;
+
+public interface DisbursementService {
+    DisbursementJobDto createDisbursement(DisbursementRequest request);
+    DisbursementJobDto createDisbursementFromCsv(String debitCardNumber, String description, InputStream csv);
+    DisbursementJobDto getDisbursement(Long jobId);
+    Page<DisbursementLineDto> getDisbursementLines(Long jobId, DisbursementLineStatus status, Integer page, Integer size);
+}
@@ -0,0 +1,16 @@
+package com.example.bankingprojectfinal.Service.Abstraction;
+
+import com.example.bankingprojectfinal.DTOS.Hold.AuthorizeHoldRequest;
+import com.example.bankingprojectfinal.DTOS.Hold.HoldDto;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+
+public interface HoldService {
+    // Customer methods
+    HoldDto authorize(AuthorizeHoldRequest request);
+    HoldDto capture(Long holdId, BigDecimal amount);
+    HoldDto voidHold(Long holdId);
+    HoldDto getHold(Long holdId);
+    Page<HoldDto> getHoldsByCurrentUser(Integer page, Integer size);
+}
@@ -0,0 +1,15 @@
+package com.example.bankingprojectfinal.Service.Abstraction;
+
+import com.example.bankingprojectfinal.DTOS.Limit.CustomerLimitsDto;
+import com.example.bankingprojectfinal.DTOS.Limit.LimitRuleDto;
+import com.example.bankingprojectfinal.DTOS.Limit.LimitRuleRequest;
+
+import java.util.List;
+
+public interface LimitRuleService {
+    // Admin methods
+    LimitRuleDto setRule(LimitRuleRequest request);
+    void deleteRule(Long ruleId);
+    List<LimitRuleDto> getRules();
+    CustomerLimitsDto getCustomerLimits(Integer customerId);
+}
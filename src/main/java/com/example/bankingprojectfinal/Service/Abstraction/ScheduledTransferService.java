@@ -0,0 +1,13 @@
+package com.example.bankingprojectfinal.Service.Abstraction;
+
+import com.example.bankingprojectfinal.DTOS.ScheduledTransfer.CreateScheduledTransferRequest;
+import com.example.bankingprojectfinal.DTOS.ScheduledTransfer.ScheduledTransferDto;
+import org.springframework.data.domain.Page;
+
+public interface ScheduledTransferService {
+    // Customer methods
+    ScheduledTransferDto createScheduledTransfer(CreateScheduledTransferRequest request);
+    ScheduledTransferDto getScheduledTransfer(Long scheduledTransferId);
+    Page<ScheduledTransferDto> getScheduledTransfersByCurrentUser(Integer page, Integer size);
+    ScheduledTransferDto cancelScheduledTransfer(Long scheduledTransferId);
+}
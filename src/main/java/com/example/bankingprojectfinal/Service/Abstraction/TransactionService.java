@@ -1,15 +1,31 @@
 package com.example.bankingprojectfinal.Service.Abstraction;
 
+import com.example.bankingprojectfinal.DTOS.Transaction.BatchTransferResponse;
 import com.example.bankingprojectfinal.DTOS.Transaction.TransactionDto;
+import com.example.bankingprojectfinal.DTOS.Transaction.TransferRequest;
 import org.springframework.data.domain.Page;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface TransactionService {
     // Customer methods
     TransactionDto transfer(String debitCardNumber, String creditCardNumber, BigDecimal amount);
+    TransactionDto transfer(String debitCardNumber, String creditCardNumber, BigDecimal amount, String idempotencyKey);
+    TransactionDto submitTransfer(String debitCardNumber, String creditCardNumber, BigDecimal amount, String idempotencyKey);
+    BatchTransferResponse transferBatch(List<TransferRequest> transfers);
     Page<TransactionDto> getTransactionsByCurrentUser(Integer page, Integer size);
 
+    // Customer (own transactions) and admin methods
+    TransactionDto getTransactionById(UUID transactionId);
+    CompletableFuture<TransactionDto> awaitCompletion(UUID transactionId);
+
+    // Internal: transfers on behalf of a customer without an authenticated request (e.g. scheduled transfers)
+    TransactionDto transferForCustomer(Integer customerId, String debitCardNumber, String creditCardNumber,
+                                       BigDecimal amount, String idempotencyKey);
+
     // Admin methods
     Page<TransactionDto> getTransactionsByCustomerId(Integer customerId, Integer page, Integer size);
     Page<TransactionDto> getAllTransactions(Integer page, Integer size);
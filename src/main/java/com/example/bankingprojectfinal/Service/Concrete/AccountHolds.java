@@ -0,0 +1,180 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Repository.AccountHoldRepository;
+import com.example.bankingprojectfinal.Utils.HierarchicalTimingWheel;
+import com.example.bankingprojectfinal.Utils.Money;
+import com.example.bankingprojectfinal.config.HoldProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the active authorization holds.
+ * <p>
+ * The held total of every account is kept in a map, so a balance check subtracts outstanding holds with one
+ * lookup instead of an aggregate query. Each hold is armed on a {@link HierarchicalTimingWheel}; a tick advances
+ * the wheel and expires whatever became due with one bulk UPDATE per batch, so arming and cancelling a hold cost
+ * O(1) and no table scan ever looks for expired rows. The map is rebuilt from the database on startup. As with the
+ * account locks, the totals are per JVM.
+ */
+@Component
+@Slf4j
+public class AccountHolds {
+    private final AccountHoldRepository accountHoldRepository;
+    private final HoldProperties holdProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final HierarchicalTimingWheel<Long> expiryWheel;
+    private final ConcurrentHashMap<Long, ActiveHold> activeHolds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Long> heldByAccount = new ConcurrentHashMap<>();
+
+    private final Counter expiredCounter;
+
+    public AccountHolds(AccountHoldRepository accountHoldRepository,
+                        HoldProperties holdProperties,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        this.accountHoldRepository = accountHoldRepository;
+        this.holdProperties = holdProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiryWheel = new HierarchicalTimingWheel<>(holdProperties.getTickMs(), holdProperties.getWheelSize(),
+                System.currentTimeMillis());
+
+        this.expiredCounter = meterRegistry.counter("banking.holds.expired");
+        Gauge.builder("banking.holds.active", activeHolds, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        List<Object[]> rows = accountHoldRepository.findActiveHoldSummaries();
+        for (Object[] row : rows) {
+            ActiveHold hold = new ActiveHold((Long) row[0], (Integer) row[1], Money.of((BigDecimal) row[2]).minorUnits());
+            add(hold);
+            hold.timer = expiryWheel.schedule(hold.id, epochMillis((LocalDateTime) row[3]));
+        }
+        if (!rows.isEmpty()) {
+            log.info("Loaded {} active authorization holds", rows.size());
+        }
+    }
+
+    // Total of the active holds on the account
+    public Money heldAmount(Integer accountId) {
+        Long held = heldByAccount.get(accountId);
+        return held != null ? Money.ofMinor(held) : Money.ZERO;
+    }
+
+    /**
+     * Must be called inside the transaction that persists the hold. The amount counts as held at once, so a
+     * concurrent balance check cannot spend it; it is released again if the transaction rolls back, and the expiry
+     * timer is armed once it commits.
+     */
+    public void reserve(Long holdId, Integer accountId, Money amount, LocalDateTime expiresAt) {
+        ActiveHold hold = new ActiveHold(holdId, accountId, amount.minorUnits());
+        add(hold);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                hold.timer = expiryWheel.schedule(holdId, epochMillis(expiresAt));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    remove(holdId);
+                }
+            }
+        });
+    }
+
+    // Releases the hold once the current transaction (a capture or a void) commits
+    public void release(Long holdId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(holdId);
+            }
+        });
+    }
+
+    @Scheduled(fixedRateString = "${banking.holds.tick-ms:100}")
+    public void expireDueHolds() {
+        List<Long> due = expiryWheel.advanceTo(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = holdProperties.getExpiryBatchSize();
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                // Holds captured or voided in the meantime are skipped by the status condition
+                transactionTemplate.executeWithoutResult(status -> accountHoldRepository.expireActive(batch, now));
+                batch.forEach(this::remove);
+                expiredCounter.increment(batch.size());
+            } catch (RuntimeException e) {
+                log.error("Failed to expire {} authorization holds, retrying on a later tick: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + holdProperties.getTickMs() * 10;
+                for (Long holdId : batch) {
+                    ActiveHold hold = activeHolds.get(holdId);
+                    if (hold != null) {
+                        hold.timer = expiryWheel.schedule(holdId, retryAt);
+                    }
+                }
+            }
+        }
+        log.debug("Expired {} authorization holds", due.size());
+    }
+
+    private void add(ActiveHold hold) {
+        activeHolds.put(hold.id, hold);
+        heldByAccount.merge(hold.accountId, hold.amountMinor, Long::sum);
+    }
+
+    // Idempotent: whichever of capture, void and expiry gets here first releases the amount
+    private void remove(Long holdId) {
+        ActiveHold hold = activeHolds.remove(holdId);
+        if (hold == null) {
+            return;
+        }
+        HierarchicalTimingWheel.Timer<Long> timer = hold.timer;
+        if (timer != null) {
+            expiryWheel.cancel(timer);
+        }
+        heldByAccount.compute(hold.accountId, (accountId, held) -> {
+            long remaining = (held != null ? held : 0L) - hold.amountMinor;
+            return remaining == 0 ? null : remaining;
+        });
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class ActiveHold {
+        final Long id;
+        final Integer accountId;
+        final long amountMinor;
+        volatile HierarchicalTimingWheel.Timer<Long> timer;
+
+        ActiveHold(Long id, Integer accountId, long amountMinor) {
+            this.id = id;
+            this.accountId = accountId;
+            this.amountMinor = amountMinor;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.bankingprojectfinal.Service.Concrete;
 
 import com.example.bankingprojectfinal.DTOS.Account.AccountCreateResponse;
 import com.example.bankingprojectfinal.DTOS.Account.AccountResponse;
+import com.example.bankingprojectfinal.DTOS.Account.CounterpartyGraphResponse;
+import com.example.bankingprojectfinal.DTOS.Account.CounterpartyResponse;
 import com.example.bankingprojectfinal.Exception.*;
 import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
 import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
@@ -11,7 +13,8 @@ import com.example.bankingprojectfinal.Repository.AccountRepository;
 import com.example.bankingprojectfinal.Repository.CustomerRepository;
 import com.example.bankingprojectfinal.Service.Abstraction.AccountService;
 import com.example.bankingprojectfinal.Utils.AccountNumberGenerator;
-import com.example.bankingprojectfinal.Utils.LimitProperties;
+import com.example.bankingprojectfinal.Utils.BalanceUpdateExecutor;
+import com.example.bankingprojectfinal.config.AccountExpiryProperties;
 import com.example.bankingprojectfinal.security.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,20 +27,37 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AccountServiceImpl implements AccountService {
+    private static final String EXPIRY_JOB = "expire-accounts";
+
     private final AccountRepository accountRepository;
     private final CustomerRepository customerRepository;
-    private final LimitProperties limitProperties;
+    private final LimitsEngine limitsEngine;
     private final AccountNumberGenerator accountNumberGenerator;
+    private final BalanceUpdateExecutor balanceUpdateExecutor;
+    private final HotAccountBalances hotAccountBalances;
+    private final CounterpartyGraph counterpartyGraph;
+    private final ClusterCoordinator clusterCoordinator;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountExpiryProperties accountExpiryProperties;
 
     // Get current authenticated user from JWT token
     private User getCurrentUser() {
@@ -71,8 +91,9 @@ public class AccountServiceImpl implements AccountService {
         }
 
         int accountCount = accountRepository.countByCustomer_Id(customer.getId());
-        if (accountCount >= limitProperties.getMaxAccountCountPerCustomer()) {
-            throw new IllegalStateException("Customer has reached the maximum account limit of " + limitProperties.getMaxAccountCountPerCustomer());
+        int maxAccountCount = limitsEngine.forCustomer(customer).maxAccountCountPerCustomer();
+        if (accountCount >= maxAccountCount) {
+            throw new IllegalStateException("Customer has reached the maximum account limit of " + maxAccountCount);
         }
 
         String accountNumber;
@@ -163,7 +184,7 @@ public class AccountServiceImpl implements AccountService {
         }
 
         int accountCount = accountRepository.countByCustomer_Id(customerId);
-        if (accountCount >= limitProperties.getMaxAccountCountPerCustomer()) {
+        if (accountCount >= limitsEngine.forCustomer(customer).maxAccountCountPerCustomer()) {
             throw new IllegalStateException("Customer with ID " + customerId + " has reached the maximum account limit.");
         }
 
@@ -194,6 +215,22 @@ public class AccountServiceImpl implements AccountService {
                 .build();
     }
 
+    @Override
+    public AccountResponse setHotAccount(String accountNumber, boolean enabled) {
+        log.info("Admin setting hot account mode of {} to {}", accountNumber, enabled);
+        // Switching off keeps the shard rows; whatever is still on them is folded by the background job
+        return balanceUpdateExecutor.execute("hot-account-toggle", () -> {
+            AccountEntity account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+            balanceUpdateExecutor.guard(account.getId());
+            if (enabled) {
+                hotAccountBalances.ensureShards(account.getId());
+            }
+            account.setHotAccount(enabled);
+            return mapToAccountResponse(account);
+        });
+    }
+
     @Override
     public List<AccountResponse> getAccountsByCustomerId(Integer customerId) {
         CustomerEntity customer = customerRepository.findById(customerId)
@@ -238,14 +275,61 @@ public class AccountServiceImpl implements AccountService {
     }
 
 
+    // Answered from the in-memory counterparty graph; the only query resolves the counterparties' account numbers
+    @Override
+    public CounterpartyGraphResponse getCounterpartyGraph(String accountNumber) {
+        AccountEntity account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountNumber));
+        Integer accountId = account.getId();
+        CounterpartyGraph.Scores scores = counterpartyGraph.scores(accountId);
+        List<CounterpartyGraph.Counterparty> senders = counterpartyGraph.senders(accountId);
+        List<CounterpartyGraph.Counterparty> receivers = counterpartyGraph.receivers(accountId);
+        List<List<Integer>> cycles = counterpartyGraph.shortCycles(accountId);
+
+        Set<Integer> ids = new HashSet<>();
+        senders.forEach(counterparty -> ids.add(counterparty.accountId()));
+        receivers.forEach(counterparty -> ids.add(counterparty.accountId()));
+        cycles.forEach(ids::addAll);
+        Map<Integer, String> accountNumbers = accountRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(AccountEntity::getId, AccountEntity::getAccountNumber));
+
+        return CounterpartyGraphResponse.builder()
+                .accountNumber(accountNumber)
+                .fanIn(scores.fanIn())
+                .fanOut(scores.fanOut())
+                .weightedInflow(toAmount(scores.weightedInflow()))
+                .weightedOutflow(toAmount(scores.weightedOutflow()))
+                .passThroughRatio(scores.passThroughRatio())
+                .senders(senders.stream().map(counterparty -> mapToCounterpartyResponse(counterparty, accountNumbers)).toList())
+                .receivers(receivers.stream().map(counterparty -> mapToCounterpartyResponse(counterparty, accountNumbers)).toList())
+                .shortCycles(cycles.stream()
+                        .map(cycle -> cycle.stream().map(accountNumbers::get).toList())
+                        .toList())
+                .build();
+    }
+
+    private CounterpartyResponse mapToCounterpartyResponse(CounterpartyGraph.Counterparty counterparty,
+                                                           Map<Integer, String> accountNumbers) {
+        return CounterpartyResponse.builder()
+                .accountNumber(accountNumbers.get(counterparty.accountId()))
+                .weightedAmount(toAmount(counterparty.weight()))
+                .lastTransferAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(counterparty.lastTransferMillis()), ZoneId.systemDefault()))
+                .build();
+    }
+
+    private static BigDecimal toAmount(double weight) {
+        return BigDecimal.valueOf(weight).setScale(2, RoundingMode.HALF_UP);
+    }
+
     private AccountResponse mapToAccountResponse(AccountEntity entity) {
         return AccountResponse.builder()
                 .accountNumber(entity.getAccountNumber())
                 .customerId(entity.getCustomer().getId())
-                .balance(entity.getBalance())
+                .balance(hotAccountBalances.availableBalance(entity))
                 .openingDate(entity.getOpeningDate())
                 .expireDate(entity.getExpireDate())
                 .status(entity.getStatus())
+                .hotAccount(Boolean.TRUE.equals(entity.getHotAccount()))
                 .build();
     }
 
@@ -257,20 +341,48 @@ public class AccountServiceImpl implements AccountService {
         return new PageImpl<>(accountResponseList, pageable, accountEntityPage.getTotalElements());
     }
 
+    // Every node fires this; ClusterCoordinator gives each partition of accounts (by id) to one node.
+    // Accounts are read as [id, account number] in keyset chunks and expired with one bulk UPDATE per chunk, each in
+    // its own transaction, so no entity (nor its cards and transactions) is loaded and memory stays flat.
     @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
     public void expireAccounts() {
         LocalDate today = LocalDate.now();
-        List<AccountEntity> expiredAccounts = accountRepository.findByExpireDateBeforeAndStatusNot(
-                today, AccountStatus.EXPIRED);
-
-        for (AccountEntity account : expiredAccounts) {
-            account.setStatus(AccountStatus.EXPIRED);
-            log.info("Account {} expired automatically", account.getAccountNumber());
-        }
+        long started = System.currentTimeMillis();
+        int partitionCount = clusterCoordinator.getPartitionCount();
+        AtomicLong expired = new AtomicLong();
+        clusterCoordinator.runPartitioned(EXPIRY_JOB, today.toString(), partitionCount,
+                partition -> expired.addAndGet(expirePartition(today, partitionCount, partition)));
+        long durationMs = Math.max(1, System.currentTimeMillis() - started);
+        log.info("Account expiry finished: {} accounts expired on this node in {} ms ({} rows/s)",
+                expired.get(), durationMs, expired.get() * 1000 / durationMs);
+    }
 
-        if (!expiredAccounts.isEmpty()) {
-            accountRepository.saveAll(expiredAccounts);
+    private long expirePartition(LocalDate today, int partitionCount, int partition) {
+        int chunkSize = Math.max(1, accountExpiryProperties.getChunkSize());
+        long expired = 0;
+        Integer afterId = 0;
+        while (true) {
+            List<Object[]> rows = accountRepository.findExpiringAfterId(
+                    today, AccountStatus.EXPIRED, partitionCount, partition, afterId, PageRequest.of(0, chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Integer> ids = rows.stream().map(row -> (Integer) row[0]).toList();
+            List<String> accountNumbers = transactionTemplate.execute(status -> {
+                int updated = accountRepository.expireByIdIn(ids, AccountStatus.EXPIRED, today);
+                if (updated == ids.size()) {
+                    return rows.stream().map(row -> (String) row[1]).toList();
+                }
+                // Some accounts were renewed or expired elsewhere since the read; report the ones expired now
+                return accountRepository.findAccountNumbersByIdInAndStatus(ids, AccountStatus.EXPIRED);
+            });
+            expired += accountNumbers.size();
+            log.info("Accounts expired automatically: {}", accountNumbers);
+            if (rows.size() < chunkSize) {
+                break;
+            }
+            afterId = (Integer) rows.get(rows.size() - 1)[0];
         }
+        return expired;
     }
 }
\ No newline at end of file
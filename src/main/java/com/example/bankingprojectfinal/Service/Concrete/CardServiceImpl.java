@@ -11,8 +11,9 @@ import com.example.bankingprojectfinal.Repository.AccountRepository;
 import com.example.bankingprojectfinal.Repository.CardRepository;
 import com.example.bankingprojectfinal.Repository.TransactionRepository;
 import com.example.bankingprojectfinal.Service.Abstraction.CardService;
+import com.example.bankingprojectfinal.Utils.BalanceUpdateExecutor;
 import com.example.bankingprojectfinal.Utils.CardNumberGenerator;
-import com.example.bankingprojectfinal.Utils.LimitProperties;
+import com.example.bankingprojectfinal.Utils.Money;
 import com.example.bankingprojectfinal.security.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,6 +24,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -36,8 +38,13 @@ public class CardServiceImpl implements CardService {
     private final TransactionRepository transactionRepository;
     private final CardRepository cardRepository;
     private final AccountRepository accountRepository;
-    private final LimitProperties limitProperties;
+    private final LimitsEngine limitsEngine;
     private final CardNumberGenerator cardNumberGenerator;
+    private final BalanceUpdateExecutor balanceUpdateExecutor;
+    private final LedgerEngine ledgerEngine;
+    private final HotAccountBalances hotAccountBalances;
+    private final CustomerActivityBuckets customerActivityBuckets;
+    private final TransactionTemplate transactionTemplate;
 
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -83,7 +90,7 @@ public class CardServiceImpl implements CardService {
 
         log.info("Customer ID {} activating card: {}", currentCustomer.getId(), cardNumber);
 
-        CardEntity card = cardRepository.findByCardNumber(cardNumber)
+        CardEntity card = cardRepository.findWithAccountByCardNumber(cardNumber)
                 .orElseThrow(() -> new CardNotFoundException("Card not found: " + cardNumber));
 
         if (!card.getAccount().getCustomer().getId().equals(currentCustomer.getId())) {
@@ -120,54 +127,19 @@ public class CardServiceImpl implements CardService {
     }
 
     @Override
-    @Transactional
     public DepositCardResponse depositCard(DepositCardRequest request) {
         String cardNumber = request.getCardNumber();
         BigDecimal amount = request.getAmount();
         log.info("Depositing {} to card: {}", amount, cardNumber);
 
         try {
-            CardEntity card = cardRepository.findByCardNumber(cardNumber)
-                    .orElseThrow(() -> new CardNotFoundException("Card not found: " + cardNumber));
-
-            if (!card.getStatus().equals(CardStatus.ACTIVE)) {
-                throw new InvalidCardStatusException("Card is not active. Current status: " + card.getStatus());
+            if (amount == null || !Money.of(amount).isPositive()) {
+                throw new InvalidDepositAmount("Deposit amount must be greater than zero.");
             }
-
-            AccountEntity account = card.getAccount();
-            if (account == null) {
-                throw new AccountNotFoundException("Account linked to card not found");
+            if (ledgerEngine.isEnabled()) {
+                return depositThroughLedger(cardNumber, amount);
             }
-            if (!account.getStatus().equals(AccountStatus.ACTIVE)) {
-                throw new InvalidAccountStatusException("Account is not active. Current status: " + account.getStatus());
-            }
-
-            BigDecimal currentBalance = account.getBalance();
-            BigDecimal newBalance = currentBalance.add(amount);
-            account.setBalance(newBalance);
-            accountRepository.save(account);
-            TransactionEntity transaction = TransactionEntity.builder()
-                    .debitAccount(account)
-                    .creditAccount(account)           // The actual account being credited
-                    .amount(amount)
-                    .transactionType(TransactionType.DEPOSIT)
-                    .transactionDate(LocalDate.from(LocalDateTime.now())) // Use LocalDateTime
-                    .status(TransactionStatus.COMPLETED)
-                    .build();
-
-            TransactionEntity savedTransaction = transactionRepository.save(transaction);
-
-
-            return DepositCardResponse.builder()
-                    .success(true)
-                    .message("Successfully deposited " + amount + " to account " + account.getAccountNumber())
-                    .cardNumber(cardNumber)
-                    .depositedAmount(amount)
-                    .newAccountBalance(newBalance)
-//                    .transactionId(savedTransaction.getTransactionId())
-                    .transactionTimestamp(LocalDateTime.now())
-                    .build();
-
+            return balanceUpdateExecutor.execute("deposit", () -> depositInternal(cardNumber, amount));
         } catch (Exception e) {
             log.error("Deposit failed for card {}: {}", cardNumber, e.getMessage());
             return DepositCardResponse.builder()
@@ -247,6 +219,87 @@ public class CardServiceImpl implements CardService {
 
     // ==================== HELPER METHODS ====================
 
+    private DepositCardResponse depositInternal(String cardNumber, BigDecimal amount) {
+        // Lock the account before the fetch join loads its balance; a hot account is credited on a shard and
+        // needs no lock
+        if (!balanceUpdateExecutor.isOptimistic()) {
+            for (Object[] row : cardRepository.findAccountLockInfoByCardNumberIn(List.of(cardNumber))) {
+                balanceUpdateExecutor.guard(Boolean.TRUE.equals(row[2]) ? null : (Integer) row[1]);
+            }
+        }
+        CardEntity card = findActiveDepositCard(cardNumber);
+        AccountEntity account = card.getAccount();
+        if (account == null) {
+            throw new AccountNotFoundException("Account linked to card not found");
+        }
+        validateDepositAccount(account);
+
+        hotAccountBalances.credit(account, amount, cardNumber);
+        accountRepository.save(account);
+        BigDecimal newBalance = hotAccountBalances.availableBalance(account);
+        TransactionEntity transaction = TransactionEntity.builder()
+                .debitAccount(account)
+                .creditAccount(account)           // The actual account being credited
+                .amount(amount)
+                .transactionType(TransactionType.DEPOSIT)
+                .transactionDate(LocalDate.from(LocalDateTime.now())) // Use LocalDateTime
+                .status(TransactionStatus.COMPLETED)
+                .build();
+
+        TransactionEntity savedTransaction = transactionRepository.save(transaction);
+        customerActivityBuckets.add(account.getCustomer().getId(), Money.of(amount));
+
+
+        return DepositCardResponse.builder()
+                .success(true)
+                .message("Successfully deposited " + amount + " to account " + account.getAccountNumber())
+                .cardNumber(cardNumber)
+                .depositedAmount(amount)
+                .newAccountBalance(newBalance)
+//                .transactionId(savedTransaction.getTransactionId())
+                .transactionTimestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private DepositCardResponse depositThroughLedger(String cardNumber, BigDecimal amount) {
+        AccountEntity account = transactionTemplate.execute(status -> {
+            AccountEntity linkedAccount = findActiveDepositCard(cardNumber).getAccount();
+            if (linkedAccount == null) {
+                throw new AccountNotFoundException("Account linked to card not found");
+            }
+            validateDepositAccount(linkedAccount);
+            return linkedAccount;
+        });
+
+        LedgerEngine.LedgerResult result = ledgerEngine.deposit(account.getId(), account.getAccountNumber(), cardNumber, amount);
+        customerActivityBuckets.add(account.getCustomer().getId(), Money.of(amount));
+        return DepositCardResponse.builder()
+                .success(true)
+                .message("Successfully deposited " + amount + " to account " + account.getAccountNumber())
+                .cardNumber(cardNumber)
+                .depositedAmount(amount)
+                .newAccountBalance(result.creditBalance())
+                .transactionId(result.transaction().getTransactionId())
+                .transactionTimestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private CardEntity findActiveDepositCard(String cardNumber) {
+        CardEntity card = cardRepository.findWithAccountByCardNumber(cardNumber)
+                .orElseThrow(() -> new CardNotFoundException("Card not found: " + cardNumber));
+
+        if (!card.getStatus().equals(CardStatus.ACTIVE)) {
+            throw new InvalidCardStatusException("Card is not active. Current status: " + card.getStatus());
+        }
+        return card;
+    }
+
+    private void validateDepositAccount(AccountEntity account) {
+        if (!account.getStatus().equals(AccountStatus.ACTIVE)) {
+            throw new InvalidAccountStatusException("Account is not active. Current status: " + account.getStatus());
+        }
+    }
+
     private CardCreateResponse createCardInternal(AccountEntity account) {
         try {
             if (!account.getStatus().equals(AccountStatus.ACTIVE)) {
@@ -256,9 +309,10 @@ public class CardServiceImpl implements CardService {
             }
             Integer currentCards = cardRepository.countByAccount_AccountNumber(account.getAccountNumber());
 
-            if (currentCards >= limitProperties.getMaxCardCountPerAccount()) {
+            int maxCardCount = limitsEngine.forCustomer(account.getCustomer()).maxCardCountPerAccount();
+            if (currentCards >= maxCardCount) {
                 throw new MaximumCardCountException(
-                        "Account has reached maximum card limit of " + limitProperties.getMaxCardCountPerAccount()
+                        "Account has reached maximum card limit of " + maxCardCount
                 );
             }
 
@@ -0,0 +1,269 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.ClusterNodeEntity;
+import com.example.bankingprojectfinal.Model.Entity.JobLeaseEntity;
+import com.example.bankingprojectfinal.Repository.ClusterNodeRepository;
+import com.example.bankingprojectfinal.Repository.JobLeaseRepository;
+import com.example.bankingprojectfinal.config.ClusterProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Lets the nodes of a cluster share the nightly jobs instead of each running all of them.
+ * <p>
+ * Every node registers in cluster_node and renews its heartbeat from its own thread, so a long job on the scheduler
+ * thread never makes it look dead. A job is split into partitions (e.g. by account id modulo the partition count),
+ * each with a row in job_lease. A node runs a partition only after claiming its lease with a conditional UPDATE: the
+ * partition must not be completed for the run yet and its lease must be free, expired or already its own. Held
+ * leases are renewed with the heartbeat and completed partitions are stamped with the run, so every partition runs
+ * once per run however many nodes fire the job.
+ * <p>
+ * Each node starts with its own share (the partitions whose number modulo the live node count is its index among the
+ * live nodes) and then takes whatever is left: partitions of nodes that are slow or not running the job, and those
+ * of a node that died, once its lease has run out. Clocks of the nodes are assumed to be in sync (NTP); a skew only
+ * shortens or lengthens the take-over delay. The partitions still rely on row-level guards (status checks in the
+ * UPDATEs), so a partition run twice after a lost lease does no harm.
+ */
+@Component
+@Slf4j
+public class ClusterCoordinator {
+    private final ClusterNodeRepository clusterNodeRepository;
+    private final JobLeaseRepository jobLeaseRepository;
+    private final ClusterProperties clusterProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cluster-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClusterCoordinator(ClusterNodeRepository clusterNodeRepository,
+                              JobLeaseRepository jobLeaseRepository,
+                              ClusterProperties clusterProperties,
+                              PlatformTransactionManager transactionManager) {
+        this.clusterNodeRepository = clusterNodeRepository;
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.clusterProperties = clusterProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        sendHeartbeat(); // Registered before the first job can fire
+        long interval = clusterProperties.getHeartbeatIntervalMs();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Cluster node {} on {} started", nodeId, hostName());
+    }
+
+    // Leaves at once, so the other nodes take over the partitions without waiting for the leases to run out
+    @PreDestroy
+    public void stop() {
+        heartbeat.shutdownNow();
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jobLeaseRepository.releaseAll(nodeId);
+                clusterNodeRepository.deleteById(nodeId);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Cluster node {} could not leave cleanly: {}", nodeId, e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(clusterProperties.getEnabled());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // Partitions a job is split into: banking.cluster.partitions, or a single one when the node runs alone
+    public int getPartitionCount() {
+        return isEnabled() ? Math.max(1, clusterProperties.getPartitions()) : 1;
+    }
+
+    /**
+     * Runs {@code work} for the partitions of {@code jobName} this node gets for {@code run} (e.g. the date of a
+     * nightly job), and returns when no partition is left that this node could still take. A partition whose work
+     * throws is released for another node and not retried here. Returns the number of partitions run on this node.
+     */
+    public int runPartitioned(String jobName, String run, int partitionCount, IntConsumer work) {
+        if (!isEnabled()) {
+            for (int partition = 0; partition < partitionCount; partition++) {
+                work.accept(partition);
+            }
+            return partitionCount;
+        }
+        ensureLeases(jobName, partitionCount);
+
+        Set<Integer> attempted = new HashSet<>();
+        int ran = 0;
+        while (true) {
+            List<String> liveNodes = liveNodeIds();
+            int nodeCount = Math.max(1, liveNodes.size());
+            int nodeIndex = Math.max(0, liveNodes.indexOf(nodeId));
+            Set<String> live = new HashSet<>(liveNodes);
+            LocalDateTime now = LocalDateTime.now();
+
+            List<LeaseState> open = new ArrayList<>();
+            for (Object[] row : jobLeaseRepository.findUnfinished(jobName, run)) {
+                LeaseState lease = new LeaseState((Integer) row[0], (String) row[1], (LocalDateTime) row[2]);
+                if (lease.partition() < partitionCount && !attempted.contains(lease.partition())) {
+                    open.add(lease);
+                }
+            }
+            // Own share first, then the rest
+            open.sort(Comparator.comparing((LeaseState lease) -> lease.partition() % nodeCount != nodeIndex)
+                    .thenComparing(LeaseState::partition));
+
+            boolean progress = false;
+            boolean deadOwner = false;
+            for (LeaseState lease : open) {
+                if (lease.owner() != null && !lease.owner().equals(nodeId) && !lease.expiresAt().isBefore(now)) {
+                    // Held by a live node, which completes it; a dead node's lease runs out and is worth waiting for
+                    deadOwner |= !live.contains(lease.owner());
+                    continue;
+                }
+                if (runPartition(jobName, run, lease.partition(), work)) {
+                    ran++;
+                    progress = true;
+                }
+                attempted.add(lease.partition());
+            }
+            if (!progress) {
+                if (!deadOwner) {
+                    break;
+                }
+                sleep(clusterProperties.getHeartbeatIntervalMs());
+            }
+        }
+        log.info("Job {} run {}: {} of {} partitions ran on node {}", jobName, run, ran, partitionCount, nodeId);
+        return ran;
+    }
+
+    // false if another node holds or already completed the partition
+    private boolean runPartition(String jobName, String run, int partition, IntConsumer work) {
+        Integer claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            return jobLeaseRepository.acquire(jobName, partition, run, nodeId, now,
+                    now.plusNanos(TimeUnit.MILLISECONDS.toNanos(clusterProperties.getLeaseTtlMs())));
+        });
+        if (claimed == null || claimed == 0) {
+            return false;
+        }
+        try {
+            work.accept(partition);
+        } catch (RuntimeException e) {
+            log.error("Job {} partition {} failed on node {}, releasing it", jobName, partition, nodeId, e);
+            transactionTemplate.executeWithoutResult(status -> jobLeaseRepository.release(jobName, partition, nodeId));
+            return false;
+        }
+        Integer completed = transactionTemplate.execute(status ->
+                jobLeaseRepository.complete(jobName, partition, run, nodeId, LocalDateTime.now()));
+        if (completed == null || completed == 0) {
+            // The lease ran out while the partition ran and another node took it over
+            log.warn("Job {} partition {} finished on node {} after its lease was lost", jobName, partition, nodeId);
+        }
+        return true;
+    }
+
+    // One lease row per partition, created by whichever node gets there first
+    private void ensureLeases(String jobName, int partitionCount) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Set<Integer> existing = new HashSet<>(jobLeaseRepository.findPartitionNos(jobName));
+                    List<JobLeaseEntity> missing = new ArrayList<>();
+                    for (int partition = 0; partition < partitionCount; partition++) {
+                        if (!existing.contains(partition)) {
+                            missing.add(JobLeaseEntity.builder().jobName(jobName).partitionNo(partition).build());
+                        }
+                    }
+                    jobLeaseRepository.saveAll(missing);
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt > 0) {
+                    throw e;
+                }
+                // Another node created them at the same time; read again
+            }
+        }
+    }
+
+    private void sendHeartbeat() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (clusterNodeRepository.heartbeat(nodeId, now) == 0) {
+                    clusterNodeRepository.save(ClusterNodeEntity.builder()
+                            .nodeId(nodeId)
+                            .hostName(hostName())
+                            .startedAt(now)
+                            .heartbeatAt(now)
+                            .build());
+                }
+                jobLeaseRepository.renewAll(nodeId,
+                        now.plusNanos(TimeUnit.MILLISECONDS.toNanos(clusterProperties.getLeaseTtlMs())));
+                clusterNodeRepository.deleteStale(
+                        now.minusNanos(TimeUnit.MILLISECONDS.toNanos(clusterProperties.getNodeTimeoutMs())));
+            });
+        } catch (RuntimeException e) {
+            // Missed heartbeats only make the node look dead to the others for a while
+            log.warn("Cluster heartbeat of node {} failed: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private List<String> liveNodeIds() {
+        return clusterNodeRepository.findLiveNodeIds(LocalDateTime.now()
+                .minusNanos(TimeUnit.MILLISECONDS.toNanos(clusterProperties.getNodeTimeoutMs())));
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a cluster lease", e);
+        }
+    }
+
+    private record LeaseState(Integer partition, String owner, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Repository.TransactionRepository;
+import com.example.bankingprojectfinal.Utils.IntIntMap;
+import com.example.bankingprojectfinal.Utils.Money;
+import com.example.bankingprojectfinal.config.CounterpartyGraphProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Who paid whom, per account, over the last few days (banking.counterparty-graph.*), for spotting mule accounts:
+ * many senders into one account, money passed straight on, or money going round in a short cycle.
+ * <p>
+ * Every committed transfer adds its amount to the edge from the debit to the credit account. Each account keeps
+ * its outgoing and incoming edges as parallel primitive arrays (peer account id, weight, time of the last transfer),
+ * indexed by peer once the list gets long, so absorbing a transfer is two array updates under a short write lock.
+ * Edge weights decay exponentially with the configured half-life and are brought up to date lazily, when the edge
+ * is next written or read. Edges whose last transfer left the window are dropped by a periodic compaction.
+ * <p>
+ * The graph lives in memory and is rebuilt on startup from the window's COMPLETED transactions, which are then
+ * dated at the start of their day. As with the account locks, it only sees the transfers committed by this JVM.
+ */
+@Component
+@Slf4j
+public class CounterpartyGraph {
+    // Adjacency lists longer than this get a peer index
+    private static final int INDEX_THRESHOLD = 8;
+    private static final int MAX_CYCLES = 100;
+
+    private final TransactionRepository transactionRepository;
+    private final CounterpartyGraphProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final double decayPerMilli;
+    private final long windowMillis;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; an account's slot is its position in accountIds, outgoing and incoming
+    private IntIntMap slots = new IntIntMap(1024);
+    private int[] accountIds = new int[1024];
+    private Adjacency[] outgoing = new Adjacency[1024];
+    private Adjacency[] incoming = new Adjacency[1024];
+    private int accountCount;
+    private int edgeCount;
+
+    public CounterpartyGraph(TransactionRepository transactionRepository,
+                             CounterpartyGraphProperties properties,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.decayPerMilli = Math.log(2) / (properties.getHalfLifeHours() * TimeUnit.HOURS.toMillis(1));
+        this.windowMillis = TimeUnit.DAYS.toMillis(properties.getWindowDays());
+        Gauge.builder("banking.counterparty-graph.edges", this, graph -> graph.edgeCount).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(properties.getEnabled());
+    }
+
+    // Transfers committed while this runs are added as usual and may be counted twice, never left out
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        LocalDate from = LocalDate.now().minusDays(properties.getWindowDays());
+        List<Object[]> rows = transactionTemplate.execute(status -> transactionRepository.sumAmountByAccountPairAndDate(from));
+        for (Object[] row : rows) {
+            long dayStart = ((LocalDate) row[2]).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            add((Integer) row[0], (Integer) row[1], ((BigDecimal) row[3]).doubleValue(), dayStart);
+        }
+        log.info("Rebuilt counterparty graph from {}: {} accounts, {} edges", from, accountCount, edgeCount);
+    }
+
+    /**
+     * Adds a completed transfer when the current transaction commits, or at once outside a transaction. Transfers
+     * between the same account (deposits) are ignored.
+     */
+    public void record(Integer debitAccountId, Integer creditAccountId, Money amount) {
+        if (!isEnabled() || debitAccountId == null || creditAccountId == null || debitAccountId.equals(creditAccountId)) {
+            return;
+        }
+        double value = amount.toBigDecimal().doubleValue();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(debitAccountId, creditAccountId, value, System.currentTimeMillis());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(debitAccountId, creditAccountId, value, System.currentTimeMillis());
+            }
+        });
+    }
+
+    private void add(int debitAccountId, int creditAccountId, double amount, long timeMillis) {
+        lock.writeLock().lock();
+        try {
+            int debitSlot = slotFor(debitAccountId);
+            int creditSlot = slotFor(creditAccountId);
+            if (outgoing[debitSlot] == null) {
+                outgoing[debitSlot] = new Adjacency();
+            }
+            if (incoming[creditSlot] == null) {
+                incoming[creditSlot] = new Adjacency();
+            }
+            if (outgoing[debitSlot].add(creditAccountId, amount, timeMillis, decayPerMilli)) {
+                edgeCount++;
+            }
+            incoming[creditSlot].add(debitAccountId, amount, timeMillis, decayPerMilli);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    // Accounts that sent money to the account within the window, heaviest first
+    public List<Counterparty> senders(Integer accountId) {
+        return counterparties(accountId, true);
+    }
+
+    // Accounts the account sent money to within the window, heaviest first
+    public List<Counterparty> receivers(Integer accountId) {
+        return counterparties(accountId, false);
+    }
+
+    /**
+     * Fan-in and fan-out of the account: distinct counterparties within the window and the decayed amounts. A mule
+     * account typically has a high fan-in, or a pass-through ratio close to 1 (what comes in goes straight out).
+     */
+    public Scores scores(Integer accountId) {
+        long now = System.currentTimeMillis();
+        lock.readLock().lock();
+        try {
+            int slot = slots.get(accountId);
+            if (slot == IntIntMap.MISSING) {
+                return new Scores(0, 0, 0, 0);
+            }
+            Adjacency in = incoming[slot];
+            Adjacency out = outgoing[slot];
+            return new Scores(
+                    in != null ? in.recentCount(now - windowMillis) : 0,
+                    out != null ? out.recentCount(now - windowMillis) : 0,
+                    in != null ? in.totalWeight(now, decayPerMilli) : 0,
+                    out != null ? out.totalWeight(now, decayPerMilli) : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cycles of two or three accounts through the account within the window, each listed from the account onwards
+     * in the direction money moved (A→B→A, A→B→C→A). At most {@value #MAX_CYCLES} are returned.
+     */
+    public List<List<Integer>> shortCycles(Integer accountId) {
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        List<List<Integer>> cycles = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int slot = slots.get(accountId);
+            if (slot == IntIntMap.MISSING || outgoing[slot] == null || incoming[slot] == null) {
+                return cycles;
+            }
+            Adjacency out = outgoing[slot];
+            Adjacency in = incoming[slot];
+            for (int i = 0; i < out.size && cycles.size() < MAX_CYCLES; i++) {
+                if (out.lastSeen[i] < cutoff) {
+                    continue;
+                }
+                int second = out.peers[i];
+                if (in.isRecent(second, cutoff)) {
+                    cycles.add(List.of(accountId, second));
+                }
+                int secondSlot = slots.get(second);
+                Adjacency secondOut = secondSlot != IntIntMap.MISSING ? outgoing[secondSlot] : null;
+                if (secondOut == null) {
+                    continue;
+                }
+                for (int j = 0; j < secondOut.size && cycles.size() < MAX_CYCLES; j++) {
+                    int third = secondOut.peers[j];
+                    if (third != accountId && secondOut.lastSeen[j] >= cutoff && in.isRecent(third, cutoff)) {
+                        cycles.add(List.of(accountId, second, third));
+                    }
+                }
+            }
+            return cycles;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Counterparty> counterparties(Integer accountId, boolean senders) {
+        long now = System.currentTimeMillis();
+        List<Counterparty> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int slot = slots.get(accountId);
+            Adjacency edges = slot == IntIntMap.MISSING ? null : (senders ? incoming : outgoing)[slot];
+            if (edges == null) {
+                return result;
+            }
+            for (int i = 0; i < edges.size; i++) {
+                if (edges.lastSeen[i] >= now - windowMillis) {
+                    result.add(new Counterparty(edges.peers[i], edges.weightAt(i, now, decayPerMilli), edges.lastSeen[i]));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparingDouble(Counterparty::weight).reversed());
+        return result;
+    }
+
+    // ==================== COMPACTION ====================
+
+    // Rebuilds the arrays without the edges that left the window, and without accounts left with no edges
+    @Scheduled(fixedDelayString = "${banking.counterparty-graph.compaction-interval-ms:3600000}",
+            initialDelayString = "${banking.counterparty-graph.compaction-interval-ms:3600000}")
+    public void compact() {
+        if (!isEnabled()) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - windowMillis;
+        lock.writeLock().lock();
+        try {
+            int before = edgeCount;
+            IntIntMap newSlots = new IntIntMap(accountCount);
+            int capacity = Math.max(1024, accountCount);
+            int[] newAccountIds = new int[capacity];
+            Adjacency[] newOutgoing = new Adjacency[capacity];
+            Adjacency[] newIncoming = new Adjacency[capacity];
+            int newCount = 0;
+            int newEdgeCount = 0;
+            for (int slot = 0; slot < accountCount; slot++) {
+                Adjacency out = outgoing[slot] != null ? outgoing[slot].retainSince(cutoff) : null;
+                Adjacency in = incoming[slot] != null ? incoming[slot].retainSince(cutoff) : null;
+                if (out == null && in == null) {
+                    continue;
+                }
+                newSlots.put(accountIds[slot], newCount);
+                newAccountIds[newCount] = accountIds[slot];
+                newOutgoing[newCount] = out;
+                newIncoming[newCount] = in;
+                newEdgeCount += out != null ? out.size : 0;
+                newCount++;
+            }
+            slots = newSlots;
+            accountIds = newAccountIds;
+            outgoing = newOutgoing;
+            incoming = newIncoming;
+            accountCount = newCount;
+            edgeCount = newEdgeCount;
+            log.info("Compacted counterparty graph: {} accounts, {} edges ({} dropped)", accountCount, edgeCount, before - edgeCount);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Called under the write lock
+    private int slotFor(int accountId) {
+        int slot = slots.get(accountId);
+        if (slot != IntIntMap.MISSING) {
+            return slot;
+        }
+        if (accountCount == accountIds.length) {
+            int capacity = accountIds.length * 2;
+            accountIds = Arrays.copyOf(accountIds, capacity);
+            outgoing = Arrays.copyOf(outgoing, capacity);
+            incoming = Arrays.copyOf(incoming, capacity);
+        }
+        slot = accountCount++;
+        accountIds[slot] = accountId;
+        slots.put(accountId, slot);
+        return slot;
+    }
+
+    // ==================== TYPES ====================
+
+    // weight is the decayed amount sent along the edge, in major units
+    public record Counterparty(int accountId, double weight, long lastTransferMillis) {
+    }
+
+    public record Scores(int fanIn, int fanOut, double weightedInflow, double weightedOutflow) {
+
+        // 1 when as much leaves the account as arrives, 0 when money only flows one way
+        public double passThroughRatio() {
+            double larger = Math.max(weightedInflow, weightedOutflow);
+            return larger > 0 ? Math.min(weightedInflow, weightedOutflow) / larger : 0;
+        }
+    }
+
+    // One direction of one account's edges; weights are as of lastSeen
+    private static final class Adjacency {
+        int[] peers = new int[4];
+        double[] weights = new double[4];
+        long[] lastSeen = new long[4];
+        int size;
+        IntIntMap index; // peer -> position, once size exceeds INDEX_THRESHOLD
+
+        int find(int peer) {
+            if (index != null) {
+                return index.get(peer);
+            }
+            for (int i = 0; i < size; i++) {
+                if (peers[i] == peer) {
+                    return i;
+                }
+            }
+            return IntIntMap.MISSING;
+        }
+
+        // Returns true if the edge is new
+        boolean add(int peer, double amount, long timeMillis, double decayPerMilli) {
+            int i = find(peer);
+            if (i != IntIntMap.MISSING) {
+                if (timeMillis >= lastSeen[i]) {
+                    weights[i] = weights[i] * Math.exp(-decayPerMilli * (timeMillis - lastSeen[i])) + amount;
+                    lastSeen[i] = timeMillis;
+                } else {
+                    weights[i] += amount * Math.exp(-decayPerMilli * (lastSeen[i] - timeMillis));
+                }
+                return false;
+            }
+            append(peer, amount, timeMillis);
+            return true;
+        }
+
+        void append(int peer, double weight, long timeMillis) {
+            if (size == peers.length) {
+                peers = Arrays.copyOf(peers, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                lastSeen = Arrays.copyOf(lastSeen, size * 2);
+            }
+            peers[size] = peer;
+            weights[size] = weight;
+            lastSeen[size] = timeMillis;
+            if (index != null) {
+                index.put(peer, size);
+            } else if (size + 1 > INDEX_THRESHOLD) {
+                index = new IntIntMap(size * 2);
+                for (int i = 0; i <= size; i++) {
+                    index.put(peers[i], i);
+                }
+            }
+            size++;
+        }
+
+        boolean isRecent(int peer, long cutoff) {
+            int i = find(peer);
+            return i != IntIntMap.MISSING && lastSeen[i] >= cutoff;
+        }
+
+        int recentCount(long cutoff) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (lastSeen[i] >= cutoff) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        double weightAt(int i, long now, double decayPerMilli) {
+            return weights[i] * Math.exp(-decayPerMilli * Math.max(0, now - lastSeen[i]));
+        }
+
+        double totalWeight(long now, double decayPerMilli) {
+            double total = 0;
+            for (int i = 0; i < size; i++) {
+                total += weightAt(i, now, decayPerMilli);
+            }
+            return total;
+        }
+
+        // A compacted copy without the edges last used before the cutoff; null if none is left
+        Adjacency retainSince(long cutoff) {
+            Adjacency retained = new Adjacency();
+            for (int i = 0; i < size; i++) {
+                if (lastSeen[i] >= cutoff) {
+                    retained.append(peers[i], weights[i], lastSeen[i]);
+                }
+            }
+            return retained.size > 0 ? retained : null;
+        }
+    }
+}
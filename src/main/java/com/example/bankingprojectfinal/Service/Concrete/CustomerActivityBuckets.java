@@ -0,0 +1,246 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.CustomerActivityBucketEntity;
+import com.example.bankingprojectfinal.Repository.CustomerActivityBucketRepository;
+import com.example.bankingprojectfinal.Repository.TransactionRepository;
+import com.example.bankingprojectfinal.Utils.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Every customer's COMPLETED transaction volume, sent or received, in daily buckets, so the nightly risk review
+ * ({@link CustomerRiskTiers}) sums {@value #WINDOW_DAYS} small values instead of scanning a month of transactions.
+ * <p>
+ * A transaction adds its amount to today's bucket of the customer on each side, once when both sides belong to the
+ * same customer; the amount is kept once its transaction commits and dropped if it rolls back. Committed amounts are
+ * written to customer_activity_bucket off the transfer path, as increments flushed every few seconds, and only the
+ * increments not flushed yet are held in memory. Buckets that leave the window are deleted once a day.
+ * <p>
+ * Amounts committed shortly before a crash never reach the table, so on startup yesterday's and today's buckets are
+ * recomputed from the transactions. Races around that rebuild can count an amount twice, never leave it out. In a
+ * cluster the rebuild runs under a {@link ClusterCoordinator} lease, so two nodes starting together never rewrite
+ * the buckets at the same time; the one that finds the lease taken relies on the other's rebuild.
+ */
+@Component
+@Slf4j
+public class CustomerActivityBuckets {
+    public static final int WINDOW_DAYS = 30;
+    private static final String REBUILD_JOB = "rebuild-activity-buckets";
+
+    private final CustomerActivityBucketRepository bucketRepository;
+    private final TransactionRepository transactionRepository;
+    private final ClusterCoordinator clusterCoordinator;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter flushedCounter;
+
+    private final ConcurrentHashMap<Integer, CustomerActivity> customers = new ConcurrentHashMap<>();
+    // Held while buckets are written, so a flush never overlaps the startup rebuild or another flush
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // Guarded by flushLock
+    private LocalDate prunedBefore;
+
+    public CustomerActivityBuckets(CustomerActivityBucketRepository bucketRepository,
+                                   TransactionRepository transactionRepository,
+                                   ClusterCoordinator clusterCoordinator,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.bucketRepository = bucketRepository;
+        this.transactionRepository = transactionRepository;
+        this.clusterCoordinator = clusterCoordinator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushedCounter = meterRegistry.counter("banking.activity-buckets.flushed");
+        Gauge.builder("banking.activity-buckets.customers", customers, Map::size).register(meterRegistry);
+    }
+
+    // The node id is new on every start, so each start is a run of its own; only one node holds the lease at a time
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuild() {
+        if (clusterCoordinator.runPartitioned(REBUILD_JOB, clusterCoordinator.getNodeId(), 1, partition -> rebuildRecentBuckets()) == 0) {
+            log.info("Activity buckets not rebuilt on this node: another node holds the rebuild lease or it failed");
+        }
+    }
+
+    private void rebuildRecentBuckets() {
+        LocalDate from = LocalDate.now().minusDays(1);
+        flushLock.lock();
+        try {
+            Integer rebuilt = transactionTemplate.execute(status -> {
+                Map<BucketKey, BigDecimal> sums = new HashMap<>();
+                sumRows(sums, transactionRepository.sumSentAmountByCustomerAndDate(from));
+                sumRows(sums, transactionRepository.sumReceivedAmountByCustomerAndDate(from));
+
+                bucketRepository.deleteFrom(from);
+                List<CustomerActivityBucketEntity> buckets = new ArrayList<>(sums.size());
+                sums.forEach((key, amount) -> buckets.add(CustomerActivityBucketEntity.builder()
+                        .customerId(key.customerId())
+                        .bucketDate(key.date())
+                        .amount(amount)
+                        .build()));
+                bucketRepository.saveAll(buckets);
+                return buckets.size();
+            });
+            log.info("Rebuilt {} activity buckets from {}", rebuilt, from);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.activity-buckets.flush-interval-ms:10000}",
+            initialDelayString = "${banking.activity-buckets.flush-interval-ms:10000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<BucketKey, Long> increments = new HashMap<>();
+            customers.forEach((customerId, activity) -> activity.drainUnflushed()
+                    .forEach((date, minorUnits) -> increments.put(new BucketKey(customerId, date), minorUnits)));
+            // Customers with nothing in flight are forgotten; their amounts are in the increments
+            customers.keySet().forEach(customerId ->
+                    customers.computeIfPresent(customerId, (id, activity) -> activity.isIdle() ? null : activity));
+            if (!increments.isEmpty()) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> increments.forEach(this::persist));
+                    flushedCounter.increment(increments.size());
+                } catch (RuntimeException e) {
+                    // Nothing was written; the increments are retried with the next flush
+                    increments.forEach((key, minorUnits) -> activity(key.customerId()).restoreUnflushed(key.date(), minorUnits));
+                    log.warn("Failed to flush {} activity buckets: {}", increments.size(), e.getMessage());
+                    return;
+                }
+            }
+            pruneOnceADay();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a completed transaction to today's bucket of both customers. Inside a transaction the amount is kept if
+     * the transaction commits and dropped if it rolls back; outside one it is kept at once.
+     */
+    public void record(Integer debitCustomerId, Integer creditCustomerId, Money amount) {
+        add(debitCustomerId, amount);
+        if (creditCustomerId != null && !creditCustomerId.equals(debitCustomerId)) {
+            add(creditCustomerId, amount);
+        }
+    }
+
+    public void add(Integer customerId, Money amount) {
+        if (customerId == null) {
+            return;
+        }
+        LocalDate date = LocalDate.now();
+        long minorUnits = amount.minorUnits();
+        // Begun inside compute so an idle customer cannot be evicted between the lookup and the update
+        CustomerActivity activity = customers.compute(customerId, (id, existing) -> {
+            CustomerActivity current = existing != null ? existing : new CustomerActivity();
+            current.begin(minorUnits);
+            return current;
+        });
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            activity.commit(date, minorUnits);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    activity.commit(date, minorUnits);
+                } else {
+                    activity.cancel(minorUnits);
+                }
+            }
+        });
+    }
+
+    private void persist(BucketKey key, Long minorUnits) {
+        BigDecimal amount = Money.ofMinor(minorUnits).toBigDecimal();
+        if (bucketRepository.addAmount(key.customerId(), key.date(), amount) == 0) {
+            bucketRepository.save(CustomerActivityBucketEntity.builder()
+                    .customerId(key.customerId())
+                    .bucketDate(key.date())
+                    .amount(amount)
+                    .build());
+        }
+    }
+
+    private void pruneOnceADay() {
+        LocalDate cutoff = LocalDate.now().minusDays(WINDOW_DAYS - 1);
+        if (cutoff.equals(prunedBefore)) {
+            return;
+        }
+        Integer deleted = transactionTemplate.execute(status -> bucketRepository.deleteBefore(cutoff));
+        prunedBefore = cutoff;
+        log.info("Pruned {} activity buckets before {}", deleted, cutoff);
+    }
+
+    private CustomerActivity activity(Integer customerId) {
+        return customers.computeIfAbsent(customerId, id -> new CustomerActivity());
+    }
+
+    private static void sumRows(Map<BucketKey, BigDecimal> sums, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            sums.merge(new BucketKey((Integer) row[0], (LocalDate) row[1]), (BigDecimal) row[2], BigDecimal::add);
+        }
+    }
+
+    private record BucketKey(Integer customerId, LocalDate date) {
+    }
+
+    // Amounts in minor units
+    private static final class CustomerActivity {
+        // Committed amounts per day not written to the table yet
+        private Map<LocalDate, Long> unflushed = new HashMap<>();
+        // Amounts of transactions not completed yet; keeps the entry from being forgotten before they commit
+        private long inFlight;
+
+        synchronized void begin(long amount) {
+            inFlight += amount;
+        }
+
+        synchronized void commit(LocalDate date, long amount) {
+            inFlight -= amount;
+            unflushed.merge(date, amount, Long::sum);
+        }
+
+        synchronized void cancel(long amount) {
+            inFlight -= amount;
+        }
+
+        synchronized Map<LocalDate, Long> drainUnflushed() {
+            Map<LocalDate, Long> drained = unflushed;
+            unflushed = new HashMap<>();
+            return drained;
+        }
+
+        synchronized void restoreUnflushed(LocalDate date, long amount) {
+            unflushed.merge(date, amount, Long::sum);
+        }
+
+        synchronized boolean isIdle() {
+            return inFlight == 0 && unflushed.isEmpty();
+        }
+    }
+}
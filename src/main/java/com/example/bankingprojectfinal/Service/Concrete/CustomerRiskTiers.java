@@ -0,0 +1,182 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.CustomerStatusChangeEntity;
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Repository.CustomerRepository;
+import com.example.bankingprojectfinal.Repository.CustomerStatusChangeRepository;
+import com.example.bankingprojectfinal.Utils.Money;
+import com.example.bankingprojectfinal.config.RiskTierProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Nightly review that moves every customer between REGULAR, SUSPECTED and BLOCKED by their volume over the last
+ * {@value CustomerActivityBuckets#WINDOW_DAYS} days, against the monthly suspicion and blocking limits of their
+ * segment (or their own override).
+ * <p>
+ * Customers are read in keyset chunks, each with its volume summed from the daily activity buckets in the same
+ * grouped query, so a chunk costs one read however much history the customers have. The customers of a chunk that
+ * change tier are moved with one UPDATE per transition and each change is written to customer_status_change, in one
+ * transaction per chunk. BLOCKED customers are never unblocked here and DELETED ones are not read at all. With
+ * release-suspected a SUSPECTED customer under the limit returns to REGULAR only if this review made them
+ * SUSPECTED (their latest customer_status_change row), never when the fraud detector or staff flagged them.
+ */
+@Component
+@Slf4j
+public class CustomerRiskTiers {
+    private static final List<CustomerStatus> REVIEWED_STATUSES = List.of(CustomerStatus.REGULAR, CustomerStatus.SUSPECTED);
+
+    private final CustomerRepository customerRepository;
+    private final CustomerStatusChangeRepository statusChangeRepository;
+    private final CustomerActivityBuckets customerActivityBuckets;
+    private final LimitsEngine limitsEngine;
+    private final RiskTierProperties riskTierProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public CustomerRiskTiers(CustomerRepository customerRepository,
+                             CustomerStatusChangeRepository statusChangeRepository,
+                             CustomerActivityBuckets customerActivityBuckets,
+                             LimitsEngine limitsEngine,
+                             RiskTierProperties riskTierProperties,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.statusChangeRepository = statusChangeRepository;
+        this.customerActivityBuckets = customerActivityBuckets;
+        this.limitsEngine = limitsEngine;
+        this.riskTierProperties = riskTierProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    // After the midnight settlement of pending transactions, so their volume is counted
+    @Scheduled(cron = "${banking.risk-tiers.cron:0 30 0 * * *}")
+    public void review() {
+        if (!Boolean.TRUE.equals(riskTierProperties.getEnabled())) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        customerActivityBuckets.flush(); // This node's latest amounts; other nodes flush within seconds
+        LocalDate from = LocalDate.now().minusDays(CustomerActivityBuckets.WINDOW_DAYS - 1);
+        int chunkSize = riskTierProperties.getChunkSize();
+
+        Map<CustomerStatus, Integer> changed = new EnumMap<>(CustomerStatus.class);
+        int reviewed = 0;
+        Integer afterId = 0;
+        while (true) {
+            Integer lastId = afterId;
+            ChunkResult result = transactionTemplate.execute(status -> reviewChunk(lastId, from, chunkSize));
+            reviewed += result.reviewed();
+            result.changed().forEach((toStatus, count) -> changed.merge(toStatus, count, Integer::sum));
+            if (result.reviewed() < chunkSize) {
+                break;
+            }
+            afterId = result.lastId();
+        }
+        changed.forEach((toStatus, count) ->
+                meterRegistry.counter("banking.risk-tiers.changes", "status", toStatus.name()).increment(count));
+        log.info("Risk tier review of {} customers since {} finished in {} ms: {}",
+                reviewed, from, System.currentTimeMillis() - started, changed.isEmpty() ? "no changes" : changed);
+    }
+
+    private ChunkResult reviewChunk(Integer afterId, LocalDate from, int chunkSize) {
+        List<Object[]> rows = customerRepository.findActivityTotalsAfterId(
+                REVIEWED_STATUSES, from, afterId, PageRequest.of(0, chunkSize));
+        if (rows.isEmpty()) {
+            return new ChunkResult(0, afterId, Map.of());
+        }
+
+        // Grouped by transition so each one is a single UPDATE
+        Map<Transition, List<CustomerStatusChangeEntity>> transitions = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        Set<Integer> releasable = releasableCustomers(rows);
+        for (Object[] row : rows) {
+            Integer customerId = (Integer) row[0];
+            CustomerStatus current = (CustomerStatus) row[1];
+            Money total = row[2] != null ? Money.of((BigDecimal) row[2]) : Money.ZERO;
+            LimitsEngine.Limits limits = limitsEngine.forCustomer(customerId, current);
+
+            CustomerStatus target;
+            Money appliedLimit;
+            if (total.isGreaterThan(limits.monthlyTransactionBlockedLimit())) {
+                target = CustomerStatus.BLOCKED;
+                appliedLimit = limits.monthlyTransactionBlockedLimit();
+            } else if (total.isGreaterThan(limits.monthlyTransactionSuspectLimit())) {
+                target = CustomerStatus.SUSPECTED;
+                appliedLimit = limits.monthlyTransactionSuspectLimit();
+            } else {
+                target = releasable.contains(customerId) ? CustomerStatus.REGULAR : current;
+                appliedLimit = limits.monthlyTransactionSuspectLimit();
+            }
+            if (target == current) {
+                continue;
+            }
+            transitions.computeIfAbsent(new Transition(current, target), transition -> new ArrayList<>())
+                    .add(CustomerStatusChangeEntity.builder()
+                            .customerId(customerId)
+                            .fromStatus(current)
+                            .toStatus(target)
+                            .monthlyTotal(total.toBigDecimal())
+                            .appliedLimit(appliedLimit.toBigDecimal())
+                            .changedAt(now)
+                            .build());
+        }
+
+        Map<CustomerStatus, Integer> changed = new EnumMap<>(CustomerStatus.class);
+        transitions.forEach((transition, changes) -> {
+            List<Integer> ids = changes.stream().map(CustomerStatusChangeEntity::getCustomerId).toList();
+            int updated = customerRepository.updateStatus(ids, transition.from(), transition.to());
+            if (updated < ids.size()) {
+                // Some customers changed status since the read (e.g. through the fraud detector); log only the rest
+                Set<Integer> moved = new HashSet<>(customerRepository.findIdsByIdInAndStatus(ids, transition.to()));
+                changes.removeIf(change -> !moved.contains(change.getCustomerId()));
+            }
+            statusChangeRepository.saveAll(changes);
+            changed.merge(transition.to(), changes.size(), Integer::sum);
+            for (CustomerStatusChangeEntity change : changes) {
+                log.info("Customer ID {} moved from {} to {}: 30-day volume {} against limit {}",
+                        change.getCustomerId(), change.getFromStatus(), change.getToStatus(),
+                        change.getMonthlyTotal(), change.getAppliedLimit());
+            }
+        });
+        return new ChunkResult(rows.size(), (Integer) rows.get(rows.size() - 1)[0], changed);
+    }
+
+    // SUSPECTED customers of the chunk that this review flagged; empty unless release-suspected is on
+    private Set<Integer> releasableCustomers(List<Object[]> rows) {
+        if (!Boolean.TRUE.equals(riskTierProperties.getReleaseSuspected())) {
+            return Set.of();
+        }
+        List<Integer> suspected = rows.stream()
+                .filter(row -> row[1] == CustomerStatus.SUSPECTED)
+                .map(row -> (Integer) row[0])
+                .toList();
+        if (suspected.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(statusChangeRepository.findCustomerIdsLastChangedTo(suspected, CustomerStatus.SUSPECTED));
+    }
+
+    private record Transition(CustomerStatus from, CustomerStatus to) {
+    }
+
+    private record ChunkResult(int reviewed, Integer lastId, Map<CustomerStatus, Integer> changed) {
+    }
+}
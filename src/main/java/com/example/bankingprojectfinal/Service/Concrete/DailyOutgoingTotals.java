@@ -0,0 +1,245 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Exception.LimitExceedsException;
+import com.example.bankingprojectfinal.Repository.TransactionRepository;
+import com.example.bankingprojectfinal.Utils.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Today's outgoing total of every customer, kept in memory so the daily limit check needs no aggregate query.
+ * <p>
+ * Outgoing means every COMPLETED transaction whose debit account belongs to the customer, except deposits. A
+ * transfer reserves its amount under the limit when it is checked; the reservation becomes part of the total when
+ * its transaction commits and is dropped when it rolls back, so two concurrent transfers cannot both pass the
+ * check on the same headroom. The totals start empty every day, are rebuilt from the database on startup and are
+ * reconciled with it periodically. When a commit races with the reconciliation its amount may be counted twice
+ * until the next run, never left out.
+ * <p>
+ * The totals are per JVM, so they only see the transfers of this node. With banking.cluster.enabled the committed
+ * part is read from the database on every check instead (one indexed SUM), and only the reservations still open on
+ * this node come from memory; concurrent transfers of one customer on two nodes can then both pass on the same
+ * headroom, as with the plain SUM check.
+ */
+@Component
+@Slf4j
+public class DailyOutgoingTotals {
+    private final TransactionRepository transactionRepository;
+    private final ClusterCoordinator clusterCoordinator;
+    private final Counter correctionCounter;
+
+    private volatile Day current = new Day(LocalDate.now(), new ConcurrentHashMap<>());
+
+    public DailyOutgoingTotals(TransactionRepository transactionRepository,
+                               ClusterCoordinator clusterCoordinator,
+                               MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.clusterCoordinator = clusterCoordinator;
+        this.correctionCounter = meterRegistry.counter("banking.daily-totals.corrections");
+        Gauge.builder("banking.daily-totals.customers", this, totals -> totals.current.customers().size())
+                .register(meterRegistry);
+    }
+
+    // Before anything that can start transfers on startup (e.g. the scheduled transfer catch-up)
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuild() {
+        int customers = reconcileWithDatabase();
+        log.info("Rebuilt today's outgoing totals for {} customers", customers);
+    }
+
+    @Scheduled(fixedDelayString = "${banking.daily-totals.reconcile-interval-ms:300000}",
+            initialDelayString = "${banking.daily-totals.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        reconcileWithDatabase();
+    }
+
+    public Money todayTotal(Integer customerId) {
+        CustomerTotal total = today().customers().get(customerId);
+        if (clusterCoordinator.isEnabled()) {
+            return Money.ofMinor(committedInDatabase(customerId) + (total != null ? total.reserved() : 0));
+        }
+        return total != null ? Money.ofMinor(total.total()) : Money.ZERO;
+    }
+
+    // Throws if the amount would take the customer over their daily limit; reserves nothing
+    public void check(Integer customerId, Money amount, Money dailyLimit) {
+        Money dailyTotal = todayTotal(customerId);
+        if (dailyTotal.plus(amount).isGreaterThan(dailyLimit)) {
+            throw limitExceeded(dailyLimit, dailyTotal, amount);
+        }
+    }
+
+    /**
+     * Checks the daily limit and reserves the amount under it. Inside a transaction the reservation is kept if the
+     * transaction commits and dropped if it rolls back; outside one it is kept at once.
+     */
+    public void reserve(Integer customerId, Money amount, Money dailyLimit) {
+        CustomerTotal total = customerTotal(customerId);
+        long before = clusterCoordinator.isEnabled()
+                ? total.tryReserve(committedInDatabase(customerId), amount.minorUnits(), dailyLimit.minorUnits())
+                : total.tryReserve(amount.minorUnits(), dailyLimit.minorUnits());
+        if (before < 0) {
+            throw limitExceeded(dailyLimit, Money.ofMinor(-before - 1), amount);
+        }
+        settleOnCompletion(total, amount.minorUnits());
+    }
+
+    // Counts an outgoing amount that is not subject to the limit (e.g. a hold capture), like reserve otherwise
+    public void add(Integer customerId, Money amount) {
+        CustomerTotal total = customerTotal(customerId);
+        total.reserve(amount.minorUnits());
+        settleOnCompletion(total, amount.minorUnits());
+    }
+
+    // Takes back an amount whose transaction committed but whose transfer did not go through (ledger rejections)
+    public void release(Integer customerId, Money amount) {
+        customerTotal(customerId).release(amount.minorUnits());
+    }
+
+    private void settleOnCompletion(CustomerTotal total, long minorUnits) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            total.commit(minorUnits);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    total.commit(minorUnits);
+                } else {
+                    total.cancel(minorUnits);
+                }
+            }
+        });
+    }
+
+    // Amounts committed while the query runs are kept on top of its result, so they cannot be lost
+    private int reconcileWithDatabase() {
+        Day day = today();
+        day.customers().values().forEach(CustomerTotal::mark);
+
+        Map<Integer, Long> committed = new HashMap<>();
+        for (Object[] row : transactionRepository.sumOutgoingAmountByCustomer(day.date())) {
+            committed.put((Integer) row[0], Money.of((BigDecimal) row[1]).minorUnits());
+        }
+        for (Integer customerId : committed.keySet()) {
+            day.customers().computeIfAbsent(customerId, id -> new CustomerTotal());
+        }
+        day.customers().forEach((customerId, total) -> {
+            if (total.reconcile(committed.getOrDefault(customerId, 0L))) {
+                correctionCounter.increment();
+            }
+        });
+        return committed.size();
+    }
+
+    private long committedInDatabase(Integer customerId) {
+        return Money.of(transactionRepository.sumOutgoingAmountOfCustomer(customerId, today().date())).minorUnits();
+    }
+
+    private CustomerTotal customerTotal(Integer customerId) {
+        return today().customers().computeIfAbsent(customerId, id -> new CustomerTotal());
+    }
+
+    // Reservations still open at midnight settle into the previous day's totals, which are no longer read
+    private Day today() {
+        LocalDate date = LocalDate.now();
+        Day day = current;
+        if (!day.date().equals(date)) {
+            synchronized (this) {
+                day = current;
+                if (!day.date().equals(date)) {
+                    day = new Day(date, new ConcurrentHashMap<>());
+                    current = day;
+                }
+            }
+        }
+        return day;
+    }
+
+    private LimitExceedsException limitExceeded(Money dailyLimit, Money dailyTotal, Money amount) {
+        return new LimitExceedsException("Daily transfer limit of " + dailyLimit
+                + " exceeded. Today's transfers: " + dailyTotal + ", requested: " + amount);
+    }
+
+    private record Day(LocalDate date, ConcurrentHashMap<Integer, CustomerTotal> customers) {
+    }
+
+    // Amounts in minor units
+    private static final class CustomerTotal {
+        private long committed;
+        private long reserved;
+        private long committedSinceMark;
+
+        synchronized long total() {
+            return committed + reserved;
+        }
+
+        synchronized long reserved() {
+            return reserved;
+        }
+
+        // Returns the total before the reservation, or -(total + 1) if the amount does not fit under the limit
+        synchronized long tryReserve(long amount, long limit) {
+            return tryReserve(committed, amount, limit);
+        }
+
+        // As above, on top of the committed total of the whole cluster; a local commit the read missed still counts
+        synchronized long tryReserve(long committedTotal, long amount, long limit) {
+            long total = Math.max(committedTotal, committed) + reserved;
+            if (total + amount > limit) {
+                return -total - 1;
+            }
+            reserved += amount;
+            return total;
+        }
+
+        synchronized void reserve(long amount) {
+            reserved += amount;
+        }
+
+        synchronized void commit(long amount) {
+            reserved -= amount;
+            committed += amount;
+            committedSinceMark += amount;
+        }
+
+        synchronized void cancel(long amount) {
+            reserved -= amount;
+        }
+
+        synchronized void release(long amount) {
+            committed -= amount;
+            committedSinceMark -= amount;
+        }
+
+        synchronized void mark() {
+            committedSinceMark = 0;
+        }
+
+        // Returns true if the in-memory total had drifted from the database
+        synchronized boolean reconcile(long committedInDatabase) {
+            long reconciled = committedInDatabase + committedSinceMark;
+            boolean drifted = reconciled != committed;
+            committed = reconciled;
+            return drifted;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Exception.CustomerBlockedException;
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Utils.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks every path that takes money out of an account runs against the debit account: transfers (synchronous,
+ * batch, asynchronous and through the ledger), hold authorization and capture, the nightly settlement and
+ * disbursements. Call them with the account loaded in the current transaction, so the customer's status is the one
+ * committed, e.g. by the fraud detector or the nightly risk review, and with the account lock held, so the balance is
+ * the one committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class DebitChecks {
+    private static final String BLOCKED_MESSAGE = "Your profile is blocked. Please contact the bank.";
+
+    private final HotAccountBalances hotAccountBalances;
+    private final AccountHolds accountHolds;
+
+    // null if the owner of the account may move money out of it
+    public String blockedFailure(AccountEntity debitAccount) {
+        return debitAccount.getCustomer().getStatus() == CustomerStatus.BLOCKED ? BLOCKED_MESSAGE : null;
+    }
+
+    // A blocked customer cannot move money until the block is lifted
+    public void checkNotBlocked(AccountEntity debitAccount) {
+        String failure = blockedFailure(debitAccount);
+        if (failure != null) {
+            throw new CustomerBlockedException(failure);
+        }
+    }
+
+    // What a debit may take: the available balance less the funds reserved by active authorization holds
+    public Money spendableBalance(AccountEntity debitAccount) {
+        return Money.of(hotAccountBalances.availableBalance(debitAccount)).minus(heldAmount(debitAccount));
+    }
+
+    // Part of the balance reserved by active authorization holds; a debit through the ledger must leave it in place
+    public Money heldAmount(AccountEntity debitAccount) {
+        return accountHolds.heldAmount(debitAccount.getId());
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Model.Entity.DisbursementJobEntity;
+import com.example.bankingprojectfinal.Model.Entity.DisbursementLineEntity;
+import com.example.bankingprojectfinal.Model.Entity.TransactionEntity;
+import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
+import com.example.bankingprojectfinal.Model.Enums.DisbursementLineStatus;
+import com.example.bankingprojectfinal.Model.Enums.DisbursementStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionType;
+import com.example.bankingprojectfinal.Repository.DisbursementJobRepository;
+import com.example.bankingprojectfinal.Repository.DisbursementLineRepository;
+import com.example.bankingprojectfinal.Repository.TransactionRepository;
+import com.example.bankingprojectfinal.Utils.BalanceUpdateExecutor;
+import com.example.bankingprojectfinal.Utils.Money;
+import com.example.bankingprojectfinal.config.DisbursementProperties;
+import com.example.bankingprojectfinal.config.LedgerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs disbursement jobs in the background.
+ * <p>
+ * The total of the accepted lines is debited in one transaction, so the debit account is locked and updated once
+ * per job instead of once per line. Credits are then applied in chunks on a small worker pool, each chunk in its
+ * own transaction that locks only the credit accounts it touches. A line's credit, its transaction row and its
+ * COMPLETED status commit together, so a job interrupted by a restart is resumed without paying anyone twice.
+ * Whatever could not be credited is refunded to the debit account when the job finishes.
+ */
+@Component
+@Slf4j
+public class DisbursementProcessor {
+    private final DisbursementJobRepository disbursementJobRepository;
+    private final DisbursementLineRepository disbursementLineRepository;
+    private final TransactionRepository transactionRepository;
+    private final BalanceUpdateExecutor balanceUpdateExecutor;
+    private final HotAccountBalances hotAccountBalances;
+    private final DailyOutgoingTotals dailyOutgoingTotals;
+    private final CustomerActivityBuckets customerActivityBuckets;
+    private final CounterpartyGraph counterpartyGraph;
+    private final DebitChecks debitChecks;
+    private final EntityManager entityManager;
+    private final LimitsEngine limitsEngine;
+    private final DisbursementProperties disbursementProperties;
+    private final LedgerProperties ledgerProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService jobExecutor;
+    private final ExecutorService creditExecutor;
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+
+    private final Counter creditedCounter;
+    private final Counter failedCounter;
+    private final Timer jobTimer;
+
+    public DisbursementProcessor(DisbursementJobRepository disbursementJobRepository,
+                                 DisbursementLineRepository disbursementLineRepository,
+                                 TransactionRepository transactionRepository,
+                                 BalanceUpdateExecutor balanceUpdateExecutor,
+                                 HotAccountBalances hotAccountBalances,
+                                 DailyOutgoingTotals dailyOutgoingTotals,
+                                 CustomerActivityBuckets customerActivityBuckets,
+                                 CounterpartyGraph counterpartyGraph,
+                                 DebitChecks debitChecks,
+                                 EntityManager entityManager,
+                                 LimitsEngine limitsEngine,
+                                 DisbursementProperties disbursementProperties,
+                                 LedgerProperties ledgerProperties,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.disbursementJobRepository = disbursementJobRepository;
+        this.disbursementLineRepository = disbursementLineRepository;
+        this.transactionRepository = transactionRepository;
+        this.balanceUpdateExecutor = balanceUpdateExecutor;
+        this.hotAccountBalances = hotAccountBalances;
+        this.dailyOutgoingTotals = dailyOutgoingTotals;
+        this.customerActivityBuckets = customerActivityBuckets;
+        this.counterpartyGraph = counterpartyGraph;
+        this.debitChecks = debitChecks;
+        this.entityManager = entityManager;
+        this.limitsEngine = limitsEngine;
+        this.disbursementProperties = disbursementProperties;
+        this.ledgerProperties = ledgerProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.jobExecutor = Executors.newFixedThreadPool(disbursementProperties.getMaxConcurrentJobs(), namedThreads("disbursement-job-"));
+        this.creditExecutor = Executors.newFixedThreadPool(disbursementProperties.getParallelism(), namedThreads("disbursement-credit-"));
+
+        this.creditedCounter = meterRegistry.counter("banking.disbursement.lines.credited");
+        this.failedCounter = meterRegistry.counter("banking.disbursement.lines.failed");
+        this.jobTimer = meterRegistry.timer("banking.disbursement.job.duration");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<Long> jobIds = disbursementJobRepository.findIdsByStatusIn(
+                List.of(DisbursementStatus.PENDING, DisbursementStatus.PROCESSING));
+        if (!jobIds.isEmpty() && Boolean.TRUE.equals(ledgerProperties.getEnabled())) {
+            // Their balance updates would bypass the ledger engine's in-memory balances
+            log.warn("{} unfinished disbursement jobs are left until a start without the ledger engine: {}", jobIds.size(), jobIds);
+            return;
+        }
+        if (!jobIds.isEmpty()) {
+            log.info("Resuming {} unfinished disbursement jobs: {}", jobIds.size(), jobIds);
+            jobIds.forEach(this::submit);
+        }
+    }
+
+    // Chunks that have not started yet are left PENDING and picked up again on the next start
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        jobExecutor.shutdown();
+        creditExecutor.shutdown();
+        creditExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        jobExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues the job for processing. Submitting a job that is already running on this node is a no-op.
+     */
+    public void submit(Long jobId) {
+        if (!activeJobs.add(jobId)) {
+            return;
+        }
+        jobExecutor.execute(() -> {
+            try {
+                jobTimer.record(() -> run(jobId));
+            } catch (RuntimeException e) {
+                log.error("Disbursement job {} stopped with an error; it will be resumed on the next start", jobId, e);
+            } finally {
+                activeJobs.remove(jobId);
+            }
+        });
+    }
+
+    private void run(Long jobId) {
+        JobRef job = transactionTemplate.execute(status -> disbursementJobRepository.findById(jobId)
+                .map(entity -> new JobRef(entity.getDebitAccount().getId(), entity.getDebitAccount().getCustomer().getId(),
+                        entity.getDebitCardNumber(), entity.getStatus()))
+                .orElse(null));
+        if (job == null) {
+            log.warn("Disbursement job {} not found", jobId);
+            return;
+        }
+
+        DisbursementStatus status = job.status();
+        if (status == DisbursementStatus.PENDING) {
+            status = balanceUpdateExecutor.execute("disbursement-debit", () -> debitTotal(jobId));
+        }
+        if (status != DisbursementStatus.PROCESSING) {
+            return;
+        }
+
+        creditPendingLines(jobId, job);
+        if (running) {
+            balanceUpdateExecutor.execute("disbursement-finish", () -> finish(jobId));
+        }
+    }
+
+    // One lock and one balance update on the debit account for the whole job
+    private DisbursementStatus debitTotal(Long jobId) {
+        DisbursementJobEntity job = disbursementJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalStateException("Disbursement job not found: " + jobId));
+        if (job.getStatus() != DisbursementStatus.PENDING) {
+            return job.getStatus();
+        }
+        AccountEntity debitAccount = job.getDebitAccount();
+        balanceUpdateExecutor.guard(debitAccount.getId());
+
+        BigDecimal total = job.getTotalAmount();
+        BigDecimal balance = debitChecks.spendableBalance(debitAccount).toBigDecimal(); // Less active holds
+        BigDecimal balanceAfter = balance.subtract(total);
+        BigDecimal minAcceptableBalance = limitsEngine.forCustomer(debitAccount.getCustomer())
+                .minAcceptableAccountBalance().toBigDecimal();
+        String failure = null;
+        String blocked = debitChecks.blockedFailure(debitAccount);
+        if (debitAccount.getStatus() != AccountStatus.ACTIVE) {
+            failure = "Debit account is not active.";
+        } else if (blocked != null) {
+            failure = blocked;
+        } else if (balance.compareTo(total) < 0) {
+            failure = "Insufficient funds. Current balance: " + balance + ", required: " + total;
+        } else if (balanceAfter.compareTo(minAcceptableBalance) < 0) {
+            failure = "Disbursement would leave the balance (" + balanceAfter + ") below the minimum limit ("
+                    + minAcceptableBalance + ").";
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (failure != null) {
+            job.setStatus(DisbursementStatus.FAILED);
+            job.setFailureReason(failure);
+            job.setCompletedAt(now);
+            disbursementLineRepository.markPendingFailedByJobId(jobId, failure, now);
+            log.warn("Disbursement job {} failed before debit: {}", jobId, failure);
+            return DisbursementStatus.FAILED;
+        }
+
+        hotAccountBalances.debit(debitAccount, total);
+        job.setStatus(DisbursementStatus.PROCESSING);
+        job.setStartedAt(now);
+        log.info("Disbursement job {} debited {} from account {} for {} lines",
+                jobId, total, debitAccount.getAccountNumber(), job.getAcceptedLines());
+        return DisbursementStatus.PROCESSING;
+    }
+
+    private void creditPendingLines(Long jobId, JobRef job) {
+        List<Long> lineIds = transactionTemplate.execute(status ->
+                disbursementLineRepository.findIdsByJobIdAndStatus(jobId, DisbursementLineStatus.PENDING));
+        int chunkSize = Math.max(1, disbursementProperties.getChunkSize());
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < lineIds.size(); from += chunkSize) {
+            List<Long> chunk = lineIds.subList(from, Math.min(from + chunkSize, lineIds.size()));
+            chunks.add(CompletableFuture.runAsync(() -> creditChunk(jobId, job, chunk), creditExecutor));
+        }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void creditChunk(Long jobId, JobRef job, List<Long> lineIds) {
+        if (!running) {
+            return;
+        }
+        try {
+            int credited = balanceUpdateExecutor.execute("disbursement-credit", () -> applyCredits(job, lineIds));
+            creditedCounter.increment(credited);
+        } catch (RuntimeException e) {
+            // The chunk rolled back as a whole; its lines are refunded when the job finishes
+            log.warn("Credit chunk of {} lines failed for disbursement job {}: {}", lineIds.size(), jobId, e.getMessage());
+            Integer failed = transactionTemplate.execute(status -> disbursementLineRepository.markPendingFailed(
+                    lineIds, "Credit failed: " + e.getMessage(), LocalDateTime.now()));
+            failedCounter.increment(failed != null ? failed : 0);
+        }
+    }
+
+    private int applyCredits(JobRef job, List<Long> lineIds) {
+        // Locked by id before the balances are loaded
+        if (!balanceUpdateExecutor.isOptimistic()) {
+            balanceUpdateExecutor.guard(disbursementLineRepository.findLockedCreditAccountIdsByIdIn(lineIds)
+                    .toArray(Integer[]::new));
+        }
+        List<DisbursementLineEntity> lines = new ArrayList<>(disbursementLineRepository.findAllWithAccountByIdIn(lineIds));
+        // Lines credited by an earlier, interrupted run are skipped
+        lines.removeIf(line -> line.getStatus() != DisbursementLineStatus.PENDING);
+
+        AccountEntity debitAccount = entityManager.getReference(AccountEntity.class, job.debitAccountId());
+        LocalDateTime now = LocalDateTime.now();
+        List<DisbursementLineEntity> credited = new ArrayList<>(lines.size());
+        List<TransactionEntity> records = new ArrayList<>(lines.size());
+        for (DisbursementLineEntity line : lines) {
+            AccountEntity creditAccount = line.getCreditAccount();
+            if (creditAccount.getStatus() != AccountStatus.ACTIVE) {
+                line.setStatus(DisbursementLineStatus.FAILED);
+                line.setMessage("Credit account is no longer active.");
+                line.setProcessedAt(now);
+                continue;
+            }
+            hotAccountBalances.credit(creditAccount, line.getAmount(), line.getId());
+            records.add(TransactionEntity.builder()
+                    .debitAccount(debitAccount)
+                    .creditAccount(creditAccount)
+                    .debitCardNumber(job.debitCardNumber())
+                    .creditCardNumber(line.getCreditCardNumber())
+                    .transactionDate(LocalDate.now())
+                    .amount(line.getAmount())
+                    .status(TransactionStatus.COMPLETED)
+                    .transactionType(TransactionType.DISBURSEMENT)
+                    .build());
+            credited.add(line);
+        }
+
+        transactionRepository.saveAll(records);
+        // Every line is a COMPLETED transaction from the debit account: it counts towards the day's outgoing total and
+        // towards the activity of both customers
+        Money creditedTotal = Money.ZERO;
+        for (DisbursementLineEntity line : credited) {
+            Money lineAmount = Money.of(line.getAmount());
+            creditedTotal = creditedTotal.plus(lineAmount);
+            Integer creditCustomerId = line.getCreditAccount().getCustomer().getId();
+            if (!creditCustomerId.equals(job.debitCustomerId())) {
+                customerActivityBuckets.add(creditCustomerId, lineAmount);
+            }
+            counterpartyGraph.record(job.debitAccountId(), line.getCreditAccount().getId(), lineAmount);
+        }
+        dailyOutgoingTotals.add(job.debitCustomerId(), creditedTotal);
+        customerActivityBuckets.add(job.debitCustomerId(), creditedTotal);
+        for (int i = 0; i < credited.size(); i++) {
+            DisbursementLineEntity line = credited.get(i);
+            line.setTransactionId(records.get(i).getTransactionId());
+            line.setStatus(DisbursementLineStatus.COMPLETED);
+            line.setProcessedAt(now);
+        }
+        return credited.size();
+    }
+
+    private Void finish(Long jobId) {
+        DisbursementJobEntity job = disbursementJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalStateException("Disbursement job not found: " + jobId));
+        if (job.getStatus() != DisbursementStatus.PROCESSING) {
+            return null;
+        }
+        long pending = disbursementLineRepository.countByJob_IdAndStatus(jobId, DisbursementLineStatus.PENDING);
+        if (pending > 0) {
+            log.warn("Disbursement job {} still has {} pending lines; leaving it for the next run", jobId, pending);
+            return null;
+        }
+
+        BigDecimal disbursed = disbursementLineRepository.sumAmountByJobIdAndStatus(jobId, DisbursementLineStatus.COMPLETED);
+        BigDecimal refund = job.getTotalAmount().subtract(disbursed);
+        if (refund.signum() > 0) {
+            AccountEntity debitAccount = job.getDebitAccount();
+            balanceUpdateExecutor.guard(debitAccount.getId());
+            debitAccount.setBalance(debitAccount.getBalance().add(refund));
+        }
+        job.setRefundedAmount(refund);
+        job.setStatus(refund.signum() > 0 ? DisbursementStatus.COMPLETED_WITH_ERRORS : DisbursementStatus.COMPLETED);
+        job.setCompletedAt(LocalDateTime.now());
+        log.info("Disbursement job {} finished: {} disbursed, {} refunded", jobId, disbursed, refund);
+        return null;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record JobRef(Integer debitAccountId, Integer debitCustomerId, String debitCardNumber, DisbursementStatus status) {
+    }
+}
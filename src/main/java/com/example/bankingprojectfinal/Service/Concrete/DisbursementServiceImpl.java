@@ -0,0 +1,381 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementJobDto;
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementLineDto;
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementLineRequest;
+import com.example.bankingprojectfinal.DTOS.Disbursement.DisbursementRequest;
+import com.example.bankingprojectfinal.Exception.AccountNotActiveException;
+import com.example.bankingprojectfinal.Exception.CardNotFoundException;
+import com.example.bankingprojectfinal.Exception.InvalidCardStatusException;
+import com.example.bankingprojectfinal.Exception.ResourceNotFoundException;
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Model.Entity.CardEntity;
+import com.example.bankingprojectfinal.Model.Entity.DisbursementJobEntity;
+import com.example.bankingprojectfinal.Model.Entity.DisbursementLineEntity;
+import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
+import com.example.bankingprojectfinal.Model.Enums.CardStatus;
+import com.example.bankingprojectfinal.Model.Enums.DisbursementLineStatus;
+import com.example.bankingprojectfinal.Model.Enums.DisbursementStatus;
+import com.example.bankingprojectfinal.Repository.CardRepository;
+import com.example.bankingprojectfinal.Repository.DisbursementJobRepository;
+import com.example.bankingprojectfinal.Repository.DisbursementLineRepository;
+import com.example.bankingprojectfinal.Service.Abstraction.DisbursementService;
+import com.example.bankingprojectfinal.config.DisbursementProperties;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DisbursementServiceImpl implements DisbursementService {
+    private final DisbursementJobRepository disbursementJobRepository;
+    private final DisbursementLineRepository disbursementLineRepository;
+    private final CardRepository cardRepository;
+    private final DisbursementProperties disbursementProperties;
+    private final DisbursementProcessor disbursementProcessor;
+    private final LedgerEngine ledgerEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Override
+    public DisbursementJobDto createDisbursement(DisbursementRequest request) {
+        List<DisbursementLineRequest> lines = request.getLines();
+        Iterator<RawLine> rawLines = new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < lines.size();
+            }
+
+            @Override
+            public RawLine next() {
+                DisbursementLineRequest line = lines.get(index++);
+                return line == null
+                        ? new RawLine(index, null, null, "Empty line.")
+                        : RawLine.of(index, line.getCreditCardNumber(), line.getAmount());
+            }
+        };
+        return createJob(request.getDebitCardNumber(), request.getDescription(), rawLines);
+    }
+
+    @Override
+    public DisbursementJobDto createDisbursementFromCsv(String debitCardNumber, String description, InputStream csv) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            return createJob(debitCardNumber, description, new CsvLineIterator(reader));
+        } catch (IOException | UncheckedIOException e) {
+            throw new IllegalArgumentException("Could not read the disbursement file: " + e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DisbursementJobDto getDisbursement(Long jobId) {
+        DisbursementJobEntity job = disbursementJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Disbursement job not found: " + jobId));
+
+        Map<DisbursementLineStatus, Long> counts = new HashMap<>();
+        BigDecimal disbursedAmount = BigDecimal.ZERO;
+        for (Object[] row : disbursementLineRepository.summarizeByJobId(jobId)) {
+            DisbursementLineStatus status = (DisbursementLineStatus) row[0];
+            counts.put(status, (Long) row[1]);
+            if (status == DisbursementLineStatus.COMPLETED) {
+                disbursedAmount = (BigDecimal) row[2];
+            }
+        }
+
+        return DisbursementJobDto.builder()
+                .jobId(job.getId())
+                .debitAccountNumber(job.getDebitAccount().getAccountNumber())
+                .debitCardNumber(job.getDebitCardNumber())
+                .description(job.getDescription())
+                .status(job.getStatus())
+                .totalLines(job.getTotalLines())
+                .acceptedLines(job.getAcceptedLines())
+                .rejectedLines(counts.getOrDefault(DisbursementLineStatus.REJECTED, 0L).intValue())
+                .pendingLines(counts.getOrDefault(DisbursementLineStatus.PENDING, 0L).intValue())
+                .completedLines(counts.getOrDefault(DisbursementLineStatus.COMPLETED, 0L).intValue())
+                .failedLines(counts.getOrDefault(DisbursementLineStatus.FAILED, 0L).intValue())
+                .totalAmount(job.getTotalAmount())
+                .disbursedAmount(disbursedAmount)
+                .refundedAmount(job.getRefundedAmount())
+                .failureReason(job.getFailureReason())
+                .createdBy(job.getCreatedBy())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<DisbursementLineDto> getDisbursementLines(Long jobId, DisbursementLineStatus status, Integer page, Integer size) {
+        if (!disbursementJobRepository.existsById(jobId)) {
+            throw new ResourceNotFoundException("Disbursement job not found: " + jobId);
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by("lineNumber"));
+        Page<DisbursementLineEntity> lines = status == null
+                ? disbursementLineRepository.findByJob_Id(jobId, pageable)
+                : disbursementLineRepository.findByJob_IdAndStatus(jobId, status, pageable);
+        return lines.map(this::convertToLineDto);
+    }
+
+    private DisbursementJobDto createJob(String debitCardNumber, String description, Iterator<RawLine> lines) {
+        if (ledgerEngine.isEnabled()) {
+            throw new IllegalStateException("Disbursements are not available while the ledger engine is enabled.");
+        }
+        String createdBy = currentUsername();
+        Long jobId = transactionTemplate.execute(status -> validateAndStore(debitCardNumber, description, createdBy, lines));
+        disbursementProcessor.submit(jobId);
+        return transactionTemplate.execute(status -> getDisbursement(jobId)); // self-call: @Transactional does not apply
+    }
+
+    // Single streaming pass: lines are validated and stored one chunk at a time, so memory use does not grow
+    // with the size of the file. Bad lines are stored as REJECTED rather than failing the job.
+    private Long validateAndStore(String debitCardNumber, String description, String createdBy, Iterator<RawLine> lines) {
+        CardEntity debitCard = cardRepository.findByCardNumber(debitCardNumber)
+                .orElseThrow(() -> new CardNotFoundException("Debit card not found with number: " + debitCardNumber));
+        if (debitCard.getStatus() != CardStatus.ACTIVE) {
+            throw new InvalidCardStatusException("Debit card is not active.");
+        }
+        AccountEntity debitAccount = debitCard.getAccount();
+        if (debitAccount.getStatus() != AccountStatus.ACTIVE) {
+            throw new AccountNotActiveException("Debit account is not active.");
+        }
+        Integer debitAccountId = debitAccount.getId();
+
+        DisbursementJobEntity job = DisbursementJobEntity.builder()
+                .debitAccount(debitAccount)
+                .debitCardNumber(debitCardNumber)
+                .description(description)
+                .status(DisbursementStatus.PENDING)
+                .totalLines(0)
+                .acceptedLines(0)
+                .totalAmount(BigDecimal.ZERO)
+                .refundedAmount(BigDecimal.ZERO)
+                .createdBy(createdBy)
+                .createdAt(LocalDateTime.now())
+                .build();
+        disbursementJobRepository.save(job);
+
+        int maxLines = disbursementProperties.getMaxLines();
+        int chunkSize = Math.max(1, disbursementProperties.getChunkSize());
+        int totalLines = 0;
+        int acceptedLines = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<RawLine> chunk = new ArrayList<>(chunkSize);
+        while (lines.hasNext()) {
+            if (++totalLines > maxLines) {
+                throw new IllegalArgumentException("Disbursement exceeds the maximum of " + maxLines + " lines.");
+            }
+            chunk.add(lines.next());
+            if (chunk.size() == chunkSize || !lines.hasNext()) {
+                for (DisbursementLineEntity line : storeChunk(job, debitAccountId, chunk)) {
+                    if (line.getStatus() == DisbursementLineStatus.PENDING) {
+                        acceptedLines++;
+                        totalAmount = totalAmount.add(line.getAmount());
+                    }
+                }
+                chunk.clear();
+            }
+        }
+        if (totalLines == 0) {
+            throw new IllegalArgumentException("Disbursement contains no lines.");
+        }
+
+        job.setTotalLines(totalLines);
+        job.setAcceptedLines(acceptedLines);
+        job.setTotalAmount(totalAmount);
+        if (acceptedLines == 0) {
+            job.setStatus(DisbursementStatus.FAILED);
+            job.setFailureReason("No valid lines.");
+            job.setCompletedAt(LocalDateTime.now());
+        }
+        disbursementJobRepository.save(job);
+        log.info("Disbursement job {} created by {}: {} lines, {} accepted, total {}",
+                job.getId(), createdBy, totalLines, acceptedLines, totalAmount);
+        return job.getId();
+    }
+
+    // One card query per chunk; the lines are then written with JDBC batching and evicted from the session
+    private List<DisbursementLineEntity> storeChunk(DisbursementJobEntity job, Integer debitAccountId, List<RawLine> chunk) {
+        Set<String> cardNumbers = new HashSet<>();
+        for (RawLine line : chunk) {
+            if (line.error() == null) {
+                cardNumbers.add(line.creditCardNumber());
+            }
+        }
+        Map<String, CardEntity> cards = new HashMap<>();
+        if (!cardNumbers.isEmpty()) {
+            for (CardEntity card : cardRepository.findAllWithAccountByCardNumberIn(cardNumbers)) {
+                cards.put(card.getCardNumber(), card);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<DisbursementLineEntity> entities = new ArrayList<>(chunk.size());
+        for (RawLine line : chunk) {
+            CardEntity card = cards.get(line.creditCardNumber());
+            String rejection = line.error() != null ? line.error() : rejectionReason(card, debitAccountId);
+            DisbursementLineEntity entity = DisbursementLineEntity.builder()
+                    .job(job)
+                    .lineNumber(line.lineNumber())
+                    .creditCardNumber(line.creditCardNumber())
+                    .amount(line.amount())
+                    .build();
+            if (rejection == null) {
+                entity.setCreditAccount(card.getAccount());
+                entity.setStatus(DisbursementLineStatus.PENDING);
+            } else {
+                entity.setStatus(DisbursementLineStatus.REJECTED);
+                entity.setMessage(rejection);
+                entity.setProcessedAt(now);
+            }
+            entities.add(entity);
+        }
+        disbursementLineRepository.saveAll(entities);
+        entityManager.flush();
+        entityManager.clear();
+        return entities;
+    }
+
+    private String rejectionReason(CardEntity card, Integer debitAccountId) {
+        if (card == null) {
+            return "Card not found.";
+        }
+        if (card.getStatus() != CardStatus.ACTIVE) {
+            return "Card is not active.";
+        }
+        if (card.getAccount().getStatus() != AccountStatus.ACTIVE) {
+            return "Account is not active.";
+        }
+        if (card.getAccount().getId().equals(debitAccountId)) {
+            return "Cannot credit the debit account.";
+        }
+        return null;
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+
+    private DisbursementLineDto convertToLineDto(DisbursementLineEntity line) {
+        return DisbursementLineDto.builder()
+                .lineNumber(line.getLineNumber())
+                .creditCardNumber(line.getCreditCardNumber())
+                .amount(line.getAmount())
+                .status(line.getStatus())
+                .message(line.getMessage())
+                .transactionId(line.getTransactionId() != null ? line.getTransactionId().toString() : null)
+                .processedAt(line.getProcessedAt())
+                .build();
+    }
+
+    // A parsed input line; error is set when the line is malformed and will be stored as REJECTED
+    private record RawLine(int lineNumber, String creditCardNumber, BigDecimal amount, String error) {
+
+        static RawLine of(int lineNumber, String creditCardNumber, BigDecimal amount) {
+            String error = null;
+            if (creditCardNumber == null || creditCardNumber.length() != 16 || !creditCardNumber.matches("\\d+")) {
+                error = "Invalid card number format. Must be 16 digits.";
+            } else if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                error = "Amount must be greater than zero.";
+            } else if (amount.stripTrailingZeros().scale() > 2) {
+                error = "Amount cannot have more than 2 decimal places.";
+            }
+            return new RawLine(lineNumber, creditCardNumber, amount, error);
+        }
+    }
+
+    // Reads "cardNumber,amount" rows one at a time; blank lines and a leading header row are skipped
+    private static final class CsvLineIterator implements Iterator<RawLine> {
+        private final BufferedReader reader;
+        private int lineNumber;
+        private boolean headerChecked;
+        private RawLine next;
+
+        CsvLineIterator(BufferedReader reader) {
+            this.reader = reader;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public RawLine next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            RawLine current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            next = null;
+            try {
+                String text;
+                while ((text = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (text.isBlank()) {
+                        continue;
+                    }
+                    String[] fields = text.split(",", -1);
+                    String cardNumber = fields[0].trim();
+                    if (!headerChecked) {
+                        headerChecked = true;
+                        if (!cardNumber.isEmpty() && !Character.isDigit(cardNumber.charAt(0))) {
+                            continue; // header row
+                        }
+                    }
+                    next = parse(cardNumber, fields);
+                    return;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private RawLine parse(String cardNumber, String[] fields) {
+            if (fields.length != 2) {
+                return new RawLine(lineNumber, cardNumber, null, "Expected 2 columns: cardNumber,amount.");
+            }
+            try {
+                return RawLine.of(lineNumber, cardNumber, new BigDecimal(fields[1].trim()));
+            } catch (NumberFormatException e) {
+                return new RawLine(lineNumber, cardNumber, null, "Invalid amount: " + fields[1].trim());
+            }
+        }
+    }
+}
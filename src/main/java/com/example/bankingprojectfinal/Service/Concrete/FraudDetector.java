@@ -0,0 +1,358 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Repository.CustomerRepository;
+import com.example.bankingprojectfinal.Utils.Money;
+import com.example.bankingprojectfinal.Utils.SlidingWindowCounter;
+import com.example.bankingprojectfinal.config.FraudProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Velocity checks on committed transfers, run off the request path (banking.fraud.enabled).
+ * <p>
+ * A transfer is handed over once its transaction commits and queued without blocking. One detector thread keeps
+ * sliding windows per sending customer (transfers per minute, amount per hour, new payees per ten minutes), per
+ * debit card (transfers per minute) and per receiving account (incoming transfers per minute, amount per hour).
+ * Each window is a {@link SlidingWindowCounter} of a dozen slots, and only the most recently active
+ * {@code max-tracked-keys} keys of each kind are kept, so memory stays bounded whatever the traffic; an event costs a
+ * few map lookups and a scan of some slots, with no locking.
+ * <p>
+ * A customer whose windows exceed a threshold is marked SUSPECTED, which also puts them under the SUSPECTED
+ * segment's limits; exceeding it {@code block-factor} times over marks them BLOCKED, which stops further transfers.
+ * The status is only ever raised here. When the queue is full events are dropped and counted instead.
+ * <p>
+ * A batch transfer is one event: it counts once against the sender's transfer and new-payee windows, with its
+ * total amount, and each receiving account sees its share of the batch as one incoming transfer.
+ */
+@Component
+@Slf4j
+public class FraudDetector {
+    private static final long SECOND = 1000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final int DRAIN_SIZE = 256;
+    // An escalation is not repeated within this time; after it the customer may have been released and is checked again
+    private static final long ESCALATION_MEMORY = 60 * MINUTE;
+
+    private final CustomerRepository customerRepository;
+    private final FraudProperties fraudProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final ArrayBlockingQueue<TransferEvent> queue;
+
+    // Owned exclusively by the detector thread
+    private final Map<Integer, CustomerWindows> senders;
+    private final Map<String, SlidingWindowCounter> cards;
+    private final Map<Integer, CounterpartyWindows> counterparties;
+    private final Map<Integer, Escalation> escalations;
+
+    private final long customerMaxAmountPerHour;
+    private final long counterpartyMaxIncomingAmountPerHour;
+
+    private volatile boolean running;
+    private Thread detector;
+
+    private final Counter processedCounter;
+    private final Counter droppedCounter;
+    private final Counter suspectedCounter;
+    private final Counter blockedCounter;
+
+    public FraudDetector(CustomerRepository customerRepository,
+                         FraudProperties fraudProperties,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.customerRepository = customerRepository;
+        this.fraudProperties = fraudProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(fraudProperties.getQueueCapacity());
+
+        int maxTrackedKeys = fraudProperties.getMaxTrackedKeys();
+        this.senders = leastRecentlyUsed(maxTrackedKeys);
+        this.cards = leastRecentlyUsed(maxTrackedKeys);
+        this.counterparties = leastRecentlyUsed(maxTrackedKeys);
+        this.escalations = leastRecentlyUsed(maxTrackedKeys);
+        this.customerMaxAmountPerHour = Money.of(fraudProperties.getCustomerMaxAmountPerHour()).minorUnits();
+        this.counterpartyMaxIncomingAmountPerHour =
+                Money.of(fraudProperties.getCounterpartyMaxIncomingAmountPerHour()).minorUnits();
+
+        this.processedCounter = meterRegistry.counter("banking.fraud.events.processed");
+        this.droppedCounter = meterRegistry.counter("banking.fraud.events.dropped");
+        this.suspectedCounter = meterRegistry.counter("banking.fraud.escalations", "status", CustomerStatus.SUSPECTED.name());
+        this.blockedCounter = meterRegistry.counter("banking.fraud.escalations", "status", CustomerStatus.BLOCKED.name());
+        Gauge.builder("banking.fraud.queue.depth", queue, ArrayBlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(fraudProperties.getEnabled());
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        detector = new Thread(this::runDetector, "fraud-detector");
+        detector.setDaemon(true);
+        detector.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (detector != null) {
+            detector.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // ==================== SUBMISSION ====================
+
+    /**
+     * Hands a transfer to the detector when the current transaction commits, or at once outside a transaction.
+     * Never blocks the caller.
+     */
+    public void onTransfer(Integer debitCustomerId, String debitCardNumber,
+                           Integer creditCustomerId, Integer creditAccountId, Money amount) {
+        if (!running || debitCustomerId == null) {
+            return;
+        }
+        long minorUnits = amount.minorUnits();
+        submit(debitCustomerId, debitCardNumber == null ? List.of() : List.of(debitCardNumber),
+                List.of(new Credit(creditCustomerId, creditAccountId, minorUnits)), minorUnits);
+    }
+
+    /**
+     * Hands the committed items of one batch transfer to the detector as a single event, like {@link #onTransfer}.
+     */
+    public void onBatch(Integer debitCustomerId, List<BatchItem> items) {
+        if (!running || debitCustomerId == null || items.isEmpty()) {
+            return;
+        }
+        Set<String> debitCardNumbers = new LinkedHashSet<>();
+        Map<Integer, Credit> credits = new LinkedHashMap<>(); // One incoming transfer per receiving account
+        long total = 0;
+        for (BatchItem item : items) {
+            long minorUnits = item.amount().minorUnits();
+            total = Math.addExact(total, minorUnits);
+            if (item.debitCardNumber() != null) {
+                debitCardNumbers.add(item.debitCardNumber());
+            }
+            credits.merge(item.creditAccountId(), new Credit(item.creditCustomerId(), item.creditAccountId(), minorUnits),
+                    (current, added) -> new Credit(current.customerId(), current.accountId(),
+                            Math.addExact(current.amountMinor(), added.amountMinor())));
+        }
+        submit(debitCustomerId, List.copyOf(debitCardNumbers), List.copyOf(credits.values()), total);
+    }
+
+    private void submit(Integer debitCustomerId, List<String> debitCardNumbers, List<Credit> credits, long amountMinor) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(new TransferEvent(debitCustomerId, debitCardNumbers, credits, amountMinor, System.currentTimeMillis()));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(new TransferEvent(debitCustomerId, debitCardNumbers, credits, amountMinor, System.currentTimeMillis()));
+            }
+        });
+    }
+
+    private void enqueue(TransferEvent event) {
+        if (!queue.offer(event)) {
+            droppedCounter.increment();
+        }
+    }
+
+    // ==================== DETECTOR THREAD ====================
+
+    private void runDetector() {
+        List<TransferEvent> batch = new ArrayList<>(DRAIN_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                TransferEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, DRAIN_SIZE - 1);
+                for (TransferEvent event : batch) {
+                    inspect(event);
+                }
+                processedCounter.increment(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Fraud detector failed to process {} events", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+        log.info("Fraud detector stopped");
+    }
+
+    private void inspect(TransferEvent event) {
+        long now = event.timeMillis();
+
+        CustomerWindows sender = senders.computeIfAbsent(event.debitCustomerId(),
+                id -> new CustomerWindows(fraudProperties.getKnownPayees()));
+        sender.transfers.add(now, 1);
+        sender.amount.add(now, event.amountMinor());
+        boolean newPayee = false;
+        for (Credit credit : event.credits()) {
+            newPayee |= credit.accountId() != null && sender.rememberPayee(credit.accountId());
+        }
+        if (newPayee) {
+            sender.newPayees.add(now, 1);
+        }
+        long transfersPerMinute = sender.transfers.sum(now);
+        long amountPerHour = sender.amount.sum(now);
+        long newPayees = sender.newPayees.sum(now);
+        long cardTransfersPerMinute = 0;
+        for (String debitCardNumber : event.debitCardNumbers()) {
+            SlidingWindowCounter card = cards.computeIfAbsent(debitCardNumber, number -> new SlidingWindowCounter(12, 5 * SECOND));
+            card.add(now, 1);
+            cardTransfersPerMinute = Math.max(cardTransfersPerMinute, card.sum(now));
+        }
+        double senderScore = Math.max(
+                Math.max(ratio(transfersPerMinute, fraudProperties.getCustomerMaxTransfersPerMinute()),
+                        ratio(amountPerHour, customerMaxAmountPerHour)),
+                Math.max(ratio(newPayees, fraudProperties.getCustomerMaxNewPayeesPerTenMinutes()),
+                        ratio(cardTransfersPerMinute, fraudProperties.getCardMaxTransfersPerMinute())));
+        if (senderScore > 1) {
+            escalate(event.debitCustomerId(), senderScore, now, String.format(
+                    "%d transfers/min, %s/hour, %d new payees/10 min, %d transfers/min on card",
+                    transfersPerMinute, Money.ofMinor(amountPerHour), newPayees, cardTransfersPerMinute));
+        }
+
+        for (Credit credit : event.credits()) {
+            inspectCounterparty(event.debitCustomerId(), credit, now);
+        }
+    }
+
+    private void inspectCounterparty(Integer debitCustomerId, Credit credit, long now) {
+        if (credit.accountId() == null || credit.customerId() == null || credit.customerId().equals(debitCustomerId)) {
+            return; // Moving money between one's own accounts says nothing about the receiver
+        }
+        CounterpartyWindows counterparty = counterparties.computeIfAbsent(credit.accountId(), id -> new CounterpartyWindows());
+        counterparty.incoming.add(now, 1);
+        counterparty.amount.add(now, credit.amountMinor());
+        long incomingPerMinute = counterparty.incoming.sum(now);
+        long incomingAmountPerHour = counterparty.amount.sum(now);
+        double counterpartyScore = Math.max(
+                ratio(incomingPerMinute, fraudProperties.getCounterpartyMaxIncomingPerMinute()),
+                ratio(incomingAmountPerHour, counterpartyMaxIncomingAmountPerHour));
+        if (counterpartyScore > 1) {
+            escalate(credit.customerId(), counterpartyScore, now, String.format(
+                    "account %d received %d transfers/min, %s/hour",
+                    credit.accountId(), incomingPerMinute, Money.ofMinor(incomingAmountPerHour)));
+        }
+    }
+
+    private void escalate(Integer customerId, double score, long now, String reason) {
+        CustomerStatus target = score > fraudProperties.getBlockFactor() ? CustomerStatus.BLOCKED : CustomerStatus.SUSPECTED;
+        Escalation previous = escalations.get(customerId);
+        if (previous != null && previous.status().compareTo(target) >= 0 && now - previous.atMillis() < ESCALATION_MEMORY) {
+            return; // Already raised at least this far, recently
+        }
+        List<CustomerStatus> fromStatuses = target == CustomerStatus.BLOCKED
+                ? List.of(CustomerStatus.REGULAR, CustomerStatus.SUSPECTED)
+                : List.of(CustomerStatus.REGULAR);
+        try {
+            Integer updated = transactionTemplate.execute(status ->
+                    customerRepository.escalateStatus(customerId, target, fromStatuses));
+            escalations.put(customerId, new Escalation(target, now));
+            if (updated != null && updated > 0) {
+                (target == CustomerStatus.BLOCKED ? blockedCounter : suspectedCounter).increment();
+                log.warn("Customer ID {} marked {} by the fraud detector: {}", customerId, target, reason);
+            }
+        } catch (RuntimeException e) {
+            // Tried again on the customer's next transfer
+            log.error("Failed to mark customer ID {} as {}: {}", customerId, target, e.getMessage());
+        }
+    }
+
+    private static double ratio(long value, Number threshold) {
+        double limit = threshold.doubleValue();
+        return limit > 0 ? value / limit : 0;
+    }
+
+    // Insertion order doubles as recency because entries are re-put on access (access-ordered LinkedHashMap)
+    private static <K, V> Map<K, V> leastRecentlyUsed(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    // ==================== TYPES ====================
+
+    // One committed item of a batch transfer
+    public record BatchItem(String debitCardNumber, Integer creditCustomerId, Integer creditAccountId, Money amount) {
+    }
+
+    // A single transfer or a whole batch; amountMinor is the total sent
+    private record TransferEvent(Integer debitCustomerId, List<String> debitCardNumbers, List<Credit> credits,
+                                 long amountMinor, long timeMillis) {
+    }
+
+    private record Credit(Integer customerId, Integer accountId, long amountMinor) {
+    }
+
+    private record Escalation(CustomerStatus status, long atMillis) {
+    }
+
+    private static final class CustomerWindows {
+        final SlidingWindowCounter transfers = new SlidingWindowCounter(12, 5 * SECOND);   // last minute
+        final SlidingWindowCounter amount = new SlidingWindowCounter(12, 5 * MINUTE);      // last hour, minor units
+        final SlidingWindowCounter newPayees = new SlidingWindowCounter(10, MINUTE);       // last ten minutes
+        // Credit account ids of the most recent payees, overwritten oldest first
+        final int[] recentPayees;
+        int payeeCount;
+        int nextPayee;
+
+        CustomerWindows(int knownPayees) {
+            this.recentPayees = new int[Math.max(1, knownPayees)];
+        }
+
+        // Returns true if the payee is not among the recent ones, and makes it one
+        boolean rememberPayee(int creditAccountId) {
+            for (int i = 0; i < payeeCount; i++) {
+                if (recentPayees[i] == creditAccountId) {
+                    return false;
+                }
+            }
+            recentPayees[nextPayee] = creditAccountId;
+            nextPayee = (nextPayee + 1) % recentPayees.length;
+            payeeCount = Math.min(payeeCount + 1, recentPayees.length);
+            return true;
+        }
+    }
+
+    private static final class CounterpartyWindows {
+        final SlidingWindowCounter incoming = new SlidingWindowCounter(12, 5 * SECOND);    // last minute
+        final SlidingWindowCounter amount = new SlidingWindowCounter(12, 5 * MINUTE);      // last hour, minor units
+    }
+}
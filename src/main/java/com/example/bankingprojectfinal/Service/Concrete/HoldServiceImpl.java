@@ -0,0 +1,287 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.DTOS.Hold.AuthorizeHoldRequest;
+import com.example.bankingprojectfinal.DTOS.Hold.HoldDto;
+import com.example.bankingprojectfinal.DTOS.Transaction.TransactionMapper;
+import com.example.bankingprojectfinal.Exception.AccountNotActiveException;
+import com.example.bankingprojectfinal.Exception.CardNotFoundException;
+import com.example.bankingprojectfinal.Exception.InvalidHoldStatusException;
+import com.example.bankingprojectfinal.Exception.LimitExceedsException;
+import com.example.bankingprojectfinal.Exception.NotEnoughFundsException;
+import com.example.bankingprojectfinal.Exception.ResourceNotFoundException;
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Model.Entity.AccountHoldEntity;
+import com.example.bankingprojectfinal.Model.Entity.CardEntity;
+import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
+import com.example.bankingprojectfinal.Model.Entity.TransactionEntity;
+import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
+import com.example.bankingprojectfinal.Model.Enums.CardStatus;
+import com.example.bankingprojectfinal.Model.Enums.HoldStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionType;
+import com.example.bankingprojectfinal.Repository.AccountHoldRepository;
+import com.example.bankingprojectfinal.Repository.CardRepository;
+import com.example.bankingprojectfinal.Repository.TransactionRepository;
+import com.example.bankingprojectfinal.Service.Abstraction.HoldService;
+import com.example.bankingprojectfinal.Utils.BalanceUpdateExecutor;
+import com.example.bankingprojectfinal.Utils.Money;
+import com.example.bankingprojectfinal.config.HoldProperties;
+import com.example.bankingprojectfinal.security.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Authorize / capture / void flow. An authorization reserves funds on the debit account without posting a
+ * transaction; the reservation is tracked by {@link AccountHolds} and lowers the available balance seen by every
+ * transfer until the hold is captured, voided or expires. The daily limit is checked at authorization, so a capture
+ * of an authorized amount only fails if the account itself was blocked in the meantime.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HoldServiceImpl implements HoldService {
+    private final AccountHoldRepository accountHoldRepository;
+    private final CardRepository cardRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final BalanceUpdateExecutor balanceUpdateExecutor;
+    private final HotAccountBalances hotAccountBalances;
+    private final AccountHolds accountHolds;
+    private final DailyOutgoingTotals dailyOutgoingTotals;
+    private final CustomerActivityBuckets customerActivityBuckets;
+    private final CounterpartyGraph counterpartyGraph;
+    private final DebitChecks debitChecks;
+    private final LimitsEngine limitsEngine;
+    private final HoldProperties holdProperties;
+    private final LedgerEngine ledgerEngine;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        throw new IllegalStateException("User not authenticated");
+    }
+
+    private CustomerEntity getCurrentCustomer() {
+        User user = getCurrentUser();
+        if (user.getCustomer() == null) {
+            throw new IllegalStateException("Customer profile not found for authenticated user");
+        }
+        return user.getCustomer();
+    }
+
+    @Override
+    public HoldDto authorize(AuthorizeHoldRequest request) {
+        checkLedgerDisabled();
+        Integer customerId = getCurrentCustomer().getId();
+        String debitCardNumber = request.getDebitCardNumber();
+        String creditCardNumber = request.getCreditCardNumber();
+        log.info("Customer ID {} authorizing a hold of {} on card {} for card {}",
+                customerId, request.getAmount(), debitCardNumber, creditCardNumber);
+
+        if (debitCardNumber == null || !debitCardNumber.matches("\\d{16}")) {
+            throw new IllegalArgumentException("Invalid debit card number format. Must be 16 digits.");
+        }
+        if (creditCardNumber == null || !creditCardNumber.matches("\\d{16}")) {
+            throw new IllegalArgumentException("Invalid credit card number format. Must be 16 digits.");
+        }
+        if (debitCardNumber.equals(creditCardNumber)) {
+            throw new IllegalArgumentException("Cannot authorize a payment to the same card.");
+        }
+        Money amount = Money.of(request.getAmount());
+        if (!amount.isPositive()) {
+            throw new IllegalArgumentException("Hold amount must be greater than zero.");
+        }
+        long ttlSeconds = request.getTtlSeconds() != null ? request.getTtlSeconds() : holdProperties.getDefaultTtlSeconds();
+        if (ttlSeconds <= 0 || ttlSeconds > holdProperties.getMaxTtlSeconds()) {
+            throw new IllegalArgumentException("Hold TTL must be between 1 and " + holdProperties.getMaxTtlSeconds() + " seconds.");
+        }
+
+        return balanceUpdateExecutor.execute("hold-authorize", () -> {
+            CardEntity debitCard = cardRepository.findByCardNumber(debitCardNumber)
+                    .orElseThrow(() -> new CardNotFoundException("Debit card not found with number: " + debitCardNumber));
+            CardEntity creditCard = cardRepository.findByCardNumber(creditCardNumber)
+                    .orElseThrow(() -> new CardNotFoundException("Credit card not found with number: " + creditCardNumber));
+
+            // Only the debit account is locked: the hold changes what it can spend, the credit account is untouched
+            balanceUpdateExecutor.guard(debitCard.getAccount().getId());
+
+            if (!debitCard.getAccount().getCustomer().getId().equals(customerId)) {
+                throw new IllegalStateException("Access Denied: You can only authorize payments from your own cards.");
+            }
+            if (debitCard.getStatus() != CardStatus.ACTIVE) {
+                throw new IllegalArgumentException("Your debit card is not active. Status: " + debitCard.getStatus());
+            }
+            if (creditCard.getStatus() != CardStatus.ACTIVE) {
+                throw new IllegalArgumentException("Recipient's credit card is not active. Status: " + creditCard.getStatus());
+            }
+            AccountEntity debitAccount = debitCard.getAccount();
+            if (debitAccount.getStatus() != AccountStatus.ACTIVE) {
+                throw new AccountNotActiveException("Account is not active: " + debitAccount.getAccountNumber());
+            }
+            debitChecks.checkNotBlocked(debitAccount);
+
+            Money available = debitChecks.spendableBalance(debitAccount);
+            if (available.isLessThan(amount)) {
+                throw new NotEnoughFundsException("Insufficient funds in your account. Available balance: " + available);
+            }
+            LimitsEngine.Limits limits = limitsEngine.forCustomer(debitAccount.getCustomer());
+            if (available.minus(amount).isLessThan(limits.minAcceptableAccountBalance())) {
+                throw new LimitExceedsException("Hold would leave your available balance (" + available.minus(amount)
+                        + ") below the minimum limit (" + limits.minAcceptableAccountBalance() + ").");
+            }
+            dailyOutgoingTotals.check(customerId, amount, limits.dailyTransactionLimit()); // Counted when captured
+
+            LocalDateTime now = LocalDateTime.now();
+            AccountHoldEntity hold = AccountHoldEntity.builder()
+                    .debitAccount(debitAccount)
+                    .creditAccount(creditCard.getAccount())
+                    .debitCardNumber(debitCardNumber)
+                    .creditCardNumber(creditCardNumber)
+                    .amount(amount.toBigDecimal())
+                    .status(HoldStatus.ACTIVE)
+                    .createdAt(now)
+                    .expiresAt(now.plusSeconds(ttlSeconds))
+                    .build();
+            accountHoldRepository.save(hold);
+            accountHolds.reserve(hold.getId(), debitAccount.getId(), amount, hold.getExpiresAt());
+            log.info("Hold {} of {} authorized on account {} until {}",
+                    hold.getId(), amount, debitAccount.getAccountNumber(), hold.getExpiresAt());
+            return mapToHoldDto(hold);
+        });
+    }
+
+    @Override
+    public HoldDto capture(Long holdId, BigDecimal requestedAmount) {
+        checkLedgerDisabled();
+        Integer customerId = getCurrentCustomer().getId();
+        log.info("Customer ID {} capturing hold {} (amount: {})", customerId, holdId, requestedAmount);
+
+        return balanceUpdateExecutor.execute("hold-capture", () -> {
+            AccountHoldEntity hold = findOwnHold(holdId, customerId);
+            AccountEntity debitAccount = hold.getDebitAccount();
+            AccountEntity creditAccount = hold.getCreditAccount();
+            balanceUpdateExecutor.guard(debitAccount.getId(), hotAccountBalances.creditLockId(creditAccount.getId()));
+
+            Money heldAmount = Money.of(hold.getAmount());
+            Money amount = requestedAmount != null ? Money.of(requestedAmount) : heldAmount;
+            if (!amount.isPositive() || amount.isGreaterThan(heldAmount)) {
+                throw new IllegalArgumentException("Capture amount must be greater than zero and at most " + heldAmount + ".");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (accountHoldRepository.completeActive(holdId, HoldStatus.CAPTURED, now) == 0) {
+                throw new InvalidHoldStatusException("Hold " + holdId + " is no longer active.");
+            }
+            if (debitAccount.getStatus() != AccountStatus.ACTIVE) {
+                throw new AccountNotActiveException("Account is not active: " + debitAccount.getAccountNumber());
+            }
+            if (creditAccount.getStatus() != AccountStatus.ACTIVE) {
+                throw new AccountNotActiveException("Account is not active: " + creditAccount.getAccountNumber());
+            }
+            debitChecks.checkNotBlocked(debitAccount); // Blocked since the authorization; the hold stays until voided or expired
+            // The funds were reserved at authorization and this hold is still counted as held until the capture
+            // commits; only a direct balance change since then can make this fail
+            if (debitChecks.spendableBalance(debitAccount).plus(heldAmount).isLessThan(amount)) {
+                throw new NotEnoughFundsException("Insufficient funds in debit account: " + debitAccount.getAccountNumber());
+            }
+
+            BigDecimal capturedAmount = amount.toBigDecimal();
+            hotAccountBalances.debit(debitAccount, capturedAmount);
+            hotAccountBalances.credit(creditAccount, capturedAmount, debitAccount.getId());
+
+            TransactionEntity transaction = transactionMapper.buildTransactionEntity(
+                    debitAccount, creditAccount, capturedAmount, TransactionType.CAPTURE);
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setDebitCardNumber(hold.getDebitCardNumber());
+            transaction.setCreditCardNumber(hold.getCreditCardNumber());
+            transactionRepository.save(transaction);
+            dailyOutgoingTotals.add(debitAccount.getCustomer().getId(), amount);
+            customerActivityBuckets.record(debitAccount.getCustomer().getId(), creditAccount.getCustomer().getId(), amount);
+            counterpartyGraph.record(debitAccount.getId(), creditAccount.getId(), amount);
+
+            hold.setStatus(HoldStatus.CAPTURED);
+            hold.setCapturedAmount(capturedAmount);
+            hold.setTransactionId(transaction.getTransactionId());
+            hold.setCompletedAt(now);
+            accountHolds.release(holdId); // The uncaptured remainder is released with the rest of the hold
+            log.info("Hold {} captured for {} as transaction {}", holdId, amount, transaction.getTransactionId());
+            return mapToHoldDto(hold);
+        });
+    }
+
+    @Override
+    public HoldDto voidHold(Long holdId) {
+        Integer customerId = getCurrentCustomer().getId();
+        log.info("Customer ID {} voiding hold {}", customerId, holdId);
+
+        return balanceUpdateExecutor.execute("hold-void", () -> {
+            AccountHoldEntity hold = findOwnHold(holdId, customerId);
+            LocalDateTime now = LocalDateTime.now();
+            if (accountHoldRepository.completeActive(holdId, HoldStatus.VOIDED, now) == 0) {
+                throw new InvalidHoldStatusException("Hold " + holdId + " is no longer active.");
+            }
+            hold.setStatus(HoldStatus.VOIDED);
+            hold.setCompletedAt(now);
+            accountHolds.release(holdId);
+            log.info("Hold {} voided", holdId);
+            return mapToHoldDto(hold);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public HoldDto getHold(Long holdId) {
+        return mapToHoldDto(findOwnHold(holdId, getCurrentCustomer().getId()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<HoldDto> getHoldsByCurrentUser(Integer page, Integer size) {
+        Integer customerId = getCurrentCustomer().getId();
+        log.info("Customer ID {} fetching their holds (Page: {}, Size: {})", customerId, page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return accountHoldRepository.findByDebitAccount_Customer_Id(customerId, pageable).map(this::mapToHoldDto);
+    }
+
+    private AccountHoldEntity findOwnHold(Long holdId, Integer customerId) {
+        AccountHoldEntity hold = accountHoldRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hold not found: " + holdId));
+        if (!hold.getDebitAccount().getCustomer().getId().equals(customerId)) {
+            throw new IllegalStateException("Access Denied: You can only manage holds on your own cards.");
+        }
+        return hold;
+    }
+
+    private void checkLedgerDisabled() {
+        if (ledgerEngine.isEnabled()) {
+            throw new IllegalStateException("Authorization holds are not available while the ledger engine is enabled.");
+        }
+    }
+
+    private HoldDto mapToHoldDto(AccountHoldEntity hold) {
+        return HoldDto.builder()
+                .holdId(hold.getId())
+                .debitAccountNumber(hold.getDebitAccount().getAccountNumber())
+                .creditAccountNumber(hold.getCreditAccount().getAccountNumber())
+                .amount(hold.getAmount())
+                .capturedAmount(hold.getCapturedAmount())
+                .status(hold.getStatus())
+                .transactionId(hold.getTransactionId() != null ? hold.getTransactionId().toString() : null)
+                .createdAt(hold.getCreatedAt())
+                .expiresAt(hold.getExpiresAt())
+                .completedAt(hold.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.AccountBalanceShardEntity;
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Repository.AccountBalanceShardRepository;
+import com.example.bankingprojectfinal.Repository.AccountRepository;
+import com.example.bankingprojectfinal.Utils.BalanceUpdateExecutor;
+import com.example.bankingprojectfinal.config.HotAccountProperties;
+import com.example.bankingprojectfinal.config.LedgerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Sharded sub-balances for hot credit accounts (merchant and collection accounts).
+ * <p>
+ * A credit to a hot account is an atomic {@code balance = balance + amount} on one of N shard rows, picked by
+ * hashing the payer, so concurrent payers neither take the account lock nor bump the account version.
+ * {@link #foldShards} periodically moves the shard totals into {@code AccountEntity.balance} under the account
+ * lock. The spendable balance of a hot account is its main balance plus its shards; shards only grow between
+ * folds, so a debit checked against that total can never overdraw. While the ledger engine is enabled it owns the
+ * balances and folds the shards through its own writer instead.
+ */
+@Component
+@Slf4j
+public class HotAccountBalances {
+    private final AccountBalanceShardRepository shardRepository;
+    private final AccountRepository accountRepository;
+    private final BalanceUpdateExecutor balanceUpdateExecutor;
+    private final EntityManager entityManager;
+    private final HotAccountProperties hotAccountProperties;
+    private final LedgerProperties ledgerProperties;
+
+    private final Counter shardCreditCounter;
+    private final Counter foldCounter;
+
+    public HotAccountBalances(AccountBalanceShardRepository shardRepository,
+                              AccountRepository accountRepository,
+                              BalanceUpdateExecutor balanceUpdateExecutor,
+                              EntityManager entityManager,
+                              HotAccountProperties hotAccountProperties,
+                              LedgerProperties ledgerProperties,
+                              MeterRegistry meterRegistry) {
+        this.shardRepository = shardRepository;
+        this.accountRepository = accountRepository;
+        this.balanceUpdateExecutor = balanceUpdateExecutor;
+        this.entityManager = entityManager;
+        this.hotAccountProperties = hotAccountProperties;
+        this.ledgerProperties = ledgerProperties;
+        this.shardCreditCounter = meterRegistry.counter("banking.hot-accounts.shard.credits");
+        this.foldCounter = meterRegistry.counter("banking.hot-accounts.folds");
+    }
+
+    public boolean isHot(AccountEntity account) {
+        return account != null && Boolean.TRUE.equals(account.getHotAccount());
+    }
+
+    /**
+     * The id to lock for an account that is only going to be credited: null for hot accounts, which are credited
+     * without the account lock. Reads the flag with a scalar query so the account entity is not loaded yet.
+     */
+    public Integer creditLockId(Integer accountId) {
+        if (balanceUpdateExecutor.isOptimistic()) {
+            return accountId; // guard() takes no locks in this mode, skip the query
+        }
+        return accountId != null && accountRepository.isHotAccount(accountId) ? null : accountId;
+    }
+
+    /**
+     * Main balance plus unfolded shard credits. For a hot account that was just switched off, credits still on
+     * its shards are not counted until the next fold; the total is then lower than the real one, never higher.
+     */
+    public BigDecimal availableBalance(AccountEntity account) {
+        if (!isHot(account)) {
+            return account.getBalance();
+        }
+        return account.getBalance().add(shardRepository.sumByAccountId(account.getId()));
+    }
+
+    /**
+     * Credits the account. Hot accounts are credited on a shard chosen by {@code routingKey} (normally the payer);
+     * other accounts must already be locked by the caller.
+     */
+    public void credit(AccountEntity account, BigDecimal amount, Object routingKey) {
+        if (isHot(account)) {
+            int shard = Math.floorMod(Objects.hashCode(routingKey), hotAccountProperties.getShards());
+            if (shardRepository.addToShard(account.getId(), shard, amount) == 1) {
+                shardCreditCounter.increment();
+                return;
+            }
+            // Shard row missing (e.g. the shard count was raised): credit the main balance under the lock instead
+            balanceUpdateExecutor.guard(account.getId());
+        }
+        account.setBalance(account.getBalance().add(amount));
+    }
+
+    /**
+     * Debits an account the caller has already locked. For a hot account the shards are folded in first when
+     * the main balance alone does not cover the amount; callers check {@link #availableBalance} beforehand.
+     */
+    public void debit(AccountEntity account, BigDecimal amount) {
+        if (isHot(account) && account.getBalance().compareTo(amount) < 0) {
+            fold(account);
+        }
+        account.setBalance(account.getBalance().subtract(amount));
+    }
+
+    /**
+     * Creates any missing shard rows for the account. Called when hot mode is switched on, in the same
+     * transaction as the flag, so a committed hot flag always has its shards.
+     */
+    public void ensureShards(Integer accountId) {
+        Set<Integer> existing = new HashSet<>(shardRepository.findShardIndexesByAccountId(accountId));
+        for (int index = 0; index < hotAccountProperties.getShards(); index++) {
+            if (!existing.contains(index)) {
+                shardRepository.save(AccountBalanceShardEntity.builder()
+                        .accountId(accountId)
+                        .shardIndex(index)
+                        .balance(BigDecimal.ZERO)
+                        .build());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.hot-accounts.fold-interval-ms:1000}")
+    public void foldShards() {
+        if (Boolean.TRUE.equals(ledgerProperties.getEnabled())) {
+            return; // A fold here would change balances behind the ledger engine's back; it folds on its writer
+        }
+        foldAllShards();
+    }
+
+    public void foldAllShards() {
+        for (Integer accountId : accountsWithUnfoldedCredits()) {
+            try {
+                balanceUpdateExecutor.execute("shard-fold", () -> foldAccount(accountId));
+            } catch (RuntimeException e) {
+                log.warn("Failed to fold shard balances of account ID {}: {}", accountId, e.getMessage());
+            }
+        }
+    }
+
+    private Void foldAccount(Integer accountId) {
+        balanceUpdateExecutor.guard(accountId);
+        AccountEntity account = entityManager.find(AccountEntity.class, accountId);
+        if (account != null) {
+            fold(account);
+        }
+        return null;
+    }
+
+    public List<Integer> accountsWithUnfoldedCredits() {
+        return shardRepository.findAccountIdsWithUnfoldedCredits();
+    }
+
+    // Moves the shard totals into the main balance; the caller holds the account lock
+    private void fold(AccountEntity account) {
+        BigDecimal folded = drainShards(account.getId());
+        if (folded.signum() != 0) {
+            account.setBalance(account.getBalance().add(folded));
+        }
+    }
+
+    /**
+     * Takes the current shard totals off the shards and returns their sum, which the caller must add to the main
+     * balance in the same transaction. Credits landing on a shard meanwhile stay there for the next fold.
+     */
+    public BigDecimal drainShards(Integer accountId) {
+        BigDecimal folded = BigDecimal.ZERO;
+        for (AccountBalanceShardEntity shard : shardRepository.findByAccountId(accountId)) {
+            BigDecimal amount = shard.getBalance();
+            if (amount.signum() != 0) {
+                shardRepository.subtractFromShard(shard.getId(), amount);
+                folded = folded.add(amount);
+            }
+        }
+        if (folded.signum() != 0) {
+            foldCounter.increment();
+            log.debug("Folded {} from shards of account ID {}", folded, accountId);
+        }
+        return folded;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.DTOS.Transaction.TransactionDto;
+import com.example.bankingprojectfinal.Exception.IdempotencyKeyMismatchException;
+import com.example.bankingprojectfinal.Model.Entity.IdempotencyRecordEntity;
+import com.example.bankingprojectfinal.Repository.IdempotencyRecordRepository;
+import com.example.bankingprojectfinal.config.IdempotencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Two-level store for Idempotency-Key replays of money-moving requests.
+ * <p>
+ * Completed responses live in a bounded in-memory LRU in front of the {@code idempotency_record} table. The record
+ * is inserted in the same database transaction as the transfer it describes, so the primary key on that table is
+ * what guarantees a key moves money at most once, across retries and across nodes. Concurrent retries on the same
+ * node wait for the original request instead of racing it.
+ */
+@Component
+@Slf4j
+public class IdempotencyService {
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final EntityManager entityManager;
+    private final IdempotencyProperties idempotencyProperties;
+
+    private final Map<String, IdempotencyRecordEntity> recentRecords;
+    private final ConcurrentHashMap<String, CompletableFuture<TransactionDto>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter replayCounter;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              EntityManager entityManager,
+                              IdempotencyProperties idempotencyProperties,
+                              MeterRegistry meterRegistry) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.entityManager = entityManager;
+        this.idempotencyProperties = idempotencyProperties;
+        int capacity = idempotencyProperties.getCacheSize();
+        this.recentRecords = Collections.synchronizedMap(new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecordEntity> eldest) {
+                return size() > capacity;
+            }
+        });
+        this.replayCounter = meterRegistry.counter("banking.idempotency.replays");
+    }
+
+    /**
+     * Returns the stored response for this key, or runs {@code transfer} (which must call {@link #record} inside
+     * its own transaction) and returns its result.
+     */
+    public TransactionDto execute(Integer customerId, String idempotencyKey, String requestHash, Supplier<TransactionDto> transfer) {
+        String scopedKey = scopedKey(customerId, idempotencyKey);
+        Optional<TransactionDto> replay = findReplay(scopedKey, requestHash);
+        if (replay.isPresent()) {
+            return replay.get();
+        }
+
+        CompletableFuture<TransactionDto> mine = new CompletableFuture<>();
+        CompletableFuture<TransactionDto> original = inFlight.putIfAbsent(scopedKey, mine);
+        if (original != null) {
+            return awaitOriginal(scopedKey, requestHash, original);
+        }
+        try {
+            TransactionDto result = transfer.get();
+            mine.complete(result);
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            // Another node committed the same key first; its transfer stands and ours was rolled back
+            Optional<TransactionDto> winner = findReplay(scopedKey, requestHash);
+            if (winner.isPresent()) {
+                mine.complete(winner.get());
+                return winner.get();
+            }
+            mine.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    /**
+     * Inserts the idempotency record in the caller's transaction. A concurrent insert of the same key makes the
+     * whole transaction fail at commit with a {@link DataIntegrityViolationException}.
+     */
+    public void record(Integer customerId, String idempotencyKey, String requestHash, TransactionDto response) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecordEntity record = IdempotencyRecordEntity.builder()
+                .idempotencyKey(scopedKey(customerId, idempotencyKey))
+                .customerId(customerId)
+                .requestHash(requestHash)
+                .transactionId(response.getTransactionId())
+                .debitAccountNumber(response.getDebitAccountNumber())
+                .creditAccountNumber(response.getCreditAccountNumber())
+                .transactionDate(response.getTransactionDate())
+                .amount(response.getAmount())
+                .status(response.getStatus())
+                .transactionType(response.getTransactionType())
+                .createdAt(now)
+                .expiresAt(now.plusHours(idempotencyProperties.getTtlHours()))
+                .build();
+        entityManager.persist(record); // persist, not merge: an existing row must fail the insert, never be overwritten
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentRecords.put(record.getIdempotencyKey(), record);
+                }
+            });
+        }
+    }
+
+    public String hashTransfer(String debitCardNumber, String creditCardNumber, BigDecimal amount) {
+        String canonical = debitCardNumber + "|" + creditCardNumber + "|"
+                + (amount != null ? amount.stripTrailingZeros().toPlainString() : "");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.idempotency.cleanup-interval-ms:3600000}")
+    @Transactional
+    public void deleteExpiredRecords() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency records", deleted);
+        }
+    }
+
+    private Optional<TransactionDto> findReplay(String scopedKey, String requestHash) {
+        IdempotencyRecordEntity record = recentRecords.get(scopedKey);
+        if (record == null) {
+            record = idempotencyRecordRepository.findById(scopedKey).orElse(null);
+        }
+        if (record == null) {
+            return Optional.empty();
+        }
+        if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+            // Expired: forget it so the key can be used again
+            recentRecords.remove(scopedKey);
+            idempotencyRecordRepository.deleteById(scopedKey);
+            return Optional.empty();
+        }
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key has already been used for a different request.");
+        }
+        recentRecords.put(scopedKey, record);
+        replayCounter.increment();
+        log.info("Replaying stored response for idempotency key {} (transaction {})", scopedKey, record.getTransactionId());
+        return Optional.of(toTransactionDto(record));
+    }
+
+    private TransactionDto awaitOriginal(String scopedKey, String requestHash, CompletableFuture<TransactionDto> original) {
+        try {
+            original.get(idempotencyProperties.getInFlightWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request.");
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with the same Idempotency-Key is still being processed.");
+        } catch (ExecutionException e) {
+            // The original failed; the retry shares its outcome
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause().getMessage());
+        }
+        // Go through the store so a retry with a different body is still rejected
+        return findReplay(scopedKey, requestHash)
+                .orElseThrow(() -> new IllegalStateException("Original request with the same Idempotency-Key did not complete."));
+    }
+
+    private String scopedKey(Integer customerId, String idempotencyKey) {
+        return customerId + ":" + idempotencyKey;
+    }
+
+    private TransactionDto toTransactionDto(IdempotencyRecordEntity record) {
+        return TransactionDto.builder()
+                .transactionId(record.getTransactionId())
+                .debitAccountNumber(record.getDebitAccountNumber())
+                .creditAccountNumber(record.getCreditAccountNumber())
+                .transactionDate(record.getTransactionDate())
+                .amount(record.getAmount())
+                .status(record.getStatus())
+                .transactionType(record.getTransactionType())
+                .build();
+    }
+}
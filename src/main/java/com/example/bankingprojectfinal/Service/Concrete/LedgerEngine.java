@@ -0,0 +1,449 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.DTOS.Transaction.TransactionDto;
+import com.example.bankingprojectfinal.Exception.AccountNotFoundException;
+import com.example.bankingprojectfinal.Exception.LedgerUnavailableException;
+import com.example.bankingprojectfinal.Exception.LimitExceedsException;
+import com.example.bankingprojectfinal.Exception.NotEnoughFundsException;
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Model.Entity.TransactionEntity;
+import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionType;
+import com.example.bankingprojectfinal.Repository.AccountRepository;
+import com.example.bankingprojectfinal.Repository.TransactionRepository;
+import com.example.bankingprojectfinal.Utils.Bulkheads;
+import com.example.bankingprojectfinal.config.BulkheadGroup;
+import com.example.bankingprojectfinal.config.ClusterProperties;
+import com.example.bankingprojectfinal.config.LedgerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Optional single-writer ledger (banking.ledger.engine.enabled).
+ * <p>
+ * Request threads validate cards and ownership, then submit a command into a bounded ring. One writer thread
+ * owns the in-memory balances: it drains up to {@code batch-size} commands, applies them in sequence (no locks,
+ * no version conflicts), and persists the whole batch in a single database transaction. Callers are answered
+ * only after that batch commits, so an acknowledged transfer is always durable; the per-transfer cost is a
+ * share of one commit instead of two row updates and an insert of its own.
+ * <p>
+ * The in-memory balances are only right while nothing else writes the account rows, so every other balance
+ * writer is either refused while the engine runs (holds, disbursements) or goes through the writer: credits left on
+ * hot-account shards are folded by a FOLD command, in the writer's own transaction. A command is applied to the
+ * balances only after all of its checks passed, and an account id with no row fails the command.
+ * <p>
+ * Commands are applied inside the batch transaction, so a SETTLE claims its PENDING row there with a guarded update
+ * before it moves any money: a transaction queued twice (by the nightly settlement and an async worker) is debited
+ * once, and the second command fails.
+ */
+@Component
+@Slf4j
+public class LedgerEngine {
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerProperties ledgerProperties;
+    private final ClusterProperties clusterProperties;
+    private final HotAccountBalances hotAccountBalances;
+
+    private final ArrayBlockingQueue<LedgerCommand> ring;
+    // Owned exclusively by the writer thread
+    private final Map<Integer, BigDecimal> balances = new HashMap<>();
+    private volatile boolean running;
+    private Thread writer;
+
+    private final Counter appliedCounter;
+    private final Counter rejectedCounter;
+    private final Counter persistFailureCounter;
+    private final DistributionSummary batchSizeSummary;
+
+    public LedgerEngine(AccountRepository accountRepository,
+                        TransactionRepository transactionRepository,
+                        EntityManager entityManager,
+                        PlatformTransactionManager transactionManager,
+                        LedgerProperties ledgerProperties,
+                        ClusterProperties clusterProperties,
+                        HotAccountBalances hotAccountBalances,
+                        MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ledgerProperties = ledgerProperties;
+        this.clusterProperties = clusterProperties;
+        this.hotAccountBalances = hotAccountBalances;
+        this.ring = new ArrayBlockingQueue<>(ledgerProperties.getQueueCapacity());
+
+        this.appliedCounter = meterRegistry.counter("banking.ledger.commands.applied");
+        this.rejectedCounter = meterRegistry.counter("banking.ledger.commands.rejected");
+        this.persistFailureCounter = meterRegistry.counter("banking.ledger.batches.failed");
+        this.batchSizeSummary = meterRegistry.summary("banking.ledger.batch.size");
+        Gauge.builder("banking.ledger.queue.depth", ring, ArrayBlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(ledgerProperties.getEnabled());
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        if (Boolean.TRUE.equals(clusterProperties.getEnabled())) {
+            // The cached balances are per JVM; another node writing the same accounts would be overwritten
+            throw new IllegalStateException("The ledger engine cannot run with banking.cluster.enabled; turn one of them off.");
+        }
+        // The engine owns balances from here on; credits left on hot-account shards are moved to the rows first
+        hotAccountBalances.foldAllShards();
+        // Balances are materialised on the account rows and the transaction rows of a batch are written in the
+        // same database transaction, so the account table alone is a consistent snapshot to rebuild from.
+        for (Object[] row : accountRepository.findAllBalances()) {
+            balances.put((Integer) row[0], row[1] != null ? (BigDecimal) row[1] : BigDecimal.ZERO);
+        }
+        log.info("Ledger engine rebuilt {} account balances; {} transactions already persisted",
+                balances.size(), transactionRepository.count());
+
+        running = true;
+        writer = new Thread(Bulkheads.runAs(BulkheadGroup.CUSTOMER, this::runWriter), "ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    // ==================== SUBMISSION ====================
+
+    public LedgerResult transfer(Integer debitAccountId, String debitAccountNumber, String debitCardNumber,
+                                 Integer creditAccountId, String creditAccountNumber, String creditCardNumber,
+                                 BigDecimal amount, BigDecimal minAcceptableBalance) {
+        return transfer(debitAccountId, debitAccountNumber, debitCardNumber,
+                creditAccountId, creditAccountNumber, creditCardNumber,
+                amount, minAcceptableBalance, null);
+    }
+
+    // inBatch, if given, runs in the batch transaction right after the transaction row is written (for example to
+    // store an idempotency record), so it commits or rolls back together with the money
+    public LedgerResult transfer(Integer debitAccountId, String debitAccountNumber, String debitCardNumber,
+                                 Integer creditAccountId, String creditAccountNumber, String creditCardNumber,
+                                 BigDecimal amount, BigDecimal minAcceptableBalance, Consumer<TransactionDto> inBatch) {
+        LedgerCommand command = new LedgerCommand(CommandType.TRANSFER, null,
+                debitAccountId, debitAccountNumber, debitCardNumber,
+                creditAccountId, creditAccountNumber, creditCardNumber,
+                amount, minAcceptableBalance, TransactionType.TRANSFER);
+        command.inBatch = inBatch;
+        return submit(command);
+    }
+
+    public LedgerResult deposit(Integer accountId, String accountNumber, String cardNumber, BigDecimal amount) {
+        return submit(new LedgerCommand(CommandType.DEPOSIT, null,
+                null, accountNumber, null,
+                accountId, accountNumber, cardNumber,
+                amount, null, TransactionType.DEPOSIT));
+    }
+
+    // Settles an existing PENDING transaction row; as in TransactionSchedule only the funds not held by authorization
+    // holds are checked, so heldAmount is the floor the balance must stay at
+    public LedgerResult settle(UUID transactionId, Integer debitAccountId, String debitAccountNumber,
+                               Integer creditAccountId, String creditAccountNumber,
+                               BigDecimal amount, BigDecimal heldAmount, TransactionType type) {
+        return submit(new LedgerCommand(CommandType.SETTLE, transactionId,
+                debitAccountId, debitAccountNumber, null,
+                creditAccountId, creditAccountNumber, null,
+                amount, heldAmount, type));
+    }
+
+    // Folds credits that reached hot-account shards outside the engine into its balances
+    @Scheduled(fixedDelayString = "${banking.hot-accounts.fold-interval-ms:1000}")
+    public void foldShards() {
+        if (!running) {
+            return;
+        }
+        for (Integer accountId : hotAccountBalances.accountsWithUnfoldedCredits()) {
+            try {
+                submit(new LedgerCommand(CommandType.FOLD, null,
+                        null, null, null,
+                        accountId, null, null,
+                        null, null, null));
+            } catch (RuntimeException e) {
+                log.warn("Failed to fold shard balances of account ID {}: {}", accountId, e.getMessage());
+            }
+        }
+    }
+
+    private LedgerResult submit(LedgerCommand command) {
+        if (!running) {
+            throw new LedgerUnavailableException("Ledger engine is not running.");
+        }
+        long timeoutMs = ledgerProperties.getAwaitTimeoutMs();
+        try {
+            if (!ring.offer(command, timeoutMs, TimeUnit.MILLISECONDS)) {
+                rejectedCounter.increment();
+                throw new LedgerUnavailableException("Ledger engine is saturated. Please retry the operation.");
+            }
+            return command.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LedgerUnavailableException("Interrupted while waiting for the ledger engine.");
+        } catch (TimeoutException e) {
+            // The command may still be applied later; its outcome is visible in the transaction history
+            throw new LedgerUnavailableException("Timed out waiting for the ledger engine. Check your transactions before retrying.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new LedgerUnavailableException("Ledger engine failed: " + e.getCause().getMessage());
+        }
+    }
+
+    // ==================== WRITER THREAD ====================
+
+    private void runWriter() {
+        List<LedgerCommand> batch = new ArrayList<>(ledgerProperties.getBatchSize());
+        while (running || !ring.isEmpty()) {
+            try {
+                LedgerCommand first = ring.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                ring.drainTo(batch, ledgerProperties.getBatchSize() - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Ledger writer failed to process a batch of {} commands", batch.size(), e);
+                batch.forEach(command -> command.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+        log.info("Ledger writer stopped");
+    }
+
+    private void processBatch(List<LedgerCommand> batch) {
+        Map<Integer, BigDecimal> before = new HashMap<>();
+        List<LedgerCommand> applied = new ArrayList<>(batch.size());
+
+        try {
+            List<LedgerResult> results = transactionTemplate.execute(status -> {
+                for (LedgerCommand command : batch) {
+                    try {
+                        apply(command, before);
+                        applied.add(command);
+                    } catch (RuntimeException e) {
+                        command.result.completeExceptionally(e);
+                    }
+                }
+                return applied.isEmpty() ? List.<LedgerResult>of() : persist(applied, before);
+            });
+            if (applied.isEmpty()) {
+                return;
+            }
+            for (int i = 0; i < applied.size(); i++) {
+                applied.get(i).result.complete(results.get(i));
+            }
+            appliedCounter.increment(applied.size());
+            batchSizeSummary.record(applied.size());
+        } catch (RuntimeException e) {
+            // Nothing of this batch reached the database: roll the in-memory balances back and fail every caller
+            persistFailureCounter.increment();
+            balances.putAll(before);
+            log.error("Ledger batch of {} commands failed to persist: {}", applied.size(), e.getMessage());
+            applied.forEach(command -> command.result.completeExceptionally(
+                    new LedgerUnavailableException("Ledger persistence failed: " + e.getMessage())));
+        }
+    }
+
+    // All reads and checks come first, so a command that fails leaves the balances exactly as they were. Runs in the
+    // batch transaction: a SETTLE's claim on its row commits or rolls back with the balances it moved.
+    private void apply(LedgerCommand command, Map<Integer, BigDecimal> before) {
+        BigDecimal creditBalanceBefore = balanceOf(command.creditAccountId);
+        if (command.type == CommandType.FOLD) {
+            before.putIfAbsent(command.creditAccountId, creditBalanceBefore); // The shards are drained in persist()
+            return;
+        }
+        BigDecimal debitBalance = null;
+        BigDecimal debitBalanceAfter = null;
+        if (command.debitAccountId != null) {
+            debitBalance = balanceOf(command.debitAccountId);
+            if (debitBalance.compareTo(command.amount) < 0) {
+                throw new NotEnoughFundsException("Insufficient funds in your account. Current balance: " + debitBalance);
+            }
+            debitBalanceAfter = debitBalance.subtract(command.amount);
+            if (command.minAcceptableBalance != null && debitBalanceAfter.compareTo(command.minAcceptableBalance) < 0) {
+                throw new LimitExceedsException("Transfer would leave your balance (" + debitBalanceAfter
+                        + ") below the minimum limit (" + command.minAcceptableBalance + ").");
+            }
+        }
+        if (command.type == CommandType.SETTLE
+                && transactionRepository.claimPending(command.transactionId, TransactionStatus.COMPLETED, LocalDate.now()) == 0) {
+            throw new IllegalStateException("Transaction " + command.transactionId + " is no longer pending.");
+        }
+        BigDecimal creditBalance = command.creditAccountId.equals(command.debitAccountId) ? debitBalanceAfter : creditBalanceBefore;
+
+        if (command.debitAccountId != null) {
+            before.putIfAbsent(command.debitAccountId, debitBalance);
+            balances.put(command.debitAccountId, debitBalanceAfter);
+            command.debitBalanceAfter = debitBalanceAfter;
+        }
+        before.putIfAbsent(command.creditAccountId, creditBalanceBefore);
+        command.creditBalanceAfter = creditBalance.add(command.amount);
+        balances.put(command.creditAccountId, command.creditBalanceAfter);
+    }
+
+    // Accounts opened after start-up are loaded on first use
+    private BigDecimal balanceOf(Integer accountId) {
+        BigDecimal balance = balances.get(accountId);
+        if (balance == null) {
+            balance = accountRepository.findBalanceById(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found: " + accountId));
+            balances.put(accountId, balance);
+        }
+        return balance;
+    }
+
+    private List<LedgerResult> persist(List<LedgerCommand> applied, Map<Integer, BigDecimal> touchedAccounts) {
+        for (LedgerCommand command : applied) {
+            if (command.type == CommandType.FOLD) {
+                command.creditBalanceAfter = balances.merge(command.creditAccountId,
+                        hotAccountBalances.drainShards(command.creditAccountId), BigDecimal::add);
+            }
+        }
+        for (Integer accountId : touchedAccounts.keySet()) {
+            accountRepository.updateBalance(accountId, balances.get(accountId));
+        }
+
+        LocalDate today = LocalDate.now();
+        List<TransactionEntity> inserts = new ArrayList<>();
+        for (LedgerCommand command : applied) {
+            if (command.type == CommandType.TRANSFER || command.type == CommandType.DEPOSIT) {
+                Integer debitAccountId = command.debitAccountId != null ? command.debitAccountId : command.creditAccountId;
+                TransactionEntity transaction = TransactionEntity.builder()
+                        .debitAccount(entityManager.getReference(AccountEntity.class, debitAccountId))
+                        .creditAccount(entityManager.getReference(AccountEntity.class, command.creditAccountId))
+                        .debitCardNumber(command.debitCardNumber)
+                        .creditCardNumber(command.creditCardNumber)
+                        .transactionDate(today)
+                        .amount(command.amount)
+                        .status(TransactionStatus.COMPLETED)
+                        .transactionType(command.transactionType)
+                        .build();
+                inserts.add(transaction);
+            }
+        }
+        transactionRepository.saveAll(inserts);
+
+        List<LedgerResult> results = new ArrayList<>(applied.size());
+        int insertIndex = 0;
+        for (LedgerCommand command : applied) {
+            if (command.type == CommandType.FOLD) {
+                results.add(new LedgerResult(null, null, command.creditBalanceAfter));
+                continue;
+            }
+            UUID transactionId = command.type == CommandType.SETTLE
+                    ? command.transactionId
+                    : inserts.get(insertIndex++).getTransactionId();
+            TransactionDto dto = TransactionDto.builder()
+                    .transactionId(transactionId.toString())
+                    .debitAccountNumber(command.debitAccountNumber)
+                    .creditAccountNumber(command.creditAccountNumber)
+                    .transactionDate(today.atStartOfDay())
+                    .amount(command.amount)
+                    .status(TransactionStatus.COMPLETED)
+                    .transactionType(command.transactionType)
+                    .build();
+            if (command.inBatch != null) {
+                command.inBatch.accept(dto);
+            }
+            results.add(new LedgerResult(dto, command.debitBalanceAfter, command.creditBalanceAfter));
+        }
+        return results;
+    }
+
+    // ==================== TYPES ====================
+
+    private enum CommandType {
+        TRANSFER,
+        DEPOSIT,
+        SETTLE,
+        FOLD
+    }
+
+    private static final class LedgerCommand {
+        final CommandType type;
+        final UUID transactionId;
+        final Integer debitAccountId;
+        final String debitAccountNumber;
+        final String debitCardNumber;
+        final Integer creditAccountId;
+        final String creditAccountNumber;
+        final String creditCardNumber;
+        final BigDecimal amount;
+        final BigDecimal minAcceptableBalance;
+        final TransactionType transactionType;
+        final CompletableFuture<LedgerResult> result = new CompletableFuture<>();
+        Consumer<TransactionDto> inBatch;
+        // Written by the writer thread only
+        BigDecimal debitBalanceAfter;
+        BigDecimal creditBalanceAfter;
+
+        LedgerCommand(CommandType type, UUID transactionId,
+                      Integer debitAccountId, String debitAccountNumber, String debitCardNumber,
+                      Integer creditAccountId, String creditAccountNumber, String creditCardNumber,
+                      BigDecimal amount, BigDecimal minAcceptableBalance, TransactionType transactionType) {
+            this.type = type;
+            this.transactionId = transactionId;
+            this.debitAccountId = debitAccountId;
+            this.debitAccountNumber = debitAccountNumber;
+            this.debitCardNumber = debitCardNumber;
+            this.creditAccountId = creditAccountId;
+            this.creditAccountNumber = creditAccountNumber;
+            this.creditCardNumber = creditCardNumber;
+            this.amount = amount;
+            this.minAcceptableBalance = minAcceptableBalance;
+            this.transactionType = transactionType;
+        }
+    }
+
+    /**
+     * Outcome of a sequenced command. Balances are the values right after this command was applied.
+     */
+    public record LedgerResult(TransactionDto transaction, BigDecimal debitBalance, BigDecimal creditBalance) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.DTOS.Limit.CustomerLimitsDto;
+import com.example.bankingprojectfinal.DTOS.Limit.LimitRuleDto;
+import com.example.bankingprojectfinal.DTOS.Limit.LimitRuleRequest;
+import com.example.bankingprojectfinal.Exception.CustomerNotFoundException;
+import com.example.bankingprojectfinal.Exception.ResourceNotFoundException;
+import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
+import com.example.bankingprojectfinal.Model.Entity.LimitRuleEntity;
+import com.example.bankingprojectfinal.Repository.CustomerRepository;
+import com.example.bankingprojectfinal.Repository.LimitRuleRepository;
+import com.example.bankingprojectfinal.Service.Abstraction.LimitRuleService;
+import com.example.bankingprojectfinal.Utils.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LimitRuleServiceImpl implements LimitRuleService {
+    private final LimitRuleRepository limitRuleRepository;
+    private final CustomerRepository customerRepository;
+    private final LimitsEngine limitsEngine;
+
+    // Creates the rule or replaces the value of the existing one for the same segment or customer and limit type
+    @Override
+    @Transactional
+    public LimitRuleDto setRule(LimitRuleRequest request) {
+        validateRule(request);
+
+        LimitRuleEntity rule = (request.getCustomerId() != null
+                ? limitRuleRepository.findByCustomerIdAndLimitType(request.getCustomerId(), request.getLimitType())
+                : limitRuleRepository.findBySegmentAndLimitType(request.getSegment(), request.getLimitType()))
+                .orElseGet(() -> LimitRuleEntity.builder()
+                        .segment(request.getSegment())
+                        .customerId(request.getCustomerId())
+                        .limitType(request.getLimitType())
+                        .build());
+        rule.setValue(request.getValue());
+        rule.setUpdatedAt(LocalDateTime.now());
+        limitRuleRepository.save(rule);
+        limitsEngine.reloadAfterCommit();
+
+        log.info("Limit rule {} set: {} = {} for {}", rule.getId(), rule.getLimitType(), rule.getValue(),
+                rule.getCustomerId() != null ? "customer " + rule.getCustomerId() : "segment " + rule.getSegment());
+        return mapToLimitRuleDto(rule);
+    }
+
+    @Override
+    @Transactional
+    public void deleteRule(Long ruleId) {
+        LimitRuleEntity rule = limitRuleRepository.findById(ruleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Limit rule not found: " + ruleId));
+        limitRuleRepository.delete(rule);
+        limitsEngine.reloadAfterCommit();
+        log.info("Limit rule {} deleted", ruleId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LimitRuleDto> getRules() {
+        return limitRuleRepository.findAll(Sort.by("limitType", "segment", "customerId")).stream()
+                .map(this::mapToLimitRuleDto)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerLimitsDto getCustomerLimits(Integer customerId) {
+        CustomerEntity customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new CustomerNotFoundException("Customer with ID " + customerId + " not found."));
+        LimitsEngine.Limits limits = limitsEngine.forCustomer(customer);
+        return CustomerLimitsDto.builder()
+                .customerId(customerId)
+                .segment(customer.getStatus())
+                .maxAccountCountPerCustomer(limits.maxAccountCountPerCustomer())
+                .maxCardCountPerAccount(limits.maxCardCountPerAccount())
+                .dailyTransactionLimit(limits.dailyTransactionLimit().toBigDecimal())
+                .minAcceptableAccountBalance(limits.minAcceptableAccountBalance().toBigDecimal())
+                .monthlyTransactionSuspectLimit(limits.monthlyTransactionSuspectLimit().toBigDecimal())
+                .monthlyTransactionBlockedLimit(limits.monthlyTransactionBlockedLimit().toBigDecimal())
+                .build();
+    }
+
+    private void validateRule(LimitRuleRequest request) {
+        if ((request.getSegment() == null) == (request.getCustomerId() == null)) {
+            throw new IllegalArgumentException("A limit rule applies to either a segment or a customer.");
+        }
+        if (request.getValue() == null || request.getValue().signum() < 0) {
+            throw new IllegalArgumentException("Limit value cannot be negative.");
+        }
+        if (request.getLimitType().isCount() && request.getValue().stripTrailingZeros().scale() > 0) {
+            throw new IllegalArgumentException(request.getLimitType() + " must be a whole number.");
+        }
+        if (request.getLimitType().isCount() && request.getValue().compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0) {
+            throw new IllegalArgumentException(request.getLimitType() + " is too large.");
+        }
+        if (!request.getLimitType().isCount()) {
+            // The conversion LimitsEngine makes on every reload; a stored rule that failed it would break them all
+            Money.of(request.getValue());
+        }
+        if (request.getCustomerId() != null && !customerRepository.existsById(request.getCustomerId())) {
+            throw new CustomerNotFoundException("Customer with ID " + request.getCustomerId() + " not found.");
+        }
+    }
+
+    private LimitRuleDto mapToLimitRuleDto(LimitRuleEntity rule) {
+        return LimitRuleDto.builder()
+                .id(rule.getId())
+                .segment(rule.getSegment())
+                .customerId(rule.getCustomerId())
+                .limitType(rule.getLimitType())
+                .value(rule.getValue())
+                .updatedAt(rule.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
+import com.example.bankingprojectfinal.Model.Entity.LimitRuleEntity;
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Model.Enums.LimitType;
+import com.example.bankingprojectfinal.Repository.LimitRuleRepository;
+import com.example.bankingprojectfinal.Utils.LimitProperties;
+import com.example.bankingprojectfinal.Utils.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Effective limits of every customer: the bank-wide defaults from {@link LimitProperties}, overridden by the
+ * limit_rule rows of the customer's segment (its status), overridden in turn by the rows for that customer.
+ * <p>
+ * The rules are compiled into an immutable {@link RuleSet} that already holds the resolved limits of every segment
+ * and of every overridden customer in every segment, so a lookup is two map reads and never touches the database.
+ * A change recompiles the rules once it commits and swaps the new set in with a single volatile write; other nodes
+ * notice the change on their next refresh.
+ */
+@Component
+@Slf4j
+public class LimitsEngine {
+    private final LimitRuleRepository limitRuleRepository;
+    private final LimitProperties limitProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile RuleSet rules;
+
+    public LimitsEngine(LimitRuleRepository limitRuleRepository,
+                        LimitProperties limitProperties,
+                        PlatformTransactionManager transactionManager) {
+        this.limitRuleRepository = limitRuleRepository;
+        this.limitProperties = limitProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rules = compile(List.of(), null); // Defaults only until the rules are loaded
+    }
+
+    // Before anything that can start transfers on startup (e.g. the scheduled transfer catch-up)
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        reload();
+    }
+
+    // Picks up changes made on other nodes; one aggregate query when nothing changed
+    @Scheduled(fixedDelayString = "${banking.limits.refresh-interval-ms:60000}",
+            initialDelayString = "${banking.limits.refresh-interval-ms:60000}")
+    public void refresh() {
+        String version = transactionTemplate.execute(status -> currentVersion());
+        if (!version.equals(rules.version())) {
+            reload();
+        }
+    }
+
+    // Recompiles when the current transaction commits, or at once outside a transaction
+    public void reloadAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reload();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reload();
+            }
+        });
+    }
+
+    public synchronized void reload() {
+        RuleSet compiled = transactionTemplate.execute(status ->
+                compile(limitRuleRepository.findAll(), currentVersion()));
+        rules = compiled;
+        log.info("Compiled limit rules {}: {} segment and {} customer overrides",
+                compiled.version(), compiled.segmentRuleCount(), compiled.customerLimits().size());
+    }
+
+    public Limits forCustomer(CustomerEntity customer) {
+        return forCustomer(customer.getId(), customer.getStatus());
+    }
+
+    public Limits forCustomer(Integer customerId, CustomerStatus segment) {
+        return rules.lookup(customerId, segment != null ? segment : CustomerStatus.REGULAR);
+    }
+
+    private String currentVersion() {
+        Object[] row = limitRuleRepository.findVersion().get(0);
+        return row[0] + "@" + row[1];
+    }
+
+    private RuleSet compile(List<LimitRuleEntity> ruleRows, String version) {
+        Limits defaults = new Limits(
+                limitProperties.getMaxAccountCountPerCustomer(),
+                limitProperties.getMaxCardCountPerAccount(),
+                Money.of(limitProperties.getDailyTransactionLimit()),
+                Money.of(limitProperties.getMinAcceptableAccountBalance()),
+                Money.of(limitProperties.getMonthlyTransactionSuspectLimit()),
+                Money.of(limitProperties.getMonthlyTransactionBlockedLimit()));
+
+        Map<CustomerStatus, List<LimitRuleEntity>> segmentRules = new EnumMap<>(CustomerStatus.class);
+        Map<Integer, List<LimitRuleEntity>> customerRules = new HashMap<>();
+        for (LimitRuleEntity rule : ruleRows) {
+            if (!compiles(rule)) {
+                log.warn("Skipping limit rule {}: {} = {} is not a valid value", rule.getId(), rule.getLimitType(), rule.getValue());
+                continue;
+            }
+            if (rule.getCustomerId() != null) {
+                customerRules.computeIfAbsent(rule.getCustomerId(), id -> new ArrayList<>()).add(rule);
+            } else if (rule.getSegment() != null) {
+                segmentRules.computeIfAbsent(rule.getSegment(), segment -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        EnumMap<CustomerStatus, Limits> segmentLimits = new EnumMap<>(CustomerStatus.class);
+        for (CustomerStatus segment : CustomerStatus.values()) {
+            segmentLimits.put(segment, apply(defaults, segmentRules.getOrDefault(segment, List.of())));
+        }
+
+        Map<Integer, Map<CustomerStatus, Limits>> customerLimits = new HashMap<>();
+        customerRules.forEach((customerId, rulesOfCustomer) -> {
+            EnumMap<CustomerStatus, Limits> bySegment = new EnumMap<>(CustomerStatus.class);
+            segmentLimits.forEach((segment, limits) -> bySegment.put(segment, apply(limits, rulesOfCustomer)));
+            customerLimits.put(customerId, Collections.unmodifiableMap(bySegment));
+        });
+
+        int segmentRuleCount = segmentRules.values().stream().mapToInt(List::size).sum();
+        return new RuleSet(version, Collections.unmodifiableMap(segmentLimits),
+                Collections.unmodifiableMap(customerLimits), segmentRuleCount);
+    }
+
+    // LimitRuleServiceImpl validates values on write; a row stored before that must not stop every reload
+    private static boolean compiles(LimitRuleEntity rule) {
+        if (rule.getLimitType() == null || rule.getValue() == null) {
+            return false;
+        }
+        if (rule.getLimitType().isCount()) {
+            return true;
+        }
+        try {
+            Money.of(rule.getValue());
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Limits apply(Limits limits, List<LimitRuleEntity> overrides) {
+        Limits result = limits;
+        for (LimitRuleEntity rule : overrides) {
+            result = result.with(rule.getLimitType(), rule.getValue());
+        }
+        return result;
+    }
+
+    public record Limits(int maxAccountCountPerCustomer,
+                         int maxCardCountPerAccount,
+                         Money dailyTransactionLimit,
+                         Money minAcceptableAccountBalance,
+                         Money monthlyTransactionSuspectLimit,
+                         Money monthlyTransactionBlockedLimit) {
+
+        private Limits with(LimitType type, BigDecimal value) {
+            return switch (type) {
+                case MAX_ACCOUNT_COUNT_PER_CUSTOMER -> new Limits(value.intValue(), maxCardCountPerAccount,
+                        dailyTransactionLimit, minAcceptableAccountBalance, monthlyTransactionSuspectLimit,
+                        monthlyTransactionBlockedLimit);
+                case MAX_CARD_COUNT_PER_ACCOUNT -> new Limits(maxAccountCountPerCustomer, value.intValue(),
+                        dailyTransactionLimit, minAcceptableAccountBalance, monthlyTransactionSuspectLimit,
+                        monthlyTransactionBlockedLimit);
+                case DAILY_TRANSACTION_LIMIT -> new Limits(maxAccountCountPerCustomer, maxCardCountPerAccount,
+                        Money.of(value), minAcceptableAccountBalance, monthlyTransactionSuspectLimit,
+                        monthlyTransactionBlockedLimit);
+                case MIN_ACCEPTABLE_ACCOUNT_BALANCE -> new Limits(maxAccountCountPerCustomer, maxCardCountPerAccount,
+                        dailyTransactionLimit, Money.of(value), monthlyTransactionSuspectLimit,
+                        monthlyTransactionBlockedLimit);
+                case MONTHLY_TRANSACTION_SUSPECT_LIMIT -> new Limits(maxAccountCountPerCustomer, maxCardCountPerAccount,
+                        dailyTransactionLimit, minAcceptableAccountBalance, Money.of(value),
+                        monthlyTransactionBlockedLimit);
+                case MONTHLY_TRANSACTION_BLOCKED_LIMIT -> new Limits(maxAccountCountPerCustomer, maxCardCountPerAccount,
+                        dailyTransactionLimit, minAcceptableAccountBalance, monthlyTransactionSuspectLimit,
+                        Money.of(value));
+            };
+        }
+    }
+
+    // Immutable once built; replaced as a whole on every change
+    private record RuleSet(String version,
+                           Map<CustomerStatus, Limits> segmentLimits,
+                           Map<Integer, Map<CustomerStatus, Limits>> customerLimits,
+                           int segmentRuleCount) {
+
+        Limits lookup(Integer customerId, CustomerStatus segment) {
+            Map<CustomerStatus, Limits> overridden = customerId != null ? customerLimits.get(customerId) : null;
+            return (overridden != null ? overridden : segmentLimits).get(segment);
+        }
+    }
+}
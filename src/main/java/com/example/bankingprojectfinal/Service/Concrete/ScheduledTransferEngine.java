@@ -0,0 +1,346 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.DTOS.Transaction.TransactionDto;
+import com.example.bankingprojectfinal.Exception.AccountLockTimeoutException;
+import com.example.bankingprojectfinal.Exception.ConcurrentUpdateException;
+import com.example.bankingprojectfinal.Exception.GroupCommitUnavailableException;
+import com.example.bankingprojectfinal.Exception.LedgerUnavailableException;
+import com.example.bankingprojectfinal.Model.Entity.ScheduledTransferEntity;
+import com.example.bankingprojectfinal.Model.Enums.ScheduledTransferStatus;
+import com.example.bankingprojectfinal.Repository.ScheduledTransferRepository;
+import com.example.bankingprojectfinal.Service.Abstraction.TransactionService;
+import com.example.bankingprojectfinal.config.ScheduledTransferProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes standing orders and future-dated transfers.
+ * <p>
+ * Orders due within the look-ahead window are loaded, a keyset page at a time, into an in-memory {@link DelayQueue}
+ * ordered by execution time, so a burst of orders due at 00:00 is already in memory when the clock gets there. A
+ * dispatcher thread hands each due execution to one of N lanes chosen by debit account: lanes run in parallel, and
+ * executions for the same account run one after another, in time order. The dispatcher never waits for a lane: an
+ * execution whose lane is full goes back on the timeline for a short backoff, so one busy account cannot hold up the
+ * other lanes. An execution that keeps hitting contention is retried a bounded number of times and then recorded
+ * as a failed occurrence. Every execution goes through
+ * {@link TransactionService#transferForCustomer} with an idempotency key derived from the order and the occurrence,
+ * so an execution interrupted between the transfer and the schedule update is replayed rather than paid twice.
+ * Orders missed while the application was down are overdue on the next load and run immediately, one occurrence at
+ * a time, until the order has caught up.
+ */
+@Component
+@Slf4j
+public class ScheduledTransferEngine {
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final TransactionService transactionService;
+    private final ScheduledTransferProperties scheduledTransferProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final DelayQueue<DueExecution> timeline = new DelayQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final List<ArrayBlockingQueue<DueExecution>> lanes = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    private final Counter executedCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+
+    public ScheduledTransferEngine(ScheduledTransferRepository scheduledTransferRepository,
+                                   TransactionService transactionService,
+                                   ScheduledTransferProperties scheduledTransferProperties,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.scheduledTransferRepository = scheduledTransferRepository;
+        this.transactionService = transactionService;
+        this.scheduledTransferProperties = scheduledTransferProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.executedCounter = meterRegistry.counter("banking.scheduled-transfers.executed");
+        this.failedCounter = meterRegistry.counter("banking.scheduled-transfers.failed");
+        this.retriedCounter = meterRegistry.counter("banking.scheduled-transfers.retried");
+        Gauge.builder("banking.scheduled-transfers.queued", queued, Set::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        int laneCount = Math.max(1, scheduledTransferProperties.getLanes());
+        for (int i = 0; i < laneCount; i++) {
+            ArrayBlockingQueue<DueExecution> lane = new ArrayBlockingQueue<>(scheduledTransferProperties.getLaneQueueCapacity());
+            lanes.add(lane);
+            startThread("scheduled-transfer-lane-" + (i + 1), () -> runLane(lane));
+        }
+        startThread("scheduled-transfer-dispatcher", this::runDispatcher);
+        log.info("Scheduled transfer engine started with {} lanes", laneCount);
+        loadDueOrders(); // catch up on orders missed while the application was down
+    }
+
+    // Queued executions are simply dropped; their orders are still due in the database and reload on the next start
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.scheduled-transfers.load-interval-ms:60000}")
+    public void loadDueOrders() {
+        if (!running) {
+            return;
+        }
+        LocalDateTime until = LocalDateTime.now().plusSeconds(scheduledTransferProperties.getLookaheadSeconds());
+        int batchSize = scheduledTransferProperties.getLoadBatchSize();
+        long afterId = 0;
+        int loaded = 0;
+        while (true) {
+            List<Object[]> rows = scheduledTransferRepository.findDueAfterId(
+                    ScheduledTransferStatus.ACTIVE, until, afterId, PageRequest.of(0, batchSize));
+            for (Object[] row : rows) {
+                if (enqueue((Long) row[0], (Integer) row[1], (LocalDateTime) row[2])) {
+                    loaded++;
+                }
+            }
+            if (rows.size() < batchSize) {
+                break;
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        if (loaded > 0) {
+            log.info("Loaded {} scheduled transfer executions due before {}", loaded, until);
+        }
+    }
+
+    /**
+     * Queues an execution of the order if it falls within the look-ahead window; later executions are picked up
+     * by a later load. Returns false if the order is already queued.
+     */
+    public boolean enqueueIfDue(Long orderId, Integer debitAccountId, LocalDateTime executionAt) {
+        if (executionAt.isAfter(LocalDateTime.now().plusSeconds(scheduledTransferProperties.getLookaheadSeconds()))) {
+            return false;
+        }
+        return enqueue(orderId, debitAccountId, executionAt);
+    }
+
+    private boolean enqueue(Long orderId, Integer debitAccountId, LocalDateTime executionAt) {
+        if (!queued.add(orderId)) {
+            return false;
+        }
+        timeline.put(new DueExecution(orderId, debitAccountId, executionAt, epochMillis(executionAt), 1));
+        return true;
+    }
+
+    private void runDispatcher() {
+        while (running) {
+            try {
+                DueExecution execution = timeline.take();
+                int laneKey = execution.debitAccountId != null ? execution.debitAccountId : execution.orderId.hashCode();
+                if (!lanes.get(Math.floorMod(laneKey, lanes.size())).offer(execution)) {
+                    timeline.put(execution.dueAt(System.currentTimeMillis() + scheduledTransferProperties.getLaneFullBackoffMs()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void runLane(ArrayBlockingQueue<DueExecution> lane) {
+        while (running) {
+            DueExecution execution;
+            try {
+                execution = lane.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                execute(execution);
+            } catch (RuntimeException e) {
+                // Schedule update failed; the order is still due in the database and is reloaded later
+                queued.remove(execution.orderId);
+                log.error("Scheduled transfer {} could not be processed: {}", execution.orderId, e.getMessage());
+            }
+        }
+    }
+
+    private void execute(DueExecution execution) {
+        Long orderId = execution.orderId;
+        OrderSnapshot order = transactionTemplate.execute(status -> scheduledTransferRepository.findById(orderId)
+                .filter(o -> o.getStatus() == ScheduledTransferStatus.ACTIVE)
+                .filter(o -> execution.executionAt.equals(o.getNextExecutionAt()))
+                .map(o -> new OrderSnapshot(o.getCustomer().getId(), o.getDebitCardNumber(), o.getCreditCardNumber(), o.getAmount()))
+                .orElse(null));
+        if (order == null) {
+            queued.remove(orderId); // Cancelled or already executed
+            return;
+        }
+
+        TransactionDto result = null;
+        String failureReason = null;
+        try {
+            String idempotencyKey = "scheduled-transfer:" + orderId + ":" + execution.executionAt;
+            result = transactionService.transferForCustomer(order.customerId(),
+                    order.debitCardNumber(), order.creditCardNumber(), order.amount(), idempotencyKey);
+            executedCounter.increment();
+        } catch (AccountLockTimeoutException | ConcurrentUpdateException | LedgerUnavailableException
+                 | GroupCommitUnavailableException | DataAccessException e) {
+            if (execution.attempt < scheduledTransferProperties.getMaxAttempts()) {
+                // Contention or infrastructure: the same occurrence is tried again later
+                retriedCounter.increment();
+                long retryAt = System.currentTimeMillis() + scheduledTransferProperties.getRetryDelayMs();
+                log.warn("Scheduled transfer {} will be retried: {}", orderId, e.getMessage());
+                timeline.put(execution.retry(retryAt));
+                return;
+            }
+            failedCounter.increment();
+            failureReason = "Gave up after " + execution.attempt + " attempts: " + e.getMessage();
+            log.warn("Scheduled transfer {} for {} failed: {}", orderId, execution.executionAt, failureReason);
+        } catch (RuntimeException e) {
+            // Rejected (funds, limits, card or account status): this occurrence is skipped
+            failedCounter.increment();
+            failureReason = e.getMessage();
+            log.info("Scheduled transfer {} for {} was rejected: {}", orderId, execution.executionAt, failureReason);
+        }
+
+        LocalDateTime next = advance(orderId, execution.executionAt, result, failureReason);
+        queued.remove(orderId);
+        if (next != null) {
+            enqueueIfDue(orderId, execution.debitAccountId, next); // overdue occurrences run right away
+        }
+    }
+
+    // Records the outcome and moves the order to its next occurrence; returns that occurrence, or null if the order is done
+    private LocalDateTime advance(Long orderId, LocalDateTime executedAt, TransactionDto result, String failureReason) {
+        return transactionTemplate.execute(status -> {
+            ScheduledTransferEntity order = scheduledTransferRepository.findById(orderId).orElse(null);
+            if (order == null || !executedAt.equals(order.getNextExecutionAt())) {
+                return null;
+            }
+            order.setLastExecutedAt(LocalDateTime.now());
+            if (result != null) {
+                order.setExecutionCount(order.getExecutionCount() + 1);
+                order.setLastTransactionId(UUID.fromString(result.getTransactionId()));
+                order.setLastFailureReason(null);
+            } else {
+                order.setFailureCount(order.getFailureCount() + 1);
+                order.setLastFailureReason(failureReason);
+            }
+
+            LocalDateTime next = nextExecution(order);
+            if (order.getStatus() == ScheduledTransferStatus.ACTIVE && next == null) {
+                order.setStatus(ScheduledTransferStatus.COMPLETED);
+            }
+            if (next != null) {
+                order.setNextExecutionAt(next);
+            }
+            return order.getStatus() == ScheduledTransferStatus.ACTIVE ? next : null;
+        });
+    }
+
+    // Occurrences are counted from startAt rather than from the previous one, so month-end dates do not drift
+    static LocalDateTime nextExecution(ScheduledTransferEntity order) {
+        long occurrence = (long) order.getExecutionCount() + order.getFailureCount();
+        LocalDateTime startAt = order.getStartAt();
+        LocalDateTime next = switch (order.getFrequency()) {
+            case ONCE -> null;
+            case DAILY -> startAt.plusDays(occurrence);
+            case WEEKLY -> startAt.plusWeeks(occurrence);
+            case MONTHLY -> startAt.plusMonths(occurrence);
+        };
+        if (next == null || (order.getEndDate() != null && next.toLocalDate().isAfter(order.getEndDate()))) {
+            return null;
+        }
+        return next;
+    }
+
+    private void startThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record OrderSnapshot(Integer customerId, String debitCardNumber, String creditCardNumber, BigDecimal amount) {
+    }
+
+    private static final class DueExecution implements Delayed {
+        final Long orderId;
+        final Integer debitAccountId;
+        final LocalDateTime executionAt; // the occurrence, even when a retry runs it later
+        final long dueAtMs;
+        final int attempt;
+
+        DueExecution(Long orderId, Integer debitAccountId, LocalDateTime executionAt, long dueAtMs, int attempt) {
+            this.orderId = orderId;
+            this.debitAccountId = debitAccountId;
+            this.executionAt = executionAt;
+            this.dueAtMs = dueAtMs;
+            this.attempt = attempt;
+        }
+
+        // Same attempt, dispatched later
+        DueExecution dueAt(long atMs) {
+            return new DueExecution(orderId, debitAccountId, executionAt, atMs, attempt);
+        }
+
+        DueExecution retry(long atMs) {
+            return new DueExecution(orderId, debitAccountId, executionAt, atMs, attempt + 1);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            DueExecution that = (DueExecution) other;
+            int byTime = Long.compare(dueAtMs, that.dueAtMs);
+            return byTime != 0 ? byTime : Long.compare(orderId, that.orderId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DueExecution that && dueAtMs == that.dueAtMs && Objects.equals(orderId, that.orderId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(orderId, dueAtMs);
+        }
+    }
+}
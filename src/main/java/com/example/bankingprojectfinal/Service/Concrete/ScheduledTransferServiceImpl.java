@@ -0,0 +1,183 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.DTOS.ScheduledTransfer.CreateScheduledTransferRequest;
+import com.example.bankingprojectfinal.DTOS.ScheduledTransfer.ScheduledTransferDto;
+import com.example.bankingprojectfinal.Exception.CardNotFoundException;
+import com.example.bankingprojectfinal.Exception.ResourceNotFoundException;
+import com.example.bankingprojectfinal.Model.Entity.CardEntity;
+import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
+import com.example.bankingprojectfinal.Model.Entity.ScheduledTransferEntity;
+import com.example.bankingprojectfinal.Model.Enums.CardStatus;
+import com.example.bankingprojectfinal.Model.Enums.ScheduledTransferStatus;
+import com.example.bankingprojectfinal.Repository.CardRepository;
+import com.example.bankingprojectfinal.Repository.ScheduledTransferRepository;
+import com.example.bankingprojectfinal.Service.Abstraction.ScheduledTransferService;
+import com.example.bankingprojectfinal.Utils.Money;
+import com.example.bankingprojectfinal.security.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Funds, limits and card status are checked when each execution runs, exactly as for a transfer made by hand
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledTransferServiceImpl implements ScheduledTransferService {
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final CardRepository cardRepository;
+    private final ScheduledTransferEngine scheduledTransferEngine;
+    private final TransactionTemplate transactionTemplate;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        throw new IllegalStateException("User not authenticated");
+    }
+
+    private CustomerEntity getCurrentCustomer() {
+        User user = getCurrentUser();
+        if (user.getCustomer() == null) {
+            throw new IllegalStateException("Customer profile not found for authenticated user");
+        }
+        return user.getCustomer();
+    }
+
+    @Override
+    public ScheduledTransferDto createScheduledTransfer(CreateScheduledTransferRequest request) {
+        CustomerEntity currentCustomer = getCurrentCustomer();
+        String debitCardNumber = request.getDebitCardNumber();
+        String creditCardNumber = request.getCreditCardNumber();
+        log.info("Customer ID {} scheduling a {} transfer of {} from {} to {} starting {}",
+                currentCustomer.getId(), request.getFrequency(), request.getAmount(),
+                debitCardNumber, creditCardNumber, request.getStartAt());
+
+        if (debitCardNumber == null || !debitCardNumber.matches("\\d{16}")) {
+            throw new IllegalArgumentException("Invalid debit card number format. Must be 16 digits.");
+        }
+        if (creditCardNumber == null || !creditCardNumber.matches("\\d{16}")) {
+            throw new IllegalArgumentException("Invalid credit card number format. Must be 16 digits.");
+        }
+        if (debitCardNumber.equals(creditCardNumber)) {
+            throw new IllegalArgumentException("Cannot transfer to the same card.");
+        }
+        if (!Money.of(request.getAmount()).isPositive()) {
+            throw new IllegalArgumentException("Transfer amount must be greater than zero.");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (request.getStartAt().isBefore(now.minusMinutes(1))) {
+            throw new IllegalArgumentException("Start time must not be in the past.");
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(request.getStartAt().toLocalDate())) {
+            throw new IllegalArgumentException("End date must not be before the start date.");
+        }
+
+        ScheduledTransferEntity order = transactionTemplate.execute(status -> {
+            List<CardEntity> cards = cardRepository.findAllWithAccountByCardNumberIn(List.of(debitCardNumber, creditCardNumber));
+            CardEntity debitCard = cards.stream().filter(card -> card.getCardNumber().equals(debitCardNumber)).findFirst()
+                    .orElseThrow(() -> new CardNotFoundException("Debit card not found with number: " + debitCardNumber));
+            CardEntity creditCard = cards.stream().filter(card -> card.getCardNumber().equals(creditCardNumber)).findFirst()
+                    .orElseThrow(() -> new CardNotFoundException("Credit card not found with number: " + creditCardNumber));
+            if (!debitCard.getAccount().getCustomer().getId().equals(currentCustomer.getId())) {
+                throw new IllegalStateException("Access Denied: You can only transfer from your own cards.");
+            }
+            if (debitCard.getStatus() != CardStatus.ACTIVE) {
+                throw new IllegalArgumentException("Your debit card is not active. Status: " + debitCard.getStatus());
+            }
+            if (creditCard.getStatus() != CardStatus.ACTIVE) {
+                throw new IllegalArgumentException("Recipient's credit card is not active. Status: " + creditCard.getStatus());
+            }
+
+            ScheduledTransferEntity entity = ScheduledTransferEntity.builder()
+                    .customer(debitCard.getAccount().getCustomer())
+                    .debitCardNumber(debitCardNumber)
+                    .creditCardNumber(creditCardNumber)
+                    .debitAccountId(debitCard.getAccount().getId())
+                    .amount(request.getAmount())
+                    .frequency(request.getFrequency())
+                    .status(ScheduledTransferStatus.ACTIVE)
+                    .startAt(request.getStartAt())
+                    .nextExecutionAt(request.getStartAt())
+                    .endDate(request.getEndDate())
+                    .executionCount(0)
+                    .failureCount(0)
+                    .createdAt(now)
+                    .build();
+            return scheduledTransferRepository.save(entity);
+        });
+
+        // Orders due soon are queued right away instead of waiting for the next load
+        scheduledTransferEngine.enqueueIfDue(order.getId(), order.getDebitAccountId(), order.getNextExecutionAt());
+        log.info("Scheduled transfer {} created, first execution at {}", order.getId(), order.getNextExecutionAt());
+        return mapToScheduledTransferDto(order);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ScheduledTransferDto getScheduledTransfer(Long scheduledTransferId) {
+        return mapToScheduledTransferDto(findOwnScheduledTransfer(scheduledTransferId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ScheduledTransferDto> getScheduledTransfersByCurrentUser(Integer page, Integer size) {
+        Integer customerId = getCurrentCustomer().getId();
+        log.info("Customer ID {} fetching their scheduled transfers (Page: {}, Size: {})", customerId, page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        return scheduledTransferRepository.findByCustomer_Id(customerId, pageable).map(this::mapToScheduledTransferDto);
+    }
+
+    // An execution already handed to a lane still runs; every later one is skipped
+    @Override
+    @Transactional
+    public ScheduledTransferDto cancelScheduledTransfer(Long scheduledTransferId) {
+        ScheduledTransferEntity order = findOwnScheduledTransfer(scheduledTransferId);
+        if (order.getStatus() != ScheduledTransferStatus.ACTIVE) {
+            throw new IllegalStateException("Scheduled transfer is not active. Status: " + order.getStatus());
+        }
+        order.setStatus(ScheduledTransferStatus.CANCELLED);
+        log.info("Scheduled transfer {} cancelled", scheduledTransferId);
+        return mapToScheduledTransferDto(order);
+    }
+
+    private ScheduledTransferEntity findOwnScheduledTransfer(Long scheduledTransferId) {
+        ScheduledTransferEntity order = scheduledTransferRepository.findById(scheduledTransferId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scheduled transfer not found: " + scheduledTransferId));
+        if (!order.getCustomer().getId().equals(getCurrentCustomer().getId())) {
+            throw new IllegalStateException("Access Denied: You can only manage your own scheduled transfers.");
+        }
+        return order;
+    }
+
+    private ScheduledTransferDto mapToScheduledTransferDto(ScheduledTransferEntity order) {
+        return ScheduledTransferDto.builder()
+                .scheduledTransferId(order.getId())
+                .debitCardNumber(order.getDebitCardNumber())
+                .creditCardNumber(order.getCreditCardNumber())
+                .amount(order.getAmount())
+                .frequency(order.getFrequency())
+                .status(order.getStatus())
+                .startAt(order.getStartAt())
+                .nextExecutionAt(order.getNextExecutionAt())
+                .endDate(order.getEndDate())
+                .executionCount(order.getExecutionCount())
+                .failureCount(order.getFailureCount())
+                .lastExecutedAt(order.getLastExecutedAt())
+                .lastTransactionId(order.getLastTransactionId() != null ? order.getLastTransactionId().toString() : null)
+                .lastFailureReason(order.getLastFailureReason())
+                .createdAt(order.getCreatedAt())
+                .build();
+    }
+}
@@ -3,91 +3,432 @@ package com.example.bankingprojectfinal.Service.Concrete;
 import com.example.bankingprojectfinal.Exception.AccountNotActiveException;
 import com.example.bankingprojectfinal.Exception.NotEnoughFundsException;
 import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
-import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
 import com.example.bankingprojectfinal.Model.Entity.TransactionEntity;
 import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
-import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
 import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionType;
 import com.example.bankingprojectfinal.Repository.AccountRepository;
-import com.example.bankingprojectfinal.Repository.CustomerRepository;
 import com.example.bankingprojectfinal.Repository.TransactionRepository;
-import com.example.bankingprojectfinal.Utils.LimitProperties;
+import com.example.bankingprojectfinal.Utils.BalanceUpdateExecutor;
+import com.example.bankingprojectfinal.Utils.Money;
+import com.example.bankingprojectfinal.config.SettlementProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime; // Use LocalDateTime for consistency
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 @Slf4j
-@RequiredArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class TransactionSchedule {
+    // Chunks read ahead per partition; the reader waits when a partition is this far behind
+    private static final int QUEUED_CHUNKS_PER_PARTITION = 4;
+    // Tells a partition worker the run is over; real chunks are never empty
+    private static final List<SettlementKey> END_OF_RUN = List.of();
+    private static final String SETTLEMENT_JOB = "settle-pending-transactions";
+
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
-    private final CustomerRepository customerRepository;
-    private final LimitProperties limitProperties;
+    private final BalanceUpdateExecutor balanceUpdateExecutor;
+    private final LedgerEngine ledgerEngine;
+    private final HotAccountBalances hotAccountBalances;
+    private final DailyOutgoingTotals dailyOutgoingTotals;
+    private final CustomerActivityBuckets customerActivityBuckets;
+    private final CounterpartyGraph counterpartyGraph;
+    private final DebitChecks debitChecks;
+    private final SettlementProperties settlementProperties;
+    private final ClusterCoordinator clusterCoordinator;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    // Shared by all runs and partitions. Not a fixed pool: every partition of a run needs a thread at the same time,
+    // and a partition queued behind another run's workers would block its reader for good.
+    private final ExecutorService partitionWorkers = Executors.newCachedThreadPool(namedThreads("settlement-partition-"));
+
+    public TransactionSchedule(TransactionRepository transactionRepository,
+                               AccountRepository accountRepository,
+                               BalanceUpdateExecutor balanceUpdateExecutor,
+                               LedgerEngine ledgerEngine,
+                               HotAccountBalances hotAccountBalances,
+                               DailyOutgoingTotals dailyOutgoingTotals,
+                               CustomerActivityBuckets customerActivityBuckets,
+                               CounterpartyGraph counterpartyGraph,
+                               DebitChecks debitChecks,
+                               SettlementProperties settlementProperties,
+                               ClusterCoordinator clusterCoordinator,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.balanceUpdateExecutor = balanceUpdateExecutor;
+        this.ledgerEngine = ledgerEngine;
+        this.hotAccountBalances = hotAccountBalances;
+        this.dailyOutgoingTotals = dailyOutgoingTotals;
+        this.customerActivityBuckets = customerActivityBuckets;
+        this.counterpartyGraph = counterpartyGraph;
+        this.debitChecks = debitChecks;
+        this.settlementProperties = settlementProperties;
+        this.clusterCoordinator = clusterCoordinator;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // A run still in progress stops here; its unsettled rows stay PENDING for the next one
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        partitionWorkers.shutdownNow();
+        partitionWorkers.awaitTermination(10, TimeUnit.SECONDS);
+    }
 
     // This scheduled task processes transactions that might have been created as PENDING
     // For immediate card-to-card transfers, the status is set to COMPLETED directly in TransactionServiceImpl
+    // The backlog is read once, in keyset pages, and split into banking.settlement.partitions partitions by debit
+    // account, so all transactions of one account are settled by the same worker, in the order they were read.
+    // Partitions run in parallel; each settles chunks of banking.settlement.chunk-size, split into groups that lock at
+    // most banking.settlement.max-locked-accounts accounts, each group in its own database transaction. Memory stays
+    // flat however large the backlog is, a failure never rolls back earlier groups, and the partitions and customer
+    // transfers only ever wait for a small group of locks.
+    // The status is the checkpoint: a settled or failed row is no longer PENDING, so an interrupted run simply
+    // continues with the rest the next time.
+    // Every node fires the job; debit accounts are split by id into banking.cluster.partitions cluster partitions and
+    // ClusterCoordinator hands each of them to one node, which settles it as above.
     @Scheduled(cron = "0 0 0 * * *") // Runs every day at midnight
-    @Transactional
     public void processPendingTransactions() {
         log.info("Scheduled task: Starting to process pending transactions at {}. (Account-to-Account only)", LocalDateTime.now());
+        long started = System.currentTimeMillis();
+        int clusterPartitions = clusterCoordinator.getPartitionCount();
+        int ran = clusterCoordinator.runPartitioned(SETTLEMENT_JOB, LocalDate.now().toString(), clusterPartitions,
+                clusterPartition -> settleClusterPartition(clusterPartition, clusterPartitions));
+        long durationMs = System.currentTimeMillis() - started;
+        meterRegistry.timer("banking.settlement.run.duration").record(durationMs, TimeUnit.MILLISECONDS);
+        log.info("Scheduled task: Finished processing pending transactions, {} of {} cluster partitions on this node in {} ms.",
+                ran, clusterPartitions, durationMs);
+    }
+
+    private void settleClusterPartition(int clusterPartition, int clusterPartitions) {
+        long started = System.currentTimeMillis();
+        int chunkSize = Math.max(1, settlementProperties.getChunkSize());
+        int partitionCount = Math.max(1, settlementProperties.getPartitions());
+        SettlementRun run = new SettlementRun();
+        List<ArrayBlockingQueue<List<SettlementKey>>> partitions = new ArrayList<>(partitionCount);
+        List<List<SettlementKey>> buffers = new ArrayList<>(partitionCount);
+        List<Future<?>> workers = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            ArrayBlockingQueue<List<SettlementKey>> partition = new ArrayBlockingQueue<>(QUEUED_CHUNKS_PER_PARTITION);
+            partitions.add(partition);
+            buffers.add(new ArrayList<>(chunkSize));
+            workers.add(partitionWorkers.submit(() -> runPartition(partition, run)));
+        }
 
-        List<TransactionEntity> pendingTransactions = transactionRepository.findByStatus(TransactionStatus.PENDING);
-        if (pendingTransactions.isEmpty()) {
-            log.info("No pending transactions found to process.");
+        int read = 0;
+        try {
+            UUID afterId = null;
+            while (true) {
+                List<Object[]> rows = afterId == null
+                        ? transactionRepository.findSettlementKeysByStatus(TransactionStatus.PENDING,
+                                clusterPartitions, clusterPartition, PageRequest.of(0, chunkSize))
+                        : transactionRepository.findSettlementKeysByStatusAfterId(TransactionStatus.PENDING,
+                                clusterPartitions, clusterPartition, afterId, PageRequest.of(0, chunkSize));
+                for (Object[] row : rows) {
+                    SettlementKey key = new SettlementKey((UUID) row[0], (Integer) row[1], (Integer) row[2], Boolean.TRUE.equals(row[3]));
+                    // The ids of a cluster partition share their remainder, so the quotient spreads them
+                    int index = Math.floorMod(Math.floorDiv(key.debitAccountId(), clusterPartitions), partitionCount);
+                    buffers.get(index).add(key);
+                    if (buffers.get(index).size() == chunkSize) {
+                        handOver(partitions.get(index), buffers.get(index));
+                        buffers.set(index, new ArrayList<>(chunkSize));
+                    }
+                }
+                read += rows.size();
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+                afterId = (UUID) rows.get(rows.size() - 1)[0];
+                log.info("Read {} pending transactions of cluster partition {} so far (up to ID {}).", read, clusterPartition, afterId);
+            }
+            for (int i = 0; i < partitionCount; i++) {
+                if (!buffers.get(i).isEmpty()) {
+                    handOver(partitions.get(i), buffers.get(i));
+                }
+            }
+        } finally {
+            partitions.forEach(partition -> handOver(partition, END_OF_RUN));
+            awaitWorkers(workers);
+        }
+
+        if (read == 0) {
+            log.info("No pending transactions found to process in cluster partition {}.", clusterPartition);
             return;
         }
+        log.info("Cluster partition {} run report: {} read, {} settled, {} failed, {} already settled elsewhere, "
+                        + "in {} chunks over {} partitions, {} ms",
+                clusterPartition, read, run.settled.sum(), run.failed.sum(), run.skipped.sum(), run.chunks.sum(),
+                partitionCount, System.currentTimeMillis() - started);
+    }
 
-        log.info("Found {} pending transactions to process.", pendingTransactions.size());
+    // Settles the chunks of one partition one after another until the end of the run
+    private void runPartition(ArrayBlockingQueue<List<SettlementKey>> partition, SettlementRun run) {
+        while (true) {
+            List<SettlementKey> chunk;
+            try {
+                chunk = partition.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (chunk == END_OF_RUN) {
+                return;
+            }
+            try {
+                run.add(processChunk(chunk));
+            } catch (RuntimeException e) {
+                // Keep draining, or the reader would block on a full partition
+                log.error("Settlement chunk of {} transactions could not be processed", chunk.size(), e);
+            }
+        }
+    }
 
-        for (TransactionEntity transaction : pendingTransactions) {
+    private ChunkResult processChunk(List<SettlementKey> chunk) {
+        if (ledgerEngine.isEnabled()) {
+            return settleOneByOne(chunk);
+        }
+        int settled = 0;
+        int failed = 0;
+        int skipped = 0;
+        for (List<SettlementKey> group : lockGroups(chunk, Math.max(1, settlementProperties.getMaxLockedAccounts()))) {
+            ChunkResult result;
             try {
-                // Ensure accounts are fetched correctly (they are already part of TransactionEntity)
-                AccountEntity debitAccount = transaction.getDebitAccount();
-                AccountEntity creditAccount = transaction.getCreditAccount();
+                result = balanceUpdateExecutor.execute("settlement", () -> settleChunk(group));
+            } catch (Exception e) {
+                // Nothing of the group was kept; settle it row by row so only the rows at fault fail
+                log.warn("Settlement group of {} transactions failed, settling them one by one: {}", group.size(), e.getMessage());
+                result = settleOneByOne(group);
+            }
+            settled += result.settled();
+            failed += result.failed();
+            skipped += result.skipped();
+        }
+        return new ChunkResult(settled, failed, skipped);
+    }
 
-                // Perform checks before debiting/crediting
-                validateAccountForTransaction(debitAccount, transaction.getAmount(), false);
-                validateAccountForTransaction(creditAccount, transaction.getAmount(), true); // No balance check for credit account
+    /**
+     * Splits a chunk, in order, into groups that lock at most {@code maxAccounts} accounts each (debit accounts and
+     * credit accounts that are not hot). A single transaction is never split, so a group may exceed the cap only when
+     * {@code maxAccounts} is 1.
+     */
+    static List<List<SettlementKey>> lockGroups(List<SettlementKey> chunk, int maxAccounts) {
+        List<List<SettlementKey>> groups = new ArrayList<>();
+        List<SettlementKey> group = new ArrayList<>();
+        Set<Integer> locked = new HashSet<>();
+        for (SettlementKey key : chunk) {
+            int added = (locked.contains(key.debitAccountId()) ? 0 : 1)
+                    + (key.creditHot() || locked.contains(key.creditAccountId())
+                            || key.creditAccountId().equals(key.debitAccountId()) ? 0 : 1);
+            if (!group.isEmpty() && locked.size() + added > maxAccounts) {
+                groups.add(group);
+                group = new ArrayList<>();
+                locked = new HashSet<>();
+            }
+            group.add(key);
+            locked.add(key.debitAccountId());
+            if (!key.creditHot()) {
+                locked.add(key.creditAccountId());
+            }
+        }
+        if (!group.isEmpty()) {
+            groups.add(group);
+        }
+        return groups;
+    }
 
-                // Update account balances
-                debitAccount.setBalance(debitAccount.getBalance().subtract(transaction.getAmount()));
-                creditAccount.setBalance(creditAccount.getBalance().add(transaction.getAmount()));
+    private ChunkResult settleOneByOne(List<SettlementKey> chunk) {
+        int settled = 0;
+        int failed = 0;
+        for (SettlementKey key : chunk) {
+            UUID transactionId = key.transactionId();
+            try {
+                boolean done = ledgerEngine.isEnabled()
+                        ? settleThroughLedger(transactionId)
+                        : balanceUpdateExecutor.execute("settlement", () -> settlePendingTransaction(transactionId));
+                settled += done ? 1 : 0;
+            } catch (Exception e) {
+                log.error("Failed to process transaction ID {}: {}", transactionId, e.getMessage());
+                Integer marked = balanceUpdateExecutor.execute("settlement-failure",
+                        () -> transactionRepository.failPending(transactionId, e.getMessage()));
+                failed += marked != null && marked > 0 ? 1 : 0;
+            }
+        }
+        return new ChunkResult(settled, failed, chunk.size() - settled - failed);
+    }
 
-                // Save both accounts
-                accountRepository.save(debitAccount);
-                accountRepository.save(creditAccount);
+    // One lock call for all accounts of the group (at most banking.settlement.max-locked-accounts, taken in stripe
+    // order), then the rows are loaded with their accounts. Rows that fail a check are marked FAILED in the same
+    // transaction instead of rolling the group back.
+    private ChunkResult settleChunk(List<SettlementKey> chunk) {
+        List<Integer> lockIds = new ArrayList<>(chunk.size() * 2);
+        for (SettlementKey key : chunk) {
+            lockIds.add(key.debitAccountId());
+            if (!key.creditHot()) {
+                lockIds.add(key.creditAccountId()); // Hot accounts are credited on shards, no lock
+            }
+        }
+        balanceUpdateExecutor.guard(lockIds.stream().distinct().toArray(Integer[]::new));
 
-                transaction.setStatus(TransactionStatus.COMPLETED);
-                transaction.setTransactionDate(LocalDate.from(LocalDateTime.now()));
-                transactionRepository.save(transaction);
-                log.info("Transaction ID {} successfully processed and marked as COMPLETED. Debited: {}, Credited: {}",
-                        transaction.getTransactionId(), debitAccount.getAccountNumber(), creditAccount.getAccountNumber());
+        LocalDate today = LocalDate.now();
+        int settled = 0;
+        int failed = 0;
+        List<UUID> ids = chunk.stream().map(SettlementKey::transactionId).toList();
+        for (TransactionEntity transaction : transactionRepository.findAllWithAccountsByTransactionIdIn(ids)) {
+            if (transaction.getStatus() != TransactionStatus.PENDING) {
+                continue; // Settled elsewhere since the page was read
+            }
+            AccountEntity debitAccount = transaction.getDebitAccount();
+            AccountEntity creditAccount = transaction.getCreditAccount();
+            String failure = settlementFailure(debitAccount, creditAccount, transaction.getAmount());
+            if (failure != null) {
+                // Guarded like the claim, so a row an asynchronous worker completed meanwhile is never overwritten
+                if (transactionRepository.failPending(transaction.getTransactionId(), failure) == 0) {
+                    continue;
+                }
+                log.error("Failed to process transaction ID {}: {}", transaction.getTransactionId(), failure);
+                failed++;
+                continue;
+            }
+            // Asynchronous transfer workers settle the same rows; the first one to claim the row settles it
+            if (transactionRepository.claimPending(transaction.getTransactionId(), TransactionStatus.COMPLETED, today) == 0) {
+                continue;
+            }
+            hotAccountBalances.debit(debitAccount, transaction.getAmount());
+            hotAccountBalances.credit(creditAccount, transaction.getAmount(), debitAccount.getId());
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setTransactionDate(today);
+            recordSettled(transaction);
+            settled++;
+        }
+        return new ChunkResult(settled, failed, chunk.size() - settled - failed);
+    }
 
-                // After successful transaction, check customer's monthly activity for suspicion
-                checkCustomerMonthlyActivityForSuspicion(debitAccount.getCustomer());
+    // null if the transaction can be settled
+    private String settlementFailure(AccountEntity debitAccount, AccountEntity creditAccount, BigDecimal amount) {
+        if (debitAccount.getStatus() != AccountStatus.ACTIVE) {
+            return "Account is not active: " + debitAccount.getAccountNumber();
+        }
+        if (creditAccount.getStatus() != AccountStatus.ACTIVE) {
+            return "Account is not active: " + creditAccount.getAccountNumber();
+        }
+        String blocked = debitChecks.blockedFailure(debitAccount);
+        if (blocked != null) {
+            return blocked;
+        }
+        if (debitChecks.spendableBalance(debitAccount).isLessThan(Money.of(amount))) {
+            return "Insufficient funds in debit account: " + debitAccount.getAccountNumber();
+        }
+        return null;
+    }
 
-            } catch (Exception e) {
-                log.error("Failed to process transaction ID {} (from debit account {} to credit account {}): {}",
-                        transaction.getTransactionId(),
-                        transaction.getDebitAccount() != null ? transaction.getDebitAccount().getAccountNumber() : "N/A",
-                        transaction.getCreditAccount() != null ? transaction.getCreditAccount().getAccountNumber() : "N/A",
-                        e.getMessage());
-                transaction.setStatus(TransactionStatus.FAILED);
-                transactionRepository.save(transaction);
+    // The settled amount counts towards the in-memory aggregates once the transaction commits (at once on the ledger path)
+    private void recordSettled(TransactionEntity transaction) {
+        AccountEntity debitAccount = transaction.getDebitAccount();
+        AccountEntity creditAccount = transaction.getCreditAccount();
+        Money amount = Money.of(transaction.getAmount());
+        if (transaction.getTransactionType() != TransactionType.DEPOSIT) {
+            dailyOutgoingTotals.add(debitAccount.getCustomer().getId(), amount);
+        }
+        customerActivityBuckets.record(debitAccount.getCustomer().getId(), creditAccount.getCustomer().getId(), amount);
+        counterpartyGraph.record(debitAccount.getId(), creditAccount.getId(), amount);
+    }
+
+    private Boolean settlePendingTransaction(UUID transactionId) {
+        TransactionEntity transaction = transactionRepository.findById(transactionId).orElse(null);
+        if (transaction == null || transaction.getStatus() != TransactionStatus.PENDING) {
+            return false; // Already handled elsewhere
+        }
+
+        // Ensure accounts are fetched correctly (they are already part of TransactionEntity)
+        AccountEntity debitAccount = transaction.getDebitAccount();
+        AccountEntity creditAccount = transaction.getCreditAccount();
+
+        // Lock both accounts (LOCKING mode) before their balances are loaded
+        balanceUpdateExecutor.guard(
+                debitAccount != null ? debitAccount.getId() : null,
+                creditAccount != null ? hotAccountBalances.creditLockId(creditAccount.getId()) : null);
+
+        // Asynchronous transfer workers settle the same rows; the first one to claim the row settles it
+        if (transactionRepository.claimPending(transactionId, TransactionStatus.COMPLETED, LocalDate.now()) == 0) {
+            return false;
+        }
+
+        // Perform checks before debiting/crediting
+        validateAccountForTransaction(debitAccount, transaction.getAmount(), false);
+        debitChecks.checkNotBlocked(debitAccount);
+        validateAccountForTransaction(creditAccount, transaction.getAmount(), true); // No balance check for credit account
+
+        // Update account balances
+        hotAccountBalances.debit(debitAccount, transaction.getAmount());
+        hotAccountBalances.credit(creditAccount, transaction.getAmount(), debitAccount.getId());
+
+        // Save both accounts
+        accountRepository.save(debitAccount);
+        accountRepository.save(creditAccount);
+
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setTransactionDate(LocalDate.from(LocalDateTime.now()));
+        transactionRepository.save(transaction);
+        recordSettled(transaction);
+        log.info("Transaction ID {} successfully processed and marked as COMPLETED. Debited: {}, Credited: {}",
+                transaction.getTransactionId(), debitAccount.getAccountNumber(), creditAccount.getAccountNumber());
+        return true;
+    }
+
+    // Account checks run in a short transaction; the funds check and both balance updates are sequenced by the ledger
+    private boolean settleThroughLedger(UUID transactionId) {
+        TransactionEntity transaction = transactionTemplate.execute(status -> {
+            TransactionEntity pending = transactionRepository.findById(transactionId).orElse(null);
+            if (pending == null || pending.getStatus() != TransactionStatus.PENDING) {
+                return null; // Already handled elsewhere
             }
+            validateAccountForTransaction(pending.getDebitAccount(), pending.getAmount(), true);
+            validateAccountForTransaction(pending.getCreditAccount(), pending.getAmount(), true);
+            debitChecks.checkNotBlocked(pending.getDebitAccount());
+            return pending;
+        });
+        if (transaction == null) {
+            return false;
         }
-        log.info("Scheduled task: Finished processing pending transactions.");
+
+        AccountEntity debitAccount = transaction.getDebitAccount();
+        AccountEntity creditAccount = transaction.getCreditAccount();
+        ledgerEngine.settle(transactionId,
+                debitAccount.getId(), debitAccount.getAccountNumber(),
+                creditAccount.getId(), creditAccount.getAccountNumber(),
+                transaction.getAmount(), debitChecks.heldAmount(debitAccount).toBigDecimal(), transaction.getTransactionType());
+        log.info("Transaction ID {} settled through the ledger engine. Debited: {}, Credited: {}",
+                transactionId, debitAccount.getAccountNumber(), creditAccount.getAccountNumber());
+        recordSettled(transaction);
+        return true;
     }
 
     private void validateAccountForTransaction(AccountEntity account, BigDecimal amount, boolean isCredit) {
@@ -97,27 +438,67 @@ public class TransactionSchedule {
         if (!account.getStatus().equals(AccountStatus.ACTIVE)) {
             throw new AccountNotActiveException("Account is not active: " + account.getAccountNumber());
         }
-        if (!isCredit && account.getBalance().compareTo(amount) < 0) {
+        if (!isCredit && debitChecks.spendableBalance(account).isLessThan(Money.of(amount))) {
             throw new NotEnoughFundsException("Insufficient funds in debit account: " + account.getAccountNumber());
         }
         // Add more specific checks if needed, e.g., credit account limits
     }
 
-    private void checkCustomerMonthlyActivityForSuspicion(CustomerEntity customerEntity) {
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusMonths(1); // Last month
+    record SettlementKey(UUID transactionId, Integer debitAccountId, Integer creditAccountId, boolean creditHot) {
+    }
+
+    private static void handOver(ArrayBlockingQueue<List<SettlementKey>> partition, List<SettlementKey> chunk) {
+        try {
+            partition.put(chunk); // Blocks while the partition is behind, so the reader never runs far ahead
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing over a settlement chunk", e);
+        }
+    }
+
+    private static void awaitWorkers(List<Future<?>> workers) {
+        for (Future<?> worker : workers) {
+            while (true) {
+                try {
+                    worker.get(1, TimeUnit.MINUTES);
+                    break;
+                } catch (TimeoutException e) {
+                    log.info("Waiting for settlement partitions to finish");
+                } catch (ExecutionException e) {
+                    log.error("Settlement partition failed", e.getCause());
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record ChunkResult(int settled, int failed, int skipped) {
+    }
 
-        // Get total of all COMPLETED transactions (debit or credit) for this customer in the last month
-        BigDecimal monthlyTotal = transactionRepository.getMonthlyTotalByCustomer(customerEntity.getId(), startDate, endDate);
+    // Totals of one run, added to by all partitions
+    private static final class SettlementRun {
+        final LongAdder chunks = new LongAdder();
+        final LongAdder settled = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder skipped = new LongAdder();
 
-        // Assuming a separate limit for monthly activity or suspicion threshold
-        // I'm using `getMonthlySuspicionLimit()` here, which you should define in `LimitProperties`.
-        // If you intended to use `dailyTransactionLimit` for this, reconsider its name/purpose.
-        if (monthlyTotal != null && monthlyTotal.compareTo(limitProperties.getMonthlyTransactionSuspectLimit()) > 0) {
-            customerEntity.setStatus(CustomerStatus.SUSPECTED);
-            customerRepository.save(customerEntity);
-            log.warn("Customer ID {} detected as SUSPECTED due to monthly transaction total ({}) exceeding suspicion limit ({}).",
-                    customerEntity.getId(), monthlyTotal, limitProperties.getMonthlyTransactionSuspectLimit());
+        void add(ChunkResult result) {
+            chunks.increment();
+            settled.add(result.settled());
+            failed.add(result.failed());
+            skipped.add(result.skipped());
         }
     }
 }
\ No newline at end of file
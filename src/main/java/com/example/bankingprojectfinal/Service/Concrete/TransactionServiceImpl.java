@@ -1,37 +1,63 @@
 package com.example.bankingprojectfinal.Service.Concrete;
 
+import com.example.bankingprojectfinal.DTOS.Transaction.BatchTransferItemResult;
+import com.example.bankingprojectfinal.DTOS.Transaction.BatchTransferResponse;
 import com.example.bankingprojectfinal.DTOS.Transaction.TransactionDto;
 import com.example.bankingprojectfinal.DTOS.Transaction.TransactionMapper;
+import com.example.bankingprojectfinal.DTOS.Transaction.TransferRequest;
+import com.example.bankingprojectfinal.Exception.AccountLockTimeoutException;
+import com.example.bankingprojectfinal.Exception.AccountNotActiveException;
+import com.example.bankingprojectfinal.Exception.AsyncTransferUnavailableException;
 import com.example.bankingprojectfinal.Exception.CardNotFoundException;
+import com.example.bankingprojectfinal.Exception.ConcurrentUpdateException;
+import com.example.bankingprojectfinal.Exception.LedgerUnavailableException;
 import com.example.bankingprojectfinal.Exception.LimitExceedsException;
 import com.example.bankingprojectfinal.Exception.NotEnoughFundsException;
+import com.example.bankingprojectfinal.Exception.ResourceNotFoundException;
 import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
 import com.example.bankingprojectfinal.Model.Entity.CardEntity;
 import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
 import com.example.bankingprojectfinal.Model.Entity.TransactionEntity;
+import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
 import com.example.bankingprojectfinal.Model.Enums.CardStatus;
 import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
 import com.example.bankingprojectfinal.Model.Enums.TransactionType;
+import com.example.bankingprojectfinal.Model.Enums.UserRole;
 import com.example.bankingprojectfinal.Repository.AccountRepository;
 import com.example.bankingprojectfinal.Repository.CardRepository;
 import com.example.bankingprojectfinal.Repository.TransactionRepository;
 import com.example.bankingprojectfinal.Service.Abstraction.TransactionService;
-import com.example.bankingprojectfinal.Utils.LimitProperties;
+import com.example.bankingprojectfinal.Utils.AsyncTransferPipeline;
+import com.example.bankingprojectfinal.Utils.BalanceUpdateExecutor;
+import com.example.bankingprojectfinal.Utils.GroupCommitExecutor;
+import com.example.bankingprojectfinal.Utils.Money;
 import com.example.bankingprojectfinal.security.model.User;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 @Slf4j
@@ -42,7 +68,19 @@ public class TransactionServiceImpl implements TransactionService {
     TransactionMapper transactionMapper;
     CardRepository cardRepository;
     AccountRepository accountRepository;
-    LimitProperties limitProperties; // Assuming this class defines your limits
+    LimitsEngine limitsEngine;
+    BalanceUpdateExecutor balanceUpdateExecutor;
+    GroupCommitExecutor groupCommitExecutor;
+    IdempotencyService idempotencyService;
+    HotAccountBalances hotAccountBalances;
+    DailyOutgoingTotals dailyOutgoingTotals;
+    CustomerActivityBuckets customerActivityBuckets;
+    FraudDetector fraudDetector;
+    CounterpartyGraph counterpartyGraph;
+    DebitChecks debitChecks;
+    LedgerEngine ledgerEngine;
+    AsyncTransferPipeline asyncTransferPipeline;
+    TransactionTemplate transactionTemplate;
 
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -61,101 +99,657 @@ public class TransactionServiceImpl implements TransactionService {
     }
 
     @Override
-    @Transactional
     public TransactionDto transfer(String debitCardNumber, String creditCardNumber, BigDecimal amount) {
-        CustomerEntity currentCustomer = getCurrentCustomer();
+        return transfer(debitCardNumber, creditCardNumber, amount, null);
+    }
 
-        log.info("Customer ID {} initiating card-to-card transfer from {} to {} for amount {}",
-                currentCustomer.getId(), debitCardNumber, creditCardNumber, amount);
+    @Override
+    public TransactionDto transfer(String debitCardNumber, String creditCardNumber, BigDecimal amount, String idempotencyKey) {
+        return transferForCustomer(getCurrentCustomer().getId(), debitCardNumber, creditCardNumber, amount, idempotencyKey);
+    }
 
-        // --- Input Validations ---
-        if (debitCardNumber == null || debitCardNumber.length() != 16 || !debitCardNumber.matches("\\d+")) {
-            throw new IllegalArgumentException("Invalid debit card number format. Must be 16 digits.");
-        }
-        if (creditCardNumber == null || creditCardNumber.length() != 16 || !creditCardNumber.matches("\\d+")) {
-            throw new IllegalArgumentException("Invalid credit card number format. Must be 16 digits.");
-        }
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Transfer amount must be greater than zero.");
+    @Override
+    public TransactionDto transferForCustomer(Integer customerId, String debitCardNumber, String creditCardNumber,
+                                              BigDecimal amount, String idempotencyKey) {
+        return withIdempotencyKey(customerId, debitCardNumber, creditCardNumber, amount, idempotencyKey,
+                idempotentWrite -> transfer(customerId, debitCardNumber, creditCardNumber, amount, idempotentWrite));
+    }
+
+    @Override
+    public TransactionDto submitTransfer(String debitCardNumber, String creditCardNumber, BigDecimal amount, String idempotencyKey) {
+        Integer customerId = getCurrentCustomer().getId();
+        return withIdempotencyKey(customerId, debitCardNumber, creditCardNumber, amount, idempotencyKey,
+                idempotentWrite -> submitTransfer(customerId, debitCardNumber, creditCardNumber, amount, idempotentWrite));
+    }
+
+    private TransactionDto withIdempotencyKey(Integer customerId, String debitCardNumber, String creditCardNumber,
+                                              BigDecimal amount, String idempotencyKey,
+                                              Function<IdempotentWrite, TransactionDto> transfer) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return transfer.apply(null);
         }
-        if (debitCardNumber.equals(creditCardNumber)) {
-            throw new IllegalArgumentException("Cannot transfer to the same card.");
+        if (idempotencyKey.length() > 255) {
+            throw new IllegalArgumentException("Idempotency-Key must not be longer than 255 characters.");
         }
 
-        // --- Card and Account Retrieval & Validation ---
-        CardEntity debitCard = cardRepository.findByCardNumber(debitCardNumber)
-                .orElseThrow(() -> new CardNotFoundException("Debit card not found with number: " + debitCardNumber));
-        CardEntity creditCard = cardRepository.findByCardNumber(creditCardNumber)
-                .orElseThrow(() -> new CardNotFoundException("Credit card not found with number: " + creditCardNumber));
+        // A replay is answered from the idempotency store before any validation, lookup or locking
+        String requestHash = idempotencyService.hashTransfer(debitCardNumber, creditCardNumber, amount);
+        IdempotentWrite idempotentWrite = response -> idempotencyService.record(customerId, idempotencyKey, requestHash, response);
+        return idempotencyService.execute(customerId, idempotencyKey, requestHash,
+                () -> transfer.apply(idempotentWrite));
+    }
 
-        // Ensure the debit card belongs to the authenticated customer
-        if (!debitCard.getAccount().getCustomer().getId().equals(currentCustomer.getId())) {
-            throw new IllegalStateException("Access Denied: You can only transfer from your own cards.");
+    private TransactionDto transfer(Integer customerId, String debitCardNumber, String creditCardNumber,
+                                    BigDecimal amount, IdempotentWrite idempotentWrite) {
+        log.info("Customer ID {} initiating card-to-card transfer from {} to {} for amount {}",
+                customerId, debitCardNumber, creditCardNumber, amount);
+
+        // --- Input Validations ---
+        validateTransferInput(debitCardNumber, creditCardNumber, amount);
+
+        if (ledgerEngine.isEnabled()) {
+            return transferThroughLedger(customerId, debitCardNumber, creditCardNumber, amount, idempotentWrite, null);
         }
 
-        // Validate card statuses
-        if (!debitCard.getStatus().equals(CardStatus.ACTIVE)) {
-            throw new IllegalArgumentException("Your debit card is not active. Status: " + debitCard.getStatus());
+        if (groupCommitExecutor.isEnabled()) {
+            return groupCommitExecutor.submit("transfer", transferLockIds(debitCardNumber, creditCardNumber),
+                    () -> executeTransfer(customerId, debitCardNumber, creditCardNumber, amount, idempotentWrite));
         }
-        if (!creditCard.getStatus().equals(CardStatus.ACTIVE)) {
-            throw new IllegalArgumentException("Recipient's credit card is not active. Status: " + creditCard.getStatus());
+
+        // Each attempt runs in its own transaction so a version conflict can be retried from a fresh read
+        return balanceUpdateExecutor.execute("transfer",
+                () -> executeTransfer(customerId, debitCardNumber, creditCardNumber, amount, idempotentWrite));
+    }
+
+    // Every check runs before the first entity is modified, which is what lets group commit fail a single
+    // transfer without rolling back the rest of its batch.
+    private TransactionDto executeTransfer(Integer customerId, String debitCardNumber, String creditCardNumber,
+                                           BigDecimal amount, IdempotentWrite idempotentWrite) {
+        // --- Card and Account Retrieval & Validation ---
+        // Lock both accounts before their balances are loaded; a hot credit account is credited on a shard and
+        // needs no lock. In OPTIMISTIC mode nothing is locked and the fetch join below is the only lookup.
+        if (!balanceUpdateExecutor.isOptimistic()) {
+            lockTransferAccounts(debitCardNumber, creditCardNumber);
         }
+        TransferCards cards = findTransferCards(debitCardNumber, creditCardNumber);
+        CardEntity debitCard = cards.debitCard();
+        CardEntity creditCard = cards.creditCard();
+
+        validateTransferCards(customerId, debitCard, creditCard);
 
         // Retrieve associated accounts
         AccountEntity debitAccount = debitCard.getAccount();
         AccountEntity creditAccount = creditCard.getAccount();
 
         // --- Balance and Limit Checks ---
-        // Check for sufficient funds in debit account
-        if (debitAccount.getBalance().compareTo(amount) < 0) {
-            throw new NotEnoughFundsException("Insufficient funds in your account. Current balance: " + debitAccount.getBalance());
-        }
+        Money transferAmount = Money.of(amount);
+        LimitsEngine.Limits limits = limitsEngine.forCustomer(debitAccount.getCustomer());
+        checkDebitBalance(debitAccount, transferAmount, limits);
 
-        // Check minimum balance limit after transfer
-        BigDecimal balanceAfterTransfer = debitAccount.getBalance().subtract(amount);
-        if (balanceAfterTransfer.compareTo(limitProperties.getMinAcceptableAccountBalance()) < 0) {
-            throw new LimitExceedsException(
-                    "Transfer would leave your balance (" + balanceAfterTransfer + ") below the minimum limit (" +
-                            limitProperties.getMinAcceptableAccountBalance() + ")."
-            );
-        }
-
-        // Check daily transaction limit for the *debiting customer*
-        checkDailyTransactionLimit(currentCustomer.getId(), amount);
+        // Check daily transaction limit for the *debiting customer*; the last check, and the amount stays reserved
+        // only if this transaction commits
+        dailyOutgoingTotals.reserve(customerId, transferAmount, limits.dailyTransactionLimit());
 
         // --- Perform Transfer ---
-        debitAccount.setBalance(debitAccount.getBalance().subtract(amount));
-        creditAccount.setBalance(creditAccount.getBalance().add(amount));
+        hotAccountBalances.debit(debitAccount, amount);
+        hotAccountBalances.credit(creditAccount, amount, debitAccount.getId());
 
         // Save updated accounts
         accountRepository.save(debitAccount);
         accountRepository.save(creditAccount);
 
+        // Counted once the balances are updated (and, for the buckets, once the transaction commits)
+        customerActivityBuckets.record(customerId, creditAccount.getCustomer().getId(), transferAmount);
+        fraudDetector.onTransfer(customerId, debitCardNumber, creditAccount.getCustomer().getId(), creditAccount.getId(), transferAmount);
+        counterpartyGraph.record(debitAccount.getId(), creditAccount.getId(), transferAmount);
+
         log.info("Account balances updated: Debit Account {} new balance {}, Credit Account {} new balance {}",
                 debitAccount.getAccountNumber(), debitAccount.getBalance(),
                 creditAccount.getAccountNumber(), creditAccount.getBalance());
 
         // --- Create Transaction Record ---
-        return createTransactionRecord(debitAccount, creditAccount, amount, TransactionType.TRANSFER);
+        TransactionDto result = createTransactionRecord(debitAccount, creditAccount, amount, TransactionType.TRANSFER);
+        if (idempotentWrite != null) {
+            idempotentWrite.record(result); // same transaction as the transfer
+        }
+        return result;
+    }
+
+    @Override
+    public BatchTransferResponse transferBatch(List<TransferRequest> transfers) {
+        CustomerEntity currentCustomer = getCurrentCustomer();
+        Integer customerId = currentCustomer.getId();
+        log.info("Customer ID {} submitting a batch of {} transfers", customerId, transfers.size());
+
+        List<BatchTransferItemResult> results;
+        if (ledgerEngine.isEnabled()) {
+            results = new ArrayList<>(transfers.size());
+            List<FraudDetector.BatchItem> fraudItems = new ArrayList<>();
+            for (int i = 0; i < transfers.size(); i++) {
+                TransferRequest request = transfers.get(i);
+                try {
+                    validateBatchItem(request);
+                    TransactionDto transaction = transferThroughLedger(customerId, request.getDebitCardNumber(),
+                            request.getCreditCardNumber(), request.getAmount(), null, fraudItems);
+                    results.add(successfulBatchItem(i, transaction));
+                } catch (RuntimeException e) {
+                    results.add(failedBatchItem(i, e));
+                }
+            }
+            fraudDetector.onBatch(customerId, fraudItems);
+        } else {
+            results = balanceUpdateExecutor.execute("transfer-batch", () -> executeTransferBatch(customerId, transfers));
+        }
+
+        int succeeded = (int) results.stream().filter(BatchTransferItemResult::isSuccess).count();
+        log.info("Batch for customer ID {} finished: {} succeeded, {} failed", customerId, succeeded, results.size() - succeeded);
+        return BatchTransferResponse.builder()
+                .total(results.size())
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
     }
 
-    private void checkDailyTransactionLimit(Integer customerId, BigDecimal amount) {
-        // Query for today's total outgoing transfers from accounts owned by this customer
-        BigDecimal dailyTotal = transactionRepository.getTodayTotalTransferAmountByDebitAccountCustomer(customerId, LocalDate.now());
+    // All accounts locked up front (the lock manager sorts them) before one card query loads them for the whole batch,
+    // the daily limit reserved item by item in memory, and every transaction row written by a single batched saveAll.
+    // Transfers are applied in request order against the running balances, so a later item sees the effect of the
+    // earlier ones.
+    private List<BatchTransferItemResult> executeTransferBatch(Integer customerId, List<TransferRequest> transfers) {
+        Set<String> debitCardNumbers = new HashSet<>();
+        Set<String> cardNumbers = new HashSet<>();
+        for (TransferRequest request : transfers) {
+            if (request == null) {
+                continue; // Fails on its own below
+            }
+            if (request.getDebitCardNumber() != null) {
+                debitCardNumbers.add(request.getDebitCardNumber());
+                cardNumbers.add(request.getDebitCardNumber());
+            }
+            if (request.getCreditCardNumber() != null) {
+                cardNumbers.add(request.getCreditCardNumber());
+            }
+        }
+        // Locked by id before any balance is loaded; hot accounts that are only credited in this batch are credited
+        // on shards and are not locked. In OPTIMISTIC mode nothing is locked and the fetch join is the only lookup.
+        if (!balanceUpdateExecutor.isOptimistic()) {
+            Set<Integer> lockedAccountIds = new HashSet<>();
+            for (Object[] row : cardRepository.findAccountLockInfoByCardNumberIn(cardNumbers)) {
+                if (debitCardNumbers.contains((String) row[0]) || !Boolean.TRUE.equals(row[2])) {
+                    lockedAccountIds.add((Integer) row[1]);
+                }
+            }
+            balanceUpdateExecutor.guard(lockedAccountIds.toArray(Integer[]::new));
+        }
+        Map<String, CardEntity> cards = new HashMap<>();
+        for (CardEntity card : cardRepository.findAllWithAccountByCardNumberIn(cardNumbers)) {
+            cards.put(card.getCardNumber(), card);
+        }
+
+        List<BatchTransferItemResult> results = new ArrayList<>(transfers.size());
+        List<TransactionEntity> records = new ArrayList<>();
+        List<FraudDetector.BatchItem> fraudItems = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequest request = transfers.get(i);
+            String debitCardNumber;
+            String creditCardNumber;
+            BigDecimal amount;
+            AccountEntity debitAccount;
+            AccountEntity creditAccount;
+            Money transferAmount;
+            try {
+                validateBatchItem(request);
+                debitCardNumber = request.getDebitCardNumber();
+                creditCardNumber = request.getCreditCardNumber();
+                amount = request.getAmount();
+                CardEntity debitCard = cards.get(debitCardNumber);
+                if (debitCard == null) {
+                    throw new CardNotFoundException("Debit card not found with number: " + debitCardNumber);
+                }
+                CardEntity creditCard = cards.get(creditCardNumber);
+                if (creditCard == null) {
+                    throw new CardNotFoundException("Credit card not found with number: " + creditCardNumber);
+                }
+                validateTransferCards(customerId, debitCard, creditCard);
+
+                debitAccount = debitCard.getAccount();
+                creditAccount = creditCard.getAccount();
+                transferAmount = Money.of(amount);
+                LimitsEngine.Limits limits = limitsEngine.forCustomer(debitAccount.getCustomer());
+                checkDebitBalance(debitAccount, transferAmount, limits);
+                // The last check; the amount stays reserved only if the batch commits
+                dailyOutgoingTotals.reserve(customerId, transferAmount, limits.dailyTransactionLimit());
+            } catch (RuntimeException e) {
+                results.add(failedBatchItem(i, e));
+                continue;
+            }
+
+            // Not caught per item: once an entity is modified, a failure rolls back the whole batch
+            hotAccountBalances.debit(debitAccount, amount);
+            hotAccountBalances.credit(creditAccount, amount, debitAccount.getId());
+            customerActivityBuckets.record(customerId, creditAccount.getCustomer().getId(), transferAmount);
+            fraudItems.add(new FraudDetector.BatchItem(debitCardNumber, creditAccount.getCustomer().getId(),
+                    creditAccount.getId(), transferAmount));
+            counterpartyGraph.record(debitAccount.getId(), creditAccount.getId(), transferAmount);
 
-        // Initialize dailyTotal if it's null (no previous transactions today)
-        if (dailyTotal == null) {
-            dailyTotal = BigDecimal.ZERO;
+            TransactionEntity record = transactionMapper.buildTransactionEntity(
+                    debitAccount, creditAccount, amount, TransactionType.TRANSFER);
+            record.setStatus(TransactionStatus.COMPLETED);
+            records.add(record);
+            results.add(BatchTransferItemResult.builder().index(i).success(true).build());
         }
 
-        if (dailyTotal.add(amount).compareTo(limitProperties.getDailyTransactionLimit()) > 0) {
+        transactionRepository.saveAll(records);
+        fraudDetector.onBatch(customerId, fraudItems); // The whole batch is one event for the velocity checks
+
+        int recordIndex = 0;
+        for (BatchTransferItemResult result : results) {
+            if (result.isSuccess()) {
+                result.setTransaction(transactionMapper.mapToTransactionDto(records.get(recordIndex++)));
+                result.setMessage("Transfer completed");
+            }
+        }
+        return results;
+    }
+
+    private BatchTransferItemResult successfulBatchItem(int index, TransactionDto transaction) {
+        return BatchTransferItemResult.builder()
+                .index(index)
+                .success(true)
+                .message("Transfer completed")
+                .transaction(transaction)
+                .build();
+    }
+
+    private BatchTransferItemResult failedBatchItem(int index, RuntimeException e) {
+        return BatchTransferItemResult.builder()
+                .index(index)
+                .success(false)
+                .message(e.getMessage())
+                .build();
+    }
+
+    // Card lookups and limit checks run in a short transaction; the balance checks and the mutation itself are
+    // sequenced by the ledger engine, which is awaited without holding a database connection. Items of a batch are
+    // added to batchFraudItems and reported to the fraud detector together. The idempotency record is written by the
+    // ledger in the same batch transaction as the transfer.
+    private TransactionDto transferThroughLedger(Integer customerId, String debitCardNumber, String creditCardNumber,
+                                                 BigDecimal amount, IdempotentWrite idempotentWrite,
+                                                 List<FraudDetector.BatchItem> batchFraudItems) {
+        TransferAccounts accounts = transactionTemplate.execute(status -> {
+            TransferCards cards = findTransferCards(debitCardNumber, creditCardNumber);
+            validateTransferCards(customerId, cards.debitCard(), cards.creditCard());
+            dailyOutgoingTotals.reserve(customerId, Money.of(amount),
+                    limitsEngine.forCustomer(cards.debitCard().getAccount().getCustomer()).dailyTransactionLimit());
+            return new TransferAccounts(cards.debitCard().getAccount(), cards.creditCard().getAccount());
+        });
+        AccountEntity debitAccount = accounts.debitAccount();
+        AccountEntity creditAccount = accounts.creditAccount();
+        Money minAcceptableBalance = limitsEngine.forCustomer(debitAccount.getCustomer()).minAcceptableAccountBalance();
+
+        LedgerEngine.LedgerResult result;
+        try {
+            result = ledgerEngine.transfer(
+                    debitAccount.getId(), debitAccount.getAccountNumber(), debitCardNumber,
+                    creditAccount.getId(), creditAccount.getAccountNumber(), creditCardNumber,
+                    amount, minAcceptableBalance.plus(debitChecks.heldAmount(debitAccount)).toBigDecimal(),
+                    idempotentWrite != null ? idempotentWrite::record : null);
+        } catch (LedgerUnavailableException e) {
+            throw e; // The transfer may still be applied; its reservation stays until the next reconciliation
+        } catch (RuntimeException e) {
+            dailyOutgoingTotals.release(customerId, Money.of(amount));
+            throw e;
+        }
+        customerActivityBuckets.record(customerId, creditAccount.getCustomer().getId(), Money.of(amount));
+        if (batchFraudItems != null) {
+            batchFraudItems.add(new FraudDetector.BatchItem(debitCardNumber, creditAccount.getCustomer().getId(),
+                    creditAccount.getId(), Money.of(amount)));
+        } else {
+            fraudDetector.onTransfer(customerId, debitCardNumber, creditAccount.getCustomer().getId(), creditAccount.getId(), Money.of(amount));
+        }
+        counterpartyGraph.record(debitAccount.getId(), creditAccount.getId(), Money.of(amount));
+        log.info("Ledger sequenced transfer {}: Debit Account {} new balance {}, Credit Account {} new balance {}",
+                result.transaction().getTransactionId(),
+                debitAccount.getAccountNumber(), result.debitBalance(),
+                creditAccount.getAccountNumber(), result.creditBalance());
+        return result.transaction();
+    }
+
+    // ==================== ASYNCHRONOUS TRANSFERS ====================
+
+    // Only the checks that need no account lock run on the request thread; the PENDING row (and its idempotency
+    // record) is committed before it is queued, so an accepted transfer survives a restart and is picked up by the sweep.
+    private TransactionDto submitTransfer(Integer customerId, String debitCardNumber, String creditCardNumber,
+                                          BigDecimal amount, IdempotentWrite idempotentWrite) {
+        log.info("Customer ID {} submitting asynchronous transfer from {} to {} for amount {}",
+                customerId, debitCardNumber, creditCardNumber, amount);
+
+        validateTransferInput(debitCardNumber, creditCardNumber, amount);
+        if (!asyncTransferPipeline.hasCapacity()) {
+            throw new AsyncTransferUnavailableException("Too many transfers in progress. Please retry.");
+        }
+
+        TransactionDto pending = transactionTemplate.execute(status -> {
+            TransferCards cards = findTransferCards(debitCardNumber, creditCardNumber);
+            CardEntity debitCard = cards.debitCard();
+            CardEntity creditCard = cards.creditCard();
+            validateTransferCards(customerId, debitCard, creditCard);
+
+            // Unlocked pre-checks for early feedback; the worker repeats them under the account lock
+            Money transferAmount = Money.of(amount);
+            LimitsEngine.Limits limits = limitsEngine.forCustomer(debitCard.getAccount().getCustomer());
+            checkDebitBalance(debitCard.getAccount(), transferAmount, limits);
+            dailyOutgoingTotals.check(customerId, transferAmount, limits.dailyTransactionLimit());
+
+            TransactionEntity transactionEntity = transactionMapper.buildTransactionEntity(
+                    debitCard.getAccount(), creditCard.getAccount(), amount, TransactionType.TRANSFER);
+            transactionEntity.setDebitCardNumber(debitCardNumber);
+            transactionEntity.setCreditCardNumber(creditCardNumber);
+            transactionRepository.save(transactionEntity);
+
+            TransactionDto result = transactionMapper.mapToTransactionDto(transactionEntity);
+            if (idempotentWrite != null) {
+                idempotentWrite.record(result); // same transaction as the PENDING row
+            }
+            return result;
+        });
+
+        UUID transactionId = UUID.fromString(pending.getTransactionId());
+        if (!asyncTransferPipeline.submit(transactionId, () -> completeAsyncTransfer(transactionId))) {
+            log.warn("Async transfer queue is full; transaction {} stays PENDING until the next sweep", transactionId);
+        }
+        log.info("Transaction ID {} accepted for asynchronous processing", transactionId);
+        return pending;
+    }
+
+    // Runs on a pipeline worker. Rejections (funds, limits, account status) end the transfer as FAILED; contention
+    // and infrastructure errors propagate and leave it PENDING for the next sweep.
+    private TransactionDto completeAsyncTransfer(UUID transactionId) {
+        try {
+            if (ledgerEngine.isEnabled()) {
+                return completeAsyncTransferThroughLedger(transactionId);
+            }
+            return balanceUpdateExecutor.execute("async-transfer", () -> executePendingTransfer(transactionId));
+        } catch (AccountLockTimeoutException | ConcurrentUpdateException | LedgerUnavailableException
+                 | DataAccessException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.info("Async transfer {} rejected: {}", transactionId, e.getMessage());
+            return balanceUpdateExecutor.execute("async-transfer-failure", () -> markTransferFailed(transactionId, e.getMessage()));
+        }
+    }
+
+    private TransactionDto executePendingTransfer(UUID transactionId) {
+        TransactionEntity transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + transactionId));
+        if (transaction.getStatus() != TransactionStatus.PENDING) {
+            return transactionMapper.mapToTransactionDto(transaction); // Already settled elsewhere
+        }
+        AccountEntity debitAccount = transaction.getDebitAccount();
+        AccountEntity creditAccount = transaction.getCreditAccount();
+
+        balanceUpdateExecutor.guard(debitAccount.getId(), hotAccountBalances.creditLockId(creditAccount.getId()));
+        LocalDate today = LocalDate.now();
+        if (transactionRepository.claimPending(transactionId, TransactionStatus.COMPLETED, today) == 0) {
+            // Settled by another worker or node between the read above and the claim
+            return transactionRepository.findById(transactionId).map(transactionMapper::mapToTransactionDto).orElseThrow();
+        }
+
+        if (debitAccount.getStatus() != AccountStatus.ACTIVE) {
+            throw new AccountNotActiveException("Account is not active: " + debitAccount.getAccountNumber());
+        }
+        if (creditAccount.getStatus() != AccountStatus.ACTIVE) {
+            throw new AccountNotActiveException("Account is not active: " + creditAccount.getAccountNumber());
+        }
+        debitChecks.checkNotBlocked(debitAccount); // The customer may have been blocked since the transfer was accepted
+        Money transferAmount = Money.of(transaction.getAmount());
+        LimitsEngine.Limits limits = limitsEngine.forCustomer(debitAccount.getCustomer());
+        checkDebitBalance(debitAccount, transferAmount, limits);
+        dailyOutgoingTotals.reserve(debitAccount.getCustomer().getId(), transferAmount, limits.dailyTransactionLimit());
+        customerActivityBuckets.record(debitAccount.getCustomer().getId(), creditAccount.getCustomer().getId(), transferAmount);
+        fraudDetector.onTransfer(debitAccount.getCustomer().getId(), transaction.getDebitCardNumber(),
+                creditAccount.getCustomer().getId(), creditAccount.getId(), transferAmount);
+        counterpartyGraph.record(debitAccount.getId(), creditAccount.getId(), transferAmount);
+
+        hotAccountBalances.debit(debitAccount, transaction.getAmount());
+        hotAccountBalances.credit(creditAccount, transaction.getAmount(), debitAccount.getId());
+
+        // Keep the managed entity in line with the claim so the returned DTO shows the final state
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setTransactionDate(today);
+        log.info("Transaction ID {} completed asynchronously: Debit Account {} new balance {}, Credit Account {} new balance {}",
+                transactionId, debitAccount.getAccountNumber(), debitAccount.getBalance(),
+                creditAccount.getAccountNumber(), creditAccount.getBalance());
+        return transactionMapper.mapToTransactionDto(transaction);
+    }
+
+    private TransactionDto completeAsyncTransferThroughLedger(UUID transactionId) {
+        TransactionEntity transaction = transactionTemplate.execute(status -> {
+            TransactionEntity pending = transactionRepository.findById(transactionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + transactionId));
+            if (pending.getStatus() != TransactionStatus.PENDING) {
+                return pending;
+            }
+            AccountEntity debitAccount = pending.getDebitAccount();
+            AccountEntity creditAccount = pending.getCreditAccount();
+            if (debitAccount.getStatus() != AccountStatus.ACTIVE) {
+                throw new AccountNotActiveException("Account is not active: " + debitAccount.getAccountNumber());
+            }
+            if (creditAccount.getStatus() != AccountStatus.ACTIVE) {
+                throw new AccountNotActiveException("Account is not active: " + creditAccount.getAccountNumber());
+            }
+            debitChecks.checkNotBlocked(debitAccount);
+            dailyOutgoingTotals.reserve(debitAccount.getCustomer().getId(), Money.of(pending.getAmount()),
+                    limitsEngine.forCustomer(debitAccount.getCustomer()).dailyTransactionLimit());
+            return pending;
+        });
+        if (transaction.getStatus() == TransactionStatus.PENDING) {
+            AccountEntity debitAccount = transaction.getDebitAccount();
+            AccountEntity creditAccount = transaction.getCreditAccount();
+            try {
+                ledgerEngine.settle(transactionId,
+                        debitAccount.getId(), debitAccount.getAccountNumber(),
+                        creditAccount.getId(), creditAccount.getAccountNumber(),
+                        transaction.getAmount(), debitChecks.heldAmount(debitAccount).toBigDecimal(),
+                        transaction.getTransactionType());
+            } catch (LedgerUnavailableException e) {
+                throw e; // The settlement may still be applied; its reservation stays until the next reconciliation
+            } catch (RuntimeException e) {
+                dailyOutgoingTotals.release(debitAccount.getCustomer().getId(), Money.of(transaction.getAmount()));
+                throw e;
+            }
+            customerActivityBuckets.record(debitAccount.getCustomer().getId(), creditAccount.getCustomer().getId(),
+                    Money.of(transaction.getAmount()));
+            fraudDetector.onTransfer(debitAccount.getCustomer().getId(), transaction.getDebitCardNumber(),
+                    creditAccount.getCustomer().getId(), creditAccount.getId(), Money.of(transaction.getAmount()));
+            counterpartyGraph.record(debitAccount.getId(), creditAccount.getId(), Money.of(transaction.getAmount()));
+        }
+        return transactionTemplate.execute(status -> transactionRepository.findById(transactionId)
+                .map(transactionMapper::mapToTransactionDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + transactionId)));
+    }
+
+    // A row the nightly settlement completed in the meantime keeps its status
+    private TransactionDto markTransferFailed(UUID transactionId, String reason) {
+        transactionRepository.failPending(transactionId, reason);
+        return transactionRepository.findById(transactionId)
+                .map(transactionMapper::mapToTransactionDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + transactionId));
+    }
+
+    // Hands PENDING transfers that no worker holds back to the pipeline: rows accepted before a restart and rows
+    // that found the queue full. Anything left over is still settled by TransactionSchedule at midnight. Subscribers
+    // of transfers that were finished elsewhere (by the nightly settlement or on another node) are answered here.
+    @Scheduled(fixedDelayString = "${banking.async-transfer.sweep-interval-ms:30000}")
+    public void resubmitPendingTransfers() {
+        List<UUID> pendingIds = transactionRepository.findIdsByStatusAndTransactionType(
+                TransactionStatus.PENDING, TransactionType.TRANSFER);
+        int resubmitted = 0;
+        for (UUID transactionId : pendingIds) {
+            if (asyncTransferPipeline.isInFlight(transactionId)) {
+                continue;
+            }
+            if (!asyncTransferPipeline.submit(transactionId, () -> completeAsyncTransfer(transactionId))) {
+                break; // Queue full; the rest waits for the next sweep
+            }
+            resubmitted++;
+        }
+        if (resubmitted > 0) {
+            log.info("Resubmitted {} pending asynchronous transfers", resubmitted);
+        }
+
+        Set<UUID> stillPending = new HashSet<>(pendingIds);
+        for (UUID transactionId : asyncTransferPipeline.awaitedIds()) {
+            if (stillPending.contains(transactionId)) {
+                continue;
+            }
+            Optional<TransactionDto> finished = transactionTemplate.execute(status ->
+                    transactionRepository.findById(transactionId).map(transactionMapper::mapToTransactionDto));
+            if (finished != null && finished.isPresent()) {
+                asyncTransferPipeline.complete(transactionId, finished.get());
+            } else {
+                asyncTransferPipeline.fail(transactionId,
+                        new ResourceNotFoundException("Transaction not found: " + transactionId));
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionDto getTransactionById(UUID transactionId) {
+        return findVisibleTransaction(transactionId);
+    }
+
+    @Override
+    public CompletableFuture<TransactionDto> awaitCompletion(UUID transactionId) {
+        TransactionDto current = transactionTemplate.execute(status -> findVisibleTransaction(transactionId));
+        if (current.getStatus() != TransactionStatus.PENDING) {
+            return CompletableFuture.completedFuture(current);
+        }
+        CompletableFuture<TransactionDto> completion = asyncTransferPipeline.completion(transactionId);
+        // Read again after registering, so a transfer that finished in between is not missed
+        TransactionDto latest = transactionTemplate.execute(status -> findVisibleTransaction(transactionId));
+        if (latest.getStatus() != TransactionStatus.PENDING) {
+            asyncTransferPipeline.complete(transactionId, latest);
+        }
+        return completion;
+    }
+
+    // Customers see transactions on either side of their own accounts; admins see every transaction
+    private TransactionDto findVisibleTransaction(UUID transactionId) {
+        TransactionEntity transaction = transactionRepository.findById(transactionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Transaction not found: " + transactionId));
+        User user = getCurrentUser();
+        if (user.getUserRole() != UserRole.ADMIN) {
+            Integer customerId = getCurrentCustomer().getId();
+            if (!transaction.getDebitAccount().getCustomer().getId().equals(customerId)
+                    && !transaction.getCreditAccount().getCustomer().getId().equals(customerId)) {
+                throw new IllegalStateException("Access Denied: You can only view your own transactions.");
+            }
+        }
+        return transactionMapper.mapToTransactionDto(transaction);
+    }
+
+    // The checks @Valid makes on a single transfer request, for one item of a batch
+    private void validateBatchItem(TransferRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Transfer cannot be empty.");
+        }
+        validateTransferInput(request.getDebitCardNumber(), request.getCreditCardNumber(), request.getAmount());
+    }
+
+    private void validateTransferInput(String debitCardNumber, String creditCardNumber, BigDecimal amount) {
+        if (debitCardNumber == null || debitCardNumber.length() != 16 || !debitCardNumber.matches("\\d+")) {
+            throw new IllegalArgumentException("Invalid debit card number format. Must be 16 digits.");
+        }
+        if (creditCardNumber == null || creditCardNumber.length() != 16 || !creditCardNumber.matches("\\d+")) {
+            throw new IllegalArgumentException("Invalid credit card number format. Must be 16 digits.");
+        }
+        if (amount == null || !Money.of(amount).isPositive()) {
+            throw new IllegalArgumentException("Transfer amount must be greater than zero.");
+        }
+        if (debitCardNumber.equals(creditCardNumber)) {
+            throw new IllegalArgumentException("Cannot transfer to the same card.");
+        }
+    }
+
+    private void checkDebitBalance(AccountEntity debitAccount, Money amount, LimitsEngine.Limits limits) {
+        // Check for sufficient funds in debit account; funds reserved by authorization holds are not spendable
+        Money balance = debitChecks.spendableBalance(debitAccount);
+        if (balance.isLessThan(amount)) {
+            throw new NotEnoughFundsException("Insufficient funds in your account. Available balance: " + balance);
+        }
+
+        // Check minimum balance limit after transfer
+        Money balanceAfterTransfer = balance.minus(amount);
+        if (balanceAfterTransfer.isLessThan(limits.minAcceptableAccountBalance())) {
             throw new LimitExceedsException(
-                    "Daily transfer limit of " + limitProperties.getDailyTransactionLimit() +
-                            " exceeded. Today's transfers: " + dailyTotal + ", requested: " + amount
+                    "Transfer would leave your balance (" + balanceAfterTransfer + ") below the minimum limit (" +
+                            limits.minAcceptableAccountBalance() + ")."
             );
         }
     }
 
+    // Both cards with their accounts and the accounts' owners in one query, so validation triggers no lazy loads
+    private TransferCards findTransferCards(String debitCardNumber, String creditCardNumber) {
+        CardEntity debitCard = null;
+        CardEntity creditCard = null;
+        for (CardEntity card : cardRepository.findAllWithAccountByCardNumberIn(List.of(debitCardNumber, creditCardNumber))) {
+            if (card.getCardNumber().equals(debitCardNumber)) {
+                debitCard = card;
+            }
+            if (card.getCardNumber().equals(creditCardNumber)) {
+                creditCard = card;
+            }
+        }
+        if (debitCard == null) {
+            throw new CardNotFoundException("Debit card not found with number: " + debitCardNumber);
+        }
+        if (creditCard == null) {
+            throw new CardNotFoundException("Credit card not found with number: " + creditCardNumber);
+        }
+        return new TransferCards(debitCard, creditCard);
+    }
+
+    private void lockTransferAccounts(String debitCardNumber, String creditCardNumber) {
+        balanceUpdateExecutor.guard(transferLockIds(debitCardNumber, creditCardNumber));
+    }
+
+    // One scalar query for both account ids and the credit account's hot flag; unknown cards are skipped here
+    // and reported by findTransferCards
+    private Integer[] transferLockIds(String debitCardNumber, String creditCardNumber) {
+        if (balanceUpdateExecutor.isOptimistic()) {
+            return new Integer[0];
+        }
+        Integer debitAccountId = null;
+        Integer creditLockId = null;
+        for (Object[] row : cardRepository.findAccountLockInfoByCardNumberIn(List.of(debitCardNumber, creditCardNumber))) {
+            if (row[0].equals(debitCardNumber)) {
+                debitAccountId = (Integer) row[1];
+            }
+            if (row[0].equals(creditCardNumber) && !Boolean.TRUE.equals(row[2])) {
+                creditLockId = (Integer) row[1];
+            }
+        }
+        return new Integer[]{debitAccountId, creditLockId};
+    }
+
+    private void validateTransferCards(Integer customerId, CardEntity debitCard, CardEntity creditCard) {
+        // Ensure the debit card belongs to the authenticated customer
+        if (!debitCard.getAccount().getCustomer().getId().equals(customerId)) {
+            throw new IllegalStateException("Access Denied: You can only transfer from your own cards.");
+        }
+        debitChecks.checkNotBlocked(debitCard.getAccount());
+
+        // Validate card statuses
+        if (!debitCard.getStatus().equals(CardStatus.ACTIVE)) {
+            throw new IllegalArgumentException("Your debit card is not active. Status: " + debitCard.getStatus());
+        }
+        if (!creditCard.getStatus().equals(CardStatus.ACTIVE)) {
+            throw new IllegalArgumentException("Recipient's credit card is not active. Status: " + creditCard.getStatus());
+        }
+    }
+
     private TransactionDto createTransactionRecord(
             AccountEntity debitAccount,
             AccountEntity creditAccount,
@@ -213,4 +807,16 @@ public class TransactionServiceImpl implements TransactionService {
         List<TransactionDto> transactionDtoList = transactionMapper.mapToTransactionDtoList(transactionEntities.getContent());
         return new PageImpl<>(transactionDtoList, pageable, transactionEntities.getTotalElements());
     }
-}
\ No newline at end of file
+
+    // Stores the idempotency record for a transfer; called inside the transfer's own transaction
+    @FunctionalInterface
+    private interface IdempotentWrite {
+        void record(TransactionDto response);
+    }
+
+    private record TransferAccounts(AccountEntity debitAccount, AccountEntity creditAccount) {
+    }
+
+    private record TransferCards(CardEntity debitCard, CardEntity creditCard) {
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.Exception.AccountLockTimeoutException;
+import com.example.bankingprojectfinal.config.ConcurrencyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM striped locks keyed by account id.
+ * <p>
+ * Every balance mutation locks the stripes of all accounts it touches before reading their balances.
+ * Stripes are always acquired in ascending index order, so two transfers between the same pair of
+ * accounts (in either direction) can never deadlock. Locks are held until the surrounding database
+ * transaction completes; releasing them earlier would let the next writer read a balance that has
+ * not been committed yet.
+ */
+@Component
+@Slf4j
+public class AccountLockManager {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long waitTimeoutNanos;
+
+    private final Counter acquiredCounter;
+    private final Counter contendedCounter;
+    private final Counter timeoutCounter;
+    private final Timer waitTimer;
+
+    public AccountLockManager(ConcurrencyProperties concurrencyProperties, MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(1, concurrencyProperties.getLockStripes() - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.waitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(concurrencyProperties.getLockWaitTimeoutMs());
+
+        this.acquiredCounter = meterRegistry.counter("banking.account.locks.acquired");
+        this.contendedCounter = meterRegistry.counter("banking.account.locks.contended");
+        this.timeoutCounter = meterRegistry.counter("banking.account.locks.timeouts");
+        this.waitTimer = meterRegistry.timer("banking.account.locks.wait");
+        Gauge.builder("banking.account.locks.queued", this, AccountLockManager::queuedThreads)
+                .description("Threads currently waiting for an account lock stripe")
+                .register(meterRegistry);
+        log.info("Account lock manager initialised with {} stripes and {} ms wait timeout",
+                size, concurrencyProperties.getLockWaitTimeoutMs());
+    }
+
+    /**
+     * Locks the given accounts until the current transaction commits or rolls back.
+     * Null ids (accounts that are not persisted yet) are ignored.
+     */
+    public void lockForCurrentTransaction(Integer... accountIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Account locks can only be acquired inside a transaction");
+        }
+        List<ReentrantLock> acquired = acquire(accountIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(acquired);
+            }
+        });
+    }
+
+    private List<ReentrantLock> acquire(Integer... accountIds) {
+        int[] indexes = stripeIndexes(accountIds);
+        List<ReentrantLock> acquired = new ArrayList<>(indexes.length);
+        long start = System.nanoTime();
+        long deadline = start + waitTimeoutNanos;
+        try {
+            for (int index : indexes) {
+                ReentrantLock lock = stripes[index];
+                if (!lock.tryLock()) {
+                    contendedCounter.increment();
+                    if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        timeoutCounter.increment();
+                        release(acquired);
+                        throw new AccountLockTimeoutException(
+                                "Timed out waiting for account lock. Please retry the operation.");
+                    }
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(acquired);
+            throw new AccountLockTimeoutException("Interrupted while waiting for account lock.");
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        acquiredCounter.increment(acquired.size());
+        return acquired;
+    }
+
+    private void release(List<ReentrantLock> acquired) {
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            acquired.get(i).unlock();
+        }
+        acquired.clear();
+    }
+
+    // Distinct stripe indexes in ascending order; this ordering is what keeps the lock manager deadlock-free.
+    private int[] stripeIndexes(Integer... accountIds) {
+        return Arrays.stream(accountIds)
+                .filter(id -> id != null)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private int stripeOf(int accountId) {
+        int h = accountId * 0x9E3779B9; // spread sequential ids across stripes
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private double queuedThreads() {
+        int queued = 0;
+        for (ReentrantLock stripe : stripes) {
+            queued += stripe.getQueueLength();
+        }
+        return queued;
+    }
+}
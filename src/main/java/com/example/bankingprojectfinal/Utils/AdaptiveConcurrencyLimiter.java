@@ -0,0 +1,122 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of requests in flight with a limit that follows observed latency (a gradient algorithm).
+ * <p>
+ * Each completed request compares its latency with a long-term average. While requests are no slower than
+ * {@code tolerance} times that average the limit grows by about its square root per sample; when they get slower
+ * the limit shrinks in proportion, down to half per sample. Requests that fail with a server error cut the limit
+ * by 10%. New estimates are blended in with {@code smoothing}, so a single slow request barely moves it.
+ * <p>
+ * The limit only grows while at least half of it is in use; an idle endpoint says nothing about how much
+ * concurrency the database can take.
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final ConcurrencyLimitProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    private volatile int limit;
+    // Guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    public AdaptiveConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.estimatedLimit = clamp(properties.getInitialLimit());
+        this.limit = (int) estimatedLimit;
+
+        this.rejectedCounter = meterRegistry.counter("banking.concurrency-limit.rejected");
+        Gauge.builder("banking.concurrency-limit.limit", this, limiter -> limiter.limit).register(meterRegistry);
+        Gauge.builder("banking.concurrency-limit.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #getLimit()} requests are in flight. Every successful call must be paired
+     * with one {@link #release}.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejectedCounter.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot and feeds the request's latency into the limit. {@code dropped} marks a request that failed
+     * on the server side; its latency is not sampled.
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtCompletion, dropped);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * 0.9;
+        } else {
+            updateLongRtt(rttNanos);
+            if (samples <= WARMUP_SAMPLES || inFlightAtCompletion < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRttNanos / Math.max(1, rttNanos)));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        }
+
+        double smoothing = properties.getSmoothing();
+        estimatedLimit = clamp(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+        int rounded = (int) estimatedLimit;
+        if (rounded != limit) {
+            log.debug("Concurrency limit {} -> {} (latency {} us, long-term {} us)",
+                    limit, rounded, rttNanos / 1000, (long) longRttNanos / 1000);
+            limit = rounded;
+        }
+    }
+
+    private void updateLongRtt(long rttNanos) {
+        samples++;
+        if (samples <= WARMUP_SAMPLES) {
+            longRttNanos += (rttNanos - longRttNanos) / samples;
+            return;
+        }
+        double factor = 2.0 / (Math.max(1, properties.getLongWindow()) + 1);
+        longRttNanos += (rttNanos - longRttNanos) * factor;
+        // After a sustained drop in latency the average would hold the limit back for a whole window; pull it down faster
+        if (longRttNanos > 2.0 * rttNanos) {
+            longRttNanos *= 0.95;
+        }
+    }
+
+    private double clamp(double value) {
+        return Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), value));
+    }
+}
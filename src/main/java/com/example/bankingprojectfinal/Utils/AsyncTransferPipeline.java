@@ -0,0 +1,155 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.DTOS.Transaction.TransactionDto;
+import com.example.bankingprojectfinal.config.AsyncTransferProperties;
+import com.example.bankingprojectfinal.config.BulkheadGroup;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded worker pool that completes PENDING transfers off the request thread.
+ * <p>
+ * The queue is bounded and never blocks the caller: when it is full {@link #submit} returns false and the
+ * transaction row simply stays PENDING until the next sweep. Each transaction id is queued at most once per node.
+ * Clients waiting for a transfer register a completion future, which is completed when a worker finishes that id.
+ * A future leaves the registry as soon as it is done, so a client that gives up cancels its future and nothing is
+ * kept for it; transfers finished outside the pipeline are completed by the sweep (see {@link #awaitedIds}).
+ */
+@Component
+@Slf4j
+public class AsyncTransferPipeline {
+    private final ThreadPoolExecutor workers;
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<UUID, Set<CompletableFuture<TransactionDto>>> completions = new ConcurrentHashMap<>();
+
+    private final Counter submittedCounter;
+    private final Counter rejectedCounter;
+    private final Counter completedCounter;
+    private final Counter erroredCounter;
+
+    public AsyncTransferPipeline(AsyncTransferProperties asyncTransferProperties, MeterRegistry meterRegistry) {
+        int threads = Math.max(1, asyncTransferProperties.getWorkers());
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(asyncTransferProperties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(Bulkheads.runAs(BulkheadGroup.CUSTOMER, runnable), "async-transfer-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.submittedCounter = meterRegistry.counter("banking.async-transfer.submitted");
+        this.rejectedCounter = meterRegistry.counter("banking.async-transfer.rejected");
+        this.completedCounter = meterRegistry.counter("banking.async-transfer.completed");
+        this.erroredCounter = meterRegistry.counter("banking.async-transfer.errors");
+        Gauge.builder("banking.async-transfer.queue.depth", workers, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    // Transfers already queued are kept PENDING and resubmitted by the sweep after the next start
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public boolean hasCapacity() {
+        return !workers.isShutdown() && workers.getQueue().remainingCapacity() > 0;
+    }
+
+    public boolean isInFlight(UUID transactionId) {
+        return inFlight.contains(transactionId);
+    }
+
+    /**
+     * Queues {@code work} for the given transaction. Returns false if the queue is full; the caller's row is then
+     * left PENDING for the sweep. Submitting an id that is already queued is a no-op.
+     */
+    public boolean submit(UUID transactionId, Supplier<TransactionDto> work) {
+        if (!inFlight.add(transactionId)) {
+            return true;
+        }
+        try {
+            workers.execute(() -> run(transactionId, work));
+            submittedCounter.increment();
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(transactionId);
+            rejectedCounter.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Future completed with the final state of the transaction once a worker finishes it. Every subscriber gets its
+     * own future; cancelling it (e.g. when the client's stream times out) unregisters it.
+     */
+    public CompletableFuture<TransactionDto> completion(UUID transactionId) {
+        CompletableFuture<TransactionDto> completion = new CompletableFuture<>();
+        completions.compute(transactionId, (id, subscribers) -> {
+            Set<CompletableFuture<TransactionDto>> registered = subscribers != null ? subscribers : new HashSet<>();
+            registered.add(completion);
+            return registered;
+        });
+        completion.whenComplete((result, error) -> unregister(transactionId, completion));
+        return completion;
+    }
+
+    public void complete(UUID transactionId, TransactionDto result) {
+        Set<CompletableFuture<TransactionDto>> subscribers = completions.remove(transactionId);
+        if (subscribers != null) {
+            subscribers.forEach(completion -> completion.complete(result));
+        }
+    }
+
+    public void fail(UUID transactionId, Throwable error) {
+        Set<CompletableFuture<TransactionDto>> subscribers = completions.remove(transactionId);
+        if (subscribers != null) {
+            subscribers.forEach(completion -> completion.completeExceptionally(error));
+        }
+    }
+
+    // Transactions someone is still waiting for
+    public List<UUID> awaitedIds() {
+        return List.copyOf(completions.keySet());
+    }
+
+    private void unregister(UUID transactionId, CompletableFuture<TransactionDto> completion) {
+        completions.computeIfPresent(transactionId, (id, subscribers) -> {
+            subscribers.remove(completion);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private void run(UUID transactionId, Supplier<TransactionDto> work) {
+        try {
+            TransactionDto result = work.get();
+            completedCounter.increment();
+            complete(transactionId, result);
+        } catch (RuntimeException e) {
+            // Left PENDING; the sweep retries it and subscribers keep waiting for that outcome
+            erroredCounter.increment();
+            log.warn("Async transfer {} could not be completed, will be retried: {}", transactionId, e.getMessage());
+        } finally {
+            inFlight.remove(transactionId);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.Exception.ConcurrentUpdateException;
+import com.example.bankingprojectfinal.config.ConcurrencyMode;
+import com.example.bankingprojectfinal.config.ConcurrencyProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a balance mutation in its own transaction under the configured {@link ConcurrencyMode}.
+ * <p>
+ * In OPTIMISTIC mode no account locks are taken; a writer that lost the race on {@code AccountEntity.version}
+ * is rolled back and re-run from scratch after a jittered backoff. In LOCKING mode the same retry loop acts as
+ * a safety net for the rare case where an account was read before its lock was acquired.
+ */
+@Component
+@Slf4j
+public class BalanceUpdateExecutor {
+    private final TransactionTemplate transactionTemplate;
+    private final AccountLockManager accountLockManager;
+    private final ConcurrencyProperties concurrencyProperties;
+    private final MeterRegistry meterRegistry;
+
+    public BalanceUpdateExecutor(PlatformTransactionManager transactionManager,
+                                 AccountLockManager accountLockManager,
+                                 ConcurrencyProperties concurrencyProperties,
+                                 MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountLockManager = accountLockManager;
+        this.concurrencyProperties = concurrencyProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isOptimistic() {
+        return concurrencyProperties.getMode() == ConcurrencyMode.OPTIMISTIC;
+    }
+
+    /**
+     * Must be called inside {@link #execute} before the balances of the given accounts are read.
+     * Takes the account locks in LOCKING mode and is a no-op in OPTIMISTIC mode.
+     */
+    public void guard(Integer... accountIds) {
+        if (!isOptimistic()) {
+            accountLockManager.lockForCurrentTransaction(accountIds);
+        }
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        int maxAttempts = Math.max(1, concurrencyProperties.getMaxAttempts());
+        String mode = concurrencyProperties.getMode().name();
+        for (int attempt = 1; ; attempt++) {
+            meterRegistry.counter("banking.balance.attempts", "operation", operation, "mode", mode).increment();
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("banking.balance.giveups", "operation", operation, "mode", mode).increment();
+                    log.warn("{} gave up after {} attempts because of concurrent account updates", operation, attempt);
+                    throw new ConcurrentUpdateException(
+                            "The account was modified concurrently. Please retry the operation.", e);
+                }
+                meterRegistry.counter("banking.balance.retries", "operation", operation, "mode", mode).increment();
+                log.debug("{} hit a version conflict on attempt {}, retrying", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(concurrencyProperties.getRetryBackoffMaxMs(),
+                concurrencyProperties.getRetryBackoffBaseMs() << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying a concurrent account update.", e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.config.BulkheadGroup;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds how many requests of one group run at once, with a bounded, time-limited wait for a slot.
+ * A request that finds the wait queue full, or that waits longer than {@code maxWaitMs}, is refused.
+ */
+public class Bulkhead {
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    public Bulkhead(BulkheadGroup group, int maxConcurrent, int maxWaiting, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxWaiting = Math.max(0, maxWaiting);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+        this.permits = new Semaphore(this.maxConcurrent);
+
+        String tag = group.name().toLowerCase();
+        this.rejectedCounter = meterRegistry.counter("banking.bulkhead.rejected", "group", tag);
+        Gauge.builder("banking.bulkhead.active", this, Bulkhead::active).tag("group", tag).register(meterRegistry);
+        Gauge.builder("banking.bulkhead.waiting", waiting, AtomicInteger::get).tag("group", tag).register(meterRegistry);
+        // Share of the slots in use; 1.0 means new requests are queueing
+        Gauge.builder("banking.bulkhead.saturation", this, bulkhead -> (double) bulkhead.active() / bulkhead.maxConcurrent)
+                .tag("group", tag).register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot, waiting up to {@code maxWaitMs} for one. Every successful call must be paired with one {@link #exit()}.
+     */
+    public boolean tryEnter() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejectedCounter.increment();
+            return false;
+        }
+        try {
+            if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            rejectedCounter.increment();
+            return false;
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.config.BulkheadGroup;
+import com.example.bankingprojectfinal.config.BulkheadProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Runs ahead of the security chain so that authentication lookups are made from the request's own connection pool
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+@RequiredArgsConstructor
+public class BulkheadFilter extends OncePerRequestFilter {
+    private final Bulkheads bulkheads;
+    private final BulkheadProperties bulkheadProperties;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !Boolean.TRUE.equals(bulkheadProperties.getEnabled());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        BulkheadGroup group = bulkheads.classify(request.getMethod(), request.getServletPath());
+        Bulkhead bulkhead = bulkheads.bulkhead(group);
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(bulkheadProperties.getRetryAfterSeconds()));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Server is busy. Please retry later.");
+            return;
+        }
+
+        bulkheads.bind(group);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            bulkheads.unbind();
+            bulkhead.exit();
+        }
+    }
+}
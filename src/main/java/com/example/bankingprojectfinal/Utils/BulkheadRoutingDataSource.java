@@ -0,0 +1,30 @@
+package com.example.bankingprojectfinal.Utils;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+// Hands out connections from the pool of the bulkhead group the current thread works for. The pool is chosen
+// when a connection is acquired, i.e. when a transaction or the request's EntityManager first touches the database.
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private final Bulkheads bulkheads;
+
+    public BulkheadRoutingDataSource(Bulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return bulkheads.currentGroup();
+    }
+
+    // The pools are not beans of their own, so they are closed with this one
+    @Override
+    public void close() throws Exception {
+        for (DataSource pool : getResolvedDataSources().values()) {
+            if (pool instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.config.BulkheadGroup;
+import com.example.bankingprojectfinal.config.BulkheadProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+/**
+ * The admin and customer bulkheads, and the group the current thread is working for. The group decides both the
+ * request's slot and which connection pool its queries use (see {@link BulkheadRoutingDataSource}); threads
+ * that never entered a bulkhead (schedulers, nightly jobs) count as BACKGROUND, so a long settlement run cannot
+ * take the connections of customer requests. Workers that complete customer requests off the request thread
+ * (async transfers, group commit, the ledger writer) run under {@link #runAs}.
+ * <p>
+ * An admin path pattern may start with an HTTP method ({@code GET /api/v1/cards}) to match only that method.
+ */
+@Component
+public class Bulkheads {
+    private static final ThreadLocal<BulkheadGroup> CURRENT_GROUP = new ThreadLocal<>();
+
+    private final BulkheadProperties bulkheadProperties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Bulkhead adminBulkhead;
+    private final Bulkhead customerBulkhead;
+
+    public Bulkheads(BulkheadProperties bulkheadProperties, MeterRegistry meterRegistry) {
+        this.bulkheadProperties = bulkheadProperties;
+        this.adminBulkhead = new Bulkhead(BulkheadGroup.ADMIN, bulkheadProperties.getAdminMaxConcurrent(),
+                bulkheadProperties.getAdminMaxWaiting(), bulkheadProperties.getAdminMaxWaitMs(), meterRegistry);
+        this.customerBulkhead = new Bulkhead(BulkheadGroup.CUSTOMER, bulkheadProperties.getCustomerMaxConcurrent(),
+                bulkheadProperties.getCustomerMaxWaiting(), bulkheadProperties.getCustomerMaxWaitMs(), meterRegistry);
+    }
+
+    public BulkheadGroup classify(String method, String path) {
+        for (String pattern : bulkheadProperties.getAdminPaths()) {
+            String pathPattern = pattern.trim();
+            int space = pathPattern.indexOf(' ');
+            if (space > 0) {
+                if (!pathPattern.substring(0, space).equalsIgnoreCase(method)) {
+                    continue;
+                }
+                pathPattern = pathPattern.substring(space + 1).trim();
+            }
+            if (pathMatcher.match(pathPattern, path)) {
+                return BulkheadGroup.ADMIN;
+            }
+        }
+        return BulkheadGroup.CUSTOMER;
+    }
+
+    public Bulkhead bulkhead(BulkheadGroup group) {
+        return group == BulkheadGroup.ADMIN ? adminBulkhead : customerBulkhead;
+    }
+
+    public BulkheadGroup currentGroup() {
+        BulkheadGroup group = CURRENT_GROUP.get();
+        return group != null ? group : BulkheadGroup.BACKGROUND;
+    }
+
+    // Wraps a worker thread's loop so that everything it runs uses the given group's pool
+    public static Runnable runAs(BulkheadGroup group, Runnable work) {
+        return () -> {
+            CURRENT_GROUP.set(group);
+            try {
+                work.run();
+            } finally {
+                CURRENT_GROUP.remove();
+            }
+        };
+    }
+
+    public void bind(BulkheadGroup group) {
+        CURRENT_GROUP.set(group);
+    }
+
+    public void unbind() {
+        CURRENT_GROUP.remove();
+    }
+}
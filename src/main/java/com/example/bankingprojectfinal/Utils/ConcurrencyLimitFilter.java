@@ -0,0 +1,55 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.config.ConcurrencyLimitProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Sheds load on the money-moving endpoints before it reaches the connection pool: over the adaptive limit a
+// request is answered with 503 and Retry-After straight away instead of queueing for a Tomcat thread or a connection
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter;
+    private final ConcurrencyLimitProperties concurrencyLimitProperties;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !Boolean.TRUE.equals(concurrencyLimitProperties.getEnabled())
+                || !concurrencyLimitProperties.getPaths().contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!adaptiveConcurrencyLimiter.tryAcquire()) {
+            // Written directly rather than through sendError: the error dispatch would go back through security
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(concurrencyLimitProperties.getRetryAfterSeconds()));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Server is busy. Please retry later.");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        } finally {
+            adaptiveConcurrencyLimiter.release(System.nanoTime() - start, dropped);
+        }
+    }
+}
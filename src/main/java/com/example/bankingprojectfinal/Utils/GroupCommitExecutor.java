@@ -0,0 +1,226 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.Exception.GroupCommitUnavailableException;
+import com.example.bankingprojectfinal.config.BulkheadGroup;
+import com.example.bankingprojectfinal.config.GroupCommitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.PersistenceException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Group commit for balance mutations (banking.group-commit.enabled).
+ * <p>
+ * Work submitted from request threads is queued; a committer thread collects everything that arrives within
+ * {@code window-ms} of the first item (up to {@code max-batch-size}) and runs it in one database transaction, so
+ * the commit cost is paid once per batch. The accounts of every item are locked up front in one sorted call, so the
+ * committer never holds one item's stripes while waiting for another's out of order.
+ * <p>
+ * An item rejected by its checks is failed on its own and the rest of the batch continues; work items must
+ * therefore validate before they modify any entity. An item that fails in the database instead (or leaves the
+ * transaction rollback-only) may already have written, and the session may no longer be usable, so the batch is
+ * rolled back there. In that case, and whenever the batch itself cannot commit (a version conflict, a lock timeout),
+ * every item not yet rejected is re-run in its own transaction through {@link BalanceUpdateExecutor}, so one bad row
+ * never fails its neighbours.
+ */
+@Component
+@Slf4j
+public class GroupCommitExecutor {
+    private final TransactionTemplate transactionTemplate;
+    private final BalanceUpdateExecutor balanceUpdateExecutor;
+    private final GroupCommitProperties groupCommitProperties;
+
+    private final ArrayBlockingQueue<PendingWork<?>> queue;
+    private volatile boolean running;
+    private Thread committer;
+
+    private final Counter committedCounter;
+    private final Counter fallbackCounter;
+    private final DistributionSummary batchSizeSummary;
+
+    public GroupCommitExecutor(PlatformTransactionManager transactionManager,
+                               BalanceUpdateExecutor balanceUpdateExecutor,
+                               GroupCommitProperties groupCommitProperties,
+                               MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.balanceUpdateExecutor = balanceUpdateExecutor;
+        this.groupCommitProperties = groupCommitProperties;
+        this.queue = new ArrayBlockingQueue<>(groupCommitProperties.getQueueCapacity());
+
+        this.committedCounter = meterRegistry.counter("banking.group-commit.items.committed");
+        this.fallbackCounter = meterRegistry.counter("banking.group-commit.batches.fallback");
+        this.batchSizeSummary = meterRegistry.summary("banking.group-commit.batch.size");
+        Gauge.builder("banking.group-commit.queue.depth", queue, ArrayBlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(groupCommitProperties.getEnabled());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        committer = new Thread(Bulkheads.runAs(BulkheadGroup.CUSTOMER, this::runCommitter), "group-committer");
+        committer.setDaemon(true);
+        committer.start();
+        log.info("Group commit enabled: window {} ms, max batch {}",
+                groupCommitProperties.getWindowMs(), groupCommitProperties.getMaxBatchSize());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (committer != null) {
+            committer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Runs {@code work} in the next batch and returns its result. {@code lockIds} are the accounts the work locks
+     * (see {@link BalanceUpdateExecutor#guard}); they are locked for the whole batch before any item runs.
+     */
+    public <T> T submit(String operation, Integer[] lockIds, Supplier<T> work) {
+        if (!running) {
+            throw new GroupCommitUnavailableException("Group commit is not running.");
+        }
+        PendingWork<T> pending = new PendingWork<>(operation, lockIds, work);
+        long timeoutMs = groupCommitProperties.getAwaitTimeoutMs();
+        try {
+            if (!queue.offer(pending, timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new GroupCommitUnavailableException("Too many operations in progress. Please retry.");
+            }
+            return pending.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GroupCommitUnavailableException("Interrupted while waiting for commit.");
+        } catch (TimeoutException e) {
+            throw new GroupCommitUnavailableException("Timed out waiting for commit. Check your transactions before retrying.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new GroupCommitUnavailableException("Commit failed: " + e.getCause().getMessage());
+        }
+    }
+
+    private void runCommitter() {
+        List<PendingWork<?>> batch = new ArrayList<>(groupCommitProperties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWork<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(groupCommitProperties.getWindowMs());
+                while (batch.size() < groupCommitProperties.getMaxBatchSize()) {
+                    PendingWork<?> next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commitBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Group committer failed on a batch of {} items", batch.size(), e);
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commitBatch(List<PendingWork<?>> batch) {
+        List<PendingWork<?>> executed = new ArrayList<>(batch.size());
+        RuntimeException failure;
+        try {
+            failure = transactionTemplate.execute(status -> {
+                balanceUpdateExecutor.guard(batch.stream()
+                        .flatMap(pending -> Arrays.stream(pending.lockIds))
+                        .toArray(Integer[]::new));
+                for (PendingWork<?> pending : batch) {
+                    try {
+                        pending.run();
+                        executed.add(pending);
+                    } catch (RuntimeException e) {
+                        if (!(e instanceof DataAccessException || e instanceof PersistenceException || status.isRollbackOnly())) {
+                            // Rejected before it touched any entity: fail this item only
+                            pending.result.completeExceptionally(e);
+                            continue;
+                        }
+                        // It may have written already, or the session is no longer usable: commit nothing
+                        status.setRollbackOnly();
+                        return e;
+                    }
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        if (failure != null) {
+            fallbackCounter.increment();
+            List<PendingWork<?>> remaining = batch.stream().filter(pending -> !pending.result.isDone()).toList();
+            log.warn("Group commit of {} items failed ({}), re-running them individually", remaining.size(), failure.getMessage());
+            remaining.forEach(pending -> runAlone(pending));
+            return;
+        }
+        executed.forEach(PendingWork::complete);
+        committedCounter.increment(executed.size());
+        batchSizeSummary.record(executed.size());
+    }
+
+    private <T> void runAlone(PendingWork<T> pending) {
+        try {
+            pending.result.complete(balanceUpdateExecutor.execute(pending.operation, pending.work));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingWork<T> {
+        final String operation;
+        final Integer[] lockIds;
+        final Supplier<T> work;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        T value;
+
+        PendingWork(String operation, Integer[] lockIds, Supplier<T> work) {
+            this.operation = operation;
+            this.lockIds = lockIds;
+            this.work = work;
+        }
+
+        void run() {
+            value = work.get();
+        }
+
+        void complete() {
+            result.complete(value);
+        }
+    }
+}
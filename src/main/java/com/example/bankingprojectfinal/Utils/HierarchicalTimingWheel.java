@@ -0,0 +1,195 @@
+package com.example.bankingprojectfinal.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: adding and cancelling a timer are O(1), and advancing the clock costs one bucket
+ * visit per tick plus the timers that actually fire or move down a level.
+ * <p>
+ * Level 0 has {@code wheelSize} buckets of {@code tickMs} each; every level above covers {@code wheelSize} times
+ * the span of the one below, and levels are added on demand, so any expiry fits. When the clock reaches a bucket of
+ * an upper level, its timers are re-added and drop to a finer level (or fire). Not a scheduler: the owner calls
+ * {@link #advanceTo} periodically; a timer never fires before its expiry and, when the owner advances the clock
+ * every tick, at most one tick after it. All methods are synchronized.
+ */
+public class HierarchicalTimingWheel<T> {
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Bucket<T>[]> levels = new ArrayList<>();
+    private long currentTime; // start of the current level-0 tick
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Timing wheel needs a positive tick and at least two buckets");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        levels.add(newLevel());
+    }
+
+    /**
+     * Schedules {@code item} to fire at {@code expiresAtMs}. A time that is already due fires on the next
+     * {@link #advanceTo}.
+     */
+    public synchronized Timer<T> schedule(T item, long expiresAtMs) {
+        Timer<T> timer = new Timer<>(item, expiresAtMs);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    // Returns false if the timer had already fired or been cancelled
+    public synchronized boolean cancel(Timer<T> timer) {
+        if (timer.bucket == null) {
+            return false;
+        }
+        timer.unlink();
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the clock forward to {@code nowMs} and returns the items of every timer whose expiry is at or before
+     * {@code nowMs}.
+     */
+    public synchronized List<T> advanceTo(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        // Timers due within the current tick, including those scheduled for a time that had already passed
+        List<Timer<T>> pending = new ArrayList<>(currentBucket().drain());
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+            // Every timer of an earlier tick is due by now
+            for (Timer<T> timer : pending) {
+                expired.add(timer.item);
+            }
+            // Coarsest level first, so timers cascading down land in a finer bucket that is processed in this same tick
+            for (int level = levels.size() - 1; level >= 1; level--) {
+                long levelTick = levelTickMs(level);
+                if (currentTime % levelTick == 0) {
+                    Bucket<T> bucket = levels.get(level)[(int) ((currentTime / levelTick) % wheelSize)];
+                    for (Timer<T> timer : bucket.drain()) {
+                        place(timer);
+                    }
+                }
+            }
+            pending = currentBucket().drain();
+        }
+        // The bucket of the current tick covers up to a tick past nowMs; what is not due yet waits for the next call
+        Bucket<T> current = currentBucket();
+        for (Timer<T> timer : pending) {
+            if (timer.expiresAtMs <= nowMs) {
+                expired.add(timer.item);
+            } else {
+                current.add(timer);
+            }
+        }
+        size -= expired.size();
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // A timer due before the end of the current tick goes into the current level-0 bucket, which the next
+    // advanceTo drains; otherwise it goes into the finest level whose span still covers it.
+    private void place(Timer<T> timer) {
+        if (timer.expiresAtMs < currentTime + tickMs) {
+            currentBucket().add(timer);
+            return;
+        }
+        for (int level = 0; ; level++) {
+            if (level == levels.size()) {
+                levels.add(newLevel());
+            }
+            long levelTick = levelTickMs(level);
+            long levelStart = currentTime - (currentTime % levelTick);
+            if (timer.expiresAtMs < levelStart + levelTick * wheelSize) {
+                levels.get(level)[(int) ((timer.expiresAtMs / levelTick) % wheelSize)].add(timer);
+                return;
+            }
+        }
+    }
+
+    private Bucket<T> currentBucket() {
+        return levels.get(0)[(int) ((currentTime / tickMs) % wheelSize)];
+    }
+
+    private long levelTickMs(int level) {
+        long levelTick = tickMs;
+        for (int i = 0; i < level; i++) {
+            levelTick *= wheelSize;
+        }
+        return levelTick;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Bucket<T>[] newLevel() {
+        Bucket<T>[] buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket<>();
+        }
+        return buckets;
+    }
+
+    public static final class Timer<T> {
+        private final T item;
+        private final long expiresAtMs;
+        private Bucket<T> bucket;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T item, long expiresAtMs) {
+            this.item = item;
+            this.expiresAtMs = expiresAtMs;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        private void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+            bucket = null;
+        }
+    }
+
+    // Intrusive doubly linked list with a sentinel, so a timer can remove itself in O(1)
+    private static final class Bucket<T> {
+        private final Timer<T> head = new Timer<>(null, 0);
+
+        Bucket() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(Timer<T> timer) {
+            timer.bucket = this;
+            timer.prev = head.prev;
+            timer.next = head;
+            head.prev.next = timer;
+            head.prev = timer;
+        }
+
+        List<Timer<T>> drain() {
+            List<Timer<T>> timers = new ArrayList<>();
+            for (Timer<T> timer = head.next; timer != head; ) {
+                Timer<T> next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                timer.bucket = null;
+                timers.add(timer);
+                timer = next;
+            }
+            head.prev = head;
+            head.next = head;
+            return timers;
+        }
+    }
+}
@@ -1,26 +1,37 @@
 package com.example.bankingprojectfinal.Utils;
 
-import lombok.Data;
-import lombok.Value;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+
+// Bank-wide default limits. Segment and customer overrides are stored in limit_rule; look limits up through
+// LimitsEngine, which applies them on top of these values.
 @Component
-@Data
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
 public class LimitProperties {
-    private final Integer maxAccountCountPerCustomer = 3;
-
-    private final Integer maxCardCountPerAccount = 2;
-
-    private final BigDecimal dailyTransactionLimit = BigDecimal.valueOf(1000.00);
+    @Value("${banking.limits.max-account-count-per-customer:3}")
+    Integer maxAccountCountPerCustomer;
 
-    private final BigDecimal minAcceptableAccountBalance = BigDecimal.valueOf(50);
+    @Value("${banking.limits.max-card-count-per-account:2}")
+    Integer maxCardCountPerAccount;
 
-    private final BigDecimal minAcceptableCardBalance = BigDecimal.valueOf(0.00);
-    private final BigDecimal monthlyTransactionSuspectLimit = BigDecimal.valueOf(10000.00);
-    private final BigDecimal monthlyTransactionBlockedLimit = BigDecimal.valueOf(100000.00);
+    @Value("${banking.limits.daily-transaction-limit:1000.00}")
+    BigDecimal dailyTransactionLimit;
 
+    @Value("${banking.limits.min-acceptable-account-balance:50}")
+    BigDecimal minAcceptableAccountBalance;
 
+    @Value("${banking.limits.min-acceptable-card-balance:0.00}")
+    BigDecimal minAcceptableCardBalance;
 
+    @Value("${banking.limits.monthly-transaction-suspect-limit:10000.00}")
+    BigDecimal monthlyTransactionSuspectLimit;
 
+    @Value("${banking.limits.monthly-transaction-blocked-limit:100000.00}")
+    BigDecimal monthlyTransactionBlockedLimit;
 }
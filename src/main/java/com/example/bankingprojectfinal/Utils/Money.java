@@ -0,0 +1,74 @@
+package com.example.bankingprojectfinal.Utils;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount in minor units (cents) of the bank's single currency.
+ * <p>
+ * Balance, minimum-balance and daily-limit checks on the transfer path compare and add these longs instead of
+ * chaining BigDecimal operations, each of which allocates a new object. The conversions are not free:
+ * {@link #of} allocates an intermediate BigDecimal per call, and {@link #toBigDecimal} a new BigDecimal. The saving
+ * is in the arithmetic and comparisons between them; a Money that does not escape may be scalar-replaced by the JIT,
+ * but nothing relies on that (see MoneyBenchmark). BigDecimal is only used at the JPA and DTO boundary.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * Converts a BigDecimal amount. Amounts with more than {@link #SCALE} significant decimal places are rejected
+     * rather than rounded, and so are amounts whose minor units do not fit in a long.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null.");
+        }
+        try {
+            return new Money(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            if (amount.stripTrailingZeros().scale() > SCALE) {
+                throw new IllegalArgumentException(
+                        "Amount " + amount.toPlainString() + " must have at most " + SCALE + " decimal places.");
+            }
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is out of range.");
+        }
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < other.minorUnits;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > other.minorUnits;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
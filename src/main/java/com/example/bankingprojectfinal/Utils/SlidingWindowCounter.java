@@ -0,0 +1,46 @@
+package com.example.bankingprojectfinal.Utils;
+
+/**
+ * Sum of the values added during the last {@code slots * slotMillis} milliseconds, kept in a ring of fixed-size
+ * time slots. A slot is reset lazily when the ring comes round to it again, so memory stays at two longs per slot
+ * however many values are added; the window moves in steps of one slot.
+ * <p>
+ * Not thread-safe; meant to be owned by a single thread.
+ */
+public final class SlidingWindowCounter {
+    private final long slotMillis;
+    private final long[] values;
+    // Absolute slot number (time / slotMillis) each entry of values belongs to
+    private final long[] slotNumbers;
+
+    public SlidingWindowCounter(int slots, long slotMillis) {
+        this.slotMillis = slotMillis;
+        this.values = new long[slots];
+        this.slotNumbers = new long[slots];
+    }
+
+    public void add(long timeMillis, long value) {
+        long slot = timeMillis / slotMillis;
+        int index = (int) (slot % values.length);
+        if (slotNumbers[index] != slot) {
+            if (slotNumbers[index] > slot) {
+                return; // Older than the whole window
+            }
+            slotNumbers[index] = slot;
+            values[index] = 0;
+        }
+        values[index] += value;
+    }
+
+    public long sum(long timeMillis) {
+        long current = timeMillis / slotMillis;
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            long age = current - slotNumbers[i];
+            if (age >= 0 && age < values.length) {
+                sum += values[i];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AccountExpiryProperties {
+    // Accounts expired per bulk UPDATE (and database transaction) by the nightly expiry job
+    @Value("${banking.account-expiry.chunk-size:1000}")
+    Integer chunkSize;
+}
@@ -0,0 +1,28 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AsyncTransferProperties {
+    // Threads completing PENDING transfers submitted with ?async=true
+    @Value("${banking.async-transfer.workers:4}")
+    Integer workers;
+
+    // Transfers waiting for a worker; when full, new async transfers are refused before anything is persisted
+    @Value("${banking.async-transfer.queue-capacity:1000}")
+    Integer queueCapacity;
+
+    // How often PENDING transfers that are not queued (after a restart or a full queue) are handed to the workers again
+    @Value("${banking.async-transfer.sweep-interval-ms:30000}")
+    Long sweepIntervalMs;
+
+    // How long a completion subscription stays open before the client has to fall back to polling
+    @Value("${banking.async-transfer.sse-timeout-ms:30000}")
+    Long sseTimeoutMs;
+}
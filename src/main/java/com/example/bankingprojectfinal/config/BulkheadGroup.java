@@ -0,0 +1,7 @@
+package com.example.bankingprojectfinal.config;
+
+public enum BulkheadGroup {
+    CUSTOMER,       // Everything not matched as admin, plus the workers completing customer requests
+    ADMIN,          // Admin reports and listings: large paginated scans
+    BACKGROUND      // Threads that never entered a bulkhead: schedulers, nightly jobs, detectors
+}
@@ -0,0 +1,56 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkheadProperties {
+    @Value("${banking.bulkhead.enabled:true}")
+    Boolean enabled;
+
+    // Ant-style request path patterns served by the admin bulkhead, optionally preceded by the one HTTP method they
+    // cover: the card listing is admin-only but a POST to the same path creates a customer's card
+    @Value("${banking.bulkhead.admin-paths:/api/v1/*/admin/**,GET /api/v1/cards,/api/v1/cards/active,/api/v1/cards/expired,/api/v1/cards/byAccount/**,/api/v1/cards/byCustomer/**}")
+    List<String> adminPaths;
+
+    // Requests of the group allowed to run at once; each holds a Tomcat thread
+    @Value("${banking.bulkhead.admin.max-concurrent:4}")
+    Integer adminMaxConcurrent;
+
+    // Requests allowed to wait for a slot; beyond that they are refused straight away
+    @Value("${banking.bulkhead.admin.max-waiting:8}")
+    Integer adminMaxWaiting;
+
+    @Value("${banking.bulkhead.admin.max-wait-ms:2000}")
+    Long adminMaxWaitMs;
+
+    // Connections in the admin group's own pool
+    @Value("${banking.bulkhead.admin.pool-size:3}")
+    Integer adminPoolSize;
+
+    @Value("${banking.bulkhead.customer.max-concurrent:150}")
+    Integer customerMaxConcurrent;
+
+    @Value("${banking.bulkhead.customer.max-waiting:100}")
+    Integer customerMaxWaiting;
+
+    @Value("${banking.bulkhead.customer.max-wait-ms:1000}")
+    Long customerMaxWaitMs;
+
+    @Value("${banking.bulkhead.customer.pool-size:10}")
+    Integer customerPoolSize;
+
+    // Connections for threads outside any bulkhead: schedulers, settlement partitions, disbursements, detectors
+    @Value("${banking.bulkhead.background.pool-size:12}")
+    Integer backgroundPoolSize;
+
+    @Value("${banking.bulkhead.retry-after-seconds:1}")
+    Integer retryAfterSeconds;
+}
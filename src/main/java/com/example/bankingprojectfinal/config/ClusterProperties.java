@@ -0,0 +1,33 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ClusterProperties {
+    // When false every node runs every partition of the nightly jobs itself (single node deployments). Only turn it on
+    // when every node uses the same shared database: the leases, the node registry and the cluster-wide daily totals
+    // live there, and with a per-JVM database (the in-memory H2 default) no other node can see them.
+    @Value("${banking.cluster.enabled:false}")
+    Boolean enabled;
+
+    // Partitions each nightly job is split into across the nodes; more partitions than nodes spreads the work evenly
+    @Value("${banking.cluster.partitions:16}")
+    Integer partitions;
+
+    @Value("${banking.cluster.heartbeat-interval-ms:10000}")
+    Long heartbeatIntervalMs;
+
+    // A node that has not sent a heartbeat for this long is considered dead
+    @Value("${banking.cluster.node-timeout-ms:30000}")
+    Long nodeTimeoutMs;
+
+    // A partition lease runs out this long after its last renewal; a dead node's partitions are taken over after that
+    @Value("${banking.cluster.lease-ttl-ms:60000}")
+    Long leaseTtlMs;
+}
@@ -0,0 +1,46 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ConcurrencyLimitProperties {
+    @Value("${banking.concurrency-limit.enabled:true}")
+    Boolean enabled;
+
+    // Request paths (exact match) whose in-flight count is limited
+    @Value("${banking.concurrency-limit.paths:/api/v1/transactions/transfer,/api/v1/transactions/transfer/batch,/api/v1/cards/deposit}")
+    List<String> paths;
+
+    @Value("${banking.concurrency-limit.initial-limit:20}")
+    Integer initialLimit;
+
+    @Value("${banking.concurrency-limit.min-limit:4}")
+    Integer minLimit;
+
+    // Keep below the connection pool size plus what the endpoints can serve without a connection
+    @Value("${banking.concurrency-limit.max-limit:200}")
+    Integer maxLimit;
+
+    // How much slower than the long-term average a request may get before the limit starts shrinking
+    @Value("${banking.concurrency-limit.tolerance:2.0}")
+    Double tolerance;
+
+    // Weight of each new estimate in the limit (0..1); lower values react more slowly but oscillate less
+    @Value("${banking.concurrency-limit.smoothing:0.2}")
+    Double smoothing;
+
+    // Number of samples the long-term latency average spans
+    @Value("${banking.concurrency-limit.long-window:600}")
+    Integer longWindow;
+
+    @Value("${banking.concurrency-limit.retry-after-seconds:1}")
+    Integer retryAfterSeconds;
+}
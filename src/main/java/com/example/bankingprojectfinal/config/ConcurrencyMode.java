@@ -0,0 +1,6 @@
+package com.example.bankingprojectfinal.config;
+
+public enum ConcurrencyMode {
+    LOCKING,        // Striped in-JVM account locks held for the whole transaction
+    OPTIMISTIC      // No locks; conflicting writers are detected by AccountEntity.version and retried
+}
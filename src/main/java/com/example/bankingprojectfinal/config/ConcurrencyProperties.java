@@ -0,0 +1,35 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ConcurrencyProperties {
+    // LOCKING or OPTIMISTIC, see ConcurrencyMode
+    @Value("${banking.concurrency.mode:LOCKING}")
+    ConcurrencyMode mode;
+
+    // Number of lock stripes shared by all accounts (rounded up to a power of two)
+    @Value("${banking.concurrency.lock-stripes:1024}")
+    Integer lockStripes;
+
+    // How long a balance mutation waits for its account locks before giving up
+    @Value("${banking.concurrency.lock-wait-timeout-ms:2000}")
+    Long lockWaitTimeoutMs;
+
+    // Attempts per balance mutation before a version conflict is reported to the caller
+    @Value("${banking.concurrency.max-attempts:5}")
+    Integer maxAttempts;
+
+    // Backoff between attempts: random in [0, min(max, base * 2^(attempt-1))]
+    @Value("${banking.concurrency.retry-backoff-base-ms:5}")
+    Long retryBackoffBaseMs;
+
+    @Value("${banking.concurrency.retry-backoff-max-ms:200}")
+    Long retryBackoffMaxMs;
+}
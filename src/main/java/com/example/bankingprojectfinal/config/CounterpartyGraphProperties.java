@@ -0,0 +1,28 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CounterpartyGraphProperties {
+    // When true committed transfers are added to the in-memory CounterpartyGraph
+    @Value("${banking.counterparty-graph.enabled:true}")
+    Boolean enabled;
+
+    // Edges count as recent, and are kept, for this many days after their last transfer
+    @Value("${banking.counterparty-graph.window-days:7}")
+    Integer windowDays;
+
+    // The weight of an edge halves every this many hours without a transfer
+    @Value("${banking.counterparty-graph.half-life-hours:72}")
+    Double halfLifeHours;
+
+    // How often edges that left the window are dropped
+    @Value("${banking.counterparty-graph.compaction-interval-ms:3600000}")
+    Long compactionIntervalMs;
+}
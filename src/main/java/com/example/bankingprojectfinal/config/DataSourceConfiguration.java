@@ -0,0 +1,49 @@
+package com.example.bankingprojectfinal.config;
+
+import com.example.bankingprojectfinal.Utils.BulkheadRoutingDataSource;
+import com.example.bankingprojectfinal.Utils.Bulkheads;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// One connection pool per bulkhead group, so admin scans and background jobs can exhaust only their own connections.
+// Pool metrics are published as hikaricp.connections.* tagged with pool=customer / pool=admin / pool=background.
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 BulkheadProperties bulkheadProperties,
+                                 Bulkheads bulkheads,
+                                 MeterRegistry meterRegistry) {
+        HikariDataSource customerPool = pool(dataSourceProperties, "customer",
+                bulkheadProperties.getCustomerPoolSize(), meterRegistry);
+        HikariDataSource adminPool = pool(dataSourceProperties, "admin",
+                bulkheadProperties.getAdminPoolSize(), meterRegistry);
+        HikariDataSource backgroundPool = pool(dataSourceProperties, "background",
+                bulkheadProperties.getBackgroundPoolSize(), meterRegistry);
+
+        BulkheadRoutingDataSource dataSource = new BulkheadRoutingDataSource(bulkheads);
+        dataSource.setTargetDataSources(Map.of(
+                BulkheadGroup.CUSTOMER, customerPool,
+                BulkheadGroup.ADMIN, adminPool,
+                BulkheadGroup.BACKGROUND, backgroundPool));
+        dataSource.setDefaultTargetDataSource(customerPool);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    private HikariDataSource pool(DataSourceProperties dataSourceProperties, String name, int size, MeterRegistry meterRegistry) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(Math.max(1, size));
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
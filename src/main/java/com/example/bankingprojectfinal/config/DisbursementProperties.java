@@ -0,0 +1,28 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class DisbursementProperties {
+    // Largest file or JSON list accepted for one job
+    @Value("${banking.disbursement.max-lines:100000}")
+    Integer maxLines;
+
+    // Lines validated, stored and credited per database transaction
+    @Value("${banking.disbursement.chunk-size:500}")
+    Integer chunkSize;
+
+    // Credit chunks applied concurrently, shared by all running jobs
+    @Value("${banking.disbursement.parallelism:4}")
+    Integer parallelism;
+
+    // Jobs processed at the same time; further jobs wait in line
+    @Value("${banking.disbursement.max-concurrent-jobs:2}")
+    Integer maxConcurrentJobs;
+}
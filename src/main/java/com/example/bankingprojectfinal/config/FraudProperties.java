@@ -0,0 +1,55 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class FraudProperties {
+    // When true committed transfers are fed to FraudDetector. Off by default: tune the thresholds against real
+    // traffic first, as an escalation to BLOCKED stops the customer's transfers.
+    @Value("${banking.fraud.enabled:false}")
+    Boolean enabled;
+
+    // Events waiting for the detector; transfers are never slowed down by it, events beyond this are dropped
+    @Value("${banking.fraud.queue-capacity:65536}")
+    Integer queueCapacity;
+
+    // Customers, cards and counterparties tracked at once, each; the least recently active one is forgotten first
+    @Value("${banking.fraud.max-tracked-keys:50000}")
+    Integer maxTrackedKeys;
+
+    // Counterparties a customer paid recently; a payee outside this list counts as new
+    @Value("${banking.fraud.known-payees:32}")
+    Integer knownPayees;
+
+    @Value("${banking.fraud.customer.max-transfers-per-minute:10}")
+    Integer customerMaxTransfersPerMinute;
+
+    // Above the default daily limit, so only customers with a raised limit can reach it
+    @Value("${banking.fraud.customer.max-amount-per-hour:2500.00}")
+    BigDecimal customerMaxAmountPerHour;
+
+    @Value("${banking.fraud.customer.max-new-payees-per-10-minutes:5}")
+    Integer customerMaxNewPayeesPerTenMinutes;
+
+    @Value("${banking.fraud.card.max-transfers-per-minute:6}")
+    Integer cardMaxTransfersPerMinute;
+
+    // Inbound velocity of a receiving account (money mule patterns)
+    @Value("${banking.fraud.counterparty.max-incoming-per-minute:30}")
+    Integer counterpartyMaxIncomingPerMinute;
+
+    @Value("${banking.fraud.counterparty.max-incoming-amount-per-hour:5000.00}")
+    BigDecimal counterpartyMaxIncomingAmountPerHour;
+
+    // A customer is marked SUSPECTED when a threshold is exceeded and BLOCKED when it is exceeded this many times over
+    @Value("${banking.fraud.block-factor:3.0}")
+    Double blockFactor;
+}
@@ -0,0 +1,31 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class GroupCommitProperties {
+    // When true concurrent transfers are collected and committed together by GroupCommitExecutor
+    @Value("${banking.group-commit.enabled:false}")
+    Boolean enabled;
+
+    // How long the committer waits for more work after the first item of a batch arrives
+    @Value("${banking.group-commit.window-ms:5}")
+    Long windowMs;
+
+    // Upper bound on the number of items sharing one database transaction
+    @Value("${banking.group-commit.max-batch-size:64}")
+    Integer maxBatchSize;
+
+    @Value("${banking.group-commit.queue-capacity:4096}")
+    Integer queueCapacity;
+
+    // How long a request thread waits for its batch to commit
+    @Value("${banking.group-commit.await-timeout-ms:5000}")
+    Long awaitTimeoutMs;
+}
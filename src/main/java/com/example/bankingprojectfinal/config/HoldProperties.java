@@ -0,0 +1,31 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HoldProperties {
+    // TTL of an authorization hold when the request does not give one
+    @Value("${banking.holds.default-ttl-seconds:900}")
+    Long defaultTtlSeconds;
+
+    @Value("${banking.holds.max-ttl-seconds:604800}")
+    Long maxTtlSeconds;
+
+    // Resolution of the expiry timing wheel; a hold expires at most one tick after its TTL, never before
+    @Value("${banking.holds.tick-ms:100}")
+    Long tickMs;
+
+    // Buckets per timing wheel level
+    @Value("${banking.holds.wheel-size:512}")
+    Integer wheelSize;
+
+    // Expired holds are marked EXPIRED in the database in batches of this size
+    @Value("${banking.holds.expiry-batch-size:1000}")
+    Integer expiryBatchSize;
+}
@@ -0,0 +1,20 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class HotAccountProperties {
+    // Sub-balances created per hot account; credits are spread across them by hashing the payer
+    @Value("${banking.hot-accounts.shards:16}")
+    Integer shards;
+
+    // How often shard totals are folded into the main balance
+    @Value("${banking.hot-accounts.fold-interval-ms:1000}")
+    Long foldIntervalMs;
+}
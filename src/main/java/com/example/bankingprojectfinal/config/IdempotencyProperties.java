@@ -0,0 +1,24 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class IdempotencyProperties {
+    // How long a stored response can be replayed
+    @Value("${banking.idempotency.ttl-hours:24}")
+    Long ttlHours;
+
+    // Number of recent keys kept in memory in front of the idempotency_record table
+    @Value("${banking.idempotency.cache-size:10000}")
+    Integer cacheSize;
+
+    // How long a retry waits for the original request with the same key that is still running on this node
+    @Value("${banking.idempotency.in-flight-wait-ms:10000}")
+    Long inFlightWaitMs;
+}
@@ -0,0 +1,28 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LedgerProperties {
+    // When true every balance mutation is sequenced through LedgerEngine instead of JPA read-modify-write
+    @Value("${banking.ledger.engine.enabled:false}")
+    Boolean enabled;
+
+    // Capacity of the command ring; submitters are rejected once it is full
+    @Value("${banking.ledger.engine.queue-capacity:8192}")
+    Integer queueCapacity;
+
+    // Maximum number of commands applied and persisted together in one database transaction
+    @Value("${banking.ledger.engine.batch-size:256}")
+    Integer batchSize;
+
+    // How long a request thread waits for its command to be sequenced and persisted
+    @Value("${banking.ledger.engine.await-timeout-ms:5000}")
+    Long awaitTimeoutMs;
+}
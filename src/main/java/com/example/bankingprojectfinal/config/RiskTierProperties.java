@@ -0,0 +1,25 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RiskTierProperties {
+    // When true every customer is moved between REGULAR, SUSPECTED and BLOCKED by 30-day volume once a night
+    @Value("${banking.risk-tiers.enabled:false}")
+    Boolean enabled;
+
+    // Customers read and updated per database transaction
+    @Value("${banking.risk-tiers.chunk-size:10000}")
+    Integer chunkSize;
+
+    // When true a customer this review made SUSPECTED returns to REGULAR once their volume falls back under the
+    // suspicion limit. Customers flagged elsewhere (fraud detector, staff) and BLOCKED ones are never released here.
+    @Value("${banking.risk-tiers.release-suspected:false}")
+    Boolean releaseSuspected;
+}
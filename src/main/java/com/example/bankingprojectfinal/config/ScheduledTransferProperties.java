@@ -0,0 +1,41 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ScheduledTransferProperties {
+    // Worker lanes; executions for one debit account always run on the same lane, one after another
+    @Value("${banking.scheduled-transfers.lanes:8}")
+    Integer lanes;
+
+    // Executions waiting per lane; an execution for a full lane goes back on the timeline for lane-full-backoff-ms
+    @Value("${banking.scheduled-transfers.lane-queue-capacity:10000}")
+    Integer laneQueueCapacity;
+
+    @Value("${banking.scheduled-transfers.lane-full-backoff-ms:200}")
+    Long laneFullBackoffMs;
+
+    // How often due orders are loaded into the in-memory queue, and how far ahead they are loaded
+    @Value("${banking.scheduled-transfers.load-interval-ms:60000}")
+    Long loadIntervalMs;
+
+    @Value("${banking.scheduled-transfers.lookahead-seconds:300}")
+    Long lookaheadSeconds;
+
+    @Value("${banking.scheduled-transfers.load-batch-size:1000}")
+    Integer loadBatchSize;
+
+    // Delay before an execution that hit contention or an infrastructure error is tried again
+    @Value("${banking.scheduled-transfers.retry-delay-ms:60000}")
+    Long retryDelayMs;
+
+    // Attempts of one occurrence before it is recorded as failed and the order moves on to the next one
+    @Value("${banking.scheduled-transfers.max-attempts:5}")
+    Integer maxAttempts;
+}
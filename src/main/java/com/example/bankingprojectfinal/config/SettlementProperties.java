@@ -0,0 +1,27 @@
+package com.example.bankingprojectfinal.config;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class SettlementProperties {
+    // Pending transactions read and settled per database transaction by the nightly settlement job
+    @Value("${banking.settlement.chunk-size:500}")
+    Integer chunkSize;
+
+    // Partitions settled in parallel, one worker thread each; a debit account always falls in the same partition.
+    // Every worker holds a database connection while it settles a chunk, so keep this below banking.bulkhead.background.pool-size.
+    @Value("${banking.settlement.partitions:8}")
+    Integer partitions;
+
+    // Accounts locked by one settlement transaction. A chunk is settled in groups of at most this many accounts, each
+    // committed on its own, so a customer transfer on one of them waits for a small group rather than a whole chunk.
+    // Keep it far below banking.concurrency.lock-stripes, or the partitions keep running into each other's stripes.
+    @Value("${banking.settlement.max-locked-accounts:32}")
+    Integer maxLockedAccounts;
+}
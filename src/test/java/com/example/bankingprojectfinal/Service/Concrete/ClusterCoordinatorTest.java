@@ -0,0 +1,143 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.ClusterNodeEntity;
+import com.example.bankingprojectfinal.Model.Entity.JobLeaseEntity;
+import com.example.bankingprojectfinal.Repository.ClusterNodeRepository;
+import com.example.bankingprojectfinal.Repository.JobLeaseRepository;
+import com.example.bankingprojectfinal.config.ClusterProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The coordinator of the test context is one node; a second one is built by hand on the same database
+@SpringBootTest(properties = {
+        "banking.cluster.enabled=true",
+        "banking.cluster.heartbeat-interval-ms=100"
+})
+class ClusterCoordinatorTest {
+
+    private static final int PARTITIONS = 8;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+    @Autowired
+    private ClusterNodeRepository clusterNodeRepository;
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+    @Autowired
+    private ClusterProperties clusterProperties;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void everyPartitionRunsOncePerRunAcrossTwoNodes() throws Exception {
+        ClusterCoordinator otherNode = otherNode();
+        String job = jobName();
+        Map<Integer, AtomicInteger> runs = new ConcurrentHashMap<>();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Integer>> nodes = new ArrayList<>();
+        for (ClusterCoordinator node : List.of(clusterCoordinator, otherNode)) {
+            nodes.add(CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return node.runPartitioned(job, "run-1", PARTITIONS,
+                        partition -> runs.computeIfAbsent(partition, p -> new AtomicInteger()).incrementAndGet());
+            }));
+        }
+        start.countDown();
+        int ran = 0;
+        for (CompletableFuture<Integer> node : nodes) {
+            ran += node.get(1, TimeUnit.MINUTES);
+        }
+
+        assertThat(ran).isEqualTo(PARTITIONS);
+        assertThat(runs).hasSize(PARTITIONS);
+        assertThat(runs.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+
+        // The same run is not repeated; the next one runs every partition again
+        assertThat(otherNode.runPartitioned(job, "run-1", PARTITIONS, partition -> { })).isZero();
+        assertThat(clusterCoordinator.runPartitioned(job, "run-2", PARTITIONS, partition -> { })).isEqualTo(PARTITIONS);
+    }
+
+    @Test
+    void leaseOfALiveNodeIsLeftToIt() {
+        String job = jobName();
+        String liveNode = "live-" + UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        clusterNodeRepository.save(ClusterNodeEntity.builder()
+                .nodeId(liveNode).hostName("test").startedAt(now).heartbeatAt(now).build());
+        jobLeaseRepository.save(lease(job, 0, liveNode, now.plusMinutes(10)));
+        List<Integer> ran = new ArrayList<>();
+
+        int count = clusterCoordinator.runPartitioned(job, "run-1", 2, ran::add);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(ran).containsExactly(1);
+        clusterNodeRepository.deleteById(liveNode);
+    }
+
+    @Test
+    void expiredLeaseOfADeadNodeIsTakenOver() {
+        String job = jobName();
+        jobLeaseRepository.save(lease(job, 0, "dead-" + UUID.randomUUID(), LocalDateTime.now().minusSeconds(1)));
+        List<Integer> ran = new ArrayList<>();
+
+        int count = clusterCoordinator.runPartitioned(job, "run-1", 2, ran::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(ran).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    void failedPartitionIsReleasedForAnotherNode() {
+        String job = jobName();
+        List<Integer> ran = new ArrayList<>();
+
+        int count = clusterCoordinator.runPartitioned(job, "run-1", 3, partition -> {
+            if (partition == 1) {
+                throw new IllegalStateException("partition failed");
+            }
+            ran.add(partition);
+        });
+        int takenOver = otherNode().runPartitioned(job, "run-1", 3, ran::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(takenOver).isEqualTo(1);
+        assertThat(ran).containsExactlyInAnyOrder(0, 2, 1);
+    }
+
+    private ClusterCoordinator otherNode() {
+        return new ClusterCoordinator(clusterNodeRepository, jobLeaseRepository, clusterProperties, transactionManager);
+    }
+
+    private static String jobName() {
+        return "test-job-" + UUID.randomUUID();
+    }
+
+    private static JobLeaseEntity lease(String job, int partition, String owner, LocalDateTime expiresAt) {
+        return JobLeaseEntity.builder().jobName(job).partitionNo(partition).ownerNodeId(owner).expiresAt(expiresAt).build();
+    }
+
+    private static void await(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
+import com.example.bankingprojectfinal.Model.Entity.TransactionEntity;
+import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionType;
+import com.example.bankingprojectfinal.Repository.AccountRepository;
+import com.example.bankingprojectfinal.Repository.CustomerRepository;
+import com.example.bankingprojectfinal.Repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The nightly settlement and an async worker can both queue a SETTLE for the same PENDING row
+@SpringBootTest(properties = {
+        "banking.cluster.enabled=false",
+        "banking.ledger.engine.enabled=true"
+})
+class LedgerEngineSettleTest {
+
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(100);
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(30);
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void twoSettlesOfOneTransactionDebitItOnce() throws Exception {
+        AccountEntity debit = saveAccount("AZ00LEDG0000000000000001", saveCustomer("4LDG001", "+994504000001"));
+        AccountEntity credit = saveAccount("AZ00LEDG0000000000000002", saveCustomer("4LDG002", "+994504000002"));
+        UUID transactionId = transactionRepository.save(TransactionEntity.builder()
+                .debitAccount(debit)
+                .creditAccount(credit)
+                .amount(AMOUNT)
+                .status(TransactionStatus.PENDING)
+                .transactionType(TransactionType.TRANSFER)
+                .build()).getTransactionId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<LedgerEngine.LedgerResult>> settles = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            settles.add(CompletableFuture.supplyAsync(() -> {
+                await(start);
+                return ledgerEngine.settle(transactionId,
+                        debit.getId(), debit.getAccountNumber(),
+                        credit.getId(), credit.getAccountNumber(),
+                        AMOUNT, BigDecimal.ZERO, TransactionType.TRANSFER);
+            }));
+        }
+        start.countDown();
+
+        int succeeded = 0;
+        int rejected = 0;
+        for (CompletableFuture<LedgerEngine.LedgerResult> settle : settles) {
+            try {
+                settle.get(1, TimeUnit.MINUTES);
+                succeeded++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IllegalStateException.class).hasMessageContaining("no longer pending");
+                rejected++;
+            }
+        }
+
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(rejected).isEqualTo(1);
+        assertThat(transactionRepository.findById(transactionId).orElseThrow().getStatus())
+                .isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(accountRepository.findBalanceById(debit.getId())).hasValueSatisfying(
+                balance -> assertThat(balance).isEqualByComparingTo(BigDecimal.valueOf(70)));
+        assertThat(accountRepository.findBalanceById(credit.getId())).hasValueSatisfying(
+                balance -> assertThat(balance).isEqualByComparingTo(BigDecimal.valueOf(130)));
+    }
+
+    private CustomerEntity saveCustomer(String finCode, String phoneNumber) {
+        return customerRepository.save(CustomerEntity.builder()
+                .firstName("Ledger")
+                .lastName("Settle")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .finCode(finCode)
+                .phoneNumber(phoneNumber)
+                .registrationDate(LocalDate.now())
+                .status(CustomerStatus.REGULAR)
+                .build());
+    }
+
+    private AccountEntity saveAccount(String accountNumber, CustomerEntity customer) {
+        return accountRepository.save(AccountEntity.builder()
+                .accountNumber(accountNumber)
+                .customer(customer)
+                .balance(OPENING_BALANCE)
+                .openingDate(LocalDate.now())
+                .expireDate(LocalDate.now().plusYears(5))
+                .status(AccountStatus.ACTIVE)
+                .hotAccount(false)
+                .build());
+    }
+
+    private static void await(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
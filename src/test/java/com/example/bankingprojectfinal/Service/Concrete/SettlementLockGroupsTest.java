@@ -0,0 +1,70 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Service.Concrete.TransactionSchedule.SettlementKey;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SettlementLockGroupsTest {
+
+    @Test
+    void groupsNeverLockMoreThanTheCap() {
+        List<SettlementKey> chunk = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            chunk.add(key(i, 1000 + i, false));
+        }
+
+        List<List<SettlementKey>> groups = TransactionSchedule.lockGroups(chunk, 8);
+
+        assertThat(groups).hasSize(25);
+        for (List<SettlementKey> group : groups) {
+            assertThat(lockedAccounts(group)).hasSizeLessThanOrEqualTo(8);
+        }
+        assertThat(groups.stream().flatMap(List::stream).toList()).containsExactlyElementsOf(chunk);
+    }
+
+    @Test
+    void repeatedAndHotAccountsDoNotCountTowardsTheCap() {
+        List<SettlementKey> chunk = List.of(
+                key(1, 2, false),
+                key(1, 2, false), // Same pair again
+                key(2, 1, false), // Reverse direction
+                key(1, 3, true),  // Hot credit account, credited on shards
+                key(4, 4, false)); // Own account
+
+        List<List<SettlementKey>> groups = TransactionSchedule.lockGroups(chunk, 3);
+
+        assertThat(groups).hasSize(1);
+        assertThat(lockedAccounts(groups.get(0))).containsExactlyInAnyOrder(1, 2, 4);
+    }
+
+    @Test
+    void aTransactionIsNeverSplit() {
+        List<SettlementKey> chunk = List.of(key(1, 2, false), key(3, 4, false));
+
+        List<List<SettlementKey>> groups = TransactionSchedule.lockGroups(chunk, 1);
+
+        assertThat(groups).containsExactly(List.of(chunk.get(0)), List.of(chunk.get(1)));
+    }
+
+    private static SettlementKey key(int debitAccountId, int creditAccountId, boolean creditHot) {
+        return new SettlementKey(UUID.randomUUID(), debitAccountId, creditAccountId, creditHot);
+    }
+
+    private static Set<Integer> lockedAccounts(List<SettlementKey> group) {
+        Set<Integer> locked = new HashSet<>();
+        for (SettlementKey key : group) {
+            locked.add(key.debitAccountId());
+            if (!key.creditHot()) {
+                locked.add(key.creditAccountId());
+            }
+        }
+        return locked;
+    }
+}
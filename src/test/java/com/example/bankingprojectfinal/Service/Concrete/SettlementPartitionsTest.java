@@ -0,0 +1,143 @@
+package com.example.bankingprojectfinal.Service.Concrete;
+
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
+import com.example.bankingprojectfinal.Model.Entity.TransactionEntity;
+import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionStatus;
+import com.example.bankingprojectfinal.Model.Enums.TransactionType;
+import com.example.bankingprojectfinal.Repository.AccountRepository;
+import com.example.bankingprojectfinal.Repository.CustomerRepository;
+import com.example.bankingprojectfinal.Repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two settlement partitions, chunks larger than a lock group, and two runs of the job started at the same time
+@SpringBootTest(properties = {
+        "banking.cluster.enabled=false",
+        "banking.settlement.partitions=2",
+        "banking.settlement.chunk-size=10",
+        "banking.settlement.max-locked-accounts=4"
+})
+class SettlementPartitionsTest {
+
+    private static final int PAIRS = 24;
+    private static final BigDecimal OPENING_BALANCE = BigDecimal.valueOf(100);
+    private static final BigDecimal AMOUNT = BigDecimal.valueOf(30);
+
+    @Autowired
+    private TransactionSchedule transactionSchedule;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentRunsSettleEveryTransactionExactlyOnce() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<Integer> debitIds = new ArrayList<>();
+        List<Integer> creditIds = new ArrayList<>();
+        List<UUID> transactionIds = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < PAIRS; i++) {
+                CustomerEntity sender = saveCustomer(String.format("2SET%03d", i), String.format("+99450200%04d", i));
+                CustomerEntity recipient = saveCustomer(String.format("3SET%03d", i), String.format("+99450300%04d", i));
+                AccountEntity debit = saveAccount(String.format("AZ00SETL%016d", i), sender);
+                AccountEntity credit = saveAccount(String.format("AZ00SETL%016d", 1000 + i), recipient);
+                debitIds.add(debit.getId());
+                creditIds.add(credit.getId());
+                // Three transfers of 30 out of 100 fit; the fourth one does not
+                for (int n = 0; n < 4; n++) {
+                    transactionIds.add(savePending(debit, credit).getTransactionId());
+                }
+            }
+        });
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (int node = 0; node < 2; node++) {
+            runs.add(CompletableFuture.runAsync(() -> {
+                await(start);
+                transactionSchedule.processPendingTransactions();
+            }));
+        }
+        start.countDown();
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+
+        List<TransactionEntity> transactions = transactionRepository.findAllById(transactionIds);
+        assertThat(transactions).extracting(TransactionEntity::getStatus).doesNotContain(TransactionStatus.PENDING);
+        assertThat(transactions).filteredOn(t -> t.getStatus() == TransactionStatus.COMPLETED).hasSize(PAIRS * 3);
+        assertThat(transactions).filteredOn(t -> t.getStatus() == TransactionStatus.FAILED)
+                .hasSize(PAIRS)
+                .allSatisfy(t -> assertThat(t.getFailureReason()).startsWith("Insufficient funds"));
+
+        for (AccountEntity debit : accountRepository.findAllById(debitIds)) {
+            assertThat(debit.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(10));
+        }
+        for (AccountEntity credit : accountRepository.findAllById(creditIds)) {
+            assertThat(credit.getBalance()).isEqualByComparingTo(BigDecimal.valueOf(190));
+        }
+    }
+
+    private CustomerEntity saveCustomer(String finCode, String phoneNumber) {
+        return customerRepository.save(CustomerEntity.builder()
+                .firstName("Settlement")
+                .lastName("Partition")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .finCode(finCode)
+                .phoneNumber(phoneNumber)
+                .registrationDate(LocalDate.now())
+                .status(CustomerStatus.REGULAR)
+                .build());
+    }
+
+    private AccountEntity saveAccount(String accountNumber, CustomerEntity customer) {
+        return accountRepository.save(AccountEntity.builder()
+                .accountNumber(accountNumber)
+                .customer(customer)
+                .balance(OPENING_BALANCE)
+                .openingDate(LocalDate.now())
+                .expireDate(LocalDate.now().plusYears(5))
+                .status(AccountStatus.ACTIVE)
+                .hotAccount(false)
+                .build());
+    }
+
+    private TransactionEntity savePending(AccountEntity debit, AccountEntity credit) {
+        return transactionRepository.save(TransactionEntity.builder()
+                .debitAccount(debit)
+                .creditAccount(credit)
+                .amount(AMOUNT)
+                .status(TransactionStatus.PENDING)
+                .transactionType(TransactionType.TRANSFER)
+                .build());
+    }
+
+    private static void await(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
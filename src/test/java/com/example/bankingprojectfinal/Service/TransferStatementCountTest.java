@@ -0,0 +1,117 @@
+package com.example.bankingprojectfinal.Service;
+
+import com.example.bankingprojectfinal.Model.Entity.AccountEntity;
+import com.example.bankingprojectfinal.Model.Entity.CardEntity;
+import com.example.bankingprojectfinal.Model.Entity.CustomerEntity;
+import com.example.bankingprojectfinal.Model.Enums.AccountStatus;
+import com.example.bankingprojectfinal.Model.Enums.CardStatus;
+import com.example.bankingprojectfinal.Model.Enums.CustomerStatus;
+import com.example.bankingprojectfinal.Repository.AccountRepository;
+import com.example.bankingprojectfinal.Repository.CardRepository;
+import com.example.bankingprojectfinal.Repository.CustomerRepository;
+import com.example.bankingprojectfinal.Service.Abstraction.TransactionService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs with the default LOCKING concurrency mode and the ledger engine and group commit switched off, on a single
+// node: in a cluster the daily limit check reads the customer's total from the database
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "banking.cluster.enabled=false"
+})
+class TransferStatementCountTest {
+
+    private static final String DEBIT_CARD = "4169000000000001";
+    private static final String CREDIT_CARD = "4169000000000002";
+
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private CardRepository cardRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Integer customerId;
+
+    @BeforeEach
+    void createCards() {
+        customerId = new TransactionTemplate(transactionManager).execute(status -> {
+            if (cardRepository.existsByCardNumber(DEBIT_CARD)) {
+                return cardRepository.findWithAccountByCardNumber(DEBIT_CARD).orElseThrow()
+                        .getAccount().getCustomer().getId();
+            }
+            CustomerEntity sender = saveCustomer("1STMT01", "+994500000001");
+            CustomerEntity recipient = saveCustomer("1STMT02", "+994500000002");
+            saveCard(DEBIT_CARD, saveAccount("AZ00STMT0000000000000001", sender));
+            saveCard(CREDIT_CARD, saveAccount("AZ00STMT0000000000000002", recipient));
+            return sender.getId();
+        });
+    }
+
+    @Test
+    void transferResolvesCardsWithoutLazyLoads() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionService.transferForCustomer(customerId, DEBIT_CARD, CREDIT_CARD, BigDecimal.TEN, null);
+
+        // Lock lookup and card fetch join (the daily total is kept in memory); no proxy is initialised afterwards
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(2);
+        assertThat(statistics.getEntityFetchCount()).isZero();
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(5);
+    }
+
+    private CustomerEntity saveCustomer(String finCode, String phoneNumber) {
+        return customerRepository.save(CustomerEntity.builder()
+                .firstName("Statement")
+                .lastName("Count")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .finCode(finCode)
+                .phoneNumber(phoneNumber)
+                .registrationDate(LocalDate.now())
+                .status(CustomerStatus.REGULAR)
+                .build());
+    }
+
+    private AccountEntity saveAccount(String accountNumber, CustomerEntity customer) {
+        return accountRepository.save(AccountEntity.builder()
+                .accountNumber(accountNumber)
+                .customer(customer)
+                .balance(BigDecimal.valueOf(500))
+                .openingDate(LocalDate.now())
+                .expireDate(LocalDate.now().plusYears(5))
+                .status(AccountStatus.ACTIVE)
+                .hotAccount(false)
+                .build());
+    }
+
+    private void saveCard(String cardNumber, AccountEntity account) {
+        cardRepository.save(CardEntity.builder()
+                .cardNumber(cardNumber)
+                .account(account)
+                .issueDate(LocalDate.now())
+                .expireDate(LocalDate.now().plusYears(5))
+                .status(CardStatus.ACTIVE)
+                .build());
+    }
+}
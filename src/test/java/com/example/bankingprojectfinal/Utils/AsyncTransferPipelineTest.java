@@ -0,0 +1,57 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.DTOS.Transaction.TransactionDto;
+import com.example.bankingprojectfinal.config.AsyncTransferProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncTransferPipelineTest {
+
+    private final AsyncTransferPipeline pipeline = new AsyncTransferPipeline(properties(), new SimpleMeterRegistry());
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void everySubscriberIsCompletedAndForgotten() {
+        UUID transactionId = UUID.randomUUID();
+        CompletableFuture<TransactionDto> first = pipeline.completion(transactionId);
+        CompletableFuture<TransactionDto> second = pipeline.completion(transactionId);
+        TransactionDto result = new TransactionDto();
+
+        pipeline.complete(transactionId, result);
+
+        assertThat(first).isCompletedWithValue(result);
+        assertThat(second).isCompletedWithValue(result);
+        assertThat(pipeline.awaitedIds()).isEmpty();
+    }
+
+    @Test
+    void cancelledSubscriberIsForgotten() {
+        UUID transactionId = UUID.randomUUID();
+        CompletableFuture<TransactionDto> gaveUp = pipeline.completion(transactionId);
+        CompletableFuture<TransactionDto> waiting = pipeline.completion(transactionId);
+
+        gaveUp.cancel(false);
+        assertThat(pipeline.awaitedIds()).containsExactly(transactionId);
+
+        waiting.cancel(false);
+        assertThat(pipeline.awaitedIds()).isEmpty();
+    }
+
+    private static AsyncTransferProperties properties() {
+        AsyncTransferProperties properties = new AsyncTransferProperties();
+        ReflectionTestUtils.setField(properties, "workers", 1);
+        ReflectionTestUtils.setField(properties, "queueCapacity", 4);
+        return properties;
+    }
+}
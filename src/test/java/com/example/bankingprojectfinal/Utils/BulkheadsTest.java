@@ -0,0 +1,57 @@
+package com.example.bankingprojectfinal.Utils;
+
+import com.example.bankingprojectfinal.config.BulkheadGroup;
+import com.example.bankingprojectfinal.config.BulkheadProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadsTest {
+
+    private final Bulkheads bulkheads = new Bulkheads(properties(), new SimpleMeterRegistry());
+
+    @Test
+    void cardListingIsAdminButCardCreationIsCustomer() {
+        assertThat(bulkheads.classify("GET", "/api/v1/cards")).isEqualTo(BulkheadGroup.ADMIN);
+        assertThat(bulkheads.classify("POST", "/api/v1/cards")).isEqualTo(BulkheadGroup.CUSTOMER);
+        assertThat(bulkheads.classify("POST", "/api/v1/cards/my-cards/AZ00")).isEqualTo(BulkheadGroup.CUSTOMER);
+    }
+
+    @Test
+    void patternWithoutMethodMatchesEveryMethod() {
+        assertThat(bulkheads.classify("GET", "/api/v1/customers/admin/all")).isEqualTo(BulkheadGroup.ADMIN);
+        assertThat(bulkheads.classify("PUT", "/api/v1/customers/admin/block/1")).isEqualTo(BulkheadGroup.ADMIN);
+    }
+
+    @Test
+    void unboundThreadsUseTheBackgroundGroup() throws InterruptedException {
+        AtomicReference<BulkheadGroup> background = new AtomicReference<>();
+        AtomicReference<BulkheadGroup> customer = new AtomicReference<>();
+        Thread scheduler = new Thread(() -> background.set(bulkheads.currentGroup()));
+        Thread worker = new Thread(Bulkheads.runAs(BulkheadGroup.CUSTOMER, () -> customer.set(bulkheads.currentGroup())));
+        scheduler.start();
+        worker.start();
+        scheduler.join();
+        worker.join();
+
+        assertThat(background.get()).isEqualTo(BulkheadGroup.BACKGROUND);
+        assertThat(customer.get()).isEqualTo(BulkheadGroup.CUSTOMER);
+    }
+
+    private static BulkheadProperties properties() {
+        BulkheadProperties properties = new BulkheadProperties();
+        ReflectionTestUtils.setField(properties, "adminPaths", List.of("/api/v1/*/admin/**", "GET /api/v1/cards"));
+        ReflectionTestUtils.setField(properties, "adminMaxConcurrent", 4);
+        ReflectionTestUtils.setField(properties, "adminMaxWaiting", 8);
+        ReflectionTestUtils.setField(properties, "adminMaxWaitMs", 2000L);
+        ReflectionTestUtils.setField(properties, "customerMaxConcurrent", 150);
+        ReflectionTestUtils.setField(properties, "customerMaxWaiting", 100);
+        ReflectionTestUtils.setField(properties, "customerMaxWaitMs", 1000L);
+        return properties;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.bankingprojectfinal.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void timerNeverFiresBeforeItsExpiry() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 0);
+        wheel.schedule("hold", 150);
+
+        assertThat(wheel.advanceTo(100)).isEmpty();
+        assertThat(wheel.advanceTo(149)).isEmpty();
+        assertThat(wheel.advanceTo(150)).containsExactly("hold");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void timerScheduledWithinTheCurrentTickWaitsForItsExpiry() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 0);
+        wheel.advanceTo(10);
+        wheel.schedule("hold", 60);
+
+        assertThat(wheel.advanceTo(59)).isEmpty();
+        assertThat(wheel.advanceTo(60)).containsExactly("hold");
+    }
+
+    @Test
+    void overdueTimerFiresOnTheNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 1000);
+        wheel.schedule("hold", 500);
+
+        assertThat(wheel.advanceTo(1000)).containsExactly("hold");
+    }
+
+    @Test
+    void timersOnUpperLevelsFireNoEarlierAndAtMostOneTickLate() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 4, 0);
+        List<Long> expiries = new ArrayList<>();
+        for (long expiry = 5; expiry < 5000; expiry += 37) {
+            expiries.add(expiry);
+            wheel.schedule(expiry, expiry);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 5000; now += 10) {
+            for (Long expiry : wheel.advanceTo(now)) {
+                assertThat(expiry).isLessThanOrEqualTo(now);
+                assertThat(now - expiry).isLessThan(10);
+                fired.add(expiry);
+            }
+        }
+        assertThat(fired).containsExactlyInAnyOrderElementsOf(expiries);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledTimerNeverFires() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 8, 0);
+        HierarchicalTimingWheel.Timer<String> timer = wheel.schedule("hold", 250);
+
+        assertThat(wheel.cancel(timer)).isTrue();
+        assertThat(wheel.advanceTo(1000)).isEmpty();
+        assertThat(wheel.cancel(timer)).isFalse();
+    }
+}
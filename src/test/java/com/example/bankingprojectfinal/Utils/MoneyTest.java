@@ -0,0 +1,90 @@
+package com.example.bankingprojectfinal.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void convertsAmountsWithUpToTwoDecimalPlaces() {
+        assertThat(Money.of(new BigDecimal("12.34")).minorUnits()).isEqualTo(1234);
+        assertThat(Money.of(new BigDecimal("12.3")).minorUnits()).isEqualTo(1230);
+        assertThat(Money.of(new BigDecimal("12")).minorUnits()).isEqualTo(1200);
+        assertThat(Money.of(new BigDecimal("1E+3")).minorUnits()).isEqualTo(100000);
+    }
+
+    @Test
+    void acceptsTrailingZerosBeyondTheScale() {
+        assertThat(Money.of(new BigDecimal("12.3400")).minorUnits()).isEqualTo(1234);
+    }
+
+    @Test
+    void rejectsMoreThanTwoSignificantDecimalPlaces() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("12.345")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most 2 decimal places");
+    }
+
+    @Test
+    void rejectsAmountsThatOverflowALong() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("100000000000000000000")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+    }
+
+    @Test
+    void rejectsNull() {
+        assertThatThrownBy(() -> Money.of(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void keepsNegativeAmounts() {
+        Money negative = Money.of(new BigDecimal("-5.25"));
+
+        assertThat(negative.minorUnits()).isEqualTo(-525);
+        assertThat(negative.isPositive()).isFalse();
+        assertThat(negative.toBigDecimal()).isEqualByComparingTo("-5.25");
+    }
+
+    @Test
+    void addsAndSubtracts() {
+        Money ten = Money.of(new BigDecimal("10.00"));
+        Money threeFifty = Money.of(new BigDecimal("3.50"));
+
+        assertThat(ten.plus(threeFifty)).isEqualTo(Money.ofMinor(1350));
+        assertThat(ten.minus(threeFifty)).isEqualTo(Money.ofMinor(650));
+        assertThat(threeFifty.minus(ten)).isEqualTo(Money.ofMinor(-650));
+    }
+
+    @Test
+    void arithmeticOverflowThrows() {
+        Money max = Money.ofMinor(Long.MAX_VALUE);
+        Money min = Money.ofMinor(Long.MIN_VALUE);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> min.minus(Money.ofMinor(1))).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void comparesByMinorUnits() {
+        Money one = Money.ofMinor(100);
+        Money two = Money.ofMinor(200);
+
+        assertThat(one.isLessThan(two)).isTrue();
+        assertThat(two.isLessThan(one)).isFalse();
+        assertThat(one.isLessThan(Money.ofMinor(100))).isFalse();
+        assertThat(two.isGreaterThan(one)).isTrue();
+        assertThat(Money.ofMinor(-1).isLessThan(Money.ZERO)).isTrue();
+        assertThat(one.compareTo(two)).isNegative();
+    }
+
+    @Test
+    void convertsBackWithTwoDecimalPlaces() {
+        assertThat(Money.ofMinor(1234).toBigDecimal()).isEqualTo(new BigDecimal("12.34"));
+        assertThat(Money.ofMinor(5).toString()).isEqualTo("0.05");
+    }
+}